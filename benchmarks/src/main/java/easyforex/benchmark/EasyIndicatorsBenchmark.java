@@ -0,0 +1,67 @@
+package easyforex.benchmark;
+
+import com.dukascopy.api.Instrument;
+import com.dukascopy.api.JFException;
+import com.dukascopy.api.Period;
+import easyforex.util.EasyIndicators;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Conversions of indicator results to lists and result objects. Indicator
+ * values come from mocks and are cached within a bar, so the benchmarks
+ * measure the conversions, not the calculation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EasyIndicatorsBenchmark {
+
+    @Param({"3", "30", "300"})
+    public int number;
+
+    private EasyIndicators indicators;
+
+    @Setup
+    public void setUp() {
+        double[] values = new double[number];
+        for (int i = 0; i < number; i++) {
+            values[i] = 1.1 + i * 0.0001;
+        }
+        indicators = new EasyIndicators(Mocks.context(values, Collections.emptyList()), Instrument.EURUSD);
+    }
+
+    @Benchmark
+    public List<Double> emaList() throws JFException {
+        return indicators.ema(Period.ONE_HOUR, 14, number);
+    }
+
+    @Benchmark
+    public double[] emaValues() throws JFException {
+        return indicators.emaValues(Period.ONE_HOUR, 14, number);
+    }
+
+    @Benchmark
+    public List<EasyIndicators.MACDResult> macdList() throws JFException {
+        return indicators.macd(Period.ONE_HOUR, 12, 26, 9, number);
+    }
+
+    @Benchmark
+    public EasyIndicators.MACDValues macdValues() throws JFException {
+        return indicators.macdValues(Period.ONE_HOUR, 12, 26, 9, number);
+    }
+
+    @Benchmark
+    public List<EasyIndicators.BBandResult> bbandsList() throws JFException {
+        return indicators.bbands(Period.ONE_HOUR, 20, 2, 2, number);
+    }
+}
@@ -0,0 +1,57 @@
+package easyforex.benchmark;
+
+import easyforex.util.EasyOperations;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Cross detection on lines without cross, the worst case (whole lists are
+ * scanned)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EasyOperationsBenchmark {
+
+    @Param({"3", "30", "300"})
+    public int size;
+
+    private List<Double> fast;
+    private List<Double> slow;
+    private double[] fastValues;
+    private double[] slowValues;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        fast = new ArrayList<>(size);
+        slow = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            double value = 1 + random.nextDouble();
+            fast.add(value);
+            slow.add(value + 1);
+        }
+        fastValues = fast.stream().mapToDouble(Double::doubleValue).toArray();
+        slowValues = slow.stream().mapToDouble(Double::doubleValue).toArray();
+    }
+
+    @Benchmark
+    public Integer valuesCrossed() {
+        return EasyOperations.valuesCrossed(fast, slow);
+    }
+
+    @Benchmark
+    public int valuesCrossedArrays() {
+        return EasyOperations.valuesCrossed(fastValues, slowValues);
+    }
+}
@@ -0,0 +1,145 @@
+package easyforex.benchmark;
+
+import com.dukascopy.api.IBar;
+import com.dukascopy.api.IConsole;
+import com.dukascopy.api.IContext;
+import com.dukascopy.api.IEngine;
+import com.dukascopy.api.IHistory;
+import com.dukascopy.api.IIndicators;
+import com.dukascopy.api.IOrder;
+import com.dukascopy.api.ITick;
+import com.dukascopy.api.Instrument;
+import com.dukascopy.api.Period;
+import easyforex.util.SimpleBar;
+import easyforex.util.SimpleTick;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Mock platform objects for benchmarks. Methods answer with values registered
+ * by name, other methods return null, 0 or false.
+ */
+final class Mocks {
+
+    static final long TIME = 1_500_000_000_000L;
+    static final ITick TICK = new SimpleTick(TIME, 1.10010, 1.10000, 1, 1);
+    static final IBar BAR = new SimpleBar(TIME, 1.1, 1.101, 1.099, 1.1, 100);
+
+    private Mocks() {
+    }
+
+    /**
+     * Creates mock of given interface
+     *
+     * @param <T>
+     * @param type
+     * @param answers method name to answer, receives call arguments
+     * @return
+     */
+    static <T> T mock(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer != null) {
+                return answer.apply(args);
+            }
+            Class<?> returnType = method.getReturnType();
+            if (returnType == boolean.class) {
+                return false;
+            } else if (returnType == int.class) {
+                return 0;
+            } else if (returnType == long.class) {
+                return 0L;
+            } else if (returnType == double.class) {
+                return 0.0;
+            }
+            return null;
+        }));
+    }
+
+    /**
+     * Creates context with history returning {@link #TICK} and {@link #BAR},
+     * indicators returning given values for every single-output indicator and
+     * engine holding given orders
+     *
+     * @param indicatorValues
+     * @param orders
+     * @return
+     */
+    static IContext context(double[] indicatorValues, List<IOrder> orders) {
+        Map<String, Function<Object[], Object>> history = new HashMap<>();
+        history.put("getLastTick", args -> TICK);
+        history.put("getTimeOfLastTick", args -> TIME);
+        history.put("getBar", args -> BAR);
+        history.put("getBarStart", args -> {
+            long interval = ((Period) args[0]).getInterval();
+            long time = (Long) args[1];
+            return time - time % interval;
+        });
+        history.put("getBars", args -> Collections.nCopies((Integer) args[4], BAR));
+
+        Map<String, Function<Object[], Object>> indicators = new HashMap<>();
+        for (String name : new String[]{"adx", "atr", "ema", "sma", "ma", "rsi", "sar", "volume"}) {
+            indicators.put(name, args -> indicatorValues);
+        }
+        indicators.put("macd", args -> new double[][]{indicatorValues, indicatorValues, indicatorValues});
+        indicators.put("bbands", args -> new double[][]{indicatorValues, indicatorValues, indicatorValues});
+
+        Map<String, Function<Object[], Object>> engine = new HashMap<>();
+        engine.put("getOrders", args -> orders);
+
+        PrintStream out = new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+        });
+        Map<String, Function<Object[], Object>> console = new HashMap<>();
+        console.put("getOut", args -> out);
+        console.put("getErr", args -> out);
+        console.put("getInfo", args -> out);
+
+        IHistory historyMock = mock(IHistory.class, history);
+        IIndicators indicatorsMock = mock(IIndicators.class, indicators);
+        IEngine engineMock = mock(IEngine.class, engine);
+        IConsole consoleMock = mock(IConsole.class, console);
+        Set<Instrument> subscribed = EnumSet.of(Instrument.EURUSD);
+
+        Map<String, Function<Object[], Object>> context = new HashMap<>();
+        context.put("getHistory", args -> historyMock);
+        context.put("getIndicators", args -> indicatorsMock);
+        context.put("getEngine", args -> engineMock);
+        context.put("getConsole", args -> consoleMock);
+        context.put("getSubscribedInstruments", args -> subscribed);
+        return mock(IContext.class, context);
+    }
+
+    /**
+     * Creates filled order mocks with labels {@code prefix_<index>}
+     *
+     * @param prefix
+     * @param count
+     * @return
+     */
+    static List<IOrder> orders(String prefix, int count) {
+        List<IOrder> orders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String label = prefix + "_" + i;
+            Map<String, Function<Object[], Object>> answers = new HashMap<>();
+            answers.put("getLabel", args -> label);
+            answers.put("getId", args -> label);
+            answers.put("getInstrument", args -> Instrument.EURUSD);
+            answers.put("getState", args -> IOrder.State.FILLED);
+            answers.put("isLong", args -> true);
+            orders.add(mock(IOrder.class, answers));
+        }
+        return orders;
+    }
+}
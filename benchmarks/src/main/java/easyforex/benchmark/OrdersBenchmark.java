@@ -0,0 +1,86 @@
+package easyforex.benchmark;
+
+import com.dukascopy.api.IContext;
+import com.dukascopy.api.IOrder;
+import com.dukascopy.api.JFException;
+import easyforex.base.AbstractStrategy;
+import easyforex.util.AsyncLogger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Reading strategy orders when engine holds orders of several strategies,
+ * {@code engineFilter} is the filtering of engine orders by label done before
+ * {@code OrderIndex}
+ * <p>
+ * {@code onStart} acquires the console's {@link AsyncLogger}, whose idle
+ * thread runs beside the measured code (nothing is logged), it is released
+ * after each trial so loggers of previous trials don't accumulate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OrdersBenchmark {
+
+    private static final String NAME = "Benchmark";
+
+    /**
+     * Orders of this strategy, engine holds 3 times more orders of other
+     * strategies
+     */
+    @Param({"1", "10", "100"})
+    public int orders;
+
+    private IContext context;
+    private Strategy strategy;
+
+    @Setup
+    public void setUp() throws JFException {
+        List<IOrder> engineOrders = new ArrayList<>();
+        engineOrders.addAll(Mocks.orders("Other", orders * 3));
+        engineOrders.addAll(Mocks.orders(NAME, orders));
+        context = Mocks.context(new double[0], engineOrders);
+        strategy = new Strategy();
+        strategy.onStart(context);
+    }
+
+    @TearDown
+    public void tearDown() {
+        // not onStop, it would close the mocked orders
+        AsyncLogger.release(context.getConsole());
+    }
+
+    @Benchmark
+    public List<IOrder> getOrders() throws JFException {
+        return strategy.orders();
+    }
+
+    @Benchmark
+    public List<IOrder> engineFilter() throws JFException {
+        return context.getEngine().getOrders().stream()
+                .filter(order -> order.getLabel().startsWith(NAME))
+                .collect(Collectors.toList());
+    }
+
+    private static final class Strategy extends AbstractStrategy {
+
+        Strategy() {
+            super(NAME);
+        }
+
+        List<IOrder> orders() throws JFException {
+            return getOrders();
+        }
+    }
+}
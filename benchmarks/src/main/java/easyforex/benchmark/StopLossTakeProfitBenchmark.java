@@ -0,0 +1,41 @@
+package easyforex.benchmark;
+
+import com.dukascopy.api.IEngine;
+import com.dukascopy.api.Instrument;
+import easyforex.util.StopLossTakeProfitUtils;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Price calculations done for every submitted order and stop loss change
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StopLossTakeProfitBenchmark {
+
+    public Instrument instrument = Instrument.EURUSD;
+    public double price = 1.1234567891;
+    public double stopLossPips = 25;
+
+    @Benchmark
+    public double round() {
+        return StopLossTakeProfitUtils.round(instrument, price);
+    }
+
+    @Benchmark
+    public double getStopLossPrice() {
+        return StopLossTakeProfitUtils.getStopLossPrice(IEngine.OrderCommand.BUY, instrument, Mocks.TICK, stopLossPips);
+    }
+
+    @Benchmark
+    public double getRoundedStopLossPrice() {
+        return StopLossTakeProfitUtils.round(instrument,
+                StopLossTakeProfitUtils.getStopLossPrice(IEngine.OrderCommand.SELL, instrument, Mocks.TICK, stopLossPips));
+    }
+}
@@ -0,0 +1,153 @@
+package easyforex.benchmark;
+
+import com.dukascopy.api.IAccount;
+import com.dukascopy.api.IBar;
+import com.dukascopy.api.IContext;
+import com.dukascopy.api.IMessage;
+import com.dukascopy.api.IStrategy;
+import com.dukascopy.api.ITick;
+import com.dukascopy.api.Instrument;
+import com.dukascopy.api.JFException;
+import com.dukascopy.api.Period;
+import easyforex.base.NonTradingStrategy;
+import easyforex.base.RoutableStrategy;
+import easyforex.base.StrategyComposer;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Dispatch of ticks and bars to N children, half of them trade EUR/USD, the
+ * other half GBP/USD. Every invocation waits until all EUR/USD children
+ * processed the event (on worker threads in parallel mode), so the whole
+ * dispatch is measured, not only queueing. Children's results are consumed on
+ * the benchmark thread.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StrategyComposerBenchmark {
+
+    @Param({"1", "8", "32"})
+    public int children;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    private final AtomicInteger processed = new AtomicInteger();
+    private StrategyComposer composer;
+    private Child[] all;
+    private int routed;
+
+    @Setup(Level.Trial)
+    public void setUp() throws JFException {
+        composer = new StrategyComposer() {
+        };
+        composer.setParallelDispatch(parallel);
+        composer.setStopBarrier(false);
+        all = new Child[children];
+        for (int i = 0; i < children; i++) {
+            all[i] = new Child(i % 2 == 0 ? Instrument.EURUSD : Instrument.GBPUSD, processed);
+            composer.addStrategy(all[i]);
+        }
+        routed = (children + 1) / 2;
+        IContext context = Mocks.context(new double[0], Collections.emptyList());
+        composer.onStart(context);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws JFException {
+        composer.onStop();
+    }
+
+    @Benchmark
+    public void onTick(Blackhole blackhole) throws JFException {
+        processed.set(0);
+        composer.onTick(Instrument.EURUSD, Mocks.TICK);
+        await(blackhole);
+    }
+
+    @Benchmark
+    public void onBar(Blackhole blackhole) throws JFException {
+        processed.set(0);
+        composer.onBar(Instrument.EURUSD, Period.ONE_HOUR, Mocks.BAR, Mocks.BAR);
+        await(blackhole);
+    }
+
+    /**
+     * Waits until routed children processed the event and consumes their
+     * results
+     */
+    private void await(Blackhole blackhole) {
+        while (processed.get() < routed) {
+            Thread.yield();
+        }
+        for (Child child : all) {
+            blackhole.consume(child.result);
+        }
+    }
+
+    private static final class Child implements IStrategy, RoutableStrategy, NonTradingStrategy {
+
+        private final Instrument instrument;
+        private final AtomicInteger processed;
+        // written before processed is incremented, read after
+        private double result;
+
+        Child(Instrument instrument, AtomicInteger processed) {
+            this.instrument = instrument;
+            this.processed = processed;
+        }
+
+        @Override
+        public Set<Instrument> getRoutedInstruments() {
+            return EnumSet.of(instrument);
+        }
+
+        @Override
+        public Set<Period> getRoutedPeriods() {
+            return Collections.singleton(Period.ONE_HOUR);
+        }
+
+        @Override
+        public void onStart(IContext context) {
+        }
+
+        @Override
+        public void onTick(Instrument instrument, ITick tick) {
+            result = tick.getBid();
+            processed.incrementAndGet();
+        }
+
+        @Override
+        public void onBar(Instrument instrument, Period period, IBar askBar, IBar bidBar) {
+            result = bidBar.getClose();
+            processed.incrementAndGet();
+        }
+
+        @Override
+        public void onMessage(IMessage message) {
+        }
+
+        @Override
+        public void onAccount(IAccount account) {
+        }
+
+        @Override
+        public void onStop() {
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package easyforex.backtest;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result of a backtest run
+ */
+public final class BacktestReport {
+
+    private final double initialDeposit;
+    private final double finalEquity;
+    private final double maxDrawdown;
+    private final double maxDrawdownPercent;
+    private final List<Double> tradeProfits;
+    private final long ticks;
+    private final long elapsedNanos;
+
+    BacktestReport(double initialDeposit, double finalEquity, double maxDrawdown, double maxDrawdownPercent, List<Double> tradeProfits, long ticks, long elapsedNanos) {
+        this.initialDeposit = initialDeposit;
+        this.finalEquity = finalEquity;
+        this.maxDrawdown = maxDrawdown;
+        this.maxDrawdownPercent = maxDrawdownPercent;
+        this.tradeProfits = Collections.unmodifiableList(tradeProfits);
+        this.ticks = ticks;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public double getInitialDeposit() {
+        return initialDeposit;
+    }
+
+    public double getFinalEquity() {
+        return finalEquity;
+    }
+
+    public double getNetProfit() {
+        return finalEquity - initialDeposit;
+    }
+
+    /**
+     * Returns maximal drop of equity from its peak in account currency
+     *
+     * @return
+     */
+    public double getMaxDrawdown() {
+        return maxDrawdown;
+    }
+
+    /**
+     * Returns maximal drop of equity from its peak in percents of the peak
+     *
+     * @return
+     */
+    public double getMaxDrawdownPercent() {
+        return maxDrawdownPercent;
+    }
+
+    public int getClosedOrders() {
+        return tradeProfits.size();
+    }
+
+    public int getWinningOrders() {
+        return (int) tradeProfits.stream().filter(profit -> profit > 0).count();
+    }
+
+    /**
+     * Returns profits of closed orders in order of closing
+     *
+     * @return
+     */
+    public List<Double> getTradeProfits() {
+        return tradeProfits;
+    }
+
+    /**
+     * Returns Sharpe ratio of closed orders: mean of order returns (profit
+     * relative to initial deposit) divided by their standard deviation, not
+     * annualized. Returns 0 for less than 2 orders.
+     *
+     * @return
+     */
+    public double getSharpeRatio() {
+        int n = tradeProfits.size();
+        if (n < 2) {
+            return 0;
+        }
+        double sum = 0;
+        for (double profit : tradeProfits) {
+            sum += profit / initialDeposit;
+        }
+        double mean = sum / n;
+        double squares = 0;
+        for (double profit : tradeProfits) {
+            double deviation = profit / initialDeposit - mean;
+            squares += deviation * deviation;
+        }
+        double deviation = Math.sqrt(squares / (n - 1));
+        return deviation > 0 ? mean / deviation : 0;
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("net profit: %.2f, max drawdown: %.2f (%.2f%%), sharpe: %.3f, orders: %d, winning: %d, ticks: %d, time: %d ms",
+                getNetProfit(), maxDrawdown, maxDrawdownPercent, getSharpeRatio(), getClosedOrders(), getWinningOrders(), ticks, elapsedNanos / 1_000_000);
+    }
+}
@@ -0,0 +1,177 @@
+package easyforex.backtest;
+
+import com.dukascopy.api.IAccount;
+import com.dukascopy.api.IBar;
+import com.dukascopy.api.IMessage;
+import com.dukascopy.api.IStrategy;
+import com.dukascopy.api.Instrument;
+import com.dukascopy.api.JFException;
+import com.dukascopy.api.Period;
+import easyforex.util.AsyncLogger;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs strategy offline on ticks read from local files, e.g.
+ * <pre>
+ * Backtester backtester = new Backtester(new JustMacd());
+ * try (TickSource ticks = new CsvTickSource(Instrument.EURUSD, Paths.get("EURUSD_Ticks.csv"))) {
+ *     System.out.println(backtester.run(ticks));
+ * }
+ * </pre> Bars of configured periods are built from ticks (see
+ * {@code BarAggregator}, weekends filtered) and sent for instruments
+ * subscribed by strategy. Market orders are filled at last tick without
+ * slippage, stop losses and take profits are triggered by ticks. There are no
+ * commissions and charts. Tick objects are reused, a tick keeps its values
+ * only until the next but one tick of its instrument - copy it (e.g. to
+ * {@code SimpleTick}) to keep it longer.
+ */
+public final class Backtester {
+
+    private final IStrategy strategy;
+    private double initialDeposit = 100_000;
+    private String accountCurrency = "USD";
+    private double leverage = 100;
+    private List<Period> periods = Arrays.asList(Period.ONE_MIN, Period.FIVE_MINS, Period.FIFTEEN_MINS,
+            Period.THIRTY_MINS, Period.ONE_HOUR, Period.FOUR_HOURS, Period.DAILY);
+    private int maxBars = 5000;
+    private PrintStream console = System.out;
+
+    public Backtester(IStrategy strategy) {
+        this.strategy = strategy;
+    }
+
+    public void setInitialDeposit(double initialDeposit) {
+        this.initialDeposit = initialDeposit;
+    }
+
+    /**
+     * @param accountCurrency currency code, e.g. USD
+     */
+    public void setAccountCurrency(String accountCurrency) {
+        this.accountCurrency = accountCurrency;
+    }
+
+    public void setLeverage(double leverage) {
+        this.leverage = leverage;
+    }
+
+    /**
+     * Sets periods of built bars, only periods of fixed length are supported
+     *
+     * @param periods
+     */
+    public void setPeriods(Period... periods) {
+        this.periods = Arrays.asList(periods);
+    }
+
+    /**
+     * Sets number of bars kept in history per instrument, period and side
+     *
+     * @param maxBars
+     */
+    public void setMaxBars(int maxBars) {
+        this.maxBars = maxBars;
+    }
+
+    /**
+     * Sets stream of strategy console, null to discard output
+     *
+     * @param console
+     */
+    public void setConsole(PrintStream console) {
+        this.console = console;
+    }
+
+    /**
+     * Replays all ticks of given source, at the end stops strategy and closes
+     * remaining orders
+     *
+     * @param ticks
+     * @return
+     * @throws JFException
+     * @throws IOException
+     */
+    public BacktestReport run(TickSource ticks) throws JFException, IOException {
+        long started = System.nanoTime();
+        LocalHistory history = new LocalHistory(periods, maxBars);
+        LocalUtils utils = new LocalUtils(history, accountCurrency);
+        LocalAccount localAccount = new LocalAccount(accountCurrency, initialDeposit, leverage);
+        LocalEngine engine = new LocalEngine(history, utils, localAccount, leverage);
+        LocalContext context = new LocalContext(engine, history, new LocalIndicators(history), new LocalConsole(console), localAccount, utils);
+
+        history.addBarListener((instrument, period, askBar, bidBar) -> onBar(context, engine, instrument, period, askBar, bidBar));
+
+        if (console == null) {
+            // output is thrown away, so strategy's logger doesn't format it
+            AsyncLogger.install(context.getConsole(), AsyncLogger.discarding());
+        }
+        long count;
+        try {
+            count = replay(ticks, context, history, engine);
+        } finally {
+            if (console == null) {
+                AsyncLogger.uninstall(context.getConsole());
+            }
+        }
+        return new BacktestReport(initialDeposit, localAccount.getEquity(), engine.getMaxDrawdown(), engine.getMaxDrawdownPercent(),
+                engine.getTradeProfits(), count, System.nanoTime() - started);
+    }
+
+    /**
+     * Starts strategy, replays ticks and stops strategy, returns number of
+     * ticks
+     */
+    private long replay(TickSource ticks, LocalContext context, LocalHistory history, LocalEngine engine) throws JFException, IOException {
+        IAccount account = context.getAccount();
+        strategy.onStart(context);
+        dispatchMessages(engine);
+        long count = 0;
+        // two ticks alternate per instrument, so the previous tick (e.g. kept
+        // as last tick by strategy) is not changed while the next is replayed
+        LocalTick[] replayedTicks = new LocalTick[2 * Instrument.values().length];
+        while (!context.isStopped() && ticks.next()) {
+            Instrument instrument = ticks.getInstrument();
+            int slot = 2 * instrument.ordinal();
+            if (history.getLastTick(instrument) == replayedTicks[slot]) {
+                slot++;
+            }
+            LocalTick tick = replayedTicks[slot];
+            if (tick == null) {
+                tick = replayedTicks[slot] = new LocalTick();
+            }
+            tick.set(ticks);
+            count++;
+            history.onTick(instrument, tick);
+            engine.onTick(instrument, tick);
+            dispatchMessages(engine);
+            if (engine.pollAccountChanged()) {
+                strategy.onAccount(account);
+                dispatchMessages(engine);
+            }
+            if (context.isSubscribed(instrument)) {
+                strategy.onTick(instrument, tick);
+                dispatchMessages(engine);
+            }
+        }
+        strategy.onStop();
+        engine.closeAll();
+        return count;
+    }
+
+    private void onBar(LocalContext context, LocalEngine engine, Instrument instrument, Period period, IBar askBar, IBar bidBar) throws JFException {
+        if (context.isSubscribed(instrument)) {
+            strategy.onBar(instrument, period, askBar, bidBar);
+            dispatchMessages(engine);
+        }
+    }
+
+    private void dispatchMessages(LocalEngine engine) throws JFException {
+        IMessage message;
+        while ((message = engine.pollMessage()) != null) {
+            strategy.onMessage(message);
+        }
+    }
+}
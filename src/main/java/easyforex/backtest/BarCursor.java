@@ -0,0 +1,96 @@
+package easyforex.backtest;
+
+import com.dukascopy.api.IBar;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * Cursor over mapped bar columns. The cursor itself is the current bar, its
+ * values change with every {@code next()}.
+ */
+public final class BarCursor implements IBar {
+
+    private final ColumnarFile header;
+    private final IntBuffer timeDeltas;
+    private final IntBuffer openDeltas;
+    private final IntBuffer highs;
+    private final IntBuffer lows;
+    private final IntBuffer closes;
+    private final FloatBuffer volumes;
+    private final int size;
+    private int index = -1;
+    private long time;
+    private long open;
+
+    BarCursor(ColumnarFile header, IntBuffer timeDeltas, IntBuffer openDeltas, IntBuffer highs, IntBuffer lows, IntBuffer closes, FloatBuffer volumes) {
+        this.header = header;
+        this.timeDeltas = timeDeltas;
+        this.openDeltas = openDeltas;
+        this.highs = highs;
+        this.lows = lows;
+        this.closes = closes;
+        this.volumes = volumes;
+        this.size = (int) header.count;
+        this.time = header.baseTime;
+        this.open = header.basePrice;
+    }
+
+    /**
+     * Moves to next bar
+     *
+     * @return false if there are no more bars
+     */
+    public boolean next() {
+        if (index + 1 >= size) {
+            return false;
+        }
+        index++;
+        time += timeDeltas.get(index) * header.timeUnit;
+        open += openDeltas.get(index);
+        return true;
+    }
+
+    /**
+     * Returns index of current bar, -1 before the first one
+     *
+     * @return
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    @Override
+    public long getTime() {
+        return time;
+    }
+
+    @Override
+    public double getOpen() {
+        return header.toPrice(open);
+    }
+
+    @Override
+    public double getHigh() {
+        return header.toPrice(open + highs.get(index));
+    }
+
+    @Override
+    public double getLow() {
+        return header.toPrice(open - lows.get(index));
+    }
+
+    @Override
+    public double getClose() {
+        return header.toPrice(open + closes.get(index));
+    }
+
+    @Override
+    public double getVolume() {
+        return volumes.get(index);
+    }
+
+    @Override
+    public String toString() {
+        return "BarCursor{" + index + ", " + time + ", O: " + getOpen() + ", C: " + getClose() + ", H: " + getHigh() + ", L: " + getLow() + '}';
+    }
+}
@@ -0,0 +1,95 @@
+package easyforex.backtest;
+
+import com.dukascopy.api.Instrument;
+import com.dukascopy.api.OfferSide;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Memory-mapped columnar bar file written by {@link BarFileWriter}, read
+ * through {@link BarCursor}s, e.g. to fill a {@code BarSeries} or to warm up
+ * incremental indicators.
+ */
+public final class BarFile implements Closeable {
+
+    private final FileChannel channel;
+    private final ColumnarFile header;
+    private final ByteBuffer[] columns;
+
+    private BarFile(FileChannel channel) throws IOException {
+        this.channel = channel;
+        this.header = ColumnarFile.read(channel);
+        if (header.kind != ColumnarFile.BARS) {
+            throw new IOException("Not a bar file");
+        }
+        this.columns = new ByteBuffer[ColumnarFile.BAR_COLUMNS];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = header.map(channel, i);
+        }
+    }
+
+    public static BarFile open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new BarFile(channel);
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    public Instrument getInstrument() {
+        return header.instrument;
+    }
+
+    /**
+     * Returns interval of bars period in ms
+     *
+     * @return
+     */
+    public long getPeriodInterval() {
+        return header.periodInterval;
+    }
+
+    public OfferSide getOfferSide() {
+        return header.side;
+    }
+
+    /**
+     * Returns number of bars
+     *
+     * @return
+     */
+    public long size() {
+        return header.count;
+    }
+
+    /**
+     * Returns new cursor placed before the first bar
+     *
+     * @return
+     */
+    public BarCursor cursor() {
+        return new BarCursor(header,
+                columns[0].duplicate().asIntBuffer(),
+                columns[1].duplicate().asIntBuffer(),
+                columns[2].duplicate().asIntBuffer(),
+                columns[3].duplicate().asIntBuffer(),
+                columns[4].duplicate().asIntBuffer(),
+                columns[5].duplicate().asFloatBuffer());
+    }
+
+    /**
+     * Closes the file, mapped columns stay valid until garbage collected
+     *
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
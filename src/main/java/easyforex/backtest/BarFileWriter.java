@@ -0,0 +1,79 @@
+package easyforex.backtest;
+
+import com.dukascopy.api.IBar;
+import com.dukascopy.api.Instrument;
+import com.dukascopy.api.OfferSide;
+import com.dukascopy.api.Period;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Writes bars of one instrument, period and side to columnar file (see
+ * {@link BarFile}). Bars must be ordered by time, bar times are stored in
+ * seconds.
+ */
+public final class BarFileWriter implements Closeable {
+
+    private static final long TIME_UNIT = 1000;
+
+    private final Instrument instrument;
+    private final Period period;
+    private final OfferSide side;
+    private final ColumnarWriter writer;
+    private final double priceFactor;
+    private ColumnarFile header;
+    private long count;
+    private long lastTime;
+    private int lastOpen;
+
+    public BarFileWriter(Path file, Instrument instrument, Period period, OfferSide side) throws IOException {
+        this.instrument = instrument;
+        this.period = period;
+        this.side = side;
+        this.writer = new ColumnarWriter(file, ColumnarFile.BAR_COLUMNS);
+        this.priceFactor = ColumnarFile.priceFactor(instrument);
+    }
+
+    public void append(IBar bar) throws IOException {
+        append(bar.getTime(), bar.getOpen(), bar.getHigh(), bar.getLow(), bar.getClose(), bar.getVolume());
+    }
+
+    public void append(long time, double open, double high, double low, double close, double volume) throws IOException {
+        if (time % TIME_UNIT != 0) {
+            throw new IOException("Bar time " + time + " is not in whole seconds");
+        }
+        int openTicks = ColumnarFile.toTicks(open, priceFactor);
+        if (header == null) {
+            header = new ColumnarFile(ColumnarFile.BARS, instrument, period.getInterval(), side, TIME_UNIT, time, openTicks);
+            lastTime = time;
+            lastOpen = openTicks;
+        }
+        long timeDelta = (time - lastTime) / TIME_UNIT;
+        if (timeDelta < 0 || timeDelta > Integer.MAX_VALUE) {
+            throw new IOException("Bar at " + time + " is not ordered by time");
+        }
+        writer.writeInt(0, (int) timeDelta);
+        writer.writeInt(1, openTicks - lastOpen);
+        writer.writeInt(2, ColumnarFile.toTicks(high, priceFactor) - openTicks);
+        writer.writeInt(3, openTicks - ColumnarFile.toTicks(low, priceFactor));
+        writer.writeInt(4, ColumnarFile.toTicks(close, priceFactor) - openTicks);
+        writer.writeFloat(5, volume);
+        lastTime = time;
+        lastOpen = openTicks;
+        count++;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (header == null) {
+            header = new ColumnarFile(ColumnarFile.BARS, instrument, period.getInterval(), side, TIME_UNIT, 0, 0);
+        }
+        header.count = count;
+        writer.finish(header);
+    }
+}
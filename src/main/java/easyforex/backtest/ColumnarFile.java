@@ -0,0 +1,139 @@
+package easyforex.backtest;
+
+import com.dukascopy.api.Instrument;
+import com.dukascopy.api.OfferSide;
+import easyforex.util.PriceRounding;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+
+/**
+ * Layout of columnar tick and bar files. A file is a header followed by
+ * columns, every column holds one 4 byte value (int or float) per record:
+ * <pre>
+ * ticks: time delta, bid delta, spread (ask - bid), ask volume, bid volume
+ * bars:  time delta, open delta, high - open, open - low, close - open, volume
+ * </pre> Times are stored as deltas from previous record in header's time
+ * unit, prices as integers in instrument's tick size (pip / 10), deltas of
+ * the first record are relative to header's base values. Every column is
+ * mapped separately, so a column (not the file) is limited to 2 GB.
+ */
+final class ColumnarFile {
+
+    static final int MAGIC = 0x45464346;
+    static final short VERSION = 1;
+    static final byte TICKS = 0;
+    static final byte BARS = 1;
+    static final int TICK_COLUMNS = 5;
+    static final int BAR_COLUMNS = 6;
+    static final int VALUE_SIZE = 4;
+
+    final byte kind;
+    final Instrument instrument;
+    final long periodInterval;
+    final OfferSide side;
+    final long timeUnit;
+    final double priceFactor;
+    final long baseTime;
+    final int basePrice;
+    long count;
+    int headerSize;
+
+    ColumnarFile(byte kind, Instrument instrument, long periodInterval, OfferSide side, long timeUnit, long baseTime, int basePrice) {
+        this.kind = kind;
+        this.instrument = instrument;
+        this.periodInterval = periodInterval;
+        this.side = side;
+        this.timeUnit = timeUnit;
+        this.priceFactor = priceFactor(instrument);
+        this.baseTime = baseTime;
+        this.basePrice = basePrice;
+    }
+
+    int getColumns() {
+        return kind == TICKS ? TICK_COLUMNS : BAR_COLUMNS;
+    }
+
+    /**
+     * Returns number of price ticks (pip / 10) in 1.0
+     */
+    static double priceFactor(Instrument instrument) {
+        return Math.pow(10, PriceRounding.getDecimalPlaces(instrument));
+    }
+
+    /**
+     * Converts price to integer number of ticks
+     */
+    int toTicks(double price) {
+        return toTicks(price, priceFactor);
+    }
+
+    static int toTicks(double price, double priceFactor) {
+        return (int) Math.round(price * priceFactor);
+    }
+
+    /**
+     * Converts integer number of ticks to price
+     */
+    double toPrice(long ticks) {
+        return ticks / priceFactor;
+    }
+
+    void write(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeByte(kind);
+        out.writeUTF(instrument.name());
+        out.writeLong(periodInterval);
+        out.writeByte(side.ordinal());
+        out.writeLong(timeUnit);
+        out.writeLong(baseTime);
+        out.writeInt(basePrice);
+        out.writeLong(count);
+    }
+
+    /**
+     * Reads header from the beginning of the channel
+     */
+    static ColumnarFile read(FileChannel channel) throws IOException {
+        channel.position(0);
+        // not closed, it would close the channel
+        DataInputStream in = new DataInputStream(Channels.newInputStream(channel));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a columnar file");
+        }
+        short version = in.readShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported version: " + version);
+        }
+        byte kind = in.readByte();
+        Instrument instrument = Instrument.valueOf(in.readUTF());
+        long periodInterval = in.readLong();
+        OfferSide side = OfferSide.values()[in.readByte()];
+        long timeUnit = in.readLong();
+        long baseTime = in.readLong();
+        int basePrice = in.readInt();
+        ColumnarFile file = new ColumnarFile(kind, instrument, periodInterval, side, timeUnit, baseTime, basePrice);
+        file.count = in.readLong();
+        file.headerSize = (int) channel.position();
+        long expectedSize = file.headerSize + file.count * VALUE_SIZE * file.getColumns();
+        if (channel.size() != expectedSize) {
+            throw new IOException("File size " + channel.size() + " does not match header, expected " + expectedSize);
+        }
+        return file;
+    }
+
+    /**
+     * Maps given column read-only
+     */
+    ByteBuffer map(FileChannel channel, int column) throws IOException {
+        long length = count * VALUE_SIZE;
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Column too large to map: " + length);
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, headerSize + column * length, length);
+    }
+}
@@ -0,0 +1,86 @@
+package easyforex.backtest;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes columns to temporary files next to the target, then joins them
+ * behind the header when record count is known
+ */
+final class ColumnarWriter {
+
+    private final Path target;
+    private final Path[] columnFiles;
+    private final DataOutputStream[] columns;
+
+    ColumnarWriter(Path target, int columnCount) throws IOException {
+        this.target = target;
+        this.columnFiles = new Path[columnCount];
+        this.columns = new DataOutputStream[columnCount];
+        Path directory = target.toAbsolutePath().getParent();
+        try {
+            for (int i = 0; i < columnCount; i++) {
+                columnFiles[i] = Files.createTempFile(directory, target.getFileName().toString(), ".col" + i);
+                columns[i] = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(columnFiles[i]), 1 << 16));
+            }
+        } catch (IOException ex) {
+            discard();
+            throw ex;
+        }
+    }
+
+    void writeInt(int column, int value) throws IOException {
+        columns[column].writeInt(value);
+    }
+
+    void writeFloat(int column, double value) throws IOException {
+        columns[column].writeFloat((float) value);
+    }
+
+    /**
+     * Writes header and columns to the target file and removes temporary
+     * files
+     */
+    void finish(ColumnarFile header) throws IOException {
+        try {
+            for (DataOutputStream column : columns) {
+                column.close();
+            }
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(target)))) {
+                header.write(out);
+            }
+            try (FileChannel out = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                for (Path columnFile : columnFiles) {
+                    try (FileChannel in = FileChannel.open(columnFile, StandardOpenOption.READ)) {
+                        long position = 0;
+                        long size = in.size();
+                        while (position < size) {
+                            position += in.transferTo(position, size - position, out);
+                        }
+                    }
+                }
+            }
+        } finally {
+            discard();
+        }
+    }
+
+    /**
+     * Removes temporary files
+     */
+    void discard() throws IOException {
+        for (int i = 0; i < columnFiles.length; i++) {
+            if (columns[i] != null) {
+                columns[i].close();
+            }
+            if (columnFiles[i] != null) {
+                Files.deleteIfExists(columnFiles[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package easyforex.backtest;
+
+import com.dukascopy.api.Filter;
+import com.dukascopy.api.Instrument;
+import com.dukascopy.api.JFException;
+import com.dukascopy.api.OfferSide;
+import com.dukascopy.api.Period;
+import easyforex.util.BarAggregator;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Converts Dukascopy CSV tick exports to columnar tick files and tick files to
+ * bar files. From command line:
+ * <pre>
+ * java easyforex.backtest.CsvConverter EUR/USD EURUSD_Ticks.csv EURUSD.ticks
+ * </pre>
+ */
+public final class CsvConverter {
+
+    private CsvConverter() {
+    }
+
+    /**
+     * Converts CSV export of ticks to tick file
+     *
+     * @param instrument
+     * @param csvFile
+     * @param tickFile
+     * @return number of converted ticks
+     * @throws IOException
+     */
+    public static long convertTicks(Instrument instrument, Path csvFile, Path tickFile) throws IOException {
+        try (CsvTickSource source = new CsvTickSource(instrument, csvFile);
+                TickFileWriter writer = new TickFileWriter(tickFile, instrument)) {
+            return writer.appendAll(source);
+        }
+    }
+
+    /**
+     * Builds ASK and BID bars of given period from tick file, periods without
+     * ticks are skipped. Last bar is written only if it was completed by a
+     * tick of the next bar.
+     *
+     * @param tickFile
+     * @param period   period of fixed length
+     * @param askFile
+     * @param bidFile
+     * @return number of bars per side
+     * @throws IOException
+     */
+    public static long convertBars(Path tickFile, Period period, Path askFile, Path bidFile) throws IOException {
+        try (TickFile ticks = TickFile.open(tickFile);
+                BarFileWriter askWriter = new BarFileWriter(askFile, ticks.getInstrument(), period, OfferSide.ASK);
+                BarFileWriter bidWriter = new BarFileWriter(bidFile, ticks.getInstrument(), period, OfferSide.BID)) {
+            BarAggregator aggregator = new BarAggregator(Filter.ALL_FLATS, period);
+            aggregator.addListener((instrument, barPeriod, askBar, bidBar) -> {
+                try {
+                    askWriter.append(askBar);
+                    bidWriter.append(bidBar);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+            TickCursor cursor = ticks.cursor();
+            while (cursor.next()) {
+                aggregator.onTick(ticks.getInstrument(), cursor);
+            }
+            return bidWriter.getCount();
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        } catch (JFException ex) {
+            throw new IOException(ex);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            System.err.println("Usage: CsvConverter <instrument, e.g. EUR/USD> <csv file> <tick file>");
+            System.exit(1);
+        }
+        Instrument instrument = Instrument.fromString(args[0]);
+        if (instrument == null) {
+            System.err.println("Unknown instrument: " + args[0]);
+            System.exit(1);
+        }
+        long started = System.nanoTime();
+        long count = convertTicks(instrument, Paths.get(args[1]), Paths.get(args[2]));
+        System.out.println(count + " ticks converted in " + (System.nanoTime() - started) / 1_000_000 + " ms");
+    }
+}
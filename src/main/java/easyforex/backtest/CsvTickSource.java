@@ -0,0 +1,207 @@
+package easyforex.backtest;
+
+import com.dukascopy.api.Instrument;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Reads ticks of one instrument from Dukascopy CSV export, e.g.
+ * <pre>
+ * Gmt time,Ask,Bid,AskVolume,BidVolume
+ * 02.01.2017 00:00:00.123,1.05151,1.05134,1.0,0.75
+ * </pre> Time can be given as {@code dd.MM.yyyy HH:mm:ss.SSS},
+ * {@code yyyy.MM.dd HH:mm:ss.SSS} (any separators, GMT) or epoch millis.
+ * Columns order is taken from the header, if present.
+ */
+public final class CsvTickSource implements TickSource {
+
+    private final Instrument instrument;
+    private final BufferedReader reader;
+    private int askColumn = 1;
+    private int bidColumn = 2;
+    private int askVolumeColumn = 3;
+    private int bidVolumeColumn = 4;
+    private final String[] columns = new String[8];
+    private String pending;
+    private long time;
+    private double ask;
+    private double bid;
+    private double askVolume;
+    private double bidVolume;
+
+    public CsvTickSource(Instrument instrument, Path file) throws IOException {
+        this.instrument = instrument;
+        this.reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        readHeader();
+    }
+
+    private void readHeader() throws IOException {
+        String line = reader.readLine();
+        if (line == null || line.isEmpty() || Character.isDigit(line.charAt(0))) {
+            pending = line;
+            return;
+        }
+        String[] names = line.split(",");
+        for (int i = 0; i < names.length; i++) {
+            switch (names[i].trim().toLowerCase()) {
+                case "ask":
+                    askColumn = i;
+                    break;
+                case "bid":
+                    bidColumn = i;
+                    break;
+                case "askvolume":
+                    askVolumeColumn = i;
+                    break;
+                case "bidvolume":
+                    bidVolumeColumn = i;
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    @Override
+    public boolean next() throws IOException {
+        String line;
+        do {
+            if (pending != null) {
+                line = pending;
+                pending = null;
+            } else {
+                line = reader.readLine();
+            }
+            if (line == null) {
+                return false;
+            }
+        } while (line.isEmpty());
+
+        int count = split(line);
+        time = parseTime(columns[0]);
+        ask = Double.parseDouble(columns[askColumn]);
+        bid = Double.parseDouble(columns[bidColumn]);
+        askVolume = askVolumeColumn < count ? Double.parseDouble(columns[askVolumeColumn]) : 0;
+        bidVolume = bidVolumeColumn < count ? Double.parseDouble(columns[bidVolumeColumn]) : 0;
+        return true;
+    }
+
+    private int split(String line) {
+        int count = 0;
+        int start = 0;
+        while (count < columns.length) {
+            int end = line.indexOf(',', start);
+            if (end < 0) {
+                columns[count++] = line.substring(start).trim();
+                break;
+            }
+            columns[count++] = line.substring(start, end).trim();
+            start = end + 1;
+        }
+        return count;
+    }
+
+    /**
+     * Parses GMT time in one of supported formats
+     *
+     * @param text
+     * @return epoch millis
+     */
+    static long parseTime(String text) {
+        if (isAllDigits(text)) {
+            return Long.parseLong(text);
+        }
+        int[] numbers = new int[7];
+        int count = 0;
+        int value = 0;
+        boolean inNumber = false;
+        for (int i = 0; i < text.length() && count < numbers.length; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');
+                inNumber = true;
+            } else if (inNumber) {
+                numbers[count++] = value;
+                value = 0;
+                inNumber = false;
+            }
+        }
+        if (inNumber && count < numbers.length) {
+            numbers[count++] = value;
+        }
+        if (count < 6) {
+            throw new IllegalArgumentException("Unsupported time format: " + text);
+        }
+        int year;
+        int day;
+        if (numbers[0] > 31) {
+            year = numbers[0];
+            day = numbers[2];
+        } else {
+            day = numbers[0];
+            year = numbers[2];
+        }
+        long days = daysFromCivil(year, numbers[1], day);
+        return ((days * 24 + numbers[3]) * 60 + numbers[4]) * 60_000L + numbers[5] * 1000L + numbers[6];
+    }
+
+    private static boolean isAllDigits(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) < '0' || text.charAt(i) > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns number of days since 1970-01-01 for given date (proleptic
+     * Gregorian calendar)
+     */
+    private static long daysFromCivil(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468;
+    }
+
+    @Override
+    public Instrument getInstrument() {
+        return instrument;
+    }
+
+    @Override
+    public long getTime() {
+        return time;
+    }
+
+    @Override
+    public double getAsk() {
+        return ask;
+    }
+
+    @Override
+    public double getBid() {
+        return bid;
+    }
+
+    @Override
+    public double getAskVolume() {
+        return askVolume;
+    }
+
+    @Override
+    public double getBidVolume() {
+        return bidVolume;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
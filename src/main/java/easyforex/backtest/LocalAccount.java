@@ -0,0 +1,114 @@
+package easyforex.backtest;
+
+import com.dukascopy.api.Instrument;
+
+/**
+ * Local stand-in for {@code IAccount}
+ */
+final class LocalAccount implements LocalProxy.Target {
+
+    private final Object accountCurrency;
+    private final double leverage;
+    private double balance;
+    private double equity;
+    private double usedMargin;
+
+    LocalAccount(String accountCurrency, double deposit, double leverage) {
+        this.accountCurrency = findCurrency(accountCurrency);
+        this.leverage = leverage;
+        this.balance = deposit;
+        this.equity = deposit;
+    }
+
+    /**
+     * Returns platform currency object for given code, taken from instruments
+     */
+    private static Object findCurrency(String code) {
+        for (Instrument instrument : Instrument.values()) {
+            String name = instrument.toString();
+            if (name.endsWith("/" + code)) {
+                return instrument.getSecondaryJFCurrency();
+            }
+            if (name.startsWith(code + "/")) {
+                return instrument.getPrimaryJFCurrency();
+            }
+        }
+        throw new IllegalArgumentException("Unknown currency: " + code);
+    }
+
+    @Override
+    public Object call(String method, Object[] args) {
+        switch (method) {
+            case "getAccountCurrency":
+                return accountCurrency;
+            case "getBalance":
+                return balance;
+            case "getEquity":
+            case "getBaseEquity":
+                return equity;
+            case "getLeverage":
+                return leverage;
+            case "getUsedMargin":
+                return usedMargin;
+            case "getCreditLine":
+                return getCreditLine();
+            case "getAccountId":
+                return getAccountId();
+            case "getUserName":
+                return getUserName();
+            case "isGlobal":
+                return false;
+            default:
+                return LocalProxy.UNSUPPORTED;
+        }
+    }
+
+    public Object getAccountCurrency() {
+        return accountCurrency;
+    }
+
+    public double getBalance() {
+        return balance;
+    }
+
+    public double getEquity() {
+        return equity;
+    }
+
+    public double getBaseEquity() {
+        return equity;
+    }
+
+    public double getLeverage() {
+        return leverage;
+    }
+
+    public double getUsedMargin() {
+        return usedMargin;
+    }
+
+    public double getCreditLine() {
+        return (equity - usedMargin) * leverage;
+    }
+
+    public String getAccountId() {
+        return "backtest";
+    }
+
+    public String getUserName() {
+        return "backtest";
+    }
+
+    public boolean isGlobal() {
+        return false;
+    }
+
+    void addToBalance(double amount) {
+        balance += amount;
+    }
+
+    void update(double equity, double usedMargin) {
+        this.equity = equity;
+        this.usedMargin = usedMargin;
+    }
+}
@@ -0,0 +1,61 @@
+package easyforex.backtest;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Local stand-in for {@code IConsole}, all streams print to one stream
+ */
+final class LocalConsole implements LocalProxy.Target {
+
+    private final PrintStream out;
+
+    /**
+     * @param out target stream, null to discard output
+     */
+    LocalConsole(PrintStream out) {
+        this.out = out != null ? out : new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        });
+    }
+
+    @Override
+    public Object call(String method, Object[] args) {
+        switch (method) {
+            case "getOut":
+            case "getErr":
+            case "getWarn":
+            case "getInfo":
+            case "getNotif":
+                return out;
+            default:
+                return LocalProxy.UNSUPPORTED;
+        }
+    }
+
+    public PrintStream getOut() {
+        return out;
+    }
+
+    public PrintStream getErr() {
+        return out;
+    }
+
+    public PrintStream getWarn() {
+        return out;
+    }
+
+    public PrintStream getInfo() {
+        return out;
+    }
+
+    public PrintStream getNotif() {
+        return out;
+    }
+}
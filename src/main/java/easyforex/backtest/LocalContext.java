@@ -0,0 +1,208 @@
+package easyforex.backtest;
+
+import com.dukascopy.api.IAccount;
+import com.dukascopy.api.IBarFeedListener;
+import com.dukascopy.api.IChart;
+import com.dukascopy.api.IClientGUI;
+import com.dukascopy.api.IConsole;
+import com.dukascopy.api.IContext;
+import com.dukascopy.api.IDataService;
+import com.dukascopy.api.IEngine;
+import com.dukascopy.api.IHistory;
+import com.dukascopy.api.IIndicators;
+import com.dukascopy.api.IJFUtils;
+import com.dukascopy.api.IReportService;
+import com.dukascopy.api.IUserInterface;
+import com.dukascopy.api.Instrument;
+import com.dukascopy.api.OfferSide;
+import com.dukascopy.api.Period;
+import com.dukascopy.api.feed.IFeedDescriptor;
+import com.dukascopy.api.feed.IFeedListener;
+import java.io.File;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+/**
+ * Context of backtested strategy. There are no charts and no GUI, tasks are
+ * executed immediately in the calling thread.
+ */
+final class LocalContext implements IContext {
+
+    private final IEngine engine;
+    private final IHistory history;
+    private final IIndicators indicators;
+    private final IConsole console;
+    private final IAccount account;
+    private final IJFUtils utils;
+    private final Set<Instrument> subscribedInstruments = EnumSet.noneOf(Instrument.class);
+    private boolean stopped;
+
+    LocalContext(LocalEngine engine, LocalHistory history, LocalIndicators indicators, LocalConsole console, LocalAccount account, LocalUtils utils) {
+        this.engine = LocalProxy.create(IEngine.class, engine);
+        this.history = history;
+        this.indicators = indicators;
+        this.console = LocalProxy.create(IConsole.class, console);
+        this.account = LocalProxy.create(IAccount.class, account);
+        this.utils = LocalProxy.create(IJFUtils.class, utils);
+    }
+
+    @Override
+    public IEngine getEngine() {
+        return engine;
+    }
+
+    @Override
+    public IHistory getHistory() {
+        return history;
+    }
+
+    @Override
+    public IIndicators getIndicators() {
+        return indicators;
+    }
+
+    @Override
+    public IConsole getConsole() {
+        return console;
+    }
+
+    @Override
+    public IAccount getAccount() {
+        return account;
+    }
+
+    @Override
+    public IJFUtils getUtils() {
+        return utils;
+    }
+
+    @Override
+    public Set<Instrument> getSubscribedInstruments() {
+        return Collections.unmodifiableSet(subscribedInstruments);
+    }
+
+    @Override
+    public void setSubscribedInstruments(Set<Instrument> instruments) {
+        subscribedInstruments.clear();
+        subscribedInstruments.addAll(instruments);
+    }
+
+    @Override
+    public void setSubscribedInstruments(Set<Instrument> instruments, boolean lock) {
+        setSubscribedInstruments(instruments);
+    }
+
+    boolean isSubscribed(Instrument instrument) {
+        return subscribedInstruments.contains(instrument);
+    }
+
+    @Override
+    public <T> Future<T> executeTask(Callable<T> callable) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            future.complete(callable.call());
+        } catch (Exception ex) {
+            future.completeExceptionally(ex);
+        }
+        return future;
+    }
+
+    @Override
+    public void stop() {
+        stopped = true;
+    }
+
+    @Override
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    @Override
+    public void pause() {
+    }
+
+    @Override
+    public boolean isFullAccessGranted() {
+        return true;
+    }
+
+    @Override
+    public File getFilesDir() {
+        return new File(System.getProperty("java.io.tmpdir"));
+    }
+
+    @Override
+    public IChart getChart(Instrument instrument) {
+        return null;
+    }
+
+    @Override
+    public Set<IChart> getCharts(Instrument instrument) {
+        return Collections.emptySet();
+    }
+
+    @Override
+    public IChart getLastActiveChart() {
+        return null;
+    }
+
+    @Override
+    public IChart openChart(IFeedDescriptor feedDescriptor) {
+        return null;
+    }
+
+    @Override
+    public IChart openChart(File file) {
+        return null;
+    }
+
+    @Override
+    public void closeChart(IChart chart) {
+    }
+
+    @Override
+    public IClientGUI getClientGUI(IChart chart) {
+        return null;
+    }
+
+    @Override
+    public IUserInterface getUserInterface() {
+        return null;
+    }
+
+    @Override
+    public IDataService getDataService() {
+        return null;
+    }
+
+    @Override
+    public IReportService getReportService() {
+        return null;
+    }
+
+    @Override
+    public void subscribeToBarsFeed(Instrument instrument, Period period, OfferSide offerSide, IBarFeedListener listener) {
+        throw new UnsupportedOperationException("Bar feeds are not supported in backtest");
+    }
+
+    @Override
+    public void unsubscribeFromBarsFeed(IBarFeedListener listener) {
+    }
+
+    @Override
+    public void subscribeToFeed(IFeedDescriptor feedDescriptor, IFeedListener listener) {
+        throw new UnsupportedOperationException("Feeds are not supported in backtest");
+    }
+
+    @Override
+    public void unsubscribeFromFeed(IFeedListener listener) {
+    }
+
+    @Override
+    public void unsubscribeFromFeed(IFeedListener listener, IFeedDescriptor feedDescriptor) {
+    }
+}
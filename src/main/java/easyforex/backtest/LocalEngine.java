@@ -0,0 +1,346 @@
+package easyforex.backtest;
+
+import com.dukascopy.api.IEngine;
+import com.dukascopy.api.IMessage;
+import com.dukascopy.api.IOrder;
+import com.dukascopy.api.ITick;
+import com.dukascopy.api.Instrument;
+import com.dukascopy.api.JFException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Local stand-in for {@code IEngine}. Market orders are filled immediately at
+ * last tick, pending orders, stop losses and take profits are triggered by
+ * replayed ticks. Generated messages are queued and sent to strategy by
+ * {@link Backtester}.
+ */
+final class LocalEngine implements LocalProxy.Target {
+
+    private final LocalHistory history;
+    private final LocalUtils utils;
+    private final LocalAccount account;
+    private final Map<String, LocalOrder> active = new LinkedHashMap<>();
+    private final List<LocalOrder> checked = new ArrayList<>();
+    private final ArrayDeque<IMessage> messages = new ArrayDeque<>();
+    private final List<Double> tradeProfits = new ArrayList<>();
+    private final double leverage;
+    private int orderId;
+    private boolean accountChanged;
+    private double maxEquity;
+    private double maxDrawdown;
+    private double maxDrawdownPercent;
+
+    LocalEngine(LocalHistory history, LocalUtils utils, LocalAccount account, double leverage) {
+        this.history = history;
+        this.utils = utils;
+        this.account = account;
+        this.leverage = leverage;
+        this.maxEquity = account.getEquity();
+    }
+
+    @Override
+    public Object call(String method, Object[] args) throws JFException {
+        switch (method) {
+            case "submitOrder":
+                return submitOrder(args);
+            case "getOrders":
+                return args.length == 0 ? getOrders() : getOrders((Instrument) args[0]);
+            case "getOrder":
+                return getOrder((String) args[0]);
+            case "getOrderById":
+                return getOrderById((String) args[0]);
+            case "getType":
+                return getType();
+            case "getAccount":
+                return getAccount();
+            default:
+                return LocalProxy.UNSUPPORTED;
+        }
+    }
+
+    private Object submitOrder(Object[] args) throws JFException {
+        if (args.length < 4 || args.length == 7 || args.length > 10) {
+            return LocalProxy.UNSUPPORTED;
+        }
+        return submitOrder((String) args[0], (Instrument) args[1], (IEngine.OrderCommand) args[2], (Double) args[3],
+                args.length > 4 ? (Double) args[4] : 0,
+                args.length > 5 ? (Double) args[5] : 5,
+                args.length > 7 ? (Double) args[6] : 0,
+                args.length > 7 ? (Double) args[7] : 0,
+                args.length > 8 ? (Long) args[8] : 0,
+                args.length > 9 ? (String) args[9] : null);
+    }
+
+    public IOrder submitOrder(String label, Instrument instrument, IEngine.OrderCommand command, double amount) throws JFException {
+        return submitOrder(label, instrument, command, amount, 0, 5, 0, 0, 0, null);
+    }
+
+    public IOrder submitOrder(String label, Instrument instrument, IEngine.OrderCommand command, double amount, double price) throws JFException {
+        return submitOrder(label, instrument, command, amount, price, 5, 0, 0, 0, null);
+    }
+
+    public IOrder submitOrder(String label, Instrument instrument, IEngine.OrderCommand command, double amount, double price, double slippage) throws JFException {
+        return submitOrder(label, instrument, command, amount, price, slippage, 0, 0, 0, null);
+    }
+
+    public IOrder submitOrder(String label, Instrument instrument, IEngine.OrderCommand command, double amount, double price, double slippage,
+            double stopLossPrice, double takeProfitPrice) throws JFException {
+        return submitOrder(label, instrument, command, amount, price, slippage, stopLossPrice, takeProfitPrice, 0, null);
+    }
+
+    public IOrder submitOrder(String label, Instrument instrument, IEngine.OrderCommand command, double amount, double price, double slippage,
+            double stopLossPrice, double takeProfitPrice, long goodTillTime) throws JFException {
+        return submitOrder(label, instrument, command, amount, price, slippage, stopLossPrice, takeProfitPrice, goodTillTime, null);
+    }
+
+    public IOrder submitOrder(String label, Instrument instrument, IEngine.OrderCommand command, double amount, double price, double slippage,
+            double stopLossPrice, double takeProfitPrice, long goodTillTime, String comment) throws JFException {
+        if (active.containsKey(label)) {
+            throw new JFException("Label not unique: " + label);
+        }
+        if (amount <= 0) {
+            throw new JFException("Amount must be positive: " + amount);
+        }
+        ITick tick = history.getLastTick(instrument);
+        long time = tick != null ? tick.getTime() : 0;
+        LocalOrder order = new LocalOrder(this, String.valueOf(++orderId), label, instrument, command, amount, price,
+                stopLossPrice, takeProfitPrice, goodTillTime, comment, time);
+        if (tick == null) {
+            order.cancel(time);
+            send(IMessage.Type.ORDER_SUBMIT_REJECTED, order, null, "No tick for " + instrument);
+            return order.asOrder();
+        }
+        active.put(label, order);
+        order.open();
+        send(IMessage.Type.ORDER_SUBMIT_OK, order, null, null);
+        if (command == IEngine.OrderCommand.BUY || command == IEngine.OrderCommand.SELL) {
+            fill(order, command.isLong() ? tick.getAsk() : tick.getBid(), time);
+        }
+        return order.asOrder();
+    }
+
+    public List<IOrder> getOrders() {
+        List<IOrder> orders = new ArrayList<>(active.size());
+        for (LocalOrder order : active.values()) {
+            orders.add(order.asOrder());
+        }
+        return orders;
+    }
+
+    public List<IOrder> getOrders(Instrument instrument) {
+        List<IOrder> orders = new ArrayList<>();
+        for (LocalOrder order : active.values()) {
+            if (order.getInstrument() == instrument) {
+                orders.add(order.asOrder());
+            }
+        }
+        return orders;
+    }
+
+    public IOrder getOrder(String label) {
+        LocalOrder order = active.get(label);
+        return order != null ? order.asOrder() : null;
+    }
+
+    public IOrder getOrderById(String id) {
+        for (LocalOrder order : active.values()) {
+            if (order.getId().equals(id)) {
+                return order.asOrder();
+            }
+        }
+        return null;
+    }
+
+    public IEngine.Type getType() {
+        return IEngine.Type.TEST;
+    }
+
+    public String getAccount() {
+        return "backtest";
+    }
+
+    /**
+     * Checks pending orders, stop losses and take profits of given instrument
+     * and updates account
+     *
+     * @param instrument
+     * @param tick
+     */
+    void onTick(Instrument instrument, ITick tick) {
+        long time = tick.getTime();
+        // orders may be closed while checked, the list is reused for every tick
+        checked.clear();
+        for (LocalOrder order : active.values()) {
+            if (order.getInstrument() == instrument) {
+                checked.add(order);
+            }
+        }
+        for (int i = 0; i < checked.size(); i++) {
+            LocalOrder order = checked.get(i);
+            if (order.getState() == IOrder.State.OPENED) {
+                checkPending(order, tick, time);
+            } else if (order.getState() == IOrder.State.FILLED) {
+                checkExit(order, tick, time);
+            }
+        }
+        checked.clear();
+        updateAccount();
+    }
+
+    /**
+     * Closes all active orders, e.g. at the end of backtest
+     */
+    void closeAll() throws JFException {
+        for (LocalOrder order : new ArrayList<>(active.values())) {
+            close(order, 0, null);
+        }
+        updateAccount();
+    }
+
+    void close(LocalOrder order, double amount, IMessage.Reason reason) throws JFException {
+        ITick tick = lastTick(order.getInstrument());
+        if (order.getState() == IOrder.State.OPENED) {
+            order.cancel(tick.getTime());
+            active.remove(order.getLabel());
+            send(IMessage.Type.ORDER_CLOSE_OK, order, reason, null);
+            return;
+        }
+        close(order, amount, closingPrice(order, tick), tick.getTime(), reason);
+    }
+
+    ITick lastTick(Instrument instrument) throws JFException {
+        ITick tick = history.getLastTick(instrument);
+        if (tick == null) {
+            throw new JFException("No tick for " + instrument);
+        }
+        return tick;
+    }
+
+    double closingPrice(LocalOrder order) {
+        return closingPrice(order, history.getLastTick(order.getInstrument()));
+    }
+
+    double quoteRate(Instrument instrument) {
+        return utils.quoteRate(instrument);
+    }
+
+    void send(IMessage.Type type, LocalOrder order, IMessage.Reason reason, String content) {
+        Set<IMessage.Reason> reasons = reason != null ? EnumSet.of(reason) : Collections.<IMessage.Reason>emptySet();
+        ITick tick = history.getLastTick(order.getInstrument());
+        long time = tick != null ? tick.getTime() : order.getCreationTime();
+        messages.add(LocalProxy.create(IMessage.class, new LocalMessage(type, order.asOrder(), time, reasons, content)));
+    }
+
+    /**
+     * Returns next message to send or null
+     */
+    IMessage pollMessage() {
+        return messages.poll();
+    }
+
+    /**
+     * Returns true once after account was changed
+     */
+    boolean pollAccountChanged() {
+        boolean changed = accountChanged;
+        accountChanged = false;
+        return changed;
+    }
+
+    List<Double> getTradeProfits() {
+        return tradeProfits;
+    }
+
+    double getMaxDrawdown() {
+        return maxDrawdown;
+    }
+
+    double getMaxDrawdownPercent() {
+        return maxDrawdownPercent;
+    }
+
+    private void checkPending(LocalOrder order, ITick tick, long time) {
+        if (order.getGoodTillTime() > 0 && time >= order.getGoodTillTime()) {
+            order.cancel(time);
+            active.remove(order.getLabel());
+            send(IMessage.Type.ORDER_CLOSE_OK, order, null, null);
+            return;
+        }
+        double price = order.isLong() ? tick.getAsk() : tick.getBid();
+        boolean triggered;
+        switch (order.getOrderCommand()) {
+            case BUYLIMIT:
+            case SELLSTOP:
+                triggered = price <= order.getPrice();
+                break;
+            case SELLLIMIT:
+            case BUYSTOP:
+                triggered = price >= order.getPrice();
+                break;
+            default:
+                triggered = true;
+        }
+        if (triggered) {
+            fill(order, price, time);
+        }
+    }
+
+    private void checkExit(LocalOrder order, ITick tick, long time) {
+        double price = closingPrice(order, tick);
+        double stopLoss = order.getStopLossPrice();
+        double takeProfit = order.getTakeProfitPrice();
+        if (stopLoss > 0 && (order.isLong() ? price <= stopLoss : price >= stopLoss)) {
+            close(order, 0, price, time, IMessage.Reason.ORDER_CLOSED_BY_SL);
+        } else if (takeProfit > 0 && (order.isLong() ? price >= takeProfit : price <= takeProfit)) {
+            close(order, 0, price, time, IMessage.Reason.ORDER_CLOSED_BY_TP);
+        }
+    }
+
+    private void fill(LocalOrder order, double price, long time) {
+        order.fill(price, time);
+        accountChanged = true;
+        send(IMessage.Type.ORDER_FILL_OK, order, null, null);
+    }
+
+    private void close(LocalOrder order, double amount, double price, long time, IMessage.Reason reason) {
+        double profit = order.reduce(amount, price, time);
+        account.addToBalance(profit);
+        if (order.getState() == IOrder.State.CLOSED) {
+            active.remove(order.getLabel());
+            tradeProfits.add(order.getProfitLossInAccountCurrency());
+        }
+        accountChanged = true;
+        send(IMessage.Type.ORDER_CLOSE_OK, order, reason, null);
+    }
+
+    private static double closingPrice(LocalOrder order, ITick tick) {
+        return order.isLong() ? tick.getBid() : tick.getAsk();
+    }
+
+    private void updateAccount() {
+        double equity = account.getBalance();
+        double usedMargin = 0;
+        for (LocalOrder order : active.values()) {
+            if (order.getState() == IOrder.State.FILLED) {
+                equity += order.profit(closingPrice(order), order.getAmount());
+                usedMargin += order.getAmount() * 1_000_000 * order.getOpenPrice() * quoteRate(order.getInstrument()) / leverage;
+            }
+        }
+        account.update(equity, usedMargin);
+        if (equity > maxEquity) {
+            maxEquity = equity;
+        }
+        double drawdown = maxEquity - equity;
+        if (drawdown > maxDrawdown) {
+            maxDrawdown = drawdown;
+            maxDrawdownPercent = maxEquity > 0 ? drawdown / maxEquity * 100 : 0;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package easyforex.backtest;
+
+import com.dukascopy.api.Filter;
+import com.dukascopy.api.IBar;
+import com.dukascopy.api.IHistory;
+import com.dukascopy.api.ITick;
+import com.dukascopy.api.Instrument;
+import com.dukascopy.api.JFException;
+import com.dukascopy.api.OfferSide;
+import com.dukascopy.api.Period;
+import easyforex.util.BarAggregator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Local {@code IHistory}: last ticks and bars built from replayed ticks by
+ * {@link BarAggregator} (weekends filtered). Strategies call it directly, it
+ * is on the hot path of every backtest.
+ */
+final class LocalHistory implements IHistory {
+
+    private final int maxBars;
+    private final Map<Instrument, ITick> lastTicks = new EnumMap<>(Instrument.class);
+    private final BarAggregator aggregator;
+    private final Map<Instrument, Map<Period, Series>> series = new EnumMap<>(Instrument.class);
+
+    /**
+     * @param periods periods of built bars
+     * @param maxBars number of kept bars per series
+     */
+    LocalHistory(List<Period> periods, int maxBars) {
+        this.maxBars = maxBars;
+        this.aggregator = new BarAggregator(Filter.WEEKENDS, periods.toArray(new Period[periods.size()]));
+        this.aggregator.addListener((instrument, period, askBar, bidBar) -> getSeries(instrument, period).add(askBar, bidBar));
+    }
+
+    /**
+     * Adds listener notified about completed bars, after they are stored
+     *
+     * @param listener
+     */
+    void addBarListener(BarAggregator.BarListener listener) {
+        aggregator.addListener(listener);
+    }
+
+    /**
+     * Stores tick and updates bars
+     *
+     * @param instrument
+     * @param tick
+     * @throws JFException
+     */
+    void onTick(Instrument instrument, ITick tick) throws JFException {
+        lastTicks.put(instrument, tick);
+        aggregator.onTick(instrument, tick);
+    }
+
+    @Override
+    public ITick getLastTick(Instrument instrument) {
+        return lastTicks.get(instrument);
+    }
+
+    @Override
+    public long getTimeOfLastTick(Instrument instrument) {
+        ITick tick = lastTicks.get(instrument);
+        return tick != null ? tick.getTime() : -1;
+    }
+
+    @Override
+    public long getBarStart(Period period, long time) {
+        return BarAggregator.getBarStart(period, time);
+    }
+
+    @Override
+    public long getNextBarStart(Period period, long barTime) {
+        return getBarStart(period, barTime) + period.getInterval();
+    }
+
+    @Override
+    public long getPreviousBarStart(Period period, long barTime) {
+        return getBarStart(period, barTime) - period.getInterval();
+    }
+
+    /**
+     * Returns bar by shift, 0 is current (not completed) bar
+     */
+    @Override
+    public IBar getBar(Instrument instrument, Period period, OfferSide side, int shift) {
+        if (shift == 0) {
+            return aggregator.getCurrentBar(instrument, period, side);
+        }
+        List<IBar> bars = getSeries(instrument, period).get(side);
+        return shift <= bars.size() ? bars.get(bars.size() - shift) : null;
+    }
+
+    @Override
+    public List<IBar> getBars(Instrument instrument, Period period, OfferSide side, Filter filter, int numberOfCandlesBefore, long time, int numberOfCandlesAfter) {
+        List<IBar> bars = getSeries(instrument, period).get(side);
+        int last = indexOfLastBarNotAfter(bars, time);
+        int from = Math.max(0, last - numberOfCandlesBefore + 1);
+        int to = Math.min(bars.size(), last + 1 + numberOfCandlesAfter);
+        return new ArrayList<>(bars.subList(from, Math.max(from, to)));
+    }
+
+    @Override
+    public List<IBar> getBars(Instrument instrument, Period period, OfferSide side, long from, long to) {
+        List<IBar> bars = getSeries(instrument, period).get(side);
+        int last = indexOfLastBarNotAfter(bars, to);
+        int first = indexOfLastBarNotAfter(bars, from - 1) + 1;
+        return new ArrayList<>(bars.subList(first, Math.max(first, last + 1)));
+    }
+
+    @Override
+    public List<IBar> getBars(Instrument instrument, Period period, OfferSide side, Filter filter, long from, long to) {
+        return getBars(instrument, period, side, from, to);
+    }
+
+    /**
+     * Returns stored bars, oldest first, without copying them
+     *
+     * @param instrument
+     * @param period
+     * @param side
+     * @return unmodifiable view, changed by next completed bars
+     */
+    List<IBar> getBars(Instrument instrument, Period period, OfferSide side) {
+        return getSeries(instrument, period).get(side);
+    }
+
+    /**
+     * Returns index of the last bar which starts at given time or before it
+     *
+     * @param bars
+     * @param time
+     * @return -1 if all bars start after the time
+     */
+    static int indexOfLastBarNotAfter(List<IBar> bars, long time) {
+        int low = 0;
+        int high = bars.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (bars.get(middle).getTime() <= time) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return high;
+    }
+
+    private Series getSeries(Instrument instrument, Period period) {
+        Map<Period, Series> periods = series.computeIfAbsent(instrument, i -> new HashMap<>());
+        Series periodSeries = periods.get(period);
+        if (periodSeries == null) {
+            periodSeries = new Series(maxBars);
+            periods.put(period, periodSeries);
+        }
+        return periodSeries;
+    }
+
+    /**
+     * ASK and BID bars, oldest first, trimmed to maximal size
+     */
+    private static final class Series {
+
+        private final int maxBars;
+        private final List<IBar> askBars = new ArrayList<>();
+        private final List<IBar> bidBars = new ArrayList<>();
+        private final List<IBar> askView = Collections.unmodifiableList(askBars);
+        private final List<IBar> bidView = Collections.unmodifiableList(bidBars);
+
+        Series(int maxBars) {
+            this.maxBars = maxBars;
+        }
+
+        void add(IBar askBar, IBar bidBar) {
+            askBars.add(askBar);
+            bidBars.add(bidBar);
+            if (askBars.size() >= 2 * maxBars) {
+                askBars.subList(0, maxBars).clear();
+                bidBars.subList(0, maxBars).clear();
+            }
+        }
+
+        List<IBar> get(OfferSide side) {
+            return side == OfferSide.ASK ? askView : bidView;
+        }
+    }
+}
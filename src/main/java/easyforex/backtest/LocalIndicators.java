@@ -0,0 +1,291 @@
+package easyforex.backtest;
+
+import com.dukascopy.api.Filter;
+import com.dukascopy.api.IBar;
+import com.dukascopy.api.IIndicators;
+import com.dukascopy.api.Instrument;
+import com.dukascopy.api.OfferSide;
+import com.dukascopy.api.Period;
+import com.dukascopy.api.indicators.IIndicator;
+import easyforex.indicator.IncrementalAdx;
+import easyforex.indicator.IncrementalAtr;
+import easyforex.indicator.IncrementalBBands;
+import easyforex.indicator.IncrementalDema;
+import easyforex.indicator.IncrementalEma;
+import easyforex.indicator.IncrementalIndicator;
+import easyforex.indicator.IncrementalMacd;
+import easyforex.indicator.IncrementalRsi;
+import easyforex.indicator.IncrementalSar;
+import easyforex.indicator.IncrementalSma;
+import easyforex.indicator.IncrementalTema;
+import easyforex.indicator.IncrementalTrima;
+import easyforex.indicator.IncrementalWma;
+import easyforex.util.SimpleBar;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Local {@code IIndicators}, called directly by strategies, calculates
+ * indicators used by easyforex from locally built bars. Each indicator
+ * (instrument, period, side, applied price and parameters) keeps its state and
+ * last values, so a call at the latest bar processes only bars completed since
+ * the previous call. Calls in the past are calculated from scratch. KAMA, MAMA
+ * and T3 moving averages are not supported.
+ */
+final class LocalIndicators implements IIndicators {
+
+    private static final int WARM_UP_BARS = 300;
+
+    private final LocalHistory history;
+    private final Map<String, Stream> streams = new HashMap<>();
+
+    LocalIndicators(LocalHistory history) {
+        this.history = history;
+    }
+
+    @Override
+    public IIndicator getIndicator(String name) {
+        return null;
+    }
+
+    @Override
+    public double[] sma(Instrument instrument, Period period, OfferSide side, IIndicators.AppliedPrice appliedPrice, int timePeriod, Filter filter, int number, long time, int after) {
+        return calculate("SMA " + timePeriod, instrument, period, side, appliedPrice, number, time, () -> new IncrementalSma(timePeriod), 1)[0];
+    }
+
+    @Override
+    public double[] ema(Instrument instrument, Period period, OfferSide side, IIndicators.AppliedPrice appliedPrice, int timePeriod, Filter filter, int number, long time, int after) {
+        return calculate("EMA " + timePeriod, instrument, period, side, appliedPrice, number, time, () -> new IncrementalEma(timePeriod), 1)[0];
+    }
+
+    @Override
+    public double[] ma(Instrument instrument, Period period, OfferSide side, IIndicators.AppliedPrice appliedPrice, int timePeriod, IIndicators.MaType maType, Filter filter, int number, long time, int after) {
+        checkMaType(maType);
+        return calculate(maType + " " + timePeriod, instrument, period, side, appliedPrice, number, time, () -> movingAverage(maType, timePeriod), 1)[0];
+    }
+
+    @Override
+    public double[] rsi(Instrument instrument, Period period, OfferSide side, IIndicators.AppliedPrice appliedPrice, int timePeriod, Filter filter, int number, long time, int after) {
+        return calculate("RSI " + timePeriod, instrument, period, side, appliedPrice, number, time, () -> new IncrementalRsi(timePeriod), 1)[0];
+    }
+
+    @Override
+    public double[] atr(Instrument instrument, Period period, OfferSide side, int timePeriod, Filter filter, int number, long time, int after) {
+        return calculate("ATR " + timePeriod, instrument, period, side, null, number, time, () -> new IncrementalAtr(timePeriod), 1)[0];
+    }
+
+    @Override
+    public double[] adx(Instrument instrument, Period period, OfferSide side, int timePeriod, Filter filter, int number, long time, int after) {
+        return calculate("ADX " + timePeriod, instrument, period, side, null, number, time, () -> new IncrementalAdx(timePeriod), 1)[0];
+    }
+
+    @Override
+    public double[] sar(Instrument instrument, Period period, OfferSide side, double acceleration, double maximum, Filter filter, int number, long time, int after) {
+        return calculate("SAR " + acceleration + " " + maximum, instrument, period, side, null, number, time, () -> new IncrementalSar(acceleration, maximum), 1)[0];
+    }
+
+    @Override
+    public double[] volume(Instrument instrument, Period period, OfferSide side, Filter filter, int number, long time, int after) {
+        List<IBar> bars = history.getBars(instrument, period, side);
+        int last = LocalHistory.indexOfLastBarNotAfter(bars, time);
+        double[] result = nanArray(number);
+        for (int i = Math.max(0, last - number + 1); i <= last; i++) {
+            result[number - 1 - last + i] = bars.get(i).getVolume();
+        }
+        return result;
+    }
+
+    @Override
+    public double[][] macd(Instrument instrument, Period period, OfferSide side, IIndicators.AppliedPrice appliedPrice, int fastPeriod, int slowPeriod, int signalPeriod, Filter filter, int number, long time, int after) {
+        return calculate("MACD " + fastPeriod + " " + slowPeriod + " " + signalPeriod, instrument, period, side, appliedPrice, number, time,
+                () -> new IncrementalMacd(fastPeriod, slowPeriod, signalPeriod), 3);
+    }
+
+    @Override
+    public double[][] bbands(Instrument instrument, Period period, OfferSide side, IIndicators.AppliedPrice appliedPrice, int timePeriod, double nbDevUp, double nbDevDn, IIndicators.MaType maType, Filter filter, int number, long time, int after) {
+        if (maType != IIndicators.MaType.EMA) {
+            throw new UnsupportedOperationException("Only EMA based Bollinger Bands are supported in backtest");
+        }
+        return calculate("BBANDS " + timePeriod + " " + nbDevUp + " " + nbDevDn, instrument, period, side, appliedPrice, number, time,
+                () -> new IncrementalBBands(timePeriod, nbDevUp, nbDevDn), 3);
+    }
+
+    /**
+     * Returns last values of indicator (oldest first) over bars ending at
+     * given time, NaN where there are not enough bars
+     *
+     * @param name         indicator name and parameters
+     * @param appliedPrice null for indicators of high, low and close
+     * @param factory      creates new indicator
+     * @param outputs      number of indicator outputs
+     * @return values of each output
+     */
+    private double[][] calculate(String name, Instrument instrument, Period period, OfferSide side, IIndicators.AppliedPrice appliedPrice,
+            int number, long time, Supplier<IncrementalIndicator> factory, int outputs) {
+        List<IBar> bars = history.getBars(instrument, period, side);
+        int last = LocalHistory.indexOfLastBarNotAfter(bars, time);
+        if (last < 0) {
+            return nanArrays(outputs, number);
+        }
+        String key = name + " " + instrument + " " + period + " " + side + " " + appliedPrice;
+        Stream stream = streams.get(key);
+        long lastTime = bars.get(last).getTime();
+        if (stream == null || stream.capacity < number || stream.lastTime > lastTime) {
+            Stream fresh = new Stream(factory.get(), outputs, Math.max(number, stream != null ? stream.capacity : 1));
+            int first = Math.max(0, last - number - Math.max(WARM_UP_BARS, fresh.indicator.getLookback() * 3) + 1);
+            fresh.update(bars, first, last, appliedPrice);
+            if (stream != null && stream.lastTime > lastTime) {
+                // call in the past, keep the stream of the latest bars
+                return fresh.values(number);
+            }
+            streams.put(key, fresh);
+            return fresh.values(number);
+        }
+        stream.update(bars, LocalHistory.indexOfLastBarNotAfter(bars, stream.lastTime) + 1, last, appliedPrice);
+        return stream.values(number);
+    }
+
+    private static IncrementalIndicator movingAverage(IIndicators.MaType maType, int timePeriod) {
+        switch (maType) {
+            case SMA:
+                return new IncrementalSma(timePeriod);
+            case EMA:
+                return new IncrementalEma(timePeriod);
+            case WMA:
+                return new IncrementalWma(timePeriod);
+            case DEMA:
+                return new IncrementalDema(timePeriod);
+            case TEMA:
+                return new IncrementalTema(timePeriod);
+            case TRIMA:
+                return new IncrementalTrima(timePeriod);
+            default:
+                throw new UnsupportedOperationException(maType + " moving average is not supported in backtest");
+        }
+    }
+
+    private static void checkMaType(IIndicators.MaType maType) {
+        movingAverage(maType, 1);
+    }
+
+    /**
+     * Returns bar which prices are given applied price of the bar, the bar
+     * itself for close price (or null applied price)
+     */
+    private static IBar applied(IBar bar, IIndicators.AppliedPrice appliedPrice) {
+        if (appliedPrice == null || appliedPrice == IIndicators.AppliedPrice.CLOSE) {
+            return bar;
+        }
+        double price;
+        switch (appliedPrice) {
+            case OPEN:
+                price = bar.getOpen();
+                break;
+            case HIGH:
+                price = bar.getHigh();
+                break;
+            case LOW:
+                price = bar.getLow();
+                break;
+            case MEDIAN_PRICE:
+                price = (bar.getHigh() + bar.getLow()) / 2;
+                break;
+            case TYPICAL_PRICE:
+                price = (bar.getHigh() + bar.getLow() + bar.getClose()) / 3;
+                break;
+            case WEIGHTED_CLOSE:
+                price = (bar.getHigh() + bar.getLow() + 2 * bar.getClose()) / 4;
+                break;
+            case VOLUME:
+                price = bar.getVolume();
+                break;
+            case TIMESTAMP:
+                price = bar.getTime();
+                break;
+            default:
+                throw new UnsupportedOperationException(appliedPrice + " applied price is not supported in backtest");
+        }
+        return new SimpleBar(bar.getTime(), price, price, price, price, bar.getVolume());
+    }
+
+    private static double[] nanArray(int size) {
+        double[] array = new double[size];
+        Arrays.fill(array, Double.NaN);
+        return array;
+    }
+
+    private static double[][] nanArrays(int outputs, int size) {
+        double[][] arrays = new double[outputs][];
+        for (int i = 0; i < outputs; i++) {
+            arrays[i] = nanArray(size);
+        }
+        return arrays;
+    }
+
+    /**
+     * Indicator state and ring of its last values
+     */
+    private static final class Stream {
+
+        private final IncrementalIndicator indicator;
+        private final double[][] values;
+        private final int capacity;
+        private int position;
+        private int count;
+        private long lastTime = Long.MIN_VALUE;
+
+        Stream(IncrementalIndicator indicator, int outputs, int capacity) {
+            this.indicator = indicator;
+            this.values = new double[outputs][capacity];
+            this.capacity = capacity;
+        }
+
+        /**
+         * Updates indicator with bars of given indexes (inclusive)
+         */
+        void update(List<IBar> bars, int from, int to, IIndicators.AppliedPrice appliedPrice) {
+            for (int i = from; i <= to; i++) {
+                IBar bar = bars.get(i);
+                indicator.update(applied(bar, appliedPrice));
+                lastTime = bar.getTime();
+                for (int output = 0; output < values.length; output++) {
+                    values[output][position] = value(output);
+                }
+                position = (position + 1) % capacity;
+                if (count < capacity) {
+                    count++;
+                }
+            }
+        }
+
+        private double value(int output) {
+            if (indicator instanceof IncrementalMacd) {
+                IncrementalMacd macd = (IncrementalMacd) indicator;
+                return output == 0 ? macd.getMacd() : output == 1 ? macd.getMacdSignal() : macd.getMacdHist();
+            }
+            if (indicator instanceof IncrementalBBands) {
+                IncrementalBBands bbands = (IncrementalBBands) indicator;
+                return output == 0 ? bbands.getUpperBand() : output == 1 ? bbands.getMiddleBand() : bbands.getLowerBand();
+            }
+            return indicator.getValue();
+        }
+
+        /**
+         * Returns given number of last values, oldest first
+         */
+        double[][] values(int number) {
+            double[][] result = nanArrays(values.length, number);
+            int available = Math.min(number, count);
+            for (int output = 0; output < values.length; output++) {
+                for (int i = 0; i < available; i++) {
+                    int index = (position - available + i + capacity) % capacity;
+                    result[output][number - available + i] = values[output][index];
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package easyforex.backtest;
+
+import com.dukascopy.api.IMessage;
+import com.dukascopy.api.IOrder;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Local order message
+ */
+final class LocalMessage implements LocalProxy.Target {
+
+    private final IMessage.Type type;
+    private final IOrder order;
+    private final long creationTime;
+    private final Set<IMessage.Reason> reasons;
+    private final String content;
+
+    LocalMessage(IMessage.Type type, IOrder order, long creationTime, Set<IMessage.Reason> reasons, String content) {
+        this.type = type;
+        this.order = order;
+        this.creationTime = creationTime;
+        this.reasons = reasons != null ? reasons : Collections.emptySet();
+        this.content = content;
+    }
+
+    @Override
+    public Object call(String method, Object[] args) {
+        switch (method) {
+            case "getType":
+                return type;
+            case "getOrder":
+                return order;
+            case "getCreationTime":
+                return creationTime;
+            case "getReasons":
+                return reasons;
+            case "getContent":
+                return content;
+            default:
+                return LocalProxy.UNSUPPORTED;
+        }
+    }
+
+    public IMessage.Type getType() {
+        return type;
+    }
+
+    public IOrder getOrder() {
+        return order;
+    }
+
+    public long getCreationTime() {
+        return creationTime;
+    }
+
+    public Set<IMessage.Reason> getReasons() {
+        return reasons;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + (order != null ? order.getLabel() : "") + (content != null ? " " + content : "");
+    }
+}
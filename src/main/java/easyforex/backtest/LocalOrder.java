@@ -0,0 +1,364 @@
+package easyforex.backtest;
+
+import com.dukascopy.api.IEngine;
+import com.dukascopy.api.IMessage;
+import com.dukascopy.api.IOrder;
+import com.dukascopy.api.ITick;
+import com.dukascopy.api.Instrument;
+import com.dukascopy.api.JFException;
+import com.dukascopy.api.OfferSide;
+
+/**
+ * Local stand-in for {@code IOrder}, amounts are in millions as in the
+ * platform
+ */
+final class LocalOrder implements LocalProxy.Target {
+
+    private final LocalEngine engine;
+    private final IOrder order;
+    private final String id;
+    private final String label;
+    private final Instrument instrument;
+    private final IEngine.OrderCommand command;
+    private final double requestedAmount;
+    private final long creationTime;
+    private final String comment;
+    private double amount;
+    private double price;
+    private double stopLossPrice;
+    private double takeProfitPrice;
+    private long goodTillTime;
+    private IOrder.State state = IOrder.State.CREATED;
+    private double openPrice;
+    private double closePrice;
+    private long fillTime;
+    private long closeTime;
+    private double realizedProfit;
+
+    LocalOrder(LocalEngine engine, String id, String label, Instrument instrument, IEngine.OrderCommand command, double amount,
+            double price, double stopLossPrice, double takeProfitPrice, long goodTillTime, String comment, long creationTime) {
+        this.engine = engine;
+        this.id = id;
+        this.label = label;
+        this.instrument = instrument;
+        this.command = command;
+        this.requestedAmount = amount;
+        this.amount = amount;
+        this.price = price;
+        this.stopLossPrice = stopLossPrice;
+        this.takeProfitPrice = takeProfitPrice;
+        this.goodTillTime = goodTillTime;
+        this.comment = comment;
+        this.creationTime = creationTime;
+        this.order = LocalProxy.create(IOrder.class, this);
+    }
+
+    /**
+     * Returns platform view of this order
+     */
+    IOrder asOrder() {
+        return order;
+    }
+
+    @Override
+    public Object call(String method, Object[] args) throws JFException {
+        switch (method) {
+            case "getId":
+                return id;
+            case "getLabel":
+                return label;
+            case "getInstrument":
+                return instrument;
+            case "getOrderCommand":
+                return command;
+            case "isLong":
+                return isLong();
+            case "getState":
+                return state;
+            case "getAmount":
+                return amount;
+            case "getRequestedAmount":
+            case "getOriginalAmount":
+                return requestedAmount;
+            case "getOpenPrice":
+                return getOpenPrice();
+            case "getClosePrice":
+                return closePrice;
+            case "getStopLossPrice":
+                return stopLossPrice;
+            case "getTakeProfitPrice":
+                return takeProfitPrice;
+            case "getStopLossSide":
+                return getStopLossSide();
+            case "getTrailingStep":
+            case "getCommission":
+            case "getCommissionInUSD":
+                return 0.0;
+            case "getCreationTime":
+                return creationTime;
+            case "getFillTime":
+                return fillTime;
+            case "getCloseTime":
+                return closeTime;
+            case "getGoodTillTime":
+                return goodTillTime;
+            case "getComment":
+                return comment;
+            case "getProfitLossInPips":
+                return getProfitLossInPips();
+            case "getProfitLossInAccountCurrency":
+            case "getProfitLossInUSD":
+                return getProfitLossInAccountCurrency();
+            case "setStopLossPrice":
+                setStopLossPrice((Double) args[0]);
+                return null;
+            case "setTakeProfitPrice":
+                setTakeProfitPrice((Double) args[0]);
+                return null;
+            case "setGoodTillTime":
+                setGoodTillTime((Long) args[0]);
+                return null;
+            case "setOpenPrice":
+                if (args.length != 1) {
+                    return LocalProxy.UNSUPPORTED;
+                }
+                setOpenPrice((Double) args[0]);
+                return null;
+            case "close":
+                close(args.length > 0 ? (Double) args[0] : 0);
+                return null;
+            case "waitForUpdate":
+                return args.length == 1 && args[0] instanceof Long ? null : LocalProxy.UNSUPPORTED;
+            default:
+                return LocalProxy.UNSUPPORTED;
+        }
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public Instrument getInstrument() {
+        return instrument;
+    }
+
+    public IEngine.OrderCommand getOrderCommand() {
+        return command;
+    }
+
+    public boolean isLong() {
+        return command.isLong();
+    }
+
+    public IOrder.State getState() {
+        return state;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+
+    public double getRequestedAmount() {
+        return requestedAmount;
+    }
+
+    public double getOriginalAmount() {
+        return requestedAmount;
+    }
+
+    public double getOpenPrice() {
+        return state == IOrder.State.FILLED || state == IOrder.State.CLOSED ? openPrice : price;
+    }
+
+    public double getClosePrice() {
+        return closePrice;
+    }
+
+    public double getStopLossPrice() {
+        return stopLossPrice;
+    }
+
+    public double getTakeProfitPrice() {
+        return takeProfitPrice;
+    }
+
+    public OfferSide getStopLossSide() {
+        return isLong() ? OfferSide.BID : OfferSide.ASK;
+    }
+
+    public double getTrailingStep() {
+        return 0;
+    }
+
+    public long getCreationTime() {
+        return creationTime;
+    }
+
+    public long getFillTime() {
+        return fillTime;
+    }
+
+    public long getCloseTime() {
+        return closeTime;
+    }
+
+    public long getGoodTillTime() {
+        return goodTillTime;
+    }
+
+    public String getComment() {
+        return comment;
+    }
+
+    public double getCommission() {
+        return 0;
+    }
+
+    public double getCommissionInUSD() {
+        return 0;
+    }
+
+    public double getProfitLossInPips() {
+        if (state == IOrder.State.FILLED) {
+            return direction() * (engine.closingPrice(this) - openPrice) / instrument.getPipValue();
+        }
+        if (state == IOrder.State.CLOSED) {
+            return direction() * (closePrice - openPrice) / instrument.getPipValue();
+        }
+        return 0;
+    }
+
+    public double getProfitLossInAccountCurrency() {
+        if (state == IOrder.State.FILLED) {
+            return realizedProfit + profit(engine.closingPrice(this), amount);
+        }
+        return realizedProfit;
+    }
+
+    public double getProfitLossInUSD() {
+        return getProfitLossInAccountCurrency();
+    }
+
+    public void setStopLossPrice(double stopLossPrice) throws JFException {
+        checkActive();
+        ITick tick = engine.lastTick(instrument);
+        if (stopLossPrice > 0 && (isLong() ? stopLossPrice >= tick.getBid() : stopLossPrice <= tick.getAsk())) {
+            engine.send(IMessage.Type.ORDER_CHANGED_REJECTED, this, null, "Stop loss price " + stopLossPrice + " is on wrong side of the market");
+            return;
+        }
+        this.stopLossPrice = stopLossPrice;
+        engine.send(IMessage.Type.ORDER_CHANGED_OK, this, null, null);
+    }
+
+    public void setStopLossPrice(double stopLossPrice, OfferSide side) throws JFException {
+        setStopLossPrice(stopLossPrice);
+    }
+
+    public void setStopLossPrice(double stopLossPrice, OfferSide side, double trailingStep) throws JFException {
+        setStopLossPrice(stopLossPrice);
+    }
+
+    public void setTakeProfitPrice(double takeProfitPrice) throws JFException {
+        checkActive();
+        this.takeProfitPrice = takeProfitPrice;
+        engine.send(IMessage.Type.ORDER_CHANGED_OK, this, null, null);
+    }
+
+    public void setGoodTillTime(long goodTillTime) throws JFException {
+        checkActive();
+        this.goodTillTime = goodTillTime;
+        engine.send(IMessage.Type.ORDER_CHANGED_OK, this, null, null);
+    }
+
+    public void setOpenPrice(double price) throws JFException {
+        if (state != IOrder.State.OPENED) {
+            throw new JFException("Open price can be changed for pending orders only");
+        }
+        this.price = price;
+        engine.send(IMessage.Type.ORDER_CHANGED_OK, this, null, null);
+    }
+
+    public void close() throws JFException {
+        close(0);
+    }
+
+    public void close(double amount) throws JFException {
+        checkActive();
+        engine.close(this, amount, null);
+    }
+
+    public void close(double amount, double price) throws JFException {
+        close(amount);
+    }
+
+    public void close(double amount, double price, double slippage) throws JFException {
+        close(amount);
+    }
+
+    public IMessage waitForUpdate(long timeout) {
+        return null;
+    }
+
+    double getPrice() {
+        return price;
+    }
+
+    void fill(double price, long time) {
+        state = IOrder.State.FILLED;
+        openPrice = price;
+        fillTime = time;
+    }
+
+    void open() {
+        state = IOrder.State.OPENED;
+    }
+
+    void cancel(long time) {
+        state = IOrder.State.CANCELED;
+        closeTime = time;
+    }
+
+    /**
+     * Closes given amount (whole if 0 or more than order amount)
+     *
+     * @return realized profit in account currency
+     */
+    double reduce(double closedAmount, double price, long time) {
+        if (closedAmount <= 0 || closedAmount >= amount) {
+            closedAmount = amount;
+        }
+        double profit = profit(price, closedAmount);
+        realizedProfit += profit;
+        amount -= closedAmount;
+        closePrice = price;
+        if (amount <= 0) {
+            amount = 0;
+            state = IOrder.State.CLOSED;
+            closeTime = time;
+        }
+        return profit;
+    }
+
+    double profit(double price, double profitAmount) {
+        return direction() * (price - openPrice) * profitAmount * 1_000_000 * engine.quoteRate(instrument);
+    }
+
+    private int direction() {
+        return isLong() ? 1 : -1;
+    }
+
+    private void checkActive() throws JFException {
+        if (state != IOrder.State.OPENED && state != IOrder.State.FILLED) {
+            throw new JFException("Order " + label + " is " + state);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "LocalOrder{" + label + ", " + command + ", " + amount + ", " + state + '}';
+    }
+}
@@ -0,0 +1,95 @@
+package easyforex.backtest;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Exposes local object as platform interface which is not on the hot path of
+ * a backtest (engine, orders, messages, account, console, utils; history and
+ * indicators are implemented directly). Local stand-ins implement only methods
+ * needed for backtesting - they dispatch calls themselves by method name and
+ * number of arguments (see {@link Target}), so no call goes through
+ * reflection. Other methods throw {@code UnsupportedOperationException}.
+ */
+final class LocalProxy implements InvocationHandler {
+
+    /**
+     * Returned by {@link Target#call} for methods which are not supported
+     */
+    static final Object UNSUPPORTED = new Object();
+
+    private static final Object[] NO_ARGS = {};
+    private static final Map<Class<?>, Constructor<?>> CONSTRUCTORS = new ConcurrentHashMap<>();
+
+    /**
+     * Local stand-in of a platform interface
+     */
+    interface Target {
+
+        /**
+         * Calls method of platform interface, primitive results have to be
+         * boxed to the declared type (e.g. {@code Long} for {@code long})
+         *
+         * @param method method name
+         * @param args   arguments, empty if there are none
+         * @return result, null for void methods, {@link #UNSUPPORTED} if the
+         * method is not supported in backtest
+         * @throws Exception
+         */
+        Object call(String method, Object[] args) throws Exception;
+    }
+
+    private final Target target;
+
+    private LocalProxy(Target target) {
+        this.target = target;
+    }
+
+    /**
+     * Creates proxy of given interface, forwarding calls to target
+     *
+     * @param <T>
+     * @param type   platform interface
+     * @param target local implementation
+     * @return
+     */
+    static <T> T create(Class<T> type, Target target) {
+        Constructor<?> constructor = CONSTRUCTORS.computeIfAbsent(type, LocalProxy::constructor);
+        try {
+            return type.cast(constructor.newInstance(new LocalProxy(target)));
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return target.toString();
+            }
+        }
+        Object result = target.call(method.getName(), args != null ? args : NO_ARGS);
+        if (result == UNSUPPORTED) {
+            throw new UnsupportedOperationException(method.getDeclaringClass().getSimpleName() + "." + method.getName() + " is not supported in backtest");
+        }
+        return result;
+    }
+
+    private static Constructor<?> constructor(Class<?> type) {
+        try {
+            return Proxy.getProxyClass(type.getClassLoader(), type).getConstructor(InvocationHandler.class);
+        } catch (NoSuchMethodException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
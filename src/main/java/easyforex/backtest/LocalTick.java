@@ -0,0 +1,92 @@
+package easyforex.backtest;
+
+import com.dukascopy.api.ITick;
+
+/**
+ * Replayed tick, {@link Backtester} reuses one instance per instrument - its
+ * values change with every tick of the instrument, copy it (e.g. to
+ * {@code SimpleTick}) to keep a tick.
+ */
+final class LocalTick implements ITick {
+
+    private long time;
+    private double ask;
+    private double bid;
+    private double askVolume;
+    private double bidVolume;
+
+    /**
+     * Sets values of current tick of given source
+     *
+     * @param ticks
+     * @return this tick
+     */
+    LocalTick set(TickSource ticks) {
+        this.time = ticks.getTime();
+        this.ask = ticks.getAsk();
+        this.bid = ticks.getBid();
+        this.askVolume = ticks.getAskVolume();
+        this.bidVolume = ticks.getBidVolume();
+        return this;
+    }
+
+    @Override
+    public long getTime() {
+        return time;
+    }
+
+    @Override
+    public double getAsk() {
+        return ask;
+    }
+
+    @Override
+    public double getBid() {
+        return bid;
+    }
+
+    @Override
+    public double getAskVolume() {
+        return askVolume;
+    }
+
+    @Override
+    public double getBidVolume() {
+        return bidVolume;
+    }
+
+    @Override
+    public double[] getAsks() {
+        return new double[]{ask};
+    }
+
+    @Override
+    public double[] getBids() {
+        return new double[]{bid};
+    }
+
+    @Override
+    public double[] getAskVolumes() {
+        return new double[]{askVolume};
+    }
+
+    @Override
+    public double[] getBidVolumes() {
+        return new double[]{bidVolume};
+    }
+
+    @Override
+    public double getTotalAskVolume() {
+        return askVolume;
+    }
+
+    @Override
+    public double getTotalBidVolume() {
+        return bidVolume;
+    }
+
+    @Override
+    public String toString() {
+        return "LocalTick{time=" + time + ", ask=" + ask + ", bid=" + bid + '}';
+    }
+}
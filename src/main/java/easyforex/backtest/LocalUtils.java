@@ -0,0 +1,120 @@
+package easyforex.backtest;
+
+import com.dukascopy.api.ITick;
+import com.dukascopy.api.Instrument;
+import com.dukascopy.api.OfferSide;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Local stand-in for {@code IJFUtils}, converts using last replayed ticks.
+ * Conversion of instruments which quote currency is not account currency
+ * needs ticks of a cross instrument, e.g. EUR/USD for USD/JPY on EUR account.
+ */
+final class LocalUtils implements LocalProxy.Target {
+
+    private final LocalHistory history;
+    private final String accountCurrency;
+    private final Map<Instrument, Conversion> conversions = new EnumMap<>(Instrument.class);
+
+    LocalUtils(LocalHistory history, String accountCurrency) {
+        this.history = history;
+        this.accountCurrency = accountCurrency;
+    }
+
+    @Override
+    public Object call(String method, Object[] args) {
+        if (method.equals("convertPipToCurrency") && (args.length == 2 || args.length == 3)) {
+            return convertPipToCurrency((Instrument) args[0], args[1]);
+        }
+        return LocalProxy.UNSUPPORTED;
+    }
+
+    public double convertPipToCurrency(Instrument instrument, Object currency) {
+        return instrument.getPipValue() * quoteRate(instrument, String.valueOf(currency));
+    }
+
+    public double convertPipToCurrency(Instrument instrument, Object currency, OfferSide offerSide) {
+        return convertPipToCurrency(instrument, currency);
+    }
+
+    /**
+     * Returns rate of instrument's quote currency in account currency
+     *
+     * @param instrument
+     * @return
+     */
+    double quoteRate(Instrument instrument) {
+        Conversion conversion = conversions.get(instrument);
+        if (conversion == null) {
+            conversion = conversion(instrument, accountCurrency);
+            conversions.put(instrument, conversion);
+        }
+        return conversion.rate(history);
+    }
+
+    private double quoteRate(Instrument instrument, String currency) {
+        if (currency.equals(accountCurrency)) {
+            return quoteRate(instrument);
+        }
+        return conversion(instrument, currency).rate(history);
+    }
+
+    private static Conversion conversion(Instrument instrument, String currency) {
+        String[] currencies = currencies(instrument);
+        if (currencies[1].equals(currency)) {
+            return new Conversion(null, false);
+        }
+        if (currencies[0].equals(currency)) {
+            return new Conversion(instrument, true);
+        }
+        Instrument direct = find(currencies[1] + "/" + currency);
+        if (direct != null) {
+            return new Conversion(direct, false);
+        }
+        Instrument inverse = find(currency + "/" + currencies[1]);
+        if (inverse != null) {
+            return new Conversion(inverse, true);
+        }
+        throw new IllegalArgumentException("Can not convert " + currencies[1] + " to " + currency);
+    }
+
+    static String[] currencies(Instrument instrument) {
+        String[] currencies = instrument.toString().split("/");
+        if (currencies.length != 2) {
+            throw new IllegalArgumentException("Unsupported instrument: " + instrument);
+        }
+        return currencies;
+    }
+
+    private static Instrument find(String name) {
+        for (Instrument instrument : Instrument.values()) {
+            if (instrument.toString().equals(name)) {
+                return instrument;
+            }
+        }
+        return null;
+    }
+
+    private static final class Conversion {
+
+        private final Instrument instrument;
+        private final boolean inverse;
+
+        Conversion(Instrument instrument, boolean inverse) {
+            this.instrument = instrument;
+            this.inverse = inverse;
+        }
+
+        double rate(LocalHistory history) {
+            if (instrument == null) {
+                return 1;
+            }
+            ITick tick = history.getLastTick(instrument);
+            if (tick == null) {
+                throw new IllegalStateException("No ticks of " + instrument + " needed for currency conversion");
+            }
+            return inverse ? 1 / tick.getAsk() : tick.getBid();
+        }
+    }
+}
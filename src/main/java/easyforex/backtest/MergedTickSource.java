@@ -0,0 +1,81 @@
+package easyforex.backtest;
+
+import com.dukascopy.api.Instrument;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Merges ticks of several sources (e.g. one per instrument) by time
+ */
+public final class MergedTickSource implements TickSource {
+
+    private final TickSource[] sources;
+    private final boolean[] available;
+    private boolean started;
+    private TickSource current;
+
+    public MergedTickSource(List<? extends TickSource> sources) {
+        this.sources = sources.toArray(new TickSource[sources.size()]);
+        this.available = new boolean[this.sources.length];
+    }
+
+    @Override
+    public boolean next() throws IOException {
+        if (!started) {
+            for (int i = 0; i < sources.length; i++) {
+                available[i] = sources[i].next();
+            }
+            started = true;
+        } else if (current != null) {
+            for (int i = 0; i < sources.length; i++) {
+                if (sources[i] == current) {
+                    available[i] = current.next();
+                }
+            }
+        }
+        current = null;
+        for (int i = 0; i < sources.length; i++) {
+            if (available[i] && (current == null || sources[i].getTime() < current.getTime())) {
+                current = sources[i];
+            }
+        }
+        return current != null;
+    }
+
+    @Override
+    public Instrument getInstrument() {
+        return current.getInstrument();
+    }
+
+    @Override
+    public long getTime() {
+        return current.getTime();
+    }
+
+    @Override
+    public double getAsk() {
+        return current.getAsk();
+    }
+
+    @Override
+    public double getBid() {
+        return current.getBid();
+    }
+
+    @Override
+    public double getAskVolume() {
+        return current.getAskVolume();
+    }
+
+    @Override
+    public double getBidVolume() {
+        return current.getBidVolume();
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (TickSource source : sources) {
+            source.close();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package easyforex.backtest;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Map;
+
+/**
+ * Backtest result of one parameter set
+ */
+public final class OptimizationResult {
+
+    /**
+     * Higher net profit first
+     */
+    public static final Comparator<OptimizationResult> BY_NET_PROFIT
+            = Comparator.comparingDouble((OptimizationResult result) -> result.getReport().getNetProfit()).reversed();
+    /**
+     * Lower max drawdown (percent) first
+     */
+    public static final Comparator<OptimizationResult> BY_DRAWDOWN
+            = Comparator.comparingDouble(result -> result.getReport().getMaxDrawdownPercent());
+    /**
+     * Higher Sharpe ratio first
+     */
+    public static final Comparator<OptimizationResult> BY_SHARPE_RATIO
+            = Comparator.comparingDouble((OptimizationResult result) -> result.getReport().getSharpeRatio()).reversed();
+
+    private final Map<String, Object> parameters;
+    private final BacktestReport report;
+
+    OptimizationResult(Map<String, Object> parameters, BacktestReport report) {
+        this.parameters = Collections.unmodifiableMap(parameters);
+        this.report = report;
+    }
+
+    public Map<String, Object> getParameters() {
+        return parameters;
+    }
+
+    public BacktestReport getReport() {
+        return report;
+    }
+
+    @Override
+    public String toString() {
+        return parameters + " -> " + report;
+    }
+}
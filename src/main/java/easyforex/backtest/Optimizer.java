@@ -0,0 +1,148 @@
+package easyforex.backtest;
+
+import com.dukascopy.api.IStrategy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Runs backtests of many parameter sets in parallel, e.g.
+ * <pre>
+ * ParameterSpace space = new ParameterSpace(JustMacd.class)
+ *         .range("macdFastPeriod", 8, 16)
+ *         .range("macdSlowPeriod", 20, 32, 2);
+ * try (TickFile ticks = TickFile.open(path)) {
+ *     List&lt;OptimizationResult&gt; results = new Optimizer(JustMacd::new, ticks::cursor)
+ *             .run(space, space.grid(), OptimizationResult.BY_NET_PROFIT);
+ * }
+ * </pre> Every parameter set gets own strategy instance and backtester, market
+ * data is shared: every run reads own cursor (e.g. of a memory-mapped
+ * {@link TickFile}).
+ */
+public final class Optimizer {
+
+    private final Supplier<? extends IStrategy> strategyFactory;
+    private final TickSourceFactory ticks;
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+    private Consumer<Backtester> backtesterSetup = backtester -> {
+    };
+    private Consumer<OptimizationResult> progressListener = result -> {
+    };
+
+    /**
+     * @param strategyFactory creates new strategy instance
+     * @param ticks           opens new cursor of market data
+     */
+    public Optimizer(Supplier<? extends IStrategy> strategyFactory, TickSourceFactory ticks) {
+        this.strategyFactory = strategyFactory;
+        this.ticks = ticks;
+    }
+
+    /**
+     * Sets pool running backtests, common pool by default
+     *
+     * @param pool
+     */
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Sets configuration of backtesters (deposit, periods...), console output
+     * is discarded by default
+     *
+     * @param backtesterSetup
+     */
+    public void setBacktesterSetup(Consumer<Backtester> backtesterSetup) {
+        this.backtesterSetup = backtesterSetup;
+    }
+
+    /**
+     * Sets listener called after each finished backtest, from pool threads
+     *
+     * @param progressListener
+     */
+    public void setProgressListener(Consumer<OptimizationResult> progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    /**
+     * Runs backtests of all parameter sets
+     *
+     * @param space         space the parameter sets come from
+     * @param parameterSets e.g. {@code space.grid()}
+     * @param ranking       order of results, e.g.
+     *                      {@code OptimizationResult.BY_NET_PROFIT}
+     * @return results in ranking order
+     * @throws IOException if market data cannot be read
+     * @throws InterruptedException
+     */
+    public List<OptimizationResult> run(ParameterSpace space, List<Map<String, Object>> parameterSets, Comparator<OptimizationResult> ranking)
+            throws IOException, InterruptedException {
+        List<ForkJoinTask<OptimizationResult>> tasks = new ArrayList<>(parameterSets.size());
+        for (Map<String, Object> parameters : parameterSets) {
+            tasks.add(pool.submit(() -> run(space, parameters)));
+        }
+        List<OptimizationResult> results = new ArrayList<>(tasks.size());
+        int failed = 0;
+        Throwable failure = null;
+        for (ForkJoinTask<OptimizationResult> task : tasks) {
+            try {
+                results.add(task.get());
+            } catch (ExecutionException ex) {
+                failed++;
+                if (failure == null) {
+                    failure = unwrap(ex);
+                }
+            }
+        }
+        if (failure != null) {
+            if (failure instanceof IOException) {
+                throw (IOException) failure;
+            }
+            throw new IllegalStateException(failed + " of " + tasks.size() + " backtests failed", failure);
+        }
+        results.sort(ranking);
+        return results;
+    }
+
+    private OptimizationResult run(ParameterSpace space, Map<String, Object> parameters) throws Exception {
+        IStrategy strategy = strategyFactory.get();
+        space.apply(strategy, parameters);
+        Backtester backtester = new Backtester(strategy);
+        backtester.setConsole(null);
+        backtesterSetup.accept(backtester);
+        try (TickSource source = ticks.open()) {
+            OptimizationResult result = new OptimizationResult(parameters, backtester.run(source));
+            progressListener.accept(result);
+            return result;
+        }
+    }
+
+    /**
+     * Returns failure of a backtest, pool wraps checked exceptions of tasks
+     * (and rethrows them wrapped again in other threads) in RuntimeException
+     */
+    private static Throwable unwrap(ExecutionException ex) {
+        Throwable failure = ex.getCause();
+        while (failure.getClass() == RuntimeException.class && failure.getCause() != null) {
+            failure = failure.getCause();
+        }
+        return failure;
+    }
+
+    /**
+     * Opens new cursor of market data for each backtest
+     */
+    public interface TickSourceFactory {
+
+        TickSource open() throws IOException;
+    }
+}
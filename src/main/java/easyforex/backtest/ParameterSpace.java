@@ -0,0 +1,222 @@
+package easyforex.backtest;
+
+import com.dukascopy.api.Configurable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Search space over {@code @Configurable} fields of a strategy class. Values
+ * of chosen fields are given as lists or ranges, other fields keep their
+ * defaults. Produces all combinations (grid) or random samples.
+ */
+public final class ParameterSpace {
+
+    private final Class<?> strategyClass;
+    private final Map<String, Field> fields = new LinkedHashMap<>();
+    private final Map<String, List<Object>> values = new LinkedHashMap<>();
+
+    public ParameterSpace(Class<?> strategyClass) {
+        this.strategyClass = strategyClass;
+        for (Field field : strategyClass.getFields()) {
+            if (field.isAnnotationPresent(Configurable.class) && !Modifier.isStatic(field.getModifiers()) && !Modifier.isFinal(field.getModifiers())) {
+                fields.put(field.getName(), field);
+            }
+        }
+    }
+
+    public Class<?> getStrategyClass() {
+        return strategyClass;
+    }
+
+    /**
+     * Returns names of all configurable fields
+     *
+     * @return
+     */
+    public List<String> getConfigurableFields() {
+        return new ArrayList<>(fields.keySet());
+    }
+
+    /**
+     * Sets values of a field
+     *
+     * @param name   field name
+     * @param values values assignable to the field (numbers are converted)
+     * @return this
+     */
+    public ParameterSpace values(String name, Object... values) {
+        Field field = getField(name);
+        List<Object> converted = new ArrayList<>(values.length);
+        for (Object value : values) {
+            converted.add(convert(field, value));
+        }
+        this.values.put(name, converted);
+        return this;
+    }
+
+    /**
+     * Sets numeric range of a field, step is taken from
+     * {@code Configurable.stepSize}, or 1 if it is not set
+     *
+     * @param name
+     * @param from
+     * @param to   inclusive
+     * @return this
+     */
+    public ParameterSpace range(String name, double from, double to) {
+        double step = getField(name).getAnnotation(Configurable.class).stepSize();
+        return range(name, from, to, step > 0 ? step : 1);
+    }
+
+    /**
+     * Sets numeric range of a field, values rounded to the same value of an
+     * integer field are used once
+     *
+     * @param name
+     * @param from
+     * @param to   inclusive
+     * @param step
+     * @return this
+     */
+    public ParameterSpace range(String name, double from, double to, double step) {
+        if (step <= 0 || to < from) {
+            throw new IllegalArgumentException("Invalid range of " + name + ": " + from + " - " + to + " / " + step);
+        }
+        Field field = getField(name);
+        List<Object> range = new ArrayList<>();
+        // decimal steps, so 0.1 steps do not drift
+        BigDecimal decimalStep = BigDecimal.valueOf(step);
+        for (BigDecimal value = BigDecimal.valueOf(from); value.doubleValue() <= to; value = value.add(decimalStep)) {
+            Object converted = convert(field, value.doubleValue());
+            // fractional steps of integer fields round to the same value
+            if (range.isEmpty() || !converted.equals(range.get(range.size() - 1))) {
+                range.add(converted);
+            }
+        }
+        values.put(name, range);
+        return this;
+    }
+
+    /**
+     * Returns number of grid combinations
+     *
+     * @return
+     */
+    public long size() {
+        long size = 1;
+        for (List<Object> list : values.values()) {
+            size *= list.size();
+        }
+        return size;
+    }
+
+    /**
+     * Returns all combinations of given values
+     *
+     * @return
+     */
+    public List<Map<String, Object>> grid() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        result.add(Collections.emptyMap());
+        for (Map.Entry<String, List<Object>> entry : values.entrySet()) {
+            List<Map<String, Object>> expanded = new ArrayList<>(result.size() * entry.getValue().size());
+            for (Map<String, Object> parameters : result) {
+                for (Object value : entry.getValue()) {
+                    Map<String, Object> next = new LinkedHashMap<>(parameters);
+                    next.put(entry.getKey(), value);
+                    expanded.add(next);
+                }
+            }
+            result = expanded;
+        }
+        return result;
+    }
+
+    /**
+     * Returns random combinations of given values
+     *
+     * @param number number of combinations
+     * @param seed   random seed, so searches can be repeated
+     * @return
+     */
+    public List<Map<String, Object>> random(int number, long seed) {
+        Random random = new Random(seed);
+        List<Map<String, Object>> result = new ArrayList<>(number);
+        for (int i = 0; i < number; i++) {
+            Map<String, Object> parameters = new LinkedHashMap<>();
+            for (Map.Entry<String, List<Object>> entry : values.entrySet()) {
+                List<Object> list = entry.getValue();
+                parameters.put(entry.getKey(), list.get(random.nextInt(list.size())));
+            }
+            result.add(parameters);
+        }
+        return result;
+    }
+
+    /**
+     * Sets parameters to fields of strategy instance
+     *
+     * @param strategy
+     * @param parameters
+     */
+    public void apply(Object strategy, Map<String, Object> parameters) {
+        for (Map.Entry<String, Object> entry : parameters.entrySet()) {
+            Field field = getField(entry.getKey());
+            try {
+                field.set(strategy, entry.getValue());
+            } catch (IllegalAccessException ex) {
+                throw new IllegalStateException("Cannot set " + entry.getKey(), ex);
+            }
+        }
+    }
+
+    private Field getField(String name) {
+        Field field = fields.get(name);
+        if (field == null) {
+            throw new IllegalArgumentException("No @Configurable field " + name + " in " + strategyClass.getSimpleName());
+        }
+        return field;
+    }
+
+    private static Object convert(Field field, Object value) {
+        Class<?> type = field.getType();
+        if (value instanceof Number) {
+            Number number = (Number) value;
+            if (type == int.class || type == Integer.class) {
+                return (int) Math.round(number.doubleValue());
+            } else if (type == long.class || type == Long.class) {
+                return Math.round(number.doubleValue());
+            } else if (type == double.class || type == Double.class) {
+                return number.doubleValue();
+            } else if (type == float.class || type == Float.class) {
+                return number.floatValue();
+            }
+        }
+        if (!wrap(type).isInstance(value)) {
+            throw new IllegalArgumentException("Value " + value + " does not fit field " + field.getName() + " of type " + type.getSimpleName());
+        }
+        return value;
+    }
+
+    private static Class<?> wrap(Class<?> type) {
+        if (type == boolean.class) {
+            return Boolean.class;
+        } else if (type == int.class) {
+            return Integer.class;
+        } else if (type == long.class) {
+            return Long.class;
+        } else if (type == double.class) {
+            return Double.class;
+        } else if (type == float.class) {
+            return Float.class;
+        }
+        return type;
+    }
+}
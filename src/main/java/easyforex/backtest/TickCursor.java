@@ -0,0 +1,126 @@
+package easyforex.backtest;
+
+import com.dukascopy.api.ITick;
+import com.dukascopy.api.Instrument;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * Cursor over mapped tick columns. The cursor itself is the current tick, its
+ * values change with every {@code next()} - copy it (e.g. to
+ * {@code SimpleTick}) to keep a tick.
+ */
+public final class TickCursor implements TickSource, ITick {
+
+    private final ColumnarFile header;
+    private final IntBuffer timeDeltas;
+    private final IntBuffer bidDeltas;
+    private final IntBuffer spreads;
+    private final FloatBuffer askVolumes;
+    private final FloatBuffer bidVolumes;
+    private final int size;
+    private int index = -1;
+    private long time;
+    private long bid;
+
+    TickCursor(ColumnarFile header, IntBuffer timeDeltas, IntBuffer bidDeltas, IntBuffer spreads, FloatBuffer askVolumes, FloatBuffer bidVolumes) {
+        this.header = header;
+        this.timeDeltas = timeDeltas;
+        this.bidDeltas = bidDeltas;
+        this.spreads = spreads;
+        this.askVolumes = askVolumes;
+        this.bidVolumes = bidVolumes;
+        this.size = (int) header.count;
+        this.time = header.baseTime;
+        this.bid = header.basePrice;
+    }
+
+    @Override
+    public boolean next() {
+        if (index + 1 >= size) {
+            return false;
+        }
+        index++;
+        time += timeDeltas.get(index);
+        bid += bidDeltas.get(index);
+        return true;
+    }
+
+    /**
+     * Returns index of current tick, -1 before the first one
+     *
+     * @return
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    @Override
+    public Instrument getInstrument() {
+        return header.instrument;
+    }
+
+    @Override
+    public long getTime() {
+        return time;
+    }
+
+    @Override
+    public double getAsk() {
+        return header.toPrice(bid + spreads.get(index));
+    }
+
+    @Override
+    public double getBid() {
+        return header.toPrice(bid);
+    }
+
+    @Override
+    public double getAskVolume() {
+        return askVolumes.get(index);
+    }
+
+    @Override
+    public double getBidVolume() {
+        return bidVolumes.get(index);
+    }
+
+    @Override
+    public double[] getAsks() {
+        return new double[]{getAsk()};
+    }
+
+    @Override
+    public double[] getBids() {
+        return new double[]{getBid()};
+    }
+
+    @Override
+    public double[] getAskVolumes() {
+        return new double[]{getAskVolume()};
+    }
+
+    @Override
+    public double[] getBidVolumes() {
+        return new double[]{getBidVolume()};
+    }
+
+    @Override
+    public double getTotalAskVolume() {
+        return getAskVolume();
+    }
+
+    @Override
+    public double getTotalBidVolume() {
+        return getBidVolume();
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public String toString() {
+        return "TickCursor{" + header.instrument + ", " + index + ", " + time + ", " + getAsk() + ", " + getBid() + '}';
+    }
+}
@@ -0,0 +1,90 @@
+package easyforex.backtest;
+
+import com.dukascopy.api.Instrument;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Memory-mapped columnar tick file written by {@link TickFileWriter}. Ticks
+ * are read through cursors working directly on mapped columns, e.g.
+ * <pre>
+ * try (TickFile file = TickFile.open(path)) {
+ *     System.out.println(new Backtester(strategy).run(file.cursor()));
+ * }
+ * </pre>
+ */
+public final class TickFile implements Closeable {
+
+    private final FileChannel channel;
+    private final ColumnarFile header;
+    private final ByteBuffer[] columns;
+
+    private TickFile(FileChannel channel) throws IOException {
+        this.channel = channel;
+        this.header = ColumnarFile.read(channel);
+        if (header.kind != ColumnarFile.TICKS) {
+            throw new IOException("Not a tick file");
+        }
+        this.columns = new ByteBuffer[ColumnarFile.TICK_COLUMNS];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = header.map(channel, i);
+        }
+    }
+
+    public static TickFile open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new TickFile(channel);
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    public Instrument getInstrument() {
+        return header.instrument;
+    }
+
+    /**
+     * Returns number of ticks
+     *
+     * @return
+     */
+    public long size() {
+        return header.count;
+    }
+
+    /**
+     * Returns new cursor placed before the first tick. Cursors are independent,
+     * so one file may be read by several threads.
+     *
+     * @return
+     */
+    public TickCursor cursor() {
+        return new TickCursor(header, asInts(0), asInts(1), asInts(2), asFloats(3), asFloats(4));
+    }
+
+    private IntBuffer asInts(int column) {
+        return columns[column].duplicate().asIntBuffer();
+    }
+
+    private FloatBuffer asFloats(int column) {
+        return columns[column].duplicate().asFloatBuffer();
+    }
+
+    /**
+     * Closes the file, mapped columns stay valid until garbage collected
+     *
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
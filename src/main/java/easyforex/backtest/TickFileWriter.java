@@ -0,0 +1,91 @@
+package easyforex.backtest;
+
+import com.dukascopy.api.ITick;
+import com.dukascopy.api.Instrument;
+import com.dukascopy.api.OfferSide;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Writes ticks of one instrument to columnar file (see {@link TickFile}).
+ * Ticks must be ordered by time, prices are stored in tick size (pip / 10)
+ * and volumes as floats.
+ */
+public final class TickFileWriter implements Closeable {
+
+    private final Path file;
+    private final Instrument instrument;
+    private final ColumnarWriter writer;
+    private final double priceFactor;
+    private ColumnarFile header;
+    private long count;
+    private long lastTime;
+    private int lastBid;
+
+    public TickFileWriter(Path file, Instrument instrument) throws IOException {
+        this.file = file;
+        this.instrument = instrument;
+        this.writer = new ColumnarWriter(file, ColumnarFile.TICK_COLUMNS);
+        this.priceFactor = ColumnarFile.priceFactor(instrument);
+    }
+
+    public void append(ITick tick) throws IOException {
+        append(tick.getTime(), tick.getAsk(), tick.getBid(), tick.getAskVolume(), tick.getBidVolume());
+    }
+
+    /**
+     * Appends all ticks of the source
+     *
+     * @param source
+     * @return number of appended ticks
+     * @throws IOException
+     */
+    public long appendAll(TickSource source) throws IOException {
+        long appended = 0;
+        while (source.next()) {
+            append(source.getTime(), source.getAsk(), source.getBid(), source.getAskVolume(), source.getBidVolume());
+            appended++;
+        }
+        return appended;
+    }
+
+    public void append(long time, double ask, double bid, double askVolume, double bidVolume) throws IOException {
+        int bidTicks = ColumnarFile.toTicks(bid, priceFactor);
+        if (header == null) {
+            header = new ColumnarFile(ColumnarFile.TICKS, instrument, 0, OfferSide.BID, 1, time, bidTicks);
+            lastTime = time;
+            lastBid = bidTicks;
+        }
+        long timeDelta = time - lastTime;
+        if (timeDelta < 0 || timeDelta > Integer.MAX_VALUE) {
+            throw new IOException("Tick at " + time + " is " + timeDelta + " ms after previous one");
+        }
+        writer.writeInt(0, (int) timeDelta);
+        writer.writeInt(1, bidTicks - lastBid);
+        writer.writeInt(2, ColumnarFile.toTicks(ask, priceFactor) - bidTicks);
+        writer.writeFloat(3, askVolume);
+        writer.writeFloat(4, bidVolume);
+        lastTime = time;
+        lastBid = bidTicks;
+        count++;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (header == null) {
+            header = new ColumnarFile(ColumnarFile.TICKS, instrument, 0, OfferSide.BID, 1, 0, 0);
+        }
+        header.count = count;
+        writer.finish(header);
+    }
+
+    @Override
+    public String toString() {
+        return "TickFileWriter{" + file + ", " + count + '}';
+    }
+}
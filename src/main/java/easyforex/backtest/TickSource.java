@@ -0,0 +1,31 @@
+package easyforex.backtest;
+
+import com.dukascopy.api.Instrument;
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Cursor over ticks ordered by time
+ */
+public interface TickSource extends Closeable {
+
+    /**
+     * Moves to next tick
+     *
+     * @return false if there are no more ticks
+     * @throws IOException
+     */
+    boolean next() throws IOException;
+
+    Instrument getInstrument();
+
+    long getTime();
+
+    double getAsk();
+
+    double getBid();
+
+    double getAskVolume();
+
+    double getBidVolume();
+}
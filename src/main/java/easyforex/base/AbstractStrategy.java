@@ -11,12 +11,19 @@ import com.dukascopy.api.ITick;
 import com.dukascopy.api.Instrument;
 import com.dukascopy.api.JFException;
 import com.dukascopy.api.Period;
+import easyforex.indicator.StreamingIndicators;
+import easyforex.util.AsyncLogger;
+import easyforex.util.BarStore;
+import easyforex.util.LastTickCache;
 import easyforex.util.MessageUtils;
+import easyforex.util.OrderFutures;
+import easyforex.util.OrderIndex;
 import easyforex.util.StopLossTakeProfitUtils;
+import easyforex.util.StrategyMetrics;
 import easyforex.util.StrategyUtils;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
 
 /**
  * Base class with common tools for strategies
@@ -27,13 +34,32 @@ public abstract class AbstractStrategy implements IStrategy {
     // this strategy name
     protected final String strategyName;
     protected final AtomicInteger orderCounter = new AtomicInteger();
+    // this strategy open orders
+    protected final OrderIndex orderIndex;
+    // fill futures of orders submitted by submitOrderAsync
+    protected final OrderFutures orderFutures;
+    // incremental indicators, updated in onBar
+    protected StreamingIndicators streamingIndicators;
+    // completed bars, updated in onBar
+    protected BarStore barStore;
+    // last ticks, updated in onTick, shared in StrategyComposer
+    protected LastTickCache lastTicks;
+    // callback latencies measured by StrategyComposer, null if not in a
+    // composer or if StrategyMetrics are disabled
+    protected StrategyMetrics metrics;
+    // console output, shared by strategies using the same console
+    protected AsyncLogger logger;
 
     public AbstractStrategy() {
         strategyName = this.getClass().getSimpleName() + "_" + StrategyUtils.getUniqueNameSufix();
+        orderIndex = new OrderIndex(strategyName);
+        orderFutures = new OrderFutures(strategyName);
     }
 
     public AbstractStrategy(String strategyName) {
         this.strategyName = strategyName;
+        this.orderIndex = new OrderIndex(strategyName);
+        this.orderFutures = new OrderFutures(strategyName);
     }
 
     /**
@@ -45,21 +71,54 @@ public abstract class AbstractStrategy implements IStrategy {
     @Override
     public void onStart(IContext context) throws JFException {
         this.context = context;
+        this.logger = AsyncLogger.acquire(context.getConsole());
+        this.streamingIndicators = new StreamingIndicators(context.getHistory());
+        this.barStore = new BarStore(context.getHistory());
+        StrategyContext strategyContext = StrategyContext.of(context);
+        this.lastTicks = strategyContext != null
+                ? strategyContext.getLastTickCache()
+                : new LastTickCache(context.getHistory());
+        this.orderIndex.load(context.getEngine().getOrders());
+        if (StrategyMetrics.isEnabled() && strategyContext != null) {
+            this.metrics = StrategyMetrics.register(strategyName);
+        }
         println(strategyName + " started.");
     }
 
+    /**
+     * Updates {@code lastTicks}, use super.onTick(...) when you override this
+     *
+     * @param instrument
+     * @param tick
+     * @throws JFException
+     */
     @Override
     public void onTick(Instrument instrument, ITick tick) throws JFException {
+        lastTicks.onTick(instrument, tick);
     }
 
+    /**
+     * Updates {@code streamingIndicators} and {@code barStore}, use
+     * super.onBar(...) when you override this
+     *
+     * @param instrument
+     * @param period
+     * @param askBar
+     * @param bidBar
+     * @throws JFException
+     */
     @Override
     public void onBar(Instrument instrument, Period period, IBar askBar, IBar bidBar) throws JFException {
+        streamingIndicators.onBar(instrument, period, askBar, bidBar);
+        barStore.onBar(instrument, period, askBar, bidBar);
     }
 
     @Override
     public void onMessage(IMessage message) throws JFException {
         if (message.getOrder() != null && message.getOrder().getLabel().startsWith(strategyName)) {
-            MessageUtils.printMessage(context, message);
+            orderIndex.onMessage(message);
+            orderFutures.onMessage(message);
+            MessageUtils.printMessage(logger, message);
         }
     }
 
@@ -72,6 +131,24 @@ public abstract class AbstractStrategy implements IStrategy {
         for (IOrder order : getOrders()) {
             order.close();
         }
+        orderFutures.failAll("not filled before strategy stopped");
+        if (metrics != null) {
+            StrategyMetrics.unregister(metrics);
+        }
+        AsyncLogger.release(context.getConsole());
+    }
+
+    /**
+     * Returns latencies of this strategy's callbacks. They are measured by
+     * {@link StrategyComposer}, which sees the whole callback including
+     * subclass code, so run a single strategy as the only strategy of a
+     * composer to measure it.
+     *
+     * @return null if not in a composer or if {@link StrategyMetrics} are
+     * disabled
+     */
+    public StrategyMetrics getMetrics() {
+        return metrics;
     }
 
     /**
@@ -89,29 +166,60 @@ public abstract class AbstractStrategy implements IStrategy {
         final String label = strategyName + "_" + orderCounter.incrementAndGet();
         double sl = StopLossTakeProfitUtils.round(instrument, stopLossPrice);
         double tp = StopLossTakeProfitUtils.round(instrument, takeProfitPrice);
-        return StrategyUtils.submitOrder(context, label, instrument, command, amount, sl, tp);
+        IOrder order = StrategyUtils.submitOrder(context, label, instrument, command, amount, sl, tp);
+        orderIndex.add(order);
+        return order;
+    }
+
+    /**
+     * Submits order like {@code submitOrder}, but returns future completed
+     * when the order is filled (from {@code onMessage}, use super.onMessage
+     * when you override it). Several orders submitted in one callback can be
+     * awaited together with {@link OrderFutures#allFilled(List)}, never block
+     * on the future in a callback.
+     *
+     * @param instrument
+     * @param command
+     * @param amount
+     * @param stopLossPrice
+     * @param takeProfitPrice
+     * @return future of filled order, failed if order is rejected or can't
+     * be submitted
+     */
+    protected CompletableFuture<IOrder> submitOrderAsync(Instrument instrument, IEngine.OrderCommand command, double amount, double stopLossPrice, double takeProfitPrice) {
+        long start = System.nanoTime();
+        IOrder order;
+        try {
+            order = submitOrder(instrument, command, amount, stopLossPrice, takeProfitPrice);
+        } catch (JFException | RuntimeException ex) {
+            CompletableFuture<IOrder> failed = new CompletableFuture<>();
+            failed.completeExceptionally(ex);
+            return failed;
+        }
+        return orderFutures.track(order, start);
     }
 
     /**
-     * Returns this strategy orders (submited by {@code submitOrder} method)
+     * Returns this strategy open orders (submited by {@code submitOrder}
+     * method). Returned list is immutable.
      *
      * @return
      * @throws JFException
      */
     protected List<IOrder> getOrders() throws JFException {
-        return context.getEngine().getOrders()
-                .stream()
-                .filter(order -> order.getLabel().startsWith(strategyName))
-                .collect(Collectors.toList());
+        return orderIndex.getOrders();
     }
 
     /**
-     * An "alias" for Ducascopy's print method.
+     * An "alias" for Ducascopy's print method, printed asynchronously by
+     * {@code logger}.
      *
      * @param obj
      */
     protected void println(Object obj) {
-        context.getConsole().getOut().println(obj);
+        if (logger.isEnabled(AsyncLogger.Level.OUT)) {
+            logger.log(AsyncLogger.Level.OUT, String.valueOf(obj));
+        }
     }
 
     /**
@@ -0,0 +1,11 @@
+package easyforex.base;
+
+/**
+ * Marks strategy which does not call {@code IEngine} or {@code IOrder} from
+ * its callbacks (e.g. signals, statistics). Platform accepts order operations
+ * only from strategy thread, so in parallel dispatch mode
+ * {@link StrategyComposer} runs only these strategies on worker threads, other
+ * strategies are still called from strategy thread.
+ */
+public interface NonTradingStrategy {
+}
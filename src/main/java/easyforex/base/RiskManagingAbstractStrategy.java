@@ -1,18 +1,86 @@
 package easyforex.base;
 
 import com.dukascopy.api.Configurable;
+import com.dukascopy.api.IAccount;
+import com.dukascopy.api.IContext;
 import com.dukascopy.api.IEngine;
 import com.dukascopy.api.IOrder;
 import com.dukascopy.api.ITick;
+import com.dukascopy.api.Instrument;
 import com.dukascopy.api.JFException;
+import easyforex.util.PipValueCache;
 import easyforex.util.RiskManagingUtils;
 import easyforex.util.StopLossTakeProfitUtils;
+import java.util.List;
 
 public abstract class RiskManagingAbstractStrategy extends SingleInstrumentAbstarctStrategy {
 
     @Configurable(value = "Risk percent per trade", stepSize = 0.1)
     public double riskPercent = 3;
 
+    // pip values and equity for position sizing, shared in StrategyComposer
+    protected PipValueCache pipValues;
+    private boolean ownPipValues;
+
+    @Override
+    public void onStart(IContext context) throws JFException {
+        StrategyContext strategyContext = StrategyContext.of(context);
+        if (strategyContext != null) {
+            pipValues = strategyContext.getPipValueCache();
+        } else {
+            pipValues = new PipValueCache(context);
+            ownPipValues = true;
+        }
+        super.onStart(context);
+    }
+
+    /**
+     * Updates {@code pipValues}, use super.onTick(...) when you override this
+     *
+     * @param instrument
+     * @param tick
+     * @throws JFException
+     */
+    @Override
+    public void onTick(Instrument instrument, ITick tick) throws JFException {
+        super.onTick(instrument, tick);
+        if (ownPipValues) {
+            pipValues.onTick(instrument, tick);
+        }
+    }
+
+    /**
+     * Updates {@code pipValues}, use super.onAccount(...) when you override
+     * this
+     *
+     * @param account
+     * @throws JFException
+     */
+    @Override
+    public void onAccount(IAccount account) throws JFException {
+        super.onAccount(account);
+        if (ownPipValues) {
+            pipValues.onAccount(account);
+        }
+    }
+
+    /**
+     * Adds instrument which ticks refresh pip value of selected instrument
+     *
+     * @return
+     */
+    @Override
+    public List<Instrument> getRequiredInstruments() {
+        List<Instrument> instruments = super.getRequiredInstruments();
+        if (context != null) {
+            Instrument cross = PipValueCache.getCrossInstrument(selectedInstrument, String.valueOf(context.getAccount().getAccountCurrency()));
+            if (cross != null && cross != selectedInstrument && !instruments.contains(cross)) {
+                instruments.add(cross);
+            }
+        }
+        return instruments;
+    }
+
     /**
      * Submits order using risk percent
      *
@@ -21,8 +89,9 @@ public abstract class RiskManagingAbstractStrategy extends SingleInstrumentAbsta
      * @throws JFException
      */
     protected IOrder submitOrderCalculatingRisk(IEngine.OrderCommand command) throws JFException {
-        double stopLossPrice = StopLossTakeProfitUtils.getStopLossPrice(command, selectedInstrument, getLastTick(), stopLossPips);
-        double takeProfitPrice = StopLossTakeProfitUtils.getTakeProfitPrice(command, selectedInstrument, getLastTick(), takeProfitPips);
+        ITick lastTick = getLastTick();
+        double stopLossPrice = StopLossTakeProfitUtils.getStopLossPrice(command, selectedInstrument, lastTick, stopLossPips);
+        double takeProfitPrice = StopLossTakeProfitUtils.getTakeProfitPrice(command, selectedInstrument, lastTick, takeProfitPips);
         return submitOrderCalculatingRisk(command, stopLossPrice, takeProfitPrice);
     }
 
@@ -38,7 +107,7 @@ public abstract class RiskManagingAbstractStrategy extends SingleInstrumentAbsta
      */
     protected IOrder submitOrderCalculatingRisk(IEngine.OrderCommand command, double stopLossPrice, double takeProfitPrice) throws JFException {
         ITick lastTick = getLastTick();
-        double tradeAmount = RiskManagingUtils.calculateTradeAmount(context, selectedInstrument, command, lastTick, stopLossPrice, riskPercent);
+        double tradeAmount = RiskManagingUtils.calculateTradeAmount(pipValues, selectedInstrument, command, lastTick, stopLossPrice, riskPercent);
         return submitOrder(command, tradeAmount, stopLossPrice, takeProfitPrice);
     }
 
@@ -53,7 +122,7 @@ public abstract class RiskManagingAbstractStrategy extends SingleInstrumentAbsta
      * @throws JFException
      */
     protected IOrder submitOrderCalculatingRiskForPips(IEngine.OrderCommand command, int stopLossPips, int takeProfitPips) throws JFException {
-        double tradeAmount = RiskManagingUtils.calculateTradeAmount(context, selectedInstrument, stopLossPips, riskPercent);
+        double tradeAmount = RiskManagingUtils.calculateTradeAmount(pipValues, selectedInstrument, stopLossPips, riskPercent);
         ITick lastTick = getLastTick();
         return submitOrder(command,
                 tradeAmount,
@@ -0,0 +1,29 @@
+package easyforex.base;
+
+import com.dukascopy.api.Instrument;
+import com.dukascopy.api.Period;
+import java.util.Set;
+
+/**
+ * Strategy which declares which ticks and bars it wants to get.
+ * {@link StrategyComposer} sends other events only to strategies which do not
+ * implement this interface.
+ */
+public interface RoutableStrategy {
+
+    /**
+     * Returns instruments which ticks and bars strategy wants to get, null
+     * means all. Called once, after {@code onStart}.
+     *
+     * @return
+     */
+    Set<Instrument> getRoutedInstruments();
+
+    /**
+     * Returns periods which bars strategy wants to get, null means all. Called
+     * once, after {@code onStart}.
+     *
+     * @return
+     */
+    Set<Period> getRoutedPeriods();
+}
@@ -4,6 +4,7 @@ import com.dukascopy.api.Configurable;
 import com.dukascopy.api.IBar;
 import com.dukascopy.api.IContext;
 import com.dukascopy.api.IEngine;
+import com.dukascopy.api.IMessage;
 import com.dukascopy.api.IOrder;
 import com.dukascopy.api.ITick;
 import com.dukascopy.api.Instrument;
@@ -11,19 +12,24 @@ import com.dukascopy.api.JFException;
 import com.dukascopy.api.Period;
 import easyforex.util.EasyChart;
 import easyforex.util.EasyIndicators;
+import easyforex.util.IndicatorCache;
 import easyforex.util.SarUtils;
+import easyforex.util.StopLossQueue;
 import easyforex.util.StopLossTakeProfitUtils;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Base class for strategies, that uses single instrument Adds chart support
  * methods
  */
-public abstract class SingleInstrumentAbstarctStrategy extends AbstractStrategy {
+public abstract class SingleInstrumentAbstarctStrategy extends AbstractStrategy implements RoutableStrategy {
 
     protected EasyIndicators indicators;
     protected EasyChart chart;
+    protected StopLossQueue stopLossQueue;
 
     @Configurable("Selected instrument")
     public Instrument selectedInstrument = Instrument.EURUSD;
@@ -31,6 +37,12 @@ public abstract class SingleInstrumentAbstarctStrategy extends AbstractStrategy
     public int stopLossPips = 0;
     @Configurable("Default take profit in pips, disabled=0")
     public int takeProfitPips = 0;
+    @Configurable("Minimal interval between stop loss changes of an order in ms")
+    public int stopLossChangeInterval = 1000;
+    @Configurable("Minimal interval between adding stop loss/take profit marks to chart in ms")
+    public int chartFlushInterval = (int) EasyChart.DEFAULT_FLUSH_INTERVAL;
+    @Configurable("Maximal number of marks on chart")
+    public int chartMaxObjects = EasyChart.DEFAULT_MAX_OBJECTS;
 
     /**
      * Run this method when you override this TODO example usage
@@ -41,13 +53,64 @@ public abstract class SingleInstrumentAbstarctStrategy extends AbstractStrategy
     @Override
     public void onStart(IContext context) throws JFException {
         super.onStart(context);
-        this.indicators = new EasyIndicators(context, selectedInstrument);
+        this.indicators = new EasyIndicators(context, selectedInstrument, new IndicatorCache(), barStore, lastTicks);
         this.chart = new EasyChart(context, selectedInstrument);
+        chart.setFlushInterval(chartFlushInterval);
+        chart.setMaxObjects(chartMaxObjects);
+        this.stopLossQueue = new StopLossQueue(stopLossChangeInterval, selectedInstrument.getPipValue(),
+                (order, stopLossPrice, time) -> chart.markStopLoss(order, time));
 
         subscribeInstruments(selectedInstrument);
         subscribeInstruments(getRequiredInstruments());
     }
 
+    /**
+     * Run this method when you override this
+     *
+     * @param instrument
+     * @param period
+     * @param askBar
+     * @param bidBar
+     * @throws JFException
+     */
+    @Override
+    public void onBar(Instrument instrument, Period period, IBar askBar, IBar bidBar) throws JFException {
+        super.onBar(instrument, period, askBar, bidBar);
+        if (instrument == selectedInstrument) {
+            indicators.onBar(period, bidBar);
+            // bar end, marks of the completed bar are newer than its start
+            chart.flush(bidBar.getTime() + period.getInterval());
+        }
+    }
+
+    /**
+     * Run this method when you override this
+     *
+     * @throws JFException
+     */
+    @Override
+    public void onStop() throws JFException {
+        try {
+            super.onStop();
+        } finally {
+            if (chart != null) {
+                chart.flush();
+            }
+        }
+    }
+
+    /**
+     * Run this method when you override this
+     *
+     * @param message
+     * @throws JFException
+     */
+    @Override
+    public void onMessage(IMessage message) throws JFException {
+        super.onMessage(message);
+        stopLossQueue.onMessage(message);
+    }
+
     /**
      * Submits order
      *
@@ -99,29 +162,46 @@ public abstract class SingleInstrumentAbstarctStrategy extends AbstractStrategy
     }
 
     /**
-     * Put this method to {@code onTick} to enable trailing stop
+     * Put this method to {@code onTick} to enable trailing stop. Ticks of
+     * other instruments (e.g. required for pip values) are ignored. Changes
+     * are sent through {@code stopLossQueue}.
      *
+     * @param instrument
      * @param tick
      * @throws JFException
      */
+    protected void trailingStop(Instrument instrument, ITick tick) throws JFException {
+        if (instrument == selectedInstrument) {
+            trailingStop(tick);
+        }
+    }
+
+    /**
+     * Trailing stop for tick of selected instrument, see
+     * {@link #trailingStop(Instrument, ITick)}
+     *
+     * @param tick tick of selected instrument
+     * @throws JFException
+     */
     protected void trailingStop(ITick tick) throws JFException {
         for (IOrder order : getOrders()) {
             double stopLossPrice = StopLossTakeProfitUtils.getStopLossPrice(order.getOrderCommand(), selectedInstrument, tick, stopLossPips);
 
             if (order.isLong()) {
                 if (stopLossPrice > order.getStopLossPrice() + selectedInstrument.getPipValue()) {
-                    order.setStopLossPrice(stopLossPrice);
-                    chart.markStopLoss(order, tick.getTime());
+                    stopLossQueue.request(order, stopLossPrice, tick.getTime());
                 }
             } else if (stopLossPrice < order.getStopLossPrice() - selectedInstrument.getPipValue()) {
-                order.setStopLossPrice(stopLossPrice);
-                chart.markStopLoss(order, tick.getTime());
+                stopLossQueue.request(order, stopLossPrice, tick.getTime());
             }
         }
+        stopLossQueue.flush(tick.getTime());
     }
 
     /**
-     * Put this method to {@code onTick} to enable SAR based trailing stop
+     * Put this method to {@code onBar} to enable SAR based trailing stop.
+     * BID and ASK SAR are calculated once for all long and short orders,
+     * changes are sent through {@code stopLossQueue} as one batch.
      *
      * @param period
      * @param askBar
@@ -131,24 +211,41 @@ public abstract class SingleInstrumentAbstarctStrategy extends AbstractStrategy
      * @throws JFException
      */
     protected void sarBasedTrailingStop(Period period, IBar askBar, IBar bidBar, double sarAcceleration, double sarMaximum) throws JFException {
+        double pip = selectedInstrument.getPipValue();
+        double longStopLoss = Double.NaN;
+        double shortStopLoss = Double.NaN;
+        List<IOrder> longOrders = new ArrayList<>();
+        List<IOrder> shortOrders = new ArrayList<>();
         for (IOrder order : getOrders()) {
-            double stopLoss = SarUtils.getSarBasedStopLoss(context, order.isLong(), selectedInstrument, period, bidBar, askBar, sarAcceleration, sarMaximum);
             if (order.isLong()) {
-                if (stopLoss > order.getStopLossPrice() + selectedInstrument.getPipValue()) {
-                    order.setStopLossPrice(stopLoss);
-                    chart.markStopLoss(order, getLastTick().getTime());
+                if (Double.isNaN(longStopLoss)) {
+                    longStopLoss = SarUtils.getSarBasedStopLoss(context, true, selectedInstrument, period, bidBar, askBar, sarAcceleration, sarMaximum);
+                }
+                if (longStopLoss > order.getStopLossPrice() + pip) {
+                    longOrders.add(order);
                 }
             } else {
-                if (stopLoss < order.getStopLossPrice() - selectedInstrument.getPipValue()) {
-                    order.setStopLossPrice(stopLoss);
-                    chart.markStopLoss(order, getLastTick().getTime());
+                if (Double.isNaN(shortStopLoss)) {
+                    shortStopLoss = SarUtils.getSarBasedStopLoss(context, false, selectedInstrument, period, bidBar, askBar, sarAcceleration, sarMaximum);
+                }
+                if (shortStopLoss < order.getStopLossPrice() - pip) {
+                    shortOrders.add(order);
                 }
             }
         }
+        stopLossQueue.requestAll(longOrders, longStopLoss);
+        stopLossQueue.requestAll(shortOrders, shortStopLoss);
+        stopLossQueue.flush(getLastTick().getTime());
     }
 
+    /**
+     * Returns last tick of selected instrument from {@code lastTicks}
+     *
+     * @return
+     * @throws JFException
+     */
     protected ITick getLastTick() throws JFException {
-        return context.getHistory().getLastTick(selectedInstrument);
+        return lastTicks.getLastTick(selectedInstrument);
     }
 
     /**
@@ -160,4 +257,27 @@ public abstract class SingleInstrumentAbstarctStrategy extends AbstractStrategy
     public List<Instrument> getRequiredInstruments() {
         return new ArrayList<>();
     }
+
+    /**
+     * Returns selected instrument and required instruments
+     *
+     * @return
+     */
+    @Override
+    public Set<Instrument> getRoutedInstruments() {
+        Set<Instrument> instruments = EnumSet.of(selectedInstrument);
+        instruments.addAll(getRequiredInstruments());
+        return instruments;
+    }
+
+    /**
+     * Returns null (all periods), override it if strategy uses selected
+     * periods only
+     *
+     * @return
+     */
+    @Override
+    public Set<Period> getRoutedPeriods() {
+        return null;
+    }
 }
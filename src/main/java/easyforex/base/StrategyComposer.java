@@ -9,61 +9,208 @@ import com.dukascopy.api.ITick;
 import com.dukascopy.api.Instrument;
 import com.dukascopy.api.JFException;
 import com.dukascopy.api.Period;
+import easyforex.util.LastTickCache;
+import easyforex.util.PipValueCache;
+import easyforex.util.StrategyMetrics;
 import easyforex.util.StrategyUtils;
-import java.lang.reflect.InvocationHandler;
-import java.lang.reflect.Method;
-import java.lang.reflect.Proxy;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.stream.IntStream;
 
 /**
  * Tool for running / testing multiple strategies simultaneously TODO example
  * code
+ * <p>
+ * In parallel dispatch mode every {@link NonTradingStrategy} gets own bounded
+ * queue and thread, so events of one strategy are processed in order, but
+ * strategies run simultaneously. Platform accepts order operations only from
+ * strategy thread, so other strategies are still called directly. When a
+ * queue is full, dispatch waits for the strategy. Failure of a queued callback
+ * is thrown from the next dispatch to that strategy (or from {@code onStop}).
+ * <p>
+ * Ticks and bars are sent only to strategies which want them (see
+ * {@link RoutableStrategy}), using routing table built after strategies are
+ * started.
+ * <p>
+ * Last ticks are kept in one {@link LastTickCache} shared by all strategies
+ * (see {@code AbstractStrategy.lastTicks}), pip values and equity used for
+ * position sizing in one {@link PipValueCache}.
+ * <p>
+ * If {@link StrategyMetrics} are enabled, every {@code onTick}, {@code onBar}
+ * and {@code onMessage} of every strategy is timed (on its worker thread in
+ * parallel dispatch mode), as well as whole dispatch of the composer. Metrics
+ * are visible in JMX, printed to console every report period and at stop.
  */
 public abstract class StrategyComposer implements IStrategy {
 
 	private final List<IStrategy> strategies = new ArrayList<>();
 	private IContext originalContext;
-	private IContext decorator;
+	private StrategyContext[] contexts;
+	private LastTickCache lastTicks;
+	private PipValueCache pipValues;
+	private boolean parallelDispatch;
+	private boolean stopBarrier = true;
+	private int queueCapacity = StrategyWorker.DEFAULT_QUEUE_CAPACITY;
+	// null in sequential mode, null items for strategies called directly
+	private StrategyWorker[] workers;
+	private IStrategy[] children;
+	private List<Set<Instrument>> routedInstruments;
+	private List<Set<Period>> routedPeriods;
+	private Map<Instrument, int[]> tickRoutes;
+	private Map<Instrument, Map<Period, int[]>> barRoutes;
+	private int[] allRoute;
+	// null if metrics are disabled
+	private StrategyMetrics metrics;
+	private StrategyMetrics[] childMetrics;
+	private boolean[] ownChildMetrics;
+	private ScheduledFuture<?> metricsReport;
 	
 	public final void addStrategy(IStrategy strategy) {
 		strategies.add(strategy);
 	}
+
+	/**
+	 * Enables parallel dispatch mode, call it before strategy is started
+	 *
+	 * @param parallelDispatch
+	 */
+	public final void setParallelDispatch(boolean parallelDispatch) {
+		this.parallelDispatch = parallelDispatch;
+	}
+
+	/**
+	 * In parallel dispatch mode: if true (default) {@code onStop} waits until
+	 * all strategies process their queued events and stop
+	 *
+	 * @param stopBarrier
+	 */
+	public final void setStopBarrier(boolean stopBarrier) {
+		this.stopBarrier = stopBarrier;
+	}
+
+	/**
+	 * In parallel dispatch mode: sets maximal number of events waiting for a
+	 * strategy, call it before strategy is started
+	 *
+	 * @param queueCapacity
+	 */
+	public final void setQueueCapacity(int queueCapacity) {
+		if (queueCapacity < 1) {
+			throw new IllegalArgumentException("Queue capacity must be positive: " + queueCapacity);
+		}
+		this.queueCapacity = queueCapacity;
+	}
 	
 	@Override
 	public final void onStart(IContext context) throws JFException {
 		originalContext = context;
-		decorator = createContextDecorator(originalContext);
+		lastTicks = new LastTickCache(context.getHistory());
+		pipValues = new PipValueCache(context);
+		contexts = new StrategyContext[strategies.size()];
 		
-		for (IStrategy strategy: strategies) {
-			strategy.onStart(decorator);
+		for (int i = 0; i < contexts.length; i++) {
+			contexts[i] = new StrategyContext(originalContext, lastTicks, pipValues);
+			strategies.get(i).onStart(contexts[i]);
+		}
+
+		children = strategies.toArray(new IStrategy[strategies.size()]);
+		buildRoutes();
+		if (StrategyMetrics.isEnabled()) {
+			startMetrics(context);
+		}
+
+		if (parallelDispatch) {
+			workers = new StrategyWorker[strategies.size()];
+			for (int i = 0; i < workers.length; i++) {
+				IStrategy strategy = strategies.get(i);
+				if (strategy instanceof NonTradingStrategy) {
+					workers[i] = new StrategyWorker(strategy, strategy.getClass().getSimpleName() + "-" + i, context.getConsole(), queueCapacity);
+				}
+			}
 		}
 	}
 
 	@Override
 	public final void onTick(Instrument instrument, ITick tick) throws JFException {
-		for (IStrategy strategy: strategies) {
-			strategy.onTick(instrument, tick);
+		long start = metrics != null ? System.nanoTime() : 0;
+		lastTicks.onTick(instrument, tick);
+		pipValues.onTick(instrument, tick);
+		int[] route = tickRoutes.get(instrument);
+		if (workers != null) {
+			dispatch(route, StrategyMetrics.Callback.TICK, strategy -> strategy.onTick(instrument, tick));
+		} else if (metrics == null) {
+			for (int i : route) {
+				children[i].onTick(instrument, tick);
+			}
+		} else {
+			for (int i : route) {
+				long childStart = System.nanoTime();
+				children[i].onTick(instrument, tick);
+				childMetrics[i].record(StrategyMetrics.Callback.TICK, System.nanoTime() - childStart);
+			}
+		}
+		if (metrics != null) {
+			metrics.record(StrategyMetrics.Callback.TICK, System.nanoTime() - start);
 		}
 	}
 
 	@Override
 	public final void onBar(Instrument instrument, Period period, IBar askBar, IBar bidBar) throws JFException {
-		for (IStrategy strategy: strategies) {
-			strategy.onBar(instrument, period, askBar, bidBar);
+		long start = metrics != null ? System.nanoTime() : 0;
+		int[] route = getBarRoute(instrument, period);
+		if (workers != null) {
+			dispatch(route, StrategyMetrics.Callback.BAR, strategy -> strategy.onBar(instrument, period, askBar, bidBar));
+		} else if (metrics == null) {
+			for (int i : route) {
+				children[i].onBar(instrument, period, askBar, bidBar);
+			}
+		} else {
+			for (int i : route) {
+				long childStart = System.nanoTime();
+				children[i].onBar(instrument, period, askBar, bidBar);
+				childMetrics[i].record(StrategyMetrics.Callback.BAR, System.nanoTime() - childStart);
+			}
+		}
+		if (metrics != null) {
+			metrics.record(StrategyMetrics.Callback.BAR, System.nanoTime() - start);
 		}
 	}
 
 	@Override
 	public final void onMessage(IMessage message) throws JFException {
-		for (IStrategy strategy: strategies) {
-			strategy.onMessage(message);
+		long start = metrics != null ? System.nanoTime() : 0;
+		if (workers != null) {
+			dispatch(allRoute, StrategyMetrics.Callback.MESSAGE, strategy -> strategy.onMessage(message));
+		} else if (metrics == null) {
+			for (IStrategy strategy: strategies) {
+				strategy.onMessage(message);
+			}
+		} else {
+			for (int i = 0; i < children.length; i++) {
+				long childStart = System.nanoTime();
+				children[i].onMessage(message);
+				childMetrics[i].record(StrategyMetrics.Callback.MESSAGE, System.nanoTime() - childStart);
+			}
+		}
+		if (metrics != null) {
+			metrics.record(StrategyMetrics.Callback.MESSAGE, System.nanoTime() - start);
 		}
 	}
 
 	@Override
 	public final void onAccount(IAccount account) throws JFException {
+		pipValues.onAccount(account);
+		if (workers != null) {
+			dispatch(allRoute, null, strategy -> strategy.onAccount(account));
+			return;
+		}
 		for (IStrategy strategy: strategies) {
 			strategy.onAccount(account);
 		}
@@ -71,31 +218,226 @@ public abstract class StrategyComposer implements IStrategy {
 
 	@Override
 	public final void onStop() throws JFException {
-		for (IStrategy strategy: strategies) {
-			strategy.onStop();
+		try {
+			if (workers != null) {
+				Future<?>[] stopped = new Future<?>[workers.length];
+				for (int i = 0; i < workers.length; i++) {
+					if (workers[i] != null) {
+						stopped[i] = workers[i].submit(IStrategy::onStop);
+						workers[i].shutdown();
+					}
+				}
+				for (int i = 0; i < workers.length; i++) {
+					if (workers[i] == null) {
+						children[i].onStop();
+					}
+				}
+				if (stopBarrier) {
+					JFException failure = null;
+					for (int i = 0; i < workers.length; i++) {
+						if (workers[i] != null) {
+							try {
+								workers[i].checkFailure();
+								StrategyWorker.await(stopped[i]);
+							} catch (JFException ex) {
+								if (failure == null) {
+									failure = ex;
+								}
+							}
+						}
+					}
+					if (failure != null) {
+						throw failure;
+					}
+				}
+				return;
+			}
+			for (IStrategy strategy: strategies) {
+				strategy.onStop();
+			}
+		} finally {
+			if (metrics != null) {
+				stopMetrics();
+			}
 		}
 	}
 
 	/**
-	 * Create decorator for IContext, overrides {@code setSubscribedInstrument}
-	 * method
+	 * Returns callback latencies of given strategy
+	 *
+	 * @param strategy
+	 * @return null if metrics are disabled
+	 */
+	public final StrategyMetrics getMetrics(IStrategy strategy) {
+		if (childMetrics != null) {
+			for (int i = 0; i < children.length; i++) {
+				if (children[i] == strategy) {
+					return childMetrics[i];
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns latencies of whole dispatch of callbacks to strategies (only
+	 * queueing in parallel dispatch mode)
+	 *
+	 * @return null if metrics are disabled
+	 */
+	public final StrategyMetrics getDispatchMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Returns number of events waiting for given strategy, 0 if not in
+	 * parallel dispatch mode
+	 *
+	 * @param strategy
+	 * @return
+	 */
+	public final int getQueueDepth(IStrategy strategy) {
+		StrategyWorker worker = getWorker(strategy);
+		return worker != null ? worker.getQueueDepth() : 0;
+	}
+
+	/**
+	 * Returns maximal observed number of events waiting for given strategy, 0
+	 * if not in parallel dispatch mode
 	 *
+	 * @param strategy
 	 * @return
 	 */
-	private static IContext createContextDecorator(final IContext originalContext) {
+	public final int getMaxQueueDepth(IStrategy strategy) {
+		StrategyWorker worker = getWorker(strategy);
+		return worker != null ? worker.getMaxQueueDepth() : 0;
+	}
 
-		InvocationHandler handler = (Object proxy, Method method, Object[] args) -> {
+	/**
+	 * Returns number of failed callbacks of given strategy called from worker
+	 * thread, 0 if it is called directly
+	 *
+	 * @param strategy
+	 * @return
+	 */
+	public final long getFailureCount(IStrategy strategy) {
+		StrategyWorker worker = getWorker(strategy);
+		return worker != null ? worker.getFailureCount() : 0;
+	}
 
-			if (method.getName().equals("setSubscribedInstruments")) {
-				Set<Instrument> instruments = (Set<Instrument>) args[0];
-				StrategyUtils.subscribeInstruments(originalContext, instruments);
-				return null;
+	/**
+	 * Queues callback to workers of given strategies, or calls it for
+	 * strategies without worker, timing it if metrics are enabled and type is
+	 * not null
+	 */
+	private void dispatch(int[] route, StrategyMetrics.Callback type, StrategyWorker.Callback callback) throws JFException {
+		for (int i : route) {
+			StrategyWorker worker = workers[i];
+			StrategyWorker.Callback timed = callback;
+			if (metrics != null && type != null) {
+				StrategyMetrics childMetric = childMetrics[i];
+				timed = strategy -> {
+					long start = System.nanoTime();
+					callback.call(strategy);
+					childMetric.record(type, System.nanoTime() - start);
+				};
 			}
-			
-			return method.invoke(proxy, args);
-		};
+			if (worker == null) {
+				timed.call(children[i]);
+			} else {
+				worker.checkFailure();
+				worker.execute(timed);
+			}
+		}
+	}
 
-		return (IContext) Proxy.newProxyInstance(IContext.class.getClassLoader(), new Class[]{IContext.class}, handler);
+	private void startMetrics(IContext context) {
+		metrics = StrategyMetrics.register(getClass().getSimpleName() + "_" + StrategyUtils.getUniqueNameSufix());
+		childMetrics = new StrategyMetrics[children.length];
+		ownChildMetrics = new boolean[children.length];
+		for (int i = 0; i < children.length; i++) {
+			if (children[i] instanceof AbstractStrategy) {
+				childMetrics[i] = ((AbstractStrategy) children[i]).getMetrics();
+			}
+			if (childMetrics[i] == null) {
+				childMetrics[i] = StrategyMetrics.register(children[i].getClass().getSimpleName() + "_" + StrategyUtils.getUniqueNameSufix());
+				ownChildMetrics[i] = true;
+			}
+		}
+		List<StrategyMetrics> reported = new ArrayList<>(Arrays.asList(childMetrics));
+		reported.add(0, metrics);
+		metricsReport = StrategyMetrics.startReporting(context.getConsole(), reported);
+	}
+
+	private void stopMetrics() {
+		if (metricsReport != null) {
+			metricsReport.cancel(false);
+		}
+		originalContext.getConsole().getOut().println(metrics.summary());
+		for (int i = 0; i < children.length; i++) {
+			originalContext.getConsole().getOut().println(childMetrics[i].summary());
+			if (ownChildMetrics[i]) {
+				StrategyMetrics.unregister(childMetrics[i]);
+			}
+		}
+		StrategyMetrics.unregister(metrics);
+	}
+
+	private void buildRoutes() {
+		routedInstruments = new ArrayList<>(children.length);
+		routedPeriods = new ArrayList<>(children.length);
+		for (IStrategy strategy : children) {
+			if (strategy instanceof RoutableStrategy) {
+				routedInstruments.add(((RoutableStrategy) strategy).getRoutedInstruments());
+				routedPeriods.add(((RoutableStrategy) strategy).getRoutedPeriods());
+			} else {
+				routedInstruments.add(null);
+				routedPeriods.add(null);
+			}
+		}
+
+		allRoute = IntStream.range(0, children.length).toArray();
+		tickRoutes = new EnumMap<>(Instrument.class);
+		for (Instrument instrument : Instrument.values()) {
+			tickRoutes.put(instrument, route(instrument, null));
+		}
+		barRoutes = new EnumMap<>(Instrument.class);
+	}
+
+	private int[] getBarRoute(Instrument instrument, Period period) {
+		Map<Period, int[]> byPeriod = barRoutes.get(instrument);
+		if (byPeriod == null) {
+			byPeriod = new HashMap<>();
+			barRoutes.put(instrument, byPeriod);
+		}
+		int[] route = byPeriod.get(period);
+		if (route == null) {
+			route = route(instrument, period);
+			byPeriod.put(period, route);
+		}
+		return route;
+	}
+
+	/**
+	 * Returns indexes of strategies which want events of given instrument and
+	 * period (null for ticks)
+	 */
+	private int[] route(Instrument instrument, Period period) {
+		return IntStream.range(0, children.length)
+				.filter(i -> routedInstruments.get(i) == null || routedInstruments.get(i).contains(instrument))
+				.filter(i -> period == null || routedPeriods.get(i) == null || routedPeriods.get(i).contains(period))
+				.toArray();
+	}
+
+	private StrategyWorker getWorker(IStrategy strategy) {
+		if (workers != null) {
+			for (StrategyWorker worker : workers) {
+				if (worker != null && worker.getStrategy() == strategy) {
+					return worker;
+				}
+			}
+		}
+		return null;
 	}
 
 }
@@ -0,0 +1,242 @@
+package easyforex.base;
+
+import com.dukascopy.api.IAccount;
+import com.dukascopy.api.IBarFeedListener;
+import com.dukascopy.api.IChart;
+import com.dukascopy.api.IClientGUI;
+import com.dukascopy.api.IConsole;
+import com.dukascopy.api.IContext;
+import com.dukascopy.api.IDataService;
+import com.dukascopy.api.IEngine;
+import com.dukascopy.api.IHistory;
+import com.dukascopy.api.IIndicators;
+import com.dukascopy.api.IJFUtils;
+import com.dukascopy.api.IReportService;
+import com.dukascopy.api.IUserInterface;
+import com.dukascopy.api.Instrument;
+import com.dukascopy.api.OfferSide;
+import com.dukascopy.api.Period;
+import com.dukascopy.api.feed.IFeedDescriptor;
+import com.dukascopy.api.feed.IFeedListener;
+import easyforex.util.LastTickCache;
+import easyforex.util.PipValueCache;
+import easyforex.util.StrategyUtils;
+import java.io.File;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+/**
+ * Context given to a single strategy of {@link StrategyComposer}. Delegates to
+ * platform's context, except instruments subscription, which is merged with
+ * subscriptions of other strategies instead of replacing them.
+ */
+final class StrategyContext implements IContext {
+
+	private final IContext context;
+	private final LastTickCache lastTicks;
+	private final PipValueCache pipValues;
+	private final Set<Instrument> requestedInstruments = EnumSet.noneOf(Instrument.class);
+
+	/**
+	 * @param context platform's context
+	 * @param lastTicks last ticks shared by all strategies of the composer
+	 * @param pipValues pip values shared by all strategies of the composer
+	 */
+	StrategyContext(IContext context, LastTickCache lastTicks, PipValueCache pipValues) {
+		this.context = context;
+		this.lastTicks = lastTicks;
+		this.pipValues = pipValues;
+	}
+
+	/**
+	 * Returns composer's context of the strategy
+	 *
+	 * @param context context given to the strategy
+	 * @return null if strategy is not run by {@link StrategyComposer}
+	 */
+	static StrategyContext of(IContext context) {
+		return context instanceof StrategyContext ? (StrategyContext) context : null;
+	}
+
+	/**
+	 * Returns last ticks updated by the composer
+	 *
+	 * @return
+	 */
+	LastTickCache getLastTickCache() {
+		return lastTicks;
+	}
+
+	/**
+	 * Returns pip values updated by the composer
+	 *
+	 * @return
+	 */
+	PipValueCache getPipValueCache() {
+		return pipValues;
+	}
+
+	/**
+	 * Returns instruments subscribed by this strategy
+	 *
+	 * @return
+	 */
+	Set<Instrument> getRequestedInstruments() {
+		return Collections.unmodifiableSet(requestedInstruments);
+	}
+
+	@Override
+	public void setSubscribedInstruments(Set<Instrument> instruments) {
+		requestedInstruments.addAll(instruments);
+		StrategyUtils.subscribeInstruments(context, instruments);
+	}
+
+	@Override
+	public void setSubscribedInstruments(Set<Instrument> instruments, boolean lock) {
+		requestedInstruments.addAll(instruments);
+		StrategyUtils.subscribeInstruments(context, instruments);
+	}
+
+	@Override
+	public Set<Instrument> getSubscribedInstruments() {
+		return context.getSubscribedInstruments();
+	}
+
+	@Override
+	public IEngine getEngine() {
+		return context.getEngine();
+	}
+
+	@Override
+	public IHistory getHistory() {
+		return context.getHistory();
+	}
+
+	@Override
+	public IIndicators getIndicators() {
+		return context.getIndicators();
+	}
+
+	@Override
+	public IConsole getConsole() {
+		return context.getConsole();
+	}
+
+	@Override
+	public IAccount getAccount() {
+		return context.getAccount();
+	}
+
+	@Override
+	public IJFUtils getUtils() {
+		return context.getUtils();
+	}
+
+	@Override
+	public IChart getChart(Instrument instrument) {
+		return context.getChart(instrument);
+	}
+
+	@Override
+	public Set<IChart> getCharts(Instrument instrument) {
+		return context.getCharts(instrument);
+	}
+
+	@Override
+	public IChart getLastActiveChart() {
+		return context.getLastActiveChart();
+	}
+
+	@Override
+	public IChart openChart(IFeedDescriptor feedDescriptor) {
+		return context.openChart(feedDescriptor);
+	}
+
+	@Override
+	public IChart openChart(File chartTemplate) {
+		return context.openChart(chartTemplate);
+	}
+
+	@Override
+	public void closeChart(IChart chart) {
+		context.closeChart(chart);
+	}
+
+	@Override
+	public IClientGUI getClientGUI(IChart chart) {
+		return context.getClientGUI(chart);
+	}
+
+	@Override
+	public IUserInterface getUserInterface() {
+		return context.getUserInterface();
+	}
+
+	@Override
+	public IDataService getDataService() {
+		return context.getDataService();
+	}
+
+	@Override
+	public IReportService getReportService() {
+		return context.getReportService();
+	}
+
+	@Override
+	public <T> Future<T> executeTask(Callable<T> callable) {
+		return context.executeTask(callable);
+	}
+
+	@Override
+	public void pause() {
+		context.pause();
+	}
+
+	@Override
+	public void stop() {
+		context.stop();
+	}
+
+	@Override
+	public boolean isStopped() {
+		return context.isStopped();
+	}
+
+	@Override
+	public boolean isFullAccessGranted() {
+		return context.isFullAccessGranted();
+	}
+
+	@Override
+	public File getFilesDir() {
+		return context.getFilesDir();
+	}
+
+	@Override
+	public void subscribeToBarsFeed(Instrument instrument, Period period, OfferSide offerSide, IBarFeedListener listener) {
+		context.subscribeToBarsFeed(instrument, period, offerSide, listener);
+	}
+
+	@Override
+	public void unsubscribeFromBarsFeed(IBarFeedListener listener) {
+		context.unsubscribeFromBarsFeed(listener);
+	}
+
+	@Override
+	public void subscribeToFeed(IFeedDescriptor feedDescriptor, IFeedListener listener) {
+		context.subscribeToFeed(feedDescriptor, listener);
+	}
+
+	@Override
+	public void unsubscribeFromFeed(IFeedListener listener) {
+		context.unsubscribeFromFeed(listener);
+	}
+
+	@Override
+	public void unsubscribeFromFeed(IFeedListener listener, IFeedDescriptor feedDescriptor) {
+		context.unsubscribeFromFeed(listener, feedDescriptor);
+	}
+}
@@ -0,0 +1,157 @@
+package easyforex.base;
+
+import com.dukascopy.api.IConsole;
+import com.dukascopy.api.IStrategy;
+import com.dukascopy.api.JFException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Single consumer bounded queue with own thread, which runs callbacks of one
+ * strategy in order they were submitted. When the queue is full, submitting
+ * thread waits for free space.
+ * <p>
+ * Failures of queued callbacks are counted and the first one not reported yet
+ * is thrown by {@link #checkFailure()}.
+ */
+final class StrategyWorker {
+
+	static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+	private final IStrategy strategy;
+	private final IConsole console;
+	private final ThreadPoolExecutor executor;
+	private final AtomicReference<Throwable> failure = new AtomicReference<>();
+	private final AtomicLong failureCount = new AtomicLong();
+	private volatile int maxQueueDepth;
+
+	StrategyWorker(IStrategy strategy, String name, IConsole console, int queueCapacity) {
+		this.strategy = strategy;
+		this.console = console;
+		this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+			Thread thread = new Thread(runnable, name);
+			thread.setDaemon(true);
+			return thread;
+		}, StrategyWorker::waitForSpace);
+	}
+
+	/**
+	 * Queues callback for the strategy, waits if the queue is full
+	 *
+	 * @param callback
+	 */
+	void execute(Callback callback) {
+		executor.execute(() -> call(callback));
+		int depth = executor.getQueue().size();
+		if (depth > maxQueueDepth) {
+			maxQueueDepth = depth;
+		}
+	}
+
+	/**
+	 * Queues callback and returns future completed when it is done, failure
+	 * of the callback fails the future
+	 *
+	 * @param callback
+	 * @return
+	 */
+	Future<?> submit(Callback callback) {
+		return executor.submit(() -> {
+			callback.call(strategy);
+			return null;
+		});
+	}
+
+	/**
+	 * Waits for given future of this worker
+	 *
+	 * @param future
+	 * @throws JFException
+	 */
+	static void await(Future<?> future) throws JFException {
+		try {
+			future.get();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new JFException("Interrupted while waiting for strategy", ex);
+		} catch (ExecutionException ex) {
+			throw new JFException("Strategy failed", ex.getCause());
+		}
+	}
+
+	/**
+	 * Throws failure of a queued callback which was not thrown yet
+	 *
+	 * @throws JFException
+	 */
+	void checkFailure() throws JFException {
+		Throwable cause = failure.getAndSet(null);
+		if (cause != null) {
+			throw cause instanceof JFException
+					? (JFException) cause
+					: new JFException(strategy.getClass().getSimpleName() + " failed", cause);
+		}
+	}
+
+	void shutdown() {
+		executor.shutdown();
+	}
+
+	IStrategy getStrategy() {
+		return strategy;
+	}
+
+	int getQueueDepth() {
+		return executor.getQueue().size();
+	}
+
+	int getMaxQueueDepth() {
+		return maxQueueDepth;
+	}
+
+	/**
+	 * Returns number of failed callbacks
+	 *
+	 * @return
+	 */
+	long getFailureCount() {
+		return failureCount.get();
+	}
+
+	private void call(Callback callback) {
+		try {
+			callback.call(strategy);
+		} catch (JFException | RuntimeException ex) {
+			failureCount.incrementAndGet();
+			failure.compareAndSet(null, ex);
+			console.getErr().println(strategy.getClass().getSimpleName() + " <ERROR> " + ex);
+		}
+	}
+
+	/**
+	 * Backpressure: blocks submitting thread until the task fits in the queue
+	 */
+	private static void waitForSpace(Runnable task, ThreadPoolExecutor executor) {
+		try {
+			while (!executor.getQueue().offer(task, 100, TimeUnit.MILLISECONDS)) {
+				if (executor.isShutdown()) {
+					throw new RejectedExecutionException("Strategy worker is stopped");
+				}
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new RejectedExecutionException("Interrupted while waiting for strategy queue", ex);
+		}
+	}
+
+	interface Callback {
+
+		void call(IStrategy strategy) throws JFException;
+	}
+}
@@ -10,6 +10,9 @@ import com.dukascopy.api.JFException;
 import com.dukascopy.api.Library;
 import com.dukascopy.api.Period;
 import easyforex.base.RiskManagingAbstractStrategy;
+import easyforex.indicator.IncrementalMacd;
+import java.util.Collections;
+import java.util.Set;
 
 /**
  * Simple example strategy witch just buy/sell depends on MACD Hist
@@ -26,6 +29,8 @@ public class JustMacd extends RiskManagingAbstractStrategy {
     @Configurable(value = "MACD signal period")
     public int macdSignalPeriod = 9;
 
+    private IncrementalMacd macd;
+
     public JustMacd() {
         // redefining default values
         stopLossPips = 25;
@@ -37,23 +42,26 @@ public class JustMacd extends RiskManagingAbstractStrategy {
         super.onStart(context);
 
         chart.addIndicator("MACD", macdFastPeriod, macdSlowPeriod, macdSignalPeriod);
+        macd = streamingIndicators.macd(selectedInstrument, selectedPeriod, macdFastPeriod, macdSlowPeriod, macdSignalPeriod);
     }
 
     @Override
     public void onTick(Instrument instrument, ITick tick) throws JFException {
-        trailingStop(tick);
+        super.onTick(instrument, tick);
+        trailingStop(instrument, tick);
     }
 
     @Override
     public void onBar(Instrument instrument, Period period, IBar askBar, IBar bidBar) throws JFException {
+        super.onBar(instrument, period, askBar, bidBar);
         if (!instrument.equals(selectedInstrument) || !period.equals(selectedPeriod)) {
             return;
         }
 
         // if there is no open order
-        if (getOrders().isEmpty()) {
+        if (getOrders().isEmpty() && macd.isReady()) {
 
-            double macdHist = indicators.macd(period, macdFastPeriod, macdSignalPeriod, macdSignalPeriod).getMacdHist();
+            double macdHist = macd.getMacdHist();
 
             // buy or sell, depends on current macd hist
             if (macdHist > 0) {
@@ -63,4 +71,9 @@ public class JustMacd extends RiskManagingAbstractStrategy {
             }
         }
     }
+
+    @Override
+    public Set<Period> getRoutedPeriods() {
+        return Collections.singleton(selectedPeriod);
+    }
 }
@@ -0,0 +1,45 @@
+package easyforex.indicator;
+
+import com.dukascopy.api.IBar;
+
+/**
+ * Base class for incremental indicators, skips already processed bars
+ */
+public abstract class AbstractIncrementalIndicator implements IncrementalIndicator {
+
+    private long time = Long.MIN_VALUE;
+    protected double value = Double.NaN;
+
+    @Override
+    public final void update(IBar bar) {
+        if (bar.getTime() <= time) {
+            return;
+        }
+        time = bar.getTime();
+        calculate(bar.getHigh(), bar.getLow(), bar.getClose());
+    }
+
+    /**
+     * Calculates next value
+     *
+     * @param high
+     * @param low
+     * @param close
+     */
+    protected abstract void calculate(double high, double low, double close);
+
+    @Override
+    public boolean isReady() {
+        return !Double.isNaN(value);
+    }
+
+    @Override
+    public double getValue() {
+        return value;
+    }
+
+    @Override
+    public long getTime() {
+        return time;
+    }
+}
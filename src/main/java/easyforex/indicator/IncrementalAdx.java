@@ -0,0 +1,83 @@
+package easyforex.indicator;
+
+/**
+ * Average Directional Movement Index (Wilder's smoothing)
+ */
+public final class IncrementalAdx extends AbstractIncrementalIndicator {
+
+    private final int timePeriod;
+    private double previousHigh = Double.NaN;
+    private double previousLow;
+    private double previousClose;
+    private int count;
+    private double smoothedTrueRange;
+    private double smoothedPlusDm;
+    private double smoothedMinusDm;
+    private int dxCount;
+    private double dxSum;
+
+    public IncrementalAdx(int timePeriod) {
+        if (timePeriod < 1) {
+            throw new IllegalArgumentException("Time period has to be greater than 0");
+        }
+        this.timePeriod = timePeriod;
+    }
+
+    @Override
+    protected void calculate(double high, double low, double close) {
+        if (Double.isNaN(previousHigh)) {
+            previousHigh = high;
+            previousLow = low;
+            previousClose = close;
+            return;
+        }
+        double upMove = high - previousHigh;
+        double downMove = previousLow - low;
+        double plusDm = upMove > downMove && upMove > 0 ? upMove : 0;
+        double minusDm = downMove > upMove && downMove > 0 ? downMove : 0;
+        double trueRange = IncrementalAtr.trueRange(high, low, previousClose);
+        previousHigh = high;
+        previousLow = low;
+        previousClose = close;
+
+        if (count < timePeriod) {
+            smoothedTrueRange += trueRange;
+            smoothedPlusDm += plusDm;
+            smoothedMinusDm += minusDm;
+            count++;
+            if (count < timePeriod) {
+                return;
+            }
+        } else {
+            smoothedTrueRange += trueRange - smoothedTrueRange / timePeriod;
+            smoothedPlusDm += plusDm - smoothedPlusDm / timePeriod;
+            smoothedMinusDm += minusDm - smoothedMinusDm / timePeriod;
+        }
+
+        double dx = dx();
+        if (dxCount < timePeriod) {
+            dxSum += dx;
+            dxCount++;
+            if (dxCount == timePeriod) {
+                value = dxSum / timePeriod;
+            }
+        } else {
+            value = (value * (timePeriod - 1) + dx) / timePeriod;
+        }
+    }
+
+    private double dx() {
+        if (smoothedTrueRange == 0) {
+            return 0;
+        }
+        double plusDi = 100 * smoothedPlusDm / smoothedTrueRange;
+        double minusDi = 100 * smoothedMinusDm / smoothedTrueRange;
+        double sum = plusDi + minusDi;
+        return sum == 0 ? 0 : 100 * Math.abs(plusDi - minusDi) / sum;
+    }
+
+    @Override
+    public int getLookback() {
+        return 2 * timePeriod;
+    }
+}
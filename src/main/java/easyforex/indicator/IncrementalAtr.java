@@ -0,0 +1,48 @@
+package easyforex.indicator;
+
+/**
+ * Average True Range (Wilder's smoothing)
+ */
+public final class IncrementalAtr extends AbstractIncrementalIndicator {
+
+    private final int timePeriod;
+    private double previousClose = Double.NaN;
+    private int count;
+    private double seedSum;
+
+    public IncrementalAtr(int timePeriod) {
+        if (timePeriod < 1) {
+            throw new IllegalArgumentException("Time period has to be greater than 0");
+        }
+        this.timePeriod = timePeriod;
+    }
+
+    @Override
+    protected void calculate(double high, double low, double close) {
+        if (Double.isNaN(previousClose)) {
+            previousClose = close;
+            return;
+        }
+        double trueRange = trueRange(high, low, previousClose);
+        previousClose = close;
+
+        if (count < timePeriod) {
+            seedSum += trueRange;
+            count++;
+            if (count == timePeriod) {
+                value = seedSum / timePeriod;
+            }
+        } else {
+            value = (value * (timePeriod - 1) + trueRange) / timePeriod;
+        }
+    }
+
+    static double trueRange(double high, double low, double previousClose) {
+        return Math.max(high - low, Math.max(Math.abs(high - previousClose), Math.abs(low - previousClose)));
+    }
+
+    @Override
+    public int getLookback() {
+        return timePeriod + 1;
+    }
+}
@@ -0,0 +1,64 @@
+package easyforex.indicator;
+
+/**
+ * Bollinger Bands of close prices, middle band is EMA (as in
+ * {@code EasyIndicators}). Main value is middle band.
+ */
+public final class IncrementalBBands extends AbstractIncrementalIndicator {
+
+    private final IncrementalEma middle;
+    private final double nbDevUp;
+    private final double nbDevDn;
+    private final double[] window;
+    private int position;
+    private int count;
+    private double sum;
+    private double sumOfSquares;
+    private double upperBand = Double.NaN;
+    private double lowerBand = Double.NaN;
+
+    public IncrementalBBands(int timePeriod, double nbDevUp, double nbDevDn) {
+        this.middle = new IncrementalEma(timePeriod);
+        this.nbDevUp = nbDevUp;
+        this.nbDevDn = nbDevDn;
+        this.window = new double[timePeriod];
+    }
+
+    @Override
+    protected void calculate(double high, double low, double close) {
+        double old = window[position];
+        sum += close - old;
+        sumOfSquares += close * close - old * old;
+        window[position] = close;
+        position = (position + 1) % window.length;
+        if (count < window.length) {
+            count++;
+        }
+
+        double middleBand = middle.add(close);
+        if (count == window.length && !Double.isNaN(middleBand)) {
+            double mean = sum / window.length;
+            double deviation = Math.sqrt(Math.max(0, sumOfSquares / window.length - mean * mean));
+            value = middleBand;
+            upperBand = middleBand + nbDevUp * deviation;
+            lowerBand = middleBand - nbDevDn * deviation;
+        }
+    }
+
+    public double getUpperBand() {
+        return upperBand;
+    }
+
+    public double getMiddleBand() {
+        return value;
+    }
+
+    public double getLowerBand() {
+        return lowerBand;
+    }
+
+    @Override
+    public int getLookback() {
+        return window.length;
+    }
+}
@@ -0,0 +1,33 @@
+package easyforex.indicator;
+
+/**
+ * Double Exponential Moving Average of close prices:
+ * {@code 2 * EMA - EMA(EMA)}
+ */
+public final class IncrementalDema extends AbstractIncrementalIndicator {
+
+    private final IncrementalEma ema;
+    private final IncrementalEma emaOfEma;
+
+    public IncrementalDema(int timePeriod) {
+        this.ema = new IncrementalEma(timePeriod);
+        this.emaOfEma = new IncrementalEma(timePeriod);
+    }
+
+    @Override
+    protected void calculate(double high, double low, double close) {
+        double first = ema.add(close);
+        if (Double.isNaN(first)) {
+            return;
+        }
+        double second = emaOfEma.add(first);
+        if (!Double.isNaN(second)) {
+            value = 2 * first - second;
+        }
+    }
+
+    @Override
+    public int getLookback() {
+        return 2 * ema.getLookback() - 1;
+    }
+}
@@ -0,0 +1,51 @@
+package easyforex.indicator;
+
+/**
+ * Exponential Moving Average of close prices, seeded with Simple Moving
+ * Average of first {@code timePeriod} values
+ */
+public final class IncrementalEma extends AbstractIncrementalIndicator {
+
+    private final int timePeriod;
+    private final double k;
+    private int count;
+    private double seedSum;
+
+    public IncrementalEma(int timePeriod) {
+        if (timePeriod < 1) {
+            throw new IllegalArgumentException("Time period has to be greater than 0");
+        }
+        this.timePeriod = timePeriod;
+        this.k = 2.0 / (timePeriod + 1);
+    }
+
+    @Override
+    protected void calculate(double high, double low, double close) {
+        add(close);
+    }
+
+    /**
+     * Adds next value directly (used when EMA is calculated from other
+     * indicator values)
+     *
+     * @param x
+     * @return current value
+     */
+    double add(double x) {
+        if (count < timePeriod) {
+            seedSum += x;
+            count++;
+            if (count == timePeriod) {
+                value = seedSum / timePeriod;
+            }
+        } else {
+            value += k * (x - value);
+        }
+        return value;
+    }
+
+    @Override
+    public int getLookback() {
+        return timePeriod;
+    }
+}
@@ -0,0 +1,46 @@
+package easyforex.indicator;
+
+import com.dukascopy.api.IBar;
+
+/**
+ * Indicator which keeps its own state and is updated bar by bar, so reading
+ * current value costs no platform call
+ */
+public interface IncrementalIndicator {
+
+    /**
+     * Updates indicator with next (completed) bar. Bars not newer than the last
+     * processed one are ignored.
+     *
+     * @param bar
+     */
+    void update(IBar bar);
+
+    /**
+     * Returns true when enough bars were processed to have a valid value
+     *
+     * @return
+     */
+    boolean isReady();
+
+    /**
+     * Returns current (main) value, {@code Double.NaN} if not ready
+     *
+     * @return
+     */
+    double getValue();
+
+    /**
+     * Returns number of bars needed before first valid value
+     *
+     * @return
+     */
+    int getLookback();
+
+    /**
+     * Returns time of last processed bar
+     *
+     * @return
+     */
+    long getTime();
+}
@@ -0,0 +1,51 @@
+package easyforex.indicator;
+
+/**
+ * Moving Average Convergence/Divergence of close prices. Main value is MACD
+ * histogram.
+ */
+public final class IncrementalMacd extends AbstractIncrementalIndicator {
+
+    private final IncrementalEma fast;
+    private final IncrementalEma slow;
+    private final IncrementalEma signal;
+    private double macd = Double.NaN;
+    private double macdSignal = Double.NaN;
+
+    public IncrementalMacd(int fastPeriod, int slowPeriod, int signalPeriod) {
+        this.fast = new IncrementalEma(fastPeriod);
+        this.slow = new IncrementalEma(slowPeriod);
+        this.signal = new IncrementalEma(signalPeriod);
+    }
+
+    @Override
+    protected void calculate(double high, double low, double close) {
+        double fastValue = fast.add(close);
+        double slowValue = slow.add(close);
+        if (Double.isNaN(fastValue) || Double.isNaN(slowValue)) {
+            return;
+        }
+        macd = fastValue - slowValue;
+        macdSignal = signal.add(macd);
+        if (!Double.isNaN(macdSignal)) {
+            value = macd - macdSignal;
+        }
+    }
+
+    public double getMacd() {
+        return macd;
+    }
+
+    public double getMacdSignal() {
+        return macdSignal;
+    }
+
+    public double getMacdHist() {
+        return value;
+    }
+
+    @Override
+    public int getLookback() {
+        return Math.max(fast.getLookback(), slow.getLookback()) + signal.getLookback() - 1;
+    }
+}
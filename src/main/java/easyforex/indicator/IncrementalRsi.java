@@ -0,0 +1,51 @@
+package easyforex.indicator;
+
+/**
+ * Relative Strength Index of close prices (Wilder's smoothing)
+ */
+public final class IncrementalRsi extends AbstractIncrementalIndicator {
+
+    private final int timePeriod;
+    private double previousClose = Double.NaN;
+    private int count;
+    private double averageGain;
+    private double averageLoss;
+
+    public IncrementalRsi(int timePeriod) {
+        if (timePeriod < 1) {
+            throw new IllegalArgumentException("Time period has to be greater than 0");
+        }
+        this.timePeriod = timePeriod;
+    }
+
+    @Override
+    protected void calculate(double high, double low, double close) {
+        if (Double.isNaN(previousClose)) {
+            previousClose = close;
+            return;
+        }
+        double change = close - previousClose;
+        double gain = change > 0 ? change : 0;
+        double loss = change < 0 ? -change : 0;
+        previousClose = close;
+
+        if (count < timePeriod) {
+            averageGain += gain / timePeriod;
+            averageLoss += loss / timePeriod;
+            count++;
+            if (count < timePeriod) {
+                return;
+            }
+        } else {
+            averageGain = (averageGain * (timePeriod - 1) + gain) / timePeriod;
+            averageLoss = (averageLoss * (timePeriod - 1) + loss) / timePeriod;
+        }
+        double total = averageGain + averageLoss;
+        value = total == 0 ? 50 : 100 * averageGain / total;
+    }
+
+    @Override
+    public int getLookback() {
+        return timePeriod + 1;
+    }
+}
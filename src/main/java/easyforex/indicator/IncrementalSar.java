@@ -0,0 +1,89 @@
+package easyforex.indicator;
+
+/**
+ * Parabolic SAR (Wilder's algorithm)
+ */
+public final class IncrementalSar extends AbstractIncrementalIndicator {
+
+    private final double acceleration;
+    private final double maximum;
+    private int count;
+    private boolean rising;
+    private double extremePoint;
+    private double factor;
+    private double previousHigh;
+    private double previousLow;
+    private double secondPreviousHigh;
+    private double secondPreviousLow;
+
+    public IncrementalSar(double acceleration, double maximum) {
+        this.acceleration = acceleration;
+        this.maximum = maximum;
+    }
+
+    @Override
+    protected void calculate(double high, double low, double close) {
+        count++;
+        if (count == 1) {
+            previousHigh = high;
+            previousLow = low;
+            return;
+        }
+        if (count == 2) {
+            rising = high - previousHigh >= previousLow - low;
+            value = rising ? previousLow : previousHigh;
+            extremePoint = rising ? high : low;
+            factor = acceleration;
+            shift(high, low);
+            return;
+        }
+
+        double sar = value + factor * (extremePoint - value);
+        if (rising) {
+            sar = Math.min(sar, Math.min(previousLow, secondPreviousLow));
+            if (low < sar) {
+                rising = false;
+                sar = extremePoint;
+                extremePoint = low;
+                factor = acceleration;
+            } else if (high > extremePoint) {
+                extremePoint = high;
+                factor = Math.min(factor + acceleration, maximum);
+            }
+        } else {
+            sar = Math.max(sar, Math.max(previousHigh, secondPreviousHigh));
+            if (high > sar) {
+                rising = true;
+                sar = extremePoint;
+                extremePoint = high;
+                factor = acceleration;
+            } else if (low < extremePoint) {
+                extremePoint = low;
+                factor = Math.min(factor + acceleration, maximum);
+            }
+        }
+        value = sar;
+        shift(high, low);
+    }
+
+    private void shift(double high, double low) {
+        secondPreviousHigh = previousHigh;
+        secondPreviousLow = previousLow;
+        previousHigh = high;
+        previousLow = low;
+    }
+
+    /**
+     * Returns true if SAR is below price (up trend)
+     *
+     * @return
+     */
+    public boolean isRising() {
+        return rising;
+    }
+
+    @Override
+    public int getLookback() {
+        return 2;
+    }
+}
@@ -0,0 +1,49 @@
+package easyforex.indicator;
+
+/**
+ * Simple Moving Average of close prices
+ */
+public final class IncrementalSma extends AbstractIncrementalIndicator {
+
+    private final double[] window;
+    private int position;
+    private int count;
+    private double sum;
+
+    public IncrementalSma(int timePeriod) {
+        if (timePeriod < 1) {
+            throw new IllegalArgumentException("Time period has to be greater than 0");
+        }
+        this.window = new double[timePeriod];
+    }
+
+    @Override
+    protected void calculate(double high, double low, double close) {
+        add(close);
+    }
+
+    /**
+     * Adds next value directly (used when SMA is calculated from other
+     * indicator values)
+     *
+     * @param x
+     * @return current value
+     */
+    double add(double x) {
+        sum += x - window[position];
+        window[position] = x;
+        position = (position + 1) % window.length;
+        if (count < window.length) {
+            count++;
+        }
+        if (count == window.length) {
+            value = sum / window.length;
+        }
+        return value;
+    }
+
+    @Override
+    public int getLookback() {
+        return window.length;
+    }
+}
@@ -0,0 +1,39 @@
+package easyforex.indicator;
+
+/**
+ * Triple Exponential Moving Average of close prices:
+ * {@code 3 * EMA - 3 * EMA(EMA) + EMA(EMA(EMA))}
+ */
+public final class IncrementalTema extends AbstractIncrementalIndicator {
+
+    private final IncrementalEma ema;
+    private final IncrementalEma emaOfEma;
+    private final IncrementalEma emaOfEmaOfEma;
+
+    public IncrementalTema(int timePeriod) {
+        this.ema = new IncrementalEma(timePeriod);
+        this.emaOfEma = new IncrementalEma(timePeriod);
+        this.emaOfEmaOfEma = new IncrementalEma(timePeriod);
+    }
+
+    @Override
+    protected void calculate(double high, double low, double close) {
+        double first = ema.add(close);
+        if (Double.isNaN(first)) {
+            return;
+        }
+        double second = emaOfEma.add(first);
+        if (Double.isNaN(second)) {
+            return;
+        }
+        double third = emaOfEmaOfEma.add(second);
+        if (!Double.isNaN(third)) {
+            value = 3 * first - 3 * second + third;
+        }
+    }
+
+    @Override
+    public int getLookback() {
+        return 3 * ema.getLookback() - 2;
+    }
+}
@@ -0,0 +1,33 @@
+package easyforex.indicator;
+
+/**
+ * Triangular Moving Average of close prices, SMA of SMA with periods splitting
+ * {@code timePeriod} (as in TA-Lib)
+ */
+public final class IncrementalTrima extends AbstractIncrementalIndicator {
+
+    private final IncrementalSma sma;
+    private final IncrementalSma smaOfSma;
+
+    public IncrementalTrima(int timePeriod) {
+        if (timePeriod < 1) {
+            throw new IllegalArgumentException("Time period has to be greater than 0");
+        }
+        int first = timePeriod % 2 == 1 ? (timePeriod + 1) / 2 : timePeriod / 2;
+        this.sma = new IncrementalSma(first);
+        this.smaOfSma = new IncrementalSma(timePeriod + 1 - first);
+    }
+
+    @Override
+    protected void calculate(double high, double low, double close) {
+        double first = sma.add(close);
+        if (!Double.isNaN(first)) {
+            value = smaOfSma.add(first);
+        }
+    }
+
+    @Override
+    public int getLookback() {
+        return sma.getLookback() + smaOfSma.getLookback() - 1;
+    }
+}
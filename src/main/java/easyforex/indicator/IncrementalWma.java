@@ -0,0 +1,45 @@
+package easyforex.indicator;
+
+/**
+ * Weighted Moving Average of close prices, the newest value has weight
+ * {@code timePeriod}, the oldest 1
+ */
+public final class IncrementalWma extends AbstractIncrementalIndicator {
+
+    private final double[] window;
+    private final double weights;
+    private int position;
+    private int count;
+    private double sum;
+    private double weightedSum;
+
+    public IncrementalWma(int timePeriod) {
+        if (timePeriod < 1) {
+            throw new IllegalArgumentException("Time period has to be greater than 0");
+        }
+        this.window = new double[timePeriod];
+        this.weights = timePeriod * (timePeriod + 1) / 2.0;
+    }
+
+    @Override
+    protected void calculate(double high, double low, double close) {
+        if (count < window.length) {
+            count++;
+            weightedSum += count * close;
+        } else {
+            // every value loses one weight, the newest gets the whole period
+            weightedSum += window.length * close - sum;
+        }
+        sum += close - window[position];
+        window[position] = close;
+        position = (position + 1) % window.length;
+        if (count == window.length) {
+            value = weightedSum / weights;
+        }
+    }
+
+    @Override
+    public int getLookback() {
+        return window.length;
+    }
+}
@@ -0,0 +1,219 @@
+package easyforex.indicator;
+
+import com.dukascopy.api.IIndicators;
+import com.dukascopy.api.Instrument;
+import com.dukascopy.api.JFException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+/**
+ * Calculates a set of indicators for a basket of instruments at once, e.g. in
+ * {@code onBar} of a strategy watching 28 pairs:
+ * <pre>
+ * hub = new IndicatorHub(context.getIndicators(), basket,
+ *         Arrays.asList(IndicatorSpec.ema(Period.ONE_HOUR, 50), IndicatorSpec.rsi(Period.ONE_HOUR, 14)));
+ * ...
+ * double[][] values = hub.calculate(bidBar.getTime());
+ * double rsi = values[hub.indexOf(Instrument.EURUSD)][1];
+ * </pre> Instruments are calculated in parallel (one task per instrument),
+ * indicators with several outputs (MACD, Bollinger Bands) are calculated once
+ * for all their specs. Results of one time are calculated only once, so the
+ * hub can be called from {@code onBar} of every basket instrument.
+ * <p>
+ * Platform indicators are called from threads of a pool dedicated to hubs
+ * (not the common pool, so hubs and e.g. {@code Optimizer} don't starve each
+ * other). JForex allows indicator and history calls outside the strategy
+ * thread, unlike order operations; with {@code setPool(null)} the hub
+ * calculates in the calling thread instead.
+ */
+public final class IndicatorHub {
+
+    private final IIndicators indicators;
+    private final Instrument[] basket;
+    private final IndicatorSpec[] specs;
+    // index of first spec with the same platform call, by spec index
+    private final int[] calculations;
+    private final int[] instrumentIndexes = new int[Instrument.values().length];
+    private final double[][] values;
+    private ForkJoinPool pool = DefaultPool.POOL;
+    private long time = Long.MIN_VALUE;
+    private long calculationCount;
+
+    /**
+     * @param indicators platform's indicators
+     * @param basket     instruments, rows of results
+     * @param specs      indicators, columns of results
+     */
+    public IndicatorHub(IIndicators indicators, List<Instrument> basket, List<IndicatorSpec> specs) {
+        this.indicators = indicators;
+        this.basket = basket.toArray(new Instrument[basket.size()]);
+        this.specs = specs.toArray(new IndicatorSpec[specs.size()]);
+        this.calculations = new int[this.specs.length];
+        for (int j = 0; j < this.specs.length; j++) {
+            int first = 0;
+            while (!this.specs[first].isSameCalculation(this.specs[j])) {
+                first++;
+            }
+            calculations[j] = first;
+        }
+        Arrays.fill(instrumentIndexes, -1);
+        for (int i = 0; i < this.basket.length; i++) {
+            instrumentIndexes[this.basket[i].ordinal()] = i;
+        }
+        this.values = new double[this.basket.length][this.specs.length];
+    }
+
+    /**
+     * Sets pool calculating instruments, by default a pool shared by all hubs
+     * with one thread per processor
+     *
+     * @param pool null to calculate in the calling thread
+     */
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Returns values of all indicators of all instruments for the bar
+     * containing given time (in {@code onBar} use bar's time). Repeated calls
+     * with the same time return previous results without calculation.
+     *
+     * @param time
+     * @return basket x specs matrix, reused by next calculation
+     * @throws JFException
+     */
+    public synchronized double[][] calculate(long time) throws JFException {
+        if (time == this.time) {
+            return values;
+        }
+        JFException failure = pool != null ? calculateInPool(time) : calculateInThread(time);
+        if (failure != null) {
+            // partial results must not be returned for this time again
+            this.time = Long.MIN_VALUE;
+            throw failure;
+        }
+        this.time = time;
+        calculationCount++;
+        return values;
+    }
+
+    /**
+     * Returns row of the instrument in results
+     *
+     * @param instrument
+     * @return -1 if instrument is not in the basket
+     */
+    public int indexOf(Instrument instrument) {
+        return instrumentIndexes[instrument.ordinal()];
+    }
+
+    /**
+     * Returns column of the spec in results
+     *
+     * @param spec
+     * @return -1 if spec is not in the hub
+     */
+    public int indexOf(IndicatorSpec spec) {
+        for (int j = 0; j < specs.length; j++) {
+            if (specs[j].equals(spec)) {
+                return j;
+            }
+        }
+        return -1;
+    }
+
+    public List<Instrument> getBasket() {
+        return Collections.unmodifiableList(Arrays.asList(basket));
+    }
+
+    public List<IndicatorSpec> getSpecs() {
+        return Collections.unmodifiableList(Arrays.asList(specs));
+    }
+
+    /**
+     * Returns number of calculated bars (calls which were not answered from
+     * previous results)
+     *
+     * @return
+     */
+    public synchronized long getCalculationCount() {
+        return calculationCount;
+    }
+
+    /**
+     * Calculates rows in pool, returns the first failure or null
+     */
+    private JFException calculateInPool(long time) throws JFException {
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(basket.length);
+        for (int i = 0; i < basket.length; i++) {
+            int row = i;
+            tasks.add(pool.submit(() -> {
+                calculate(row, time);
+                return null;
+            }));
+        }
+        JFException failure = null;
+        for (ForkJoinTask<?> task : tasks) {
+            try {
+                task.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new JFException("Interrupted while calculating indicators", ex);
+            } catch (ExecutionException ex) {
+                if (failure == null) {
+                    failure = ex.getCause() instanceof JFException
+                            ? (JFException) ex.getCause()
+                            : new JFException("Indicator calculation failed", ex.getCause());
+                }
+            }
+        }
+        return failure;
+    }
+
+    /**
+     * Calculates rows in the calling thread, returns the failure or null
+     */
+    private JFException calculateInThread(long time) {
+        try {
+            for (int i = 0; i < basket.length; i++) {
+                calculate(i, time);
+            }
+            return null;
+        } catch (JFException ex) {
+            return ex;
+        } catch (RuntimeException ex) {
+            return new JFException("Indicator calculation failed", ex);
+        }
+    }
+
+    private void calculate(int row, long time) throws JFException {
+        double[] rowValues = values[row];
+        double[][][] outputs = new double[specs.length][][];
+        for (int j = 0; j < specs.length; j++) {
+            int calculation = calculations[j];
+            if (outputs[calculation] == null) {
+                outputs[calculation] = specs[calculation].calculateOutputs(indicators, basket[row], time);
+            }
+            rowValues[j] = specs[j].output(outputs[calculation]);
+        }
+    }
+
+    /**
+     * Pool of all hubs, created on first use
+     */
+    private static final class DefaultPool {
+
+        private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors(), pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("IndicatorHub-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+}
@@ -0,0 +1,178 @@
+package easyforex.indicator;
+
+import com.dukascopy.api.Filter;
+import com.dukascopy.api.IIndicators;
+import com.dukascopy.api.Instrument;
+import com.dukascopy.api.JFException;
+import com.dukascopy.api.OfferSide;
+import com.dukascopy.api.Period;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Indicator with its period and parameters, one column of
+ * {@link IndicatorHub} results. Values are calculated by the platform like in
+ * {@code EasyIndicators}: BID bars, close price, weekends filtered.
+ */
+public final class IndicatorSpec {
+
+    public enum Type {
+        SMA, EMA, RSI, ATR, ADX, SAR, MACD, BBANDS, VOLUME
+    }
+
+    private final Type type;
+    private final Period period;
+    // index of used output for indicators with several outputs
+    private final int output;
+    private final double[] parameters;
+
+    private IndicatorSpec(Type type, Period period, int output, double... parameters) {
+        this.type = type;
+        this.period = period;
+        this.output = output;
+        this.parameters = parameters;
+    }
+
+    public static IndicatorSpec sma(Period period, int timePeriod) {
+        return new IndicatorSpec(Type.SMA, period, 0, timePeriod);
+    }
+
+    public static IndicatorSpec ema(Period period, int timePeriod) {
+        return new IndicatorSpec(Type.EMA, period, 0, timePeriod);
+    }
+
+    public static IndicatorSpec rsi(Period period, int timePeriod) {
+        return new IndicatorSpec(Type.RSI, period, 0, timePeriod);
+    }
+
+    public static IndicatorSpec atr(Period period, int timePeriod) {
+        return new IndicatorSpec(Type.ATR, period, 0, timePeriod);
+    }
+
+    public static IndicatorSpec adx(Period period, int timePeriod) {
+        return new IndicatorSpec(Type.ADX, period, 0, timePeriod);
+    }
+
+    public static IndicatorSpec sar(Period period, double acceleration, double maximum) {
+        return new IndicatorSpec(Type.SAR, period, 0, acceleration, maximum);
+    }
+
+    public static IndicatorSpec volume(Period period) {
+        return new IndicatorSpec(Type.VOLUME, period, 0);
+    }
+
+    public static IndicatorSpec macd(Period period, int fastPeriod, int slowPeriod, int signalPeriod) {
+        return new IndicatorSpec(Type.MACD, period, 0, fastPeriod, slowPeriod, signalPeriod);
+    }
+
+    public static IndicatorSpec macdSignal(Period period, int fastPeriod, int slowPeriod, int signalPeriod) {
+        return new IndicatorSpec(Type.MACD, period, 1, fastPeriod, slowPeriod, signalPeriod);
+    }
+
+    public static IndicatorSpec macdHist(Period period, int fastPeriod, int slowPeriod, int signalPeriod) {
+        return new IndicatorSpec(Type.MACD, period, 2, fastPeriod, slowPeriod, signalPeriod);
+    }
+
+    public static IndicatorSpec bbandsUpper(Period period, int timePeriod, double nbDevUp, double nbDevDn) {
+        return new IndicatorSpec(Type.BBANDS, period, 0, timePeriod, nbDevUp, nbDevDn);
+    }
+
+    public static IndicatorSpec bbandsMiddle(Period period, int timePeriod, double nbDevUp, double nbDevDn) {
+        return new IndicatorSpec(Type.BBANDS, period, 1, timePeriod, nbDevUp, nbDevDn);
+    }
+
+    public static IndicatorSpec bbandsLower(Period period, int timePeriod, double nbDevUp, double nbDevDn) {
+        return new IndicatorSpec(Type.BBANDS, period, 2, timePeriod, nbDevUp, nbDevDn);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Period getPeriod() {
+        return period;
+    }
+
+    /**
+     * Returns true if both specs are calculated by the same platform call
+     * (e.g. MACD and its signal), differing only in used output
+     *
+     * @param other
+     * @return
+     */
+    public boolean isSameCalculation(IndicatorSpec other) {
+        return type == other.type && period.equals(other.period) && Arrays.equals(parameters, other.parameters);
+    }
+
+    /**
+     * Calculates value of the bar containing given time
+     *
+     * @param indicators
+     * @param instrument
+     * @param time
+     * @return
+     * @throws JFException
+     */
+    public double calculate(IIndicators indicators, Instrument instrument, long time) throws JFException {
+        return output(calculateOutputs(indicators, instrument, time));
+    }
+
+    /**
+     * Calculates all outputs of the indicator, one value each
+     */
+    double[][] calculateOutputs(IIndicators indicators, Instrument instrument, long time) throws JFException {
+        switch (type) {
+            case SMA:
+                return new double[][]{indicators.sma(instrument, period, OfferSide.BID, IIndicators.AppliedPrice.CLOSE, intParameter(0), Filter.WEEKENDS, 1, time, 0)};
+            case EMA:
+                return new double[][]{indicators.ema(instrument, period, OfferSide.BID, IIndicators.AppliedPrice.CLOSE, intParameter(0), Filter.WEEKENDS, 1, time, 0)};
+            case RSI:
+                return new double[][]{indicators.rsi(instrument, period, OfferSide.BID, IIndicators.AppliedPrice.CLOSE, intParameter(0), Filter.WEEKENDS, 1, time, 0)};
+            case ATR:
+                return new double[][]{indicators.atr(instrument, period, OfferSide.BID, intParameter(0), Filter.WEEKENDS, 1, time, 0)};
+            case ADX:
+                return new double[][]{indicators.adx(instrument, period, OfferSide.BID, intParameter(0), Filter.WEEKENDS, 1, time, 0)};
+            case SAR:
+                return new double[][]{indicators.sar(instrument, period, OfferSide.BID, parameters[0], parameters[1], Filter.WEEKENDS, 1, time, 0)};
+            case VOLUME:
+                return new double[][]{indicators.volume(instrument, period, OfferSide.BID, Filter.WEEKENDS, 1, time, 0)};
+            case MACD:
+                return indicators.macd(instrument, period, OfferSide.BID, IIndicators.AppliedPrice.CLOSE, intParameter(0), intParameter(1), intParameter(2), Filter.WEEKENDS, 1, time, 0);
+            case BBANDS:
+                return indicators.bbands(instrument, period, OfferSide.BID, IIndicators.AppliedPrice.CLOSE, intParameter(0), parameters[1], parameters[2], IIndicators.MaType.EMA, Filter.WEEKENDS, 1, time, 0);
+            default:
+                throw new IllegalStateException("Unknown indicator: " + type);
+        }
+    }
+
+    /**
+     * Picks this spec's value from result of {@link #calculateOutputs}
+     */
+    double output(double[][] outputs) {
+        double[] values = outputs[output];
+        return values[values.length - 1];
+    }
+
+    private int intParameter(int index) {
+        return (int) parameters[index];
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof IndicatorSpec)) {
+            return false;
+        }
+        IndicatorSpec other = (IndicatorSpec) obj;
+        return output == other.output && isSameCalculation(other);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, period, output, Arrays.hashCode(parameters));
+    }
+
+    @Override
+    public String toString() {
+        return type + (output > 0 ? "[" + output + "]" : "") + " " + period + " " + Arrays.toString(parameters);
+    }
+}
@@ -0,0 +1,169 @@
+package easyforex.indicator;
+
+import com.dukascopy.api.Filter;
+import com.dukascopy.api.IBar;
+import com.dukascopy.api.IHistory;
+import com.dukascopy.api.Instrument;
+import com.dukascopy.api.JFException;
+import com.dukascopy.api.OfferSide;
+import com.dukascopy.api.Period;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Keeps incremental indicators for (instrument, period, parameters) and
+ * updates them from {@code onBar}. All indicators are calculated for BID bars.
+ * <p>
+ * Register indicators once (typically in {@code onStart}), they are warmed up
+ * from history, then read returned objects - reading costs no platform call.
+ * Same parameters return the same indicator instance.
+ */
+public final class StreamingIndicators {
+
+    public static final int DEFAULT_WARM_UP_BARS = 300;
+
+    private final IHistory history;
+    private final int warmUpBars;
+    private final Map<Key, IncrementalIndicator> indicators = new HashMap<>();
+    private final Map<Instrument, Map<Period, List<IncrementalIndicator>>> byInstrument = new EnumMap<>(Instrument.class);
+
+    public StreamingIndicators(IHistory history) {
+        this(history, DEFAULT_WARM_UP_BARS);
+    }
+
+    /**
+     * @param history
+     * @param warmUpBars minimal number of history bars used to warm up newly
+     *                   registered indicator
+     */
+    public StreamingIndicators(IHistory history, int warmUpBars) {
+        this.history = history;
+        this.warmUpBars = warmUpBars;
+    }
+
+    /**
+     * Updates all indicators registered for given instrument and period. Call
+     * it from {@code onBar}.
+     *
+     * @param instrument
+     * @param period
+     * @param askBar
+     * @param bidBar
+     */
+    public void onBar(Instrument instrument, Period period, IBar askBar, IBar bidBar) {
+        Map<Period, List<IncrementalIndicator>> byPeriod = byInstrument.get(instrument);
+        if (byPeriod == null) {
+            return;
+        }
+        List<IncrementalIndicator> list = byPeriod.get(period);
+        if (list == null) {
+            return;
+        }
+        for (int i = 0; i < list.size(); i++) {
+            list.get(i).update(bidBar);
+        }
+    }
+
+    public IncrementalEma ema(Instrument instrument, Period period, int timePeriod) throws JFException {
+        return register(new Key(instrument, period, "EMA", timePeriod), () -> new IncrementalEma(timePeriod));
+    }
+
+    public IncrementalSma sma(Instrument instrument, Period period, int timePeriod) throws JFException {
+        return register(new Key(instrument, period, "SMA", timePeriod), () -> new IncrementalSma(timePeriod));
+    }
+
+    public IncrementalRsi rsi(Instrument instrument, Period period, int timePeriod) throws JFException {
+        return register(new Key(instrument, period, "RSI", timePeriod), () -> new IncrementalRsi(timePeriod));
+    }
+
+    public IncrementalAtr atr(Instrument instrument, Period period, int timePeriod) throws JFException {
+        return register(new Key(instrument, period, "ATR", timePeriod), () -> new IncrementalAtr(timePeriod));
+    }
+
+    public IncrementalAdx adx(Instrument instrument, Period period, int timePeriod) throws JFException {
+        return register(new Key(instrument, period, "ADX", timePeriod), () -> new IncrementalAdx(timePeriod));
+    }
+
+    public IncrementalMacd macd(Instrument instrument, Period period, int fastPeriod, int slowPeriod, int signalPeriod) throws JFException {
+        return register(new Key(instrument, period, "MACD", fastPeriod, slowPeriod, signalPeriod),
+                () -> new IncrementalMacd(fastPeriod, slowPeriod, signalPeriod));
+    }
+
+    public IncrementalBBands bbands(Instrument instrument, Period period, int timePeriod, double nbDevUp, double nbDevDn) throws JFException {
+        return register(new Key(instrument, period, "BBANDS", timePeriod, nbDevUp, nbDevDn),
+                () -> new IncrementalBBands(timePeriod, nbDevUp, nbDevDn));
+    }
+
+    public IncrementalSar sar(Instrument instrument, Period period, double acceleration, double maximum) throws JFException {
+        return register(new Key(instrument, period, "SAR", acceleration, maximum), () -> new IncrementalSar(acceleration, maximum));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends IncrementalIndicator> T register(Key key, Factory<T> factory) throws JFException {
+        IncrementalIndicator indicator = indicators.get(key);
+        if (indicator == null) {
+            T created = factory.create();
+            warmUp(key.instrument, key.period, created);
+            indicators.put(key, created);
+            byInstrument.computeIfAbsent(key.instrument, i -> new HashMap<>())
+                    .computeIfAbsent(key.period, p -> new ArrayList<>())
+                    .add(created);
+            return created;
+        }
+        return (T) indicator;
+    }
+
+    private void warmUp(Instrument instrument, Period period, IncrementalIndicator indicator) throws JFException {
+        IBar lastBar = history.getBar(instrument, period, OfferSide.BID, 1);
+        if (lastBar == null) {
+            return;
+        }
+        int number = Math.max(warmUpBars, indicator.getLookback() * 3);
+        List<IBar> bars = history.getBars(instrument, period, OfferSide.BID, Filter.WEEKENDS, number, lastBar.getTime(), 0);
+        for (IBar bar : bars) {
+            indicator.update(bar);
+        }
+    }
+
+    private interface Factory<T> {
+
+        T create();
+    }
+
+    private static final class Key {
+
+        private final Instrument instrument;
+        private final Period period;
+        private final String name;
+        private final double[] parameters;
+
+        Key(Instrument instrument, Period period, String name, double... parameters) {
+            this.instrument = instrument;
+            this.period = period;
+            this.name = name;
+            this.parameters = parameters;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return instrument == other.instrument
+                    && period.equals(other.period)
+                    && name.equals(other.name)
+                    && Arrays.equals(parameters, other.parameters);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(instrument, period, name) * 31 + Arrays.hashCode(parameters);
+        }
+    }
+}
@@ -0,0 +1,515 @@
+package easyforex.util;
+
+import com.dukascopy.api.IConsole;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Non-blocking logger. Log events are pre-allocated in a bounded ring buffer,
+ * callers only copy parts of the line into an event, a background thread
+ * formats events and writes them in batches to the console or a file. Events
+ * below logger's level are discarded before anything is copied, events which
+ * don't fit in the buffer are dropped and counted.
+ * <p>
+ * Usage: {@code logger.log(Level.INFO).append(label).append(" <INFO> ").append(profit).publish()}.
+ * Appended objects are formatted later on the logging thread, so they should
+ * be immutable (strings, numbers, enums).
+ * <p>
+ * Strategies share one logger per console, see
+ * {@link #acquire(IConsole)}.
+ */
+public final class AsyncLogger implements AutoCloseable {
+
+    public enum Level {
+        OUT, INFO, NOTICE, WARN, ERROR
+    }
+
+    public static final int DEFAULT_CAPACITY = 4096;
+    private static final int BATCH_SIZE = 256;
+    private static final int PARTS = 8;
+    private static final long IDLE_PARK_NANOS = 1_000_000;
+    // set in tail while logger is not running, events are written immediately
+    private static final long CLOSED = 1L << 62;
+    // mark parts stored in Event.numbers and Event.longs
+    private static final Object NUMBER = new Object();
+    private static final Object LONG = new Object();
+    private static final Event DISCARDED = new Event(null);
+    private static final Map<IConsole, AsyncLogger> LOGGERS = new IdentityHashMap<>();
+
+    private final IConsole console;
+    private final BufferedWriter writer;
+    private final Event[] events;
+    private final int mask;
+    private final boolean discarding;
+    private final AtomicLong tail = new AtomicLong(CLOSED);
+    private final AtomicLong dropped = new AtomicLong();
+    // guards line and output, written by drainer and by immediate events
+    private final Object writeLock = new Object();
+    private final StringBuilder line = new StringBuilder(256);
+    // next event to drain, written by drainer only
+    private volatile long head;
+    private volatile Level level = Level.OUT;
+    private volatile boolean running;
+    private Thread drainer;
+    private int references;
+    private boolean installed;
+
+    /**
+     * Creates logger writing to console
+     *
+     * @param console
+     * @param capacity number of buffered events, power of 2
+     */
+    public AsyncLogger(IConsole console, int capacity) {
+        this(console, null, capacity, false);
+    }
+
+    /**
+     * Creates logger appending to file, lines are prefixed with level
+     *
+     * @param file
+     * @param capacity number of buffered events, power of 2
+     * @throws IOException
+     */
+    public AsyncLogger(Path file, int capacity) throws IOException {
+        this(null, Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND), capacity, false);
+    }
+
+    private AsyncLogger(IConsole console, BufferedWriter writer, int capacity, boolean discarding) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be power of 2: " + capacity);
+        }
+        this.console = console;
+        this.writer = writer;
+        this.events = new Event[capacity];
+        this.mask = capacity - 1;
+        this.discarding = discarding;
+        for (int i = 0; i < events.length; i++) {
+            events[i] = new Event(this);
+            events[i].sequence = i;
+        }
+    }
+
+    /**
+     * Returns logger discarding all events, which never starts its thread.
+     * Install it for consoles whose output is thrown away, so nothing is
+     * formatted.
+     *
+     * @return
+     */
+    public static AsyncLogger discarding() {
+        return new AsyncLogger(null, null, 1, true);
+    }
+
+    /**
+     * Returns started logger of the console, shared by all callers, and
+     * starts it if needed. Every call has to be paired with
+     * {@link #release(IConsole)}.
+     *
+     * @param console
+     * @return
+     */
+    public static AsyncLogger acquire(IConsole console) {
+        synchronized (LOGGERS) {
+            AsyncLogger logger = LOGGERS.get(console);
+            if (logger == null) {
+                logger = new AsyncLogger(console, DEFAULT_CAPACITY);
+                LOGGERS.put(console, logger);
+            }
+            if (logger.references++ == 0) {
+                logger.start();
+            }
+            return logger;
+        }
+    }
+
+    /**
+     * Sets logger used for the console by {@link #acquire(IConsole)}, e.g.
+     * to write strategy output to a file or to change its capacity
+     *
+     * @param console
+     * @param logger
+     */
+    public static void install(IConsole console, AsyncLogger logger) {
+        synchronized (LOGGERS) {
+            logger.installed = true;
+            LOGGERS.put(console, logger);
+        }
+    }
+
+    /**
+     * Removes logger installed for the console and stops it, call it when the
+     * console is not used any more
+     *
+     * @param console
+     */
+    public static void uninstall(IConsole console) {
+        AsyncLogger removed;
+        synchronized (LOGGERS) {
+            removed = LOGGERS.remove(console);
+        }
+        if (removed != null) {
+            removed.stop();
+        }
+    }
+
+    /**
+     * Releases logger of the console, the last release drains and stops it
+     *
+     * @param console
+     */
+    public static void release(IConsole console) {
+        AsyncLogger stopped = null;
+        synchronized (LOGGERS) {
+            AsyncLogger logger = LOGGERS.get(console);
+            if (logger != null && logger.references > 0 && --logger.references == 0) {
+                stopped = logger;
+                if (!logger.installed) {
+                    LOGGERS.remove(console);
+                }
+            }
+        }
+        if (stopped != null) {
+            stopped.stop();
+        }
+    }
+
+    /**
+     * Returns logger acquired for the console, or logger writing immediately
+     * on caller's thread if there is none
+     *
+     * @param console
+     * @return
+     */
+    public static AsyncLogger get(IConsole console) {
+        synchronized (LOGGERS) {
+            AsyncLogger logger = LOGGERS.get(console);
+            if (logger != null && (logger.running || logger.discarding)) {
+                return logger;
+            }
+        }
+        // never started, so it writes immediately
+        return new AsyncLogger(console, null, 1, false);
+    }
+
+    /**
+     * Starts background thread
+     */
+    public synchronized void start() {
+        if (running || discarding) {
+            return;
+        }
+        running = true;
+        tail.set(head);
+        drainer = new Thread(this::drainLoop, "AsyncLogger");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    /**
+     * Writes buffered events, including events claimed by concurrent callers
+     * before the logger closed, and stops background thread. Later events are
+     * written immediately.
+     */
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(drainer);
+        try {
+            drainer.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        drainer = null;
+    }
+
+    /**
+     * Stops logger and closes its file
+     *
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        stop();
+        if (writer != null) {
+            synchronized (writeLock) {
+                writer.close();
+            }
+        }
+    }
+
+    /**
+     * Waits until events published before this call are written
+     */
+    public void flush() {
+        long target = tail.get() & ~CLOSED;
+        while (head < target && running) {
+            LockSupport.unpark(drainer);
+            LockSupport.parkNanos(IDLE_PARK_NANOS / 10);
+        }
+    }
+
+    public Level getLevel() {
+        return level;
+    }
+
+    /**
+     * Sets minimal level of logged events
+     *
+     * @param level
+     */
+    public void setLevel(Level level) {
+        this.level = level;
+    }
+
+    public boolean isEnabled(Level level) {
+        return !discarding && level.compareTo(this.level) >= 0;
+    }
+
+    /**
+     * Returns number of events dropped because buffer was full
+     *
+     * @return
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Starts new event, append parts of its line and publish it. Returned
+     * event ignores appended parts if level is disabled or buffer is full. If
+     * logger is not running (or its background thread already finished),
+     * event is written by {@code publish} on caller's thread.
+     *
+     * @param level
+     * @return
+     */
+    public Event log(Level level) {
+        if (!isEnabled(level)) {
+            return DISCARDED;
+        }
+        while (true) {
+            long position = tail.get();
+            if ((position & CLOSED) != 0) {
+                Event event = new Event(this);
+                event.level = level;
+                event.immediate = true;
+                return event;
+            }
+            Event event = events[(int) position & mask];
+            long sequence = event.sequence;
+            if (sequence == position) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    event.position = position;
+                    event.level = level;
+                    return event;
+                }
+            } else if (sequence < position) {
+                // slot still holds event from previous lap
+                dropped.incrementAndGet();
+                return DISCARDED;
+            }
+        }
+    }
+
+    /**
+     * Logs single object, e.g. strategy output
+     *
+     * @param level
+     * @param obj
+     */
+    public void log(Level level, Object obj) {
+        log(level).append(obj).publish();
+    }
+
+    private void publish(Event event) {
+        if (event.immediate) {
+            synchronized (writeLock) {
+                write(event);
+                flushWriter();
+            }
+            return;
+        }
+        event.sequence = event.position + 1;
+    }
+
+    private void drainLoop() {
+        while (true) {
+            if (drain() == 0) {
+                if (!running) {
+                    // close only when every claimed event was drained, events
+                    // claimed but not yet published are waited for
+                    long position = tail.get();
+                    if (position == head && tail.compareAndSet(position, position | CLOSED)) {
+                        return;
+                    }
+                    LockSupport.parkNanos(IDLE_PARK_NANOS / 10);
+                } else {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+            }
+        }
+    }
+
+    private int drain() {
+        long position = head;
+        int drained = 0;
+        synchronized (writeLock) {
+            while (drained < BATCH_SIZE) {
+                Event event = events[(int) position & mask];
+                if (event.sequence != position + 1) {
+                    break;
+                }
+                write(event);
+                event.clear();
+                event.sequence = position + events.length;
+                position++;
+                drained++;
+            }
+            if (drained > 0) {
+                flushWriter();
+            }
+        }
+        if (drained > 0) {
+            head = position;
+        }
+        return drained;
+    }
+
+    private void write(Event event) {
+        line.setLength(0);
+        event.format(line);
+        if (writer != null) {
+            try {
+                writer.append(event.level.name()).append(' ').append(line);
+                writer.newLine();
+            } catch (IOException ex) {
+                dropped.incrementAndGet();
+            }
+        } else {
+            stream(event.level).println(line);
+        }
+    }
+
+    private PrintStream stream(Level level) {
+        switch (level) {
+            case INFO:
+                return console.getInfo();
+            case NOTICE:
+                return console.getNotif();
+            case WARN:
+                return console.getWarn();
+            case ERROR:
+                return console.getErr();
+            default:
+                return console.getOut();
+        }
+    }
+
+    private void flushWriter() {
+        if (writer != null) {
+            try {
+                writer.flush();
+            } catch (IOException ex) {
+                // lines stay buffered, next flush retries
+            }
+        }
+    }
+
+    /**
+     * Pre-allocated log event
+     */
+    public static final class Event {
+
+        private final AsyncLogger logger;
+        private Object[] parts = new Object[PARTS];
+        private double[] numbers = new double[PARTS];
+        private long[] longs = new long[PARTS];
+        private int size;
+        private Level level;
+        private long position;
+        private boolean immediate;
+        private volatile long sequence;
+
+        private Event(AsyncLogger logger) {
+            this.logger = logger;
+        }
+
+        public Event append(Object part) {
+            if (logger != null) {
+                ensureCapacity();
+                parts[size++] = part;
+            }
+            return this;
+        }
+
+        public Event append(char c) {
+            return append((Object) c);
+        }
+
+        public Event append(double number) {
+            if (logger != null) {
+                ensureCapacity();
+                parts[size] = NUMBER;
+                numbers[size++] = number;
+            }
+            return this;
+        }
+
+        public Event append(long number) {
+            if (logger != null) {
+                ensureCapacity();
+                parts[size] = LONG;
+                longs[size++] = number;
+            }
+            return this;
+        }
+
+        /**
+         * Hands the event to the logging thread, event can't be used
+         * afterwards
+         */
+        public void publish() {
+            if (logger != null) {
+                logger.publish(this);
+            }
+        }
+
+        private void ensureCapacity() {
+            if (size == parts.length) {
+                parts = Arrays.copyOf(parts, size * 2);
+                numbers = Arrays.copyOf(numbers, size * 2);
+                longs = Arrays.copyOf(longs, size * 2);
+            }
+        }
+
+        private void format(StringBuilder sb) {
+            for (int i = 0; i < size; i++) {
+                if (parts[i] == NUMBER) {
+                    sb.append(numbers[i]);
+                } else if (parts[i] == LONG) {
+                    sb.append(longs[i]);
+                } else {
+                    sb.append(parts[i]);
+                }
+            }
+        }
+
+        private void clear() {
+            Arrays.fill(parts, 0, size, null);
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package easyforex.util;
+
+import com.dukascopy.api.Filter;
+import com.dukascopy.api.IBar;
+import com.dukascopy.api.ITick;
+import com.dukascopy.api.Instrument;
+import com.dukascopy.api.JFException;
+import com.dukascopy.api.OfferSide;
+import com.dukascopy.api.Period;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds ASK and BID bars of several periods from ticks, e.g. for a strategy
+ * using 1 min, 15 min, 1 h and 4 h bars:
+ * <pre>
+ * aggregator = new BarAggregator(Filter.WEEKENDS, Period.ONE_MIN, Period.FIFTEEN_MINS, Period.ONE_HOUR, Period.FOUR_HOURS);
+ * aggregator.addListener(barStore::onBar);
+ * ...
+ * onTick: aggregator.onTick(instrument, tick);
+ * </pre> Only the shortest periods are built from ticks, longer periods are
+ * merged from completed bars of the longest period which divides them (15 min
+ * from 1 min, 1 h from 15 min, 4 h from 1 h). A bar is completed by the first
+ * tick after its end, listeners get completed bars in order of periods.
+ * <p>
+ * Periods without ticks produce flat bars (all prices equal to previous close,
+ * no volume) depending on the filter: all of them with {@code NO_FILTER},
+ * except weekend ones (Friday 22:00 - Sunday 22:00 GMT) with
+ * {@code WEEKENDS}, none with {@code ALL_FLATS}.
+ * <p>
+ * Bars start at multiples of period interval (GMT), only fixed interval periods
+ * up to one day are supported. Daily bars therefore start at GMT midnight,
+ * while platform's daily candles honour the daily candle offset of platform
+ * settings, so compare them with platform's bars only if the offset is zero.
+ */
+public final class BarAggregator {
+
+    private static final long WEEK = TimeUnit.DAYS.toMillis(7);
+    // 1970-01-01 was Thursday, weekend starts on Friday 22:00
+    private static final long WEEKEND_START = TimeUnit.DAYS.toMillis(1) + TimeUnit.HOURS.toMillis(22);
+    private static final long WEEKEND_LENGTH = TimeUnit.DAYS.toMillis(2);
+
+    private final Filter filter;
+    private final Period[] periods;
+    // index of period the period is merged from, -1 if built from ticks
+    private final int[] sources;
+    private final Map<Instrument, Level[]> levels = new EnumMap<>(Instrument.class);
+    private final List<BarListener> listeners = new ArrayList<>();
+
+    /**
+     * @param filter  which flat bars are produced
+     * @param periods built periods
+     */
+    public BarAggregator(Filter filter, Period... periods) {
+        for (Period period : periods) {
+            if (!isSupported(period)) {
+                throw new IllegalArgumentException("Only fixed interval periods up to one day are supported: " + period);
+            }
+        }
+        this.filter = filter;
+        this.periods = Arrays.stream(periods).distinct()
+                .sorted(Comparator.comparingLong(Period::getInterval))
+                .toArray(Period[]::new);
+        this.sources = new int[this.periods.length];
+        for (int i = 0; i < this.periods.length; i++) {
+            sources[i] = -1;
+            for (int j = i - 1; j >= 0 && sources[i] < 0; j--) {
+                if (this.periods[i].getInterval() % this.periods[j].getInterval() == 0) {
+                    sources[i] = j;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns true if bars of period can be built by the aggregator and their
+     * start can be calculated by {@link #getBarStart(Period, long)}
+     *
+     * @param period
+     * @return
+     */
+    public static boolean isSupported(Period period) {
+        return period.getInterval() > 0 && period.getInterval() <= TimeUnit.DAYS.toMillis(1);
+    }
+
+    /**
+     * Returns start of the bar containing given time, without platform call.
+     * Daily bar starts at GMT midnight, use {@code IHistory.getBarStart} to get
+     * start of platform's daily candle.
+     *
+     * @param period supported period
+     * @param time
+     * @return
+     */
+    public static long getBarStart(Period period, long time) {
+        return time - Math.floorMod(time, period.getInterval());
+    }
+
+    /**
+     * Returns true if time is in weekend (Friday 22:00 - Sunday 22:00 GMT)
+     *
+     * @param time
+     * @return
+     */
+    public static boolean isWeekend(long time) {
+        return Math.floorMod(time - WEEKEND_START, WEEK) < WEEKEND_LENGTH;
+    }
+
+    public void addListener(BarListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Returns built periods, shortest first
+     *
+     * @return
+     */
+    public List<Period> getPeriods() {
+        return Collections.unmodifiableList(Arrays.asList(periods));
+    }
+
+    /**
+     * Adds tick to bars of its instrument, notifies listeners about bars
+     * completed by the tick
+     *
+     * @param instrument
+     * @param tick
+     * @throws JFException
+     */
+    public void onTick(Instrument instrument, ITick tick) throws JFException {
+        Level[] instrumentLevels = levels.get(instrument);
+        if (instrumentLevels == null) {
+            instrumentLevels = new Level[periods.length];
+            for (int i = 0; i < periods.length; i++) {
+                instrumentLevels[i] = new Level(instrument, periods[i]);
+            }
+            for (int i = 0; i < periods.length; i++) {
+                for (int j = i + 1; j < periods.length; j++) {
+                    if (sources[j] == i) {
+                        instrumentLevels[i].targets.add(instrumentLevels[j]);
+                    }
+                }
+            }
+            levels.put(instrument, instrumentLevels);
+        }
+        long time = tick.getTime();
+        for (int i = 0; i < instrumentLevels.length; i++) {
+            Level level = instrumentLevels[i];
+            if (sources[i] < 0) {
+                level.add(time, tick.getAsk(), tick.getAsk(), tick.getAsk(), tick.getAsk(), tick.getAskVolume(),
+                        tick.getBid(), tick.getBid(), tick.getBid(), tick.getBid(), tick.getBidVolume(), true);
+            } else {
+                // source bars of ended bar were merged above
+                level.advance(time);
+            }
+        }
+    }
+
+    /**
+     * Returns current (not completed) bar
+     *
+     * @param instrument
+     * @param period
+     * @param side
+     * @return null if there were no ticks in the bar yet
+     */
+    public IBar getCurrentBar(Instrument instrument, Period period, OfferSide side) {
+        Level[] instrumentLevels = levels.get(instrument);
+        int index = Arrays.asList(periods).indexOf(period);
+        if (instrumentLevels == null || index < 0) {
+            return null;
+        }
+        Bar bar = new Bar();
+        return current(instrumentLevels, index, side, bar) ? bar.toBar(instrumentLevels[index].start) : null;
+    }
+
+    /**
+     * Merges current bar of the level including forming source bars
+     */
+    private boolean current(Level[] instrumentLevels, int index, OfferSide side, Bar result) {
+        Level level = instrumentLevels[index];
+        boolean any = false;
+        Bar own = side == OfferSide.ASK ? level.ask : level.bid;
+        if (own.hasData) {
+            result.merge(own);
+            any = true;
+        }
+        if (sources[index] >= 0) {
+            Bar source = new Bar();
+            Level sourceLevel = instrumentLevels[sources[index]];
+            if (current(instrumentLevels, sources[index], side, source) && getBarStart(level.period, sourceLevel.start) == level.start) {
+                result.merge(source);
+                any = true;
+            }
+        }
+        return any;
+    }
+
+    /**
+     * Listener of completed bars
+     */
+    public interface BarListener {
+
+        void onBar(Instrument instrument, Period period, IBar askBar, IBar bidBar) throws JFException;
+    }
+
+    /**
+     * Bars of one instrument and period
+     */
+    private final class Level {
+
+        private final Instrument instrument;
+        private final Period period;
+        private final long interval;
+        private final List<Level> targets = new ArrayList<>(1);
+        private final Bar ask = new Bar();
+        private final Bar bid = new Bar();
+        private long start = Long.MIN_VALUE;
+        // close prices of last completed bar, for flat bars
+        private double lastAsk = Double.NaN;
+        private double lastBid = Double.NaN;
+
+        Level(Instrument instrument, Period period) {
+            this.instrument = instrument;
+            this.period = period;
+            this.interval = period.getInterval();
+        }
+
+        /**
+         * Adds tick or completed bar of source period
+         */
+        void add(long time, double askOpen, double askHigh, double askLow, double askClose, double askVolume,
+                double bidOpen, double bidHigh, double bidLow, double bidClose, double bidVolume, boolean fillGaps) throws JFException {
+            long barStart = getBarStart(period, time);
+            if (barStart != start) {
+                complete(barStart, fillGaps);
+            }
+            ask.add(askOpen, askHigh, askLow, askClose, askVolume);
+            bid.add(bidOpen, bidHigh, bidLow, bidClose, bidVolume);
+        }
+
+        /**
+         * Completes current bar if given time is after its end
+         */
+        void advance(long time) throws JFException {
+            long barStart = getBarStart(period, time);
+            if (barStart != start) {
+                complete(barStart, false);
+            }
+        }
+
+        private void complete(long nextStart, boolean fillGaps) throws JFException {
+            if (ask.hasData) {
+                emit(start, ask.open, ask.high, ask.low, ask.close, ask.volume, bid.open, bid.high, bid.low, bid.close, bid.volume);
+                lastAsk = ask.close;
+                lastBid = bid.close;
+                if (fillGaps && filter != Filter.ALL_FLATS) {
+                    for (long flat = start + interval; flat < nextStart; flat += interval) {
+                        if (filter == Filter.NO_FILTER || !isWeekend(flat)) {
+                            emit(flat, lastAsk, lastAsk, lastAsk, lastAsk, 0, lastBid, lastBid, lastBid, lastBid, 0);
+                        }
+                    }
+                }
+            }
+            ask.clear();
+            bid.clear();
+            start = nextStart;
+        }
+
+        private void emit(long time, double askOpen, double askHigh, double askLow, double askClose, double askVolume,
+                double bidOpen, double bidHigh, double bidLow, double bidClose, double bidVolume) throws JFException {
+            IBar askBar = new SimpleBar(time, askOpen, askHigh, askLow, askClose, askVolume);
+            IBar bidBar = new SimpleBar(time, bidOpen, bidHigh, bidLow, bidClose, bidVolume);
+            for (int i = 0; i < listeners.size(); i++) {
+                listeners.get(i).onBar(instrument, period, askBar, bidBar);
+            }
+            for (int i = 0; i < targets.size(); i++) {
+                targets.get(i).add(time, askOpen, askHigh, askLow, askClose, askVolume,
+                        bidOpen, bidHigh, bidLow, bidClose, bidVolume, false);
+            }
+        }
+    }
+
+    /**
+     * OHLCV of one side
+     */
+    private static final class Bar {
+
+        private boolean hasData;
+        private double open, high, low, close, volume;
+
+        void add(double open, double high, double low, double close, double volume) {
+            if (!hasData) {
+                this.open = open;
+                this.high = high;
+                this.low = low;
+                hasData = true;
+            } else {
+                this.high = Math.max(this.high, high);
+                this.low = Math.min(this.low, low);
+            }
+            this.close = close;
+            this.volume += volume;
+        }
+
+        void merge(Bar bar) {
+            add(bar.open, bar.high, bar.low, bar.close, bar.volume);
+        }
+
+        void clear() {
+            hasData = false;
+            volume = 0;
+        }
+
+        IBar toBar(long time) {
+            return new SimpleBar(time, open, high, low, close, volume);
+        }
+    }
+}
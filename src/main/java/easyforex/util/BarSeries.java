@@ -0,0 +1,182 @@
+package easyforex.util;
+
+import com.dukascopy.api.IBar;
+
+/**
+ * Fixed-capacity ring buffer of bars stored as primitive OHLCV columns.
+ * Indexes are counted from the oldest kept bar (0) to the newest
+ * ({@code size() - 1}), like values of indicator arrays.
+ */
+public final class BarSeries {
+
+    private final long[] time;
+    private final double[] open;
+    private final double[] high;
+    private final double[] low;
+    private final double[] close;
+    private final double[] volume;
+    // index of the oldest bar
+    private int start;
+    private int size;
+
+    public BarSeries(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.time = new long[capacity];
+        this.open = new double[capacity];
+        this.high = new double[capacity];
+        this.low = new double[capacity];
+        this.close = new double[capacity];
+        this.volume = new double[capacity];
+    }
+
+    /**
+     * Appends bar, overwriting the oldest one when full. Bars not newer than
+     * the last one are ignored.
+     *
+     * @param bar
+     * @return true if bar was appended
+     */
+    public boolean append(IBar bar) {
+        return append(bar.getTime(), bar.getOpen(), bar.getHigh(), bar.getLow(), bar.getClose(), bar.getVolume());
+    }
+
+    /**
+     * Appends bar, overwriting the oldest one when full. Bars not newer than
+     * the last one are ignored.
+     *
+     * @param barTime
+     * @param barOpen
+     * @param barHigh
+     * @param barLow
+     * @param barClose
+     * @param barVolume
+     * @return true if bar was appended
+     */
+    public boolean append(long barTime, double barOpen, double barHigh, double barLow, double barClose, double barVolume) {
+        if (size > 0 && barTime <= getLastTime()) {
+            return false;
+        }
+        int index;
+        if (size < time.length) {
+            index = physical(size);
+            size++;
+        } else {
+            index = start;
+            start = physical(1);
+        }
+        time[index] = barTime;
+        open[index] = barOpen;
+        high[index] = barHigh;
+        low[index] = barLow;
+        close[index] = barClose;
+        volume[index] = barVolume;
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return time.length;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns time of the newest bar, 0 if empty
+     *
+     * @return
+     */
+    public long getLastTime() {
+        return size > 0 ? time[physical(size - 1)] : 0;
+    }
+
+    public long getTime(int index) {
+        return time[checked(index)];
+    }
+
+    public double getOpen(int index) {
+        return open[checked(index)];
+    }
+
+    public double getHigh(int index) {
+        return high[checked(index)];
+    }
+
+    public double getLow(int index) {
+        return low[checked(index)];
+    }
+
+    public double getClose(int index) {
+        return close[checked(index)];
+    }
+
+    public double getVolume(int index) {
+        return volume[checked(index)];
+    }
+
+    /**
+     * Returns close prices of last bars, oldest first
+     *
+     * @param number maximal number of bars
+     * @return
+     */
+    public double[] getCloses(int number) {
+        return copy(close, number);
+    }
+
+    /**
+     * Returns high prices of last bars, oldest first
+     *
+     * @param number maximal number of bars
+     * @return
+     */
+    public double[] getHighs(int number) {
+        return copy(high, number);
+    }
+
+    /**
+     * Returns low prices of last bars, oldest first
+     *
+     * @param number maximal number of bars
+     * @return
+     */
+    public double[] getLows(int number) {
+        return copy(low, number);
+    }
+
+    /**
+     * Removes all bars
+     */
+    public void clear() {
+        start = 0;
+        size = 0;
+    }
+
+    private double[] copy(double[] column, int number) {
+        int count = Math.min(number, size);
+        double[] result = new double[count];
+        int first = physical(size - count);
+        int tail = Math.min(count, column.length - first);
+        System.arraycopy(column, first, result, 0, tail);
+        System.arraycopy(column, 0, result, tail, count - tail);
+        return result;
+    }
+
+    private int checked(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+        return physical(index);
+    }
+
+    private int physical(int index) {
+        int i = start + index;
+        return i < time.length ? i : i - time.length;
+    }
+}
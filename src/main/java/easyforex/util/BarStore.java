@@ -0,0 +1,200 @@
+package easyforex.util;
+
+import com.dukascopy.api.Filter;
+import com.dukascopy.api.IBar;
+import com.dukascopy.api.IHistory;
+import com.dukascopy.api.Instrument;
+import com.dukascopy.api.JFException;
+import com.dukascopy.api.OfferSide;
+import com.dukascopy.api.Period;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rolling store of completed bars per (instrument, period, offer side). A
+ * series is seeded from history once, when it is first used (e.g. in
+ * {@code onStart}), then appended from {@code onBar} - reading bars costs no
+ * platform call.
+ * <p>
+ * Bars which were not passed to {@code onBar} (e.g. periods not routed to the
+ * strategy) are loaded from history by {@link #getSeries(Instrument, Period,
+ * OfferSide, long)}, at most once per bar.
+ */
+public final class BarStore {
+
+    public static final int DEFAULT_CAPACITY = 1000;
+
+    private final IHistory history;
+    private final int capacity;
+    private final Map<Instrument, Map<Period, Sides>> series = new EnumMap<>(Instrument.class);
+
+    public BarStore(IHistory history) {
+        this(history, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param history
+     * @param capacity number of kept bars per series
+     */
+    public BarStore(IHistory history, int capacity) {
+        this.history = history;
+        this.capacity = capacity;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Appends completed bars to seeded series of instrument and period. Call
+     * it from {@code onBar}.
+     *
+     * @param instrument
+     * @param period
+     * @param askBar
+     * @param bidBar
+     */
+    public void onBar(Instrument instrument, Period period, IBar askBar, IBar bidBar) {
+        Sides sides = getSides(instrument, period);
+        if (sides != null) {
+            append(sides, OfferSide.ASK, askBar);
+            append(sides, OfferSide.BID, bidBar);
+        }
+    }
+
+    /**
+     * Appends completed bar of one side to its series, if seeded
+     *
+     * @param instrument
+     * @param period
+     * @param side
+     * @param bar
+     */
+    public void onBar(Instrument instrument, Period period, OfferSide side, IBar bar) {
+        Sides sides = getSides(instrument, period);
+        if (sides != null) {
+            append(sides, side, bar);
+        }
+    }
+
+    /**
+     * Returns series of completed bars, seeding it from history if needed
+     *
+     * @param instrument
+     * @param period
+     * @param side
+     * @return
+     * @throws JFException
+     */
+    public BarSeries getSeries(Instrument instrument, Period period, OfferSide side) throws JFException {
+        return getSides(instrument, period, side).series[side.ordinal()];
+    }
+
+    /**
+     * Returns series of all bars completed before given time, seeding it from
+     * history if needed. Bars missed by {@code onBar} are loaded from
+     * history, history is checked at most once per bar.
+     *
+     * @param instrument
+     * @param period
+     * @param side
+     * @param time       current (tick) time
+     * @return
+     * @throws JFException
+     */
+    public BarSeries getSeries(Instrument instrument, Period period, OfferSide side, long time) throws JFException {
+        Sides sides = getSides(instrument, period, side);
+        BarSeries result = sides.series[side.ordinal()];
+        long barStart = isArithmetic(period) ? BarAggregator.getBarStart(period, time) : history.getBarStart(period, time);
+        if (barStart > sides.checked[side.ordinal()]) {
+            sides.checked[side.ordinal()] = barStart;
+            if (result.isEmpty() || result.getLastTime() + period.getInterval() < barStart) {
+                update(instrument, period, side, result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Seeds both sides of instrument and period
+     *
+     * @param instrument
+     * @param period
+     * @throws JFException
+     */
+    public void seed(Instrument instrument, Period period) throws JFException {
+        getSeries(instrument, period, OfferSide.BID);
+        getSeries(instrument, period, OfferSide.ASK);
+    }
+
+    private Sides getSides(Instrument instrument, Period period, OfferSide side) throws JFException {
+        Sides sides = getSides(instrument, period);
+        if (sides == null) {
+            sides = new Sides();
+            series.computeIfAbsent(instrument, i -> new HashMap<>()).put(period, sides);
+        }
+        if (sides.series[side.ordinal()] == null) {
+            BarSeries seeded = new BarSeries(capacity);
+            update(instrument, period, side, seeded);
+            sides.series[side.ordinal()] = seeded;
+        }
+        return sides;
+    }
+
+    /**
+     * Appends bars completed after the last bar of the series from history
+     */
+    private void update(Instrument instrument, Period period, OfferSide side, BarSeries target) throws JFException {
+        IBar lastBar = history.getBar(instrument, period, side, 1);
+        if (lastBar == null || (!target.isEmpty() && lastBar.getTime() <= target.getLastTime())) {
+            return;
+        }
+        int number = capacity;
+        if (!target.isEmpty() && period.getInterval() > 0) {
+            // upper bound, weekend bars are filtered
+            number = (int) Math.min(capacity, (lastBar.getTime() - target.getLastTime()) / period.getInterval());
+        }
+        List<IBar> bars = history.getBars(instrument, period, side, Filter.WEEKENDS, number, lastBar.getTime(), 0);
+        for (IBar bar : bars) {
+            target.append(bar);
+        }
+    }
+
+    /**
+     * Returns true if bar start can be calculated without history (daily bars
+     * depend on platform's day start)
+     */
+    private static boolean isArithmetic(Period period) {
+        return BarAggregator.isSupported(period) && period.getInterval() < TimeUnit.DAYS.toMillis(1);
+    }
+
+    private Sides getSides(Instrument instrument, Period period) {
+        Map<Period, Sides> byPeriod = series.get(instrument);
+        return byPeriod != null ? byPeriod.get(period) : null;
+    }
+
+    private static void append(Sides sides, OfferSide side, IBar bar) {
+        BarSeries target = sides.series[side.ordinal()];
+        if (target != null && bar != null) {
+            target.append(bar);
+        }
+    }
+
+    /**
+     * Series of both offer sides of instrument and period
+     */
+    private static final class Sides {
+
+        private final BarSeries[] series = new BarSeries[OfferSide.values().length];
+        // start of the bar when history was last checked, by side
+        private final long[] checked = new long[OfferSide.values().length];
+
+        Sides() {
+            Arrays.fill(checked, Long.MIN_VALUE);
+        }
+    }
+}
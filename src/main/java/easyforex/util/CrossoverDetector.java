@@ -0,0 +1,205 @@
+package easyforex.util;
+
+/**
+ * Incremental cross detection for many fast / slow line pairs (e.g. MA pairs
+ * of several instruments). Each new value is checked in O(1) against the
+ * previous one, positions of last crosses are kept per pair, so no value
+ * history is needed.
+ * <p>
+ * Positions and directions have the same meaning as in
+ * {@link EasyOperations#valuesCrossed(double[], double[])}.
+ */
+public final class CrossoverDetector {
+
+    private final double[] previousFast;
+    private final double[] previousSlow;
+    private final boolean[] started;
+    // bars since last cross + 1, i.e. position of last cross, 0 if none
+    private final int[] lastCrossPosition;
+    private final int[] lastCrossDirection;
+    private final Crosses crosses;
+
+    /**
+     * @param pairs number of line pairs
+     */
+    public CrossoverDetector(int pairs) {
+        this.previousFast = new double[pairs];
+        this.previousSlow = new double[pairs];
+        this.started = new boolean[pairs];
+        this.lastCrossPosition = new int[pairs];
+        this.lastCrossDirection = new int[pairs];
+        this.crosses = new Crosses(pairs);
+    }
+
+    public int getPairs() {
+        return started.length;
+    }
+
+    /**
+     * Adds new values of one pair
+     *
+     * @param pair
+     * @param fast
+     * @param slow
+     * @return 1 if fast crossed slow upwards, -1 if downwards, 0 if not crossed
+     */
+    public int update(int pair, double fast, double slow) {
+        int direction = 0;
+        if (started[pair]) {
+            direction = EasyOperations.crossDirection(previousFast[pair], previousSlow[pair], fast, slow);
+            if (direction != 0) {
+                lastCrossPosition[pair] = 1;
+                lastCrossDirection[pair] = direction;
+            } else if (lastCrossPosition[pair] > 0) {
+                lastCrossPosition[pair]++;
+            }
+        }
+        started[pair] = true;
+        previousFast[pair] = fast;
+        previousSlow[pair] = slow;
+        return direction;
+    }
+
+    /**
+     * Adds new values of all pairs
+     *
+     * @param fast new value of every pair's fast line
+     * @param slow new value of every pair's slow line
+     * @return crosses at new values (position 1), buffer is reused by next call
+     */
+    public Crosses update(double[] fast, double[] slow) {
+        crosses.clear();
+        for (int pair = 0; pair < started.length; pair++) {
+            int direction = update(pair, fast[pair], slow[pair]);
+            if (direction != 0) {
+                crosses.add(pair, direction, 1);
+            }
+        }
+        return crosses;
+    }
+
+    /**
+     * Returns most recent cross of pair
+     *
+     * @param pair
+     * @return positive position if crossed upwards, negative if downwards, 0
+     * if not crossed
+     */
+    public int valuesCrossed(int pair) {
+        return lastCrossDirection[pair] * lastCrossPosition[pair];
+    }
+
+    /**
+     * Returns most recent cross of pair within given number of last values,
+     * like {@link EasyOperations#valuesCrossed(double[], double[])} on arrays
+     * of that length
+     *
+     * @param pair
+     * @param window number of last values
+     * @return positive position if crossed upwards, negative if downwards, 0
+     * if not crossed
+     */
+    public int valuesCrossed(int pair, int window) {
+        return lastCrossPosition[pair] < window ? valuesCrossed(pair) : 0;
+    }
+
+    /**
+     * Collects most recent crosses of all pairs within given number of last
+     * values
+     *
+     * @param window number of last values
+     * @param result buffer to fill, e.g. from {@link #newCrosses()}
+     * @return result
+     */
+    public Crosses crosses(int window, Crosses result) {
+        result.clear();
+        for (int pair = 0; pair < started.length; pair++) {
+            int position = lastCrossPosition[pair];
+            if (position > 0 && position < window) {
+                result.add(pair, lastCrossDirection[pair], position);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Creates buffer big enough for crosses of all pairs
+     *
+     * @return
+     */
+    public Crosses newCrosses() {
+        return new Crosses(started.length);
+    }
+
+    /**
+     * Forgets values and crosses of pair
+     *
+     * @param pair
+     */
+    public void reset(int pair) {
+        started[pair] = false;
+        lastCrossPosition[pair] = 0;
+        lastCrossDirection[pair] = 0;
+    }
+
+    /**
+     * Reusable list of crosses
+     */
+    public static final class Crosses {
+
+        private final int[] pairs;
+        private final int[] directions;
+        private final int[] positions;
+        private int size;
+
+        private Crosses(int capacity) {
+            this.pairs = new int[capacity];
+            this.directions = new int[capacity];
+            this.positions = new int[capacity];
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        /**
+         * @param index
+         * @return index of crossed pair
+         */
+        public int getPair(int index) {
+            return pairs[index];
+        }
+
+        /**
+         * @param index
+         * @return 1 if crossed upwards, -1 if downwards
+         */
+        public int getDirection(int index) {
+            return directions[index];
+        }
+
+        /**
+         * @param index
+         * @return distance of the cross from most recent values, 1 for the
+         * most recent ones
+         */
+        public int getPosition(int index) {
+            return positions[index];
+        }
+
+        private void clear() {
+            size = 0;
+        }
+
+        private void add(int pair, int direction, int position) {
+            pairs[size] = pair;
+            directions[size] = direction;
+            positions[size] = position;
+            size++;
+        }
+    }
+}
@@ -7,15 +7,37 @@ import com.dukascopy.api.IOrder;
 import com.dukascopy.api.Instrument;
 import com.dukascopy.api.drawings.IOhlcChartObject;
 import java.awt.Color;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Utility class for charts
+ * <p>
+ * Stop loss and take profit marks are buffered and added to the chart in
+ * batches, not more often than flush interval. A newer mark of the same order
+ * replaces buffered one, so e.g. trailing stop leaves one mark per order per
+ * interval. Number of objects added to the chart is limited, the oldest ones
+ * are removed.
  */
 public final class EasyChart {
 
+	public static final long DEFAULT_FLUSH_INTERVAL = 60_000;
+	public static final int DEFAULT_MAX_OBJECTS = 1000;
+
 	private final IContext context;
 	private final Instrument instrument;
 	private final IChart chart;
+	// buffered marks by order label and mark type
+	private final Map<String, Mark> pendingMarks = new LinkedHashMap<>();
+	// added objects, oldest first
+	private final Deque<IChartObject> liveObjects = new ArrayDeque<>();
+	private long flushInterval = DEFAULT_FLUSH_INTERVAL;
+	private int maxObjects = DEFAULT_MAX_OBJECTS;
+	private long lastFlushTime = Long.MIN_VALUE / 2;
+	private long sequence;
+	private long mergedCount;
 
 	public EasyChart(IContext context, Instrument instrument) {
 		this.context = context;
@@ -23,6 +45,30 @@ public final class EasyChart {
 		this.chart = context.getChart(instrument);
 	}
 
+	/**
+	 * Sets minimal time between adding buffered marks to the chart, 0 adds
+	 * them immediately
+	 *
+	 * @param flushInterval in ms of tick time
+	 */
+	public void setFlushInterval(long flushInterval) {
+		this.flushInterval = flushInterval;
+	}
+
+	/**
+	 * Sets maximal number of objects added to the chart, the oldest are
+	 * removed
+	 *
+	 * @param maxObjects
+	 */
+	public void setMaxObjects(int maxObjects) {
+		if (maxObjects < 1) {
+			throw new IllegalArgumentException("Max objects must be positive: " + maxObjects);
+		}
+		this.maxObjects = maxObjects;
+		evict();
+	}
+
 	/**
 	 * Adds indicator to chart
 	 *
@@ -84,9 +130,7 @@ public final class EasyChart {
 	 */
 	public void putUpArrow(long time, double price, Color color) {
 		if (chart != null) {
-			IChartObject obj = chart.getChartObjectFactory().createSignalUp("up" + time, time, price);
-			obj.setColor(color);
-			chart.add(obj);
+			add(chart.getChartObjectFactory().createSignalUp(key("up", time), time, price), color);
 		}
 	}
 
@@ -99,28 +143,107 @@ public final class EasyChart {
 	 */
 	public void putDownArrow(long time, double price, Color color) {
 		if (chart != null) {
-			IChartObject obj = chart.getChartObjectFactory().createSignalDown("down" + time, time, price);
-			obj.setColor(color);
-			chart.add(obj);
+			add(chart.getChartObjectFactory().createSignalDown(key("down", time), time, price), color);
 		}
 	}
 
+	/**
+	 * Marks current stop loss of the order, mark is buffered until next flush
+	 *
+	 * @param order
+	 * @param time
+	 */
 	public void markStopLoss(IOrder order, long time) {
-		if (order.isLong()) {
-			putUpArrow(time, order.getStopLossPrice(), Color.LIGHT_GRAY);
-		} else {
-			putDownArrow(time, order.getStopLossPrice(), Color.LIGHT_GRAY);
-		}
+		mark(order.getLabel() + " SL", order.isLong(), time, order.getStopLossPrice(), Color.LIGHT_GRAY);
 	}
 
+	/**
+	 * Marks current take profit of the order, mark is buffered until next
+	 * flush
+	 *
+	 * @param order
+	 * @param time
+	 */
 	public void markTakeProfit(IOrder order, long time) {
 		if (order.getTakeProfitPrice() > 0) {
-			if (order.isLong()) {
-				putDownArrow(time, order.getTakeProfitPrice(), Color.GRAY);
+			mark(order.getLabel() + " TP", !order.isLong(), time, order.getTakeProfitPrice(), Color.GRAY);
+		}
+	}
+
+	/**
+	 * Adds buffered marks to the chart if flush interval elapsed, call it
+	 * regularly (e.g. in {@code onBar})
+	 *
+	 * @param time current (tick) time
+	 */
+	public void flush(long time) {
+		if (time - lastFlushTime >= flushInterval) {
+			lastFlushTime = time;
+			flush();
+		}
+	}
+
+	/**
+	 * Adds all buffered marks to the chart, e.g. in {@code onStop}
+	 */
+	public void flush() {
+		for (Mark mark : pendingMarks.values()) {
+			if (mark.up) {
+				putUpArrow(mark.time, mark.price, mark.color);
 			} else {
-				putUpArrow(time, order.getTakeProfitPrice(), Color.GRAY);
+				putDownArrow(mark.time, mark.price, mark.color);
 			}
 		}
+		pendingMarks.clear();
+	}
+
+	/**
+	 * Returns number of objects added to the chart and not removed yet
+	 *
+	 * @return
+	 */
+	public int getLiveObjectCount() {
+		return liveObjects.size();
+	}
+
+	/**
+	 * Returns number of marks replaced by newer marks of the same order
+	 * before flush
+	 *
+	 * @return
+	 */
+	public long getMergedCount() {
+		return mergedCount;
+	}
+
+	private void mark(String key, boolean up, long time, double price, Color color) {
+		if (chart == null) {
+			return;
+		}
+		if (pendingMarks.put(key, new Mark(up, time, price, color)) != null) {
+			mergedCount++;
+		}
+		flush(time);
+	}
+
+	private void add(IChartObject obj, Color color) {
+		obj.setColor(color);
+		chart.add(obj);
+		liveObjects.addLast(obj);
+		evict();
+	}
+
+	private void evict() {
+		while (liveObjects.size() > maxObjects) {
+			chart.remove(liveObjects.pollFirst());
+		}
+	}
+
+	/**
+	 * Returns unique key, several objects may have the same time
+	 */
+	private String key(String prefix, long time) {
+		return prefix + time + "_" + sequence++;
 	}
 
 	private IOhlcChartObject getIOhlcChartObject() {
@@ -135,4 +258,19 @@ public final class EasyChart {
 					return ohlc;
 				});
 	}
-}
+
+	private static final class Mark {
+
+		private final boolean up;
+		private final long time;
+		private final double price;
+		private final Color color;
+
+		Mark(boolean up, long time, double price, Color color) {
+			this.up = up;
+			this.time = time;
+			this.price = price;
+			this.color = color;
+		}
+	}
+}
\ No newline at end of file
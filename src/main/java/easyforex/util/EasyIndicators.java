@@ -3,34 +3,110 @@ package easyforex.util;
 import com.dukascopy.api.Filter;
 import com.dukascopy.api.IBar;
 import com.dukascopy.api.IContext;
-import com.dukascopy.api.IHistory;
 import com.dukascopy.api.IIndicators;
-import com.dukascopy.api.ITick;
 import com.dukascopy.api.Instrument;
 import com.dukascopy.api.JFException;
 import com.dukascopy.api.OfferSide;
 import com.dukascopy.api.Period;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 /**
  * Utilities for easier using of indicators All indicators are calculated for
  * BID bars
+ * <p>
+ * Methods with {@code Values} suffix return primitive arrays taken directly
+ * from {@code IIndicators} (oldest value first), without boxing. Use them on
+ * hot paths, e.g. in {@code onTick}.
+ * <p>
+ * Results are cached (see {@link IndicatorCache}), so returned arrays must
+ * not be modified. Results of completed bars are cached for the bar, results
+ * including the forming bar only for the tick they were calculated at, as
+ * they change with every tick. Call {@code onBar} to drop results of
+ * completed bars eagerly and to append completed bars to {@link BarStore}.
+ * Bars not passed to {@code onBar} are loaded from history when read, once
+ * per bar.
  */
 public final class EasyIndicators {
 
+    private static final String[] MA_INDICATORS = Arrays.stream(IIndicators.MaType.values())
+            .map(maType -> "MA" + maType)
+            .toArray(String[]::new);
+
     private final IContext context;
     private final Instrument instrument;
     private final IIndicators indicators;
-    private final IHistory history;
+    private final IndicatorCache cache;
+    private final BarStore barStore;
+    private final LastTickCache lastTicks;
+    private final Map<IndicatorCache.Key, SarTrendTracker> sarTrends = new HashMap<>();
+    /**
+     * Reused for cache lookups, copied only when a result is put
+     */
+    private final IndicatorCache.Key lookup = new IndicatorCache.Key();
 
     public EasyIndicators(IContext context, Instrument instrument) {
+        this(context, instrument, new IndicatorCache());
+    }
+
+    /**
+     * @param context
+     * @param instrument
+     * @param cache      results cache, may be shared between instances
+     */
+    public EasyIndicators(IContext context, Instrument instrument, IndicatorCache cache) {
+        this(context, instrument, cache, new BarStore(context.getHistory()));
+    }
+
+    /**
+     * @param context
+     * @param instrument
+     * @param cache      results cache, may be shared between instances
+     * @param barStore   store of bars, may be shared between instances
+     */
+    public EasyIndicators(IContext context, Instrument instrument, IndicatorCache cache, BarStore barStore) {
+        this(context, instrument, cache, barStore, new LastTickCache(context.getHistory()));
+    }
+
+    /**
+     * @param context
+     * @param instrument
+     * @param cache      results cache, may be shared between instances
+     * @param barStore   store of bars, may be shared between instances
+     * @param lastTicks  last ticks updated from {@code onTick}
+     */
+    public EasyIndicators(IContext context, Instrument instrument, IndicatorCache cache, BarStore barStore, LastTickCache lastTicks) {
         this.context = context;
         this.instrument = instrument;
         this.indicators = context.getIndicators();
-        this.history = context.getHistory();
+        this.cache = cache;
+        this.barStore = barStore;
+        this.lastTicks = lastTicks;
+    }
+
+    /**
+     * Drops cached results calculated for completed bar or during it, and
+     * stores the bar. Call it from {@code onBar}.
+     *
+     * @param period
+     * @param bidBar
+     */
+    public void onBar(Period period, IBar bidBar) {
+        cache.invalidate(instrument, period, bidBar.getTime() + period.getInterval() - 1);
+        barStore.onBar(instrument, period, OfferSide.BID, bidBar);
+    }
+
+    public IndicatorCache getCache() {
+        return cache;
+    }
+
+    public BarStore getBarStore() {
+        return barStore;
     }
 
     /**
@@ -43,7 +119,7 @@ public final class EasyIndicators {
      * @throws JFException
      */
     public double adx(Period period, int timePeriod) throws JFException {
-        return adx(period, timePeriod, 1).get(0);
+        return adxValues(period, timePeriod, 1)[0];
     }
 
     /**
@@ -57,9 +133,28 @@ public final class EasyIndicators {
      * @throws JFException
      */
     public List<Double> adx(Period period, int timePeriod, int number) throws JFException {
-        ITick tick = history.getLastTick(instrument);
-        double[] result = indicators.adx(instrument, period, OfferSide.BID, timePeriod, Filter.WEEKENDS, number, tick.getTime(), 0);
-        return Arrays.stream(result).boxed().collect(Collectors.toList());
+        return toList(adxValues(period, timePeriod, number));
+    }
+
+    /**
+     * Calculates the Average Directional Movement with default parameters for
+     * last bars
+     *
+     * @param period
+     * @param timePeriod
+     * @param number     results number
+     * @return
+     * @throws JFException
+     */
+    public double[] adxValues(Period period, int timePeriod, int number) throws JFException {
+        long time = lastTicks.getLastTick(instrument).getTime();
+        IndicatorCache.Key key = lookup.set(instrument, period, "ADX", time).with(timePeriod).with(number);
+        double[] result = (double[]) cache.get(key);
+        if (result == null) {
+            result = indicators.adx(instrument, period, OfferSide.BID, timePeriod, Filter.WEEKENDS, number, time, 0);
+            cache.put(key.copy(), result);
+        }
+        return result;
     }
 
     /**
@@ -71,7 +166,7 @@ public final class EasyIndicators {
      * @throws JFException
      */
     public Double atr(Period period, Integer timePeriod) throws JFException {
-        return atr(period, timePeriod, 1).get(0);
+        return atrValues(period, timePeriod, 1)[0];
     }
 
     /**
@@ -85,9 +180,28 @@ public final class EasyIndicators {
      * @throws JFException
      */
     public List<Double> atr(Period period, Integer timePeriod, Integer number) throws JFException {
-        ITick tick = history.getLastTick(instrument);
-        double[] result = indicators.atr(instrument, period, OfferSide.BID, timePeriod, Filter.WEEKENDS, number, tick.getTime(), 0);
-        return Arrays.stream(result).boxed().collect(Collectors.toList());
+        return toList(atrValues(period, timePeriod, number));
+    }
+
+    /**
+     * Calculates the value of Average True Range indicator for a number of last
+     * bars.
+     *
+     * @param period     timeframe period
+     * @param timePeriod number of bars used in calculating a single value
+     * @param number     number of values returned
+     * @return
+     * @throws JFException
+     */
+    public double[] atrValues(Period period, int timePeriod, int number) throws JFException {
+        long time = lastTicks.getLastTick(instrument).getTime();
+        IndicatorCache.Key key = lookup.set(instrument, period, "ATR", time).with(timePeriod).with(number);
+        double[] result = (double[]) cache.get(key);
+        if (result == null) {
+            result = indicators.atr(instrument, period, OfferSide.BID, timePeriod, Filter.WEEKENDS, number, time, 0);
+            cache.put(key.copy(), result);
+        }
+        return result;
     }
 
     /**
@@ -101,7 +215,7 @@ public final class EasyIndicators {
      * @throws JFException
      */
     public BBandResult bbands(Period period, int timePeriod, double nbDevUp, double nbDevDn) throws JFException {
-        return bbands(period, timePeriod, nbDevUp, nbDevDn, 1).get(0);
+        return bbandsValues(period, timePeriod, nbDevUp, nbDevDn, 1).get(0);
     }
 
     /**
@@ -116,14 +230,36 @@ public final class EasyIndicators {
      * @throws JFException
      */
     public List<BBandResult> bbands(Period period, int timePeriod, double nbDevUp, double nbDevDn, int number) throws JFException {
-        ITick tick = history.getLastTick(instrument);
-        double[][] result = indicators.bbands(instrument, period, OfferSide.BID, IIndicators.AppliedPrice.CLOSE, timePeriod, nbDevUp, nbDevDn, IIndicators.MaType.EMA, Filter.WEEKENDS, number, tick.getTime(), 0);
+        BBandValues result = bbandsValues(period, timePeriod, nbDevUp, nbDevDn, number);
 
-        return IntStream.range(0, result[0].length)
-                .mapToObj(i -> new BBandResult(result[0][i], result[1][i], result[2][i]))
+        return IntStream.range(0, result.size())
+                .mapToObj(result::get)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Calculates the Bollinger Bands with default parameters for last bars,
+     * without creating result object per bar
+     *
+     * @param period
+     * @param timePeriod
+     * @param nbDevUp
+     * @param nbDevDn
+     * @param number     results number
+     * @return
+     * @throws JFException
+     */
+    public BBandValues bbandsValues(Period period, int timePeriod, double nbDevUp, double nbDevDn, int number) throws JFException {
+        long time = lastTicks.getLastTick(instrument).getTime();
+        IndicatorCache.Key key = lookup.set(instrument, period, "BBANDS", time).with(timePeriod).with(nbDevUp).with(nbDevDn).with(number);
+        BBandValues result = (BBandValues) cache.get(key);
+        if (result == null) {
+            result = new BBandValues(indicators.bbands(instrument, period, OfferSide.BID, IIndicators.AppliedPrice.CLOSE, timePeriod, nbDevUp, nbDevDn, IIndicators.MaType.EMA, Filter.WEEKENDS, number, time, 0));
+            cache.put(key.copy(), result);
+        }
+        return result;
+    }
+
     /**
      * Calculates the value of a Moving Average of chosen type for last bar.
      *
@@ -134,7 +270,7 @@ public final class EasyIndicators {
      * @throws JFException
      */
     public Double ma(Period period, Integer timePeriod, IIndicators.MaType maType) throws JFException {
-        return ma(period, timePeriod, 1, maType).get(0);
+        return maValues(period, timePeriod, 1, maType)[0];
     }
 
     /**
@@ -148,9 +284,28 @@ public final class EasyIndicators {
      * @throws JFException
      */
     public List<Double> ma(Period period, Integer timePeriod, Integer number, IIndicators.MaType maType) throws JFException {
-        IBar bar = history.getBar(instrument, period, OfferSide.BID, 1);
-        double[] result = indicators.ma(instrument, period, OfferSide.BID, IIndicators.AppliedPrice.CLOSE, timePeriod, maType, Filter.WEEKENDS, number, bar.getTime(), 0);
-        return Arrays.stream(result).boxed().collect(Collectors.toList());
+        return toList(maValues(period, timePeriod, number, maType));
+    }
+
+    /**
+     * Calculates the value of a Moving Average of chosen type.
+     *
+     * @param period
+     * @param timePeriod
+     * @param number
+     * @param maType
+     * @return
+     * @throws JFException
+     */
+    public double[] maValues(Period period, int timePeriod, int number, IIndicators.MaType maType) throws JFException {
+        long time = barSeries(period).getLastTime();
+        IndicatorCache.Key key = lookup.set(instrument, period, MA_INDICATORS[maType.ordinal()], time).with(timePeriod).with(number);
+        double[] result = (double[]) cache.get(key);
+        if (result == null) {
+            result = indicators.ma(instrument, period, OfferSide.BID, IIndicators.AppliedPrice.CLOSE, timePeriod, maType, Filter.WEEKENDS, number, time, 0);
+            cache.put(key.copy(), result);
+        }
+        return result;
     }
 
     /**
@@ -165,7 +320,7 @@ public final class EasyIndicators {
      * @throws JFException
      */
     public MACDResult macd(Period period, int fastPeriod, int slowPeriod, int signalPeriod) throws JFException {
-        return macd(period, fastPeriod, slowPeriod, signalPeriod, 1).get(0);
+        return macdValues(period, fastPeriod, slowPeriod, signalPeriod, 1).get(0);
     }
 
     /**
@@ -181,14 +336,36 @@ public final class EasyIndicators {
      * @throws JFException
      */
     public List<MACDResult> macd(Period period, int fastPeriod, int slowPeriod, int signalPeriod, int number) throws JFException {
-        ITick tick = history.getLastTick(instrument);
-        double result[][] = indicators.macd(instrument, period, OfferSide.BID, IIndicators.AppliedPrice.CLOSE, fastPeriod, slowPeriod, signalPeriod, Filter.WEEKENDS, 5, tick.getTime(), 0);
+        MACDValues result = macdValues(period, fastPeriod, slowPeriod, signalPeriod, number);
 
-        return IntStream.range(0, result[0].length)
-                .mapToObj(i -> new MACDResult(result[0][i], result[1][i], result[2][i]))
+        return IntStream.range(0, result.size())
+                .mapToObj(result::get)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Calculates the Moving Average Convergence/Divergence with default
+     * parameters for last bars, without creating result object per bar
+     *
+     * @param period
+     * @param fastPeriod
+     * @param slowPeriod
+     * @param signalPeriod
+     * @param number       results number
+     * @return
+     * @throws JFException
+     */
+    public MACDValues macdValues(Period period, int fastPeriod, int slowPeriod, int signalPeriod, int number) throws JFException {
+        long time = lastTicks.getLastTick(instrument).getTime();
+        IndicatorCache.Key key = lookup.set(instrument, period, "MACD", time).with(fastPeriod).with(slowPeriod).with(signalPeriod).with(number);
+        MACDValues result = (MACDValues) cache.get(key);
+        if (result == null) {
+            result = new MACDValues(indicators.macd(instrument, period, OfferSide.BID, IIndicators.AppliedPrice.CLOSE, fastPeriod, slowPeriod, signalPeriod, Filter.WEEKENDS, number, time, 0));
+            cache.put(key.copy(), result);
+        }
+        return result;
+    }
+
     /**
      * Calculates the Exponential Moving Average with default parameters for
      * last bar
@@ -199,7 +376,7 @@ public final class EasyIndicators {
      * @throws JFException
      */
     public double ema(Period period, int timePeriod) throws JFException {
-        return ema(period, timePeriod, 1).get(0);
+        return emaValues(period, timePeriod, 1)[0];
     }
 
     /**
@@ -213,9 +390,28 @@ public final class EasyIndicators {
      * @throws JFException
      */
     public List<Double> ema(Period period, int timePeriod, int number) throws JFException {
-        ITick tick = history.getLastTick(instrument);
-        double[] result = indicators.ema(instrument, period, OfferSide.BID, IIndicators.AppliedPrice.CLOSE, timePeriod, Filter.WEEKENDS, number, tick.getTime(), 0);
-        return Arrays.stream(result).boxed().collect(Collectors.toList());
+        return toList(emaValues(period, timePeriod, number));
+    }
+
+    /**
+     * Calculates the Exponential Moving Average with default parameters for
+     * last bars
+     *
+     * @param period
+     * @param timePeriod
+     * @param number     results number
+     * @return
+     * @throws JFException
+     */
+    public double[] emaValues(Period period, int timePeriod, int number) throws JFException {
+        long time = lastTicks.getLastTick(instrument).getTime();
+        IndicatorCache.Key key = lookup.set(instrument, period, "EMA", time).with(timePeriod).with(number);
+        double[] result = (double[]) cache.get(key);
+        if (result == null) {
+            result = indicators.ema(instrument, period, OfferSide.BID, IIndicators.AppliedPrice.CLOSE, timePeriod, Filter.WEEKENDS, number, time, 0);
+            cache.put(key.copy(), result);
+        }
+        return result;
     }
 
     /**
@@ -228,7 +424,7 @@ public final class EasyIndicators {
      * @throws JFException
      */
     public double sar(Period period, double acceleration, double maximum) throws JFException {
-        return sar(period, acceleration, maximum, 1).get(0);
+        return sarValues(period, acceleration, maximum, 1)[0];
     }
 
     /**
@@ -242,9 +438,61 @@ public final class EasyIndicators {
      * @throws JFException
      */
     public List<Double> sar(Period period, double acceleration, double maximum, int number) throws JFException {
-        ITick tick = history.getLastTick(instrument);
-        double[] result = indicators.sar(instrument, period, OfferSide.BID, acceleration, maximum, Filter.WEEKENDS, number, tick.getTime(), 0);
-        return Arrays.stream(result).boxed().collect(Collectors.toList());
+        return toList(sarValues(period, acceleration, maximum, number));
+    }
+
+    /**
+     * Calculates the Parabolic SAR with default parameters for last bars
+     *
+     * @param period
+     * @param acceleration
+     * @param maximum
+     * @param number       results number
+     * @return
+     * @throws JFException
+     */
+    public double[] sarValues(Period period, double acceleration, double maximum, int number) throws JFException {
+        long time = lastTicks.getLastTick(instrument).getTime();
+        IndicatorCache.Key key = lookup.set(instrument, period, "SAR", time).with(acceleration).with(maximum).with(number);
+        double[] result = (double[]) cache.get(key);
+        if (result == null) {
+            result = indicators.sar(instrument, period, OfferSide.BID, acceleration, maximum, Filter.WEEKENDS, number, time, 0);
+            cache.put(key.copy(), result);
+        }
+        return result;
+    }
+
+    /**
+     * Returns SAR trend of stored bars, brought up to date with bars stored
+     * since previous call. The first call scans all stored bars, next calls
+     * only new ones. Every completed bar is compared with its own SAR value,
+     * calculated at the bar's time, the forming bar is not used.
+     *
+     * @param period
+     * @param acceleration
+     * @param maximum
+     * @return
+     * @throws JFException
+     */
+    public SarTrendTracker sarTrend(Period period, double acceleration, double maximum) throws JFException {
+        IndicatorCache.Key key = lookup.set(instrument, period, "SAR_TREND", 0).with(acceleration).with(maximum);
+        SarTrendTracker tracker = sarTrends.get(key);
+        if (tracker == null) {
+            tracker = new SarTrendTracker();
+            sarTrends.put(key.copy(), tracker);
+        }
+        BarSeries bars = barSeries(period);
+        int newBars = 0;
+        while (newBars < bars.size() && bars.getTime(bars.size() - 1 - newBars) > tracker.getLastBarTime()) {
+            newBars++;
+        }
+        for (int i = newBars; i >= 1; i--) {
+            int bar = bars.size() - i;
+            long barTime = bars.getTime(bar);
+            double sar = indicators.sar(instrument, period, OfferSide.BID, acceleration, maximum, Filter.WEEKENDS, 1, barTime, 0)[0];
+            tracker.update(barTime, sar, bars.getLow(bar), bars.getHigh(bar));
+        }
+        return tracker;
     }
 
     /**
@@ -256,7 +504,7 @@ public final class EasyIndicators {
      * @throws JFException
      */
     public Double sma(Period period, int timePeriod) throws JFException {
-        return sma(period, timePeriod, 1).get(0);
+        return smaValues(period, timePeriod, 1)[0];
     }
 
     /**
@@ -270,9 +518,28 @@ public final class EasyIndicators {
      * @throws JFException
      */
     public List<Double> sma(Period period, int timePeriod, int number) throws JFException {
-        ITick tick = history.getLastTick(instrument);
-        double[] result = indicators.sma(instrument, period, OfferSide.BID, IIndicators.AppliedPrice.CLOSE, timePeriod, Filter.WEEKENDS, number, tick.getTime(), 0);
-        return Arrays.stream(result).boxed().collect(Collectors.toList());
+        return toList(smaValues(period, timePeriod, number));
+    }
+
+    /**
+     * Calculates the Simple Moving Average with default parameters for last
+     * bars
+     *
+     * @param period
+     * @param timePeriod
+     * @param number     results number
+     * @return
+     * @throws JFException
+     */
+    public double[] smaValues(Period period, int timePeriod, int number) throws JFException {
+        long time = lastTicks.getLastTick(instrument).getTime();
+        IndicatorCache.Key key = lookup.set(instrument, period, "SMA", time).with(timePeriod).with(number);
+        double[] result = (double[]) cache.get(key);
+        if (result == null) {
+            result = indicators.sma(instrument, period, OfferSide.BID, IIndicators.AppliedPrice.CLOSE, timePeriod, Filter.WEEKENDS, number, time, 0);
+            cache.put(key.copy(), result);
+        }
+        return result;
     }
 
     /**
@@ -285,7 +552,7 @@ public final class EasyIndicators {
      * @throws JFException
      */
     public Double rsi(Period period, int timePeriod) throws JFException {
-        return rsi(period, timePeriod, 1).get(0);
+        return rsiValues(period, timePeriod, 1)[0];
     }
 
     /**
@@ -299,9 +566,28 @@ public final class EasyIndicators {
      * @throws JFException
      */
     public List<Double> rsi(Period period, int timePeriod, int number) throws JFException {
-        ITick tick = history.getLastTick(instrument);
-        double[] result = indicators.rsi(instrument, period, OfferSide.BID, IIndicators.AppliedPrice.CLOSE, timePeriod, Filter.WEEKENDS, number, tick.getTime(), 0);
-        return Arrays.stream(result).boxed().collect(Collectors.toList());
+        return toList(rsiValues(period, timePeriod, number));
+    }
+
+    /**
+     * Calculates the Relative Strength Index with default parameters for last
+     * bars
+     *
+     * @param period
+     * @param timePeriod
+     * @param number     results number
+     * @return
+     * @throws JFException
+     */
+    public double[] rsiValues(Period period, int timePeriod, int number) throws JFException {
+        long time = lastTicks.getLastTick(instrument).getTime();
+        IndicatorCache.Key key = lookup.set(instrument, period, "RSI", time).with(timePeriod).with(number);
+        double[] result = (double[]) cache.get(key);
+        if (result == null) {
+            result = indicators.rsi(instrument, period, OfferSide.BID, IIndicators.AppliedPrice.CLOSE, timePeriod, Filter.WEEKENDS, number, time, 0);
+            cache.put(key.copy(), result);
+        }
+        return result;
     }
 
     /**
@@ -313,7 +599,7 @@ public final class EasyIndicators {
      * @throws JFException
      */
     public double volume(Period period, int timePeriod) throws JFException {
-        return volume(period, timePeriod, 1).get(0);
+        return volumeValues(period, timePeriod, 1)[0];
     }
 
     /**
@@ -326,13 +612,31 @@ public final class EasyIndicators {
      * @throws JFException
      */
     public List<Double> volume(Period period, int timePeriod, int number) throws JFException {
-        ITick tick = history.getLastTick(instrument);
-        double[] result = indicators.volume(instrument, period, OfferSide.BID, Filter.WEEKENDS, number, tick.getTime(), 0);
-        return Arrays.stream(result).boxed().collect(Collectors.toList());
+        return toList(volumeValues(period, timePeriod, number));
+    }
+
+    /**
+     * Calculates volume with default parameters for last bars
+     *
+     * @param period
+     * @param timePeriod
+     * @param number     results number
+     * @return
+     * @throws JFException
+     */
+    public double[] volumeValues(Period period, int timePeriod, int number) throws JFException {
+        long time = lastTicks.getLastTick(instrument).getTime();
+        IndicatorCache.Key key = lookup.set(instrument, period, "VOLUME", time).with(timePeriod).with(number);
+        double[] result = (double[]) cache.get(key);
+        if (result == null) {
+            result = indicators.volume(instrument, period, OfferSide.BID, Filter.WEEKENDS, number, time, 0);
+            cache.put(key.copy(), result);
+        }
+        return result;
     }
 
     /**
-     * Returns bars close prices for last bars
+     * Returns bars close prices for last completed bars
      *
      * @param period
      * @param number
@@ -340,13 +644,31 @@ public final class EasyIndicators {
      * @throws JFException
      */
     public List<Double> barsClosePrices(Period period, int number) throws JFException {
-        ITick tick = history.getLastTick(instrument);
-        List<IBar> bars = history.getBars(instrument, period, OfferSide.BID, Filter.WEEKENDS, number, tick.getTime(), 0);
-        return bars.stream().map(bar -> bar.getClose()).collect(Collectors.toList());
+        return toList(barsClosePricesValues(period, number));
+    }
+
+    /**
+     * Returns bars close prices for last completed bars, read from
+     * {@link BarStore}
+     *
+     * @param period
+     * @param number
+     * @return
+     * @throws JFException
+     */
+    public double[] barsClosePricesValues(Period period, int number) throws JFException {
+        BarSeries series = barSeries(period);
+        IndicatorCache.Key key = lookup.set(instrument, period, "CLOSE", series.getLastTime()).with(number);
+        double[] result = (double[]) cache.get(key);
+        if (result == null) {
+            result = series.getCloses(number);
+            cache.put(key.copy(), result);
+        }
+        return result;
     }
 
     /**
-     * Returns last bars
+     * Returns last completed bars, read from {@link BarStore}
      *
      * @param period
      * @param number
@@ -354,9 +676,37 @@ public final class EasyIndicators {
      * @throws JFException
      */
     public List<IBar> bars(Period period, int number) throws JFException {
-        ITick tick = history.getLastTick(instrument);
-        long time = history.getBarStart(period, tick.getTime());
-        return history.getBars(instrument, period, OfferSide.BID, Filter.WEEKENDS, number, time, 0);
+        BarSeries series = barSeries(period);
+        IndicatorCache.Key key = lookup.set(instrument, period, "BARS", series.getLastTime()).with(number);
+        @SuppressWarnings("unchecked")
+        List<IBar> result = (List<IBar>) cache.get(key);
+        if (result == null) {
+            int count = Math.min(number, series.size());
+            IBar[] bars = new IBar[count];
+            for (int i = 0, index = series.size() - count; i < count; i++, index++) {
+                bars[i] = new SimpleBar(series.getTime(index), series.getOpen(index), series.getHigh(index),
+                        series.getLow(index), series.getClose(index), series.getVolume(index));
+            }
+            result = Collections.unmodifiableList(Arrays.asList(bars));
+            cache.put(key.copy(), result);
+        }
+        return result;
+    }
+
+    /**
+     * Returns completed BID bars as primitive columns, without creating bar
+     * objects
+     *
+     * @param period
+     * @return
+     * @throws JFException
+     */
+    public BarSeries barSeries(Period period) throws JFException {
+        return barStore.getSeries(instrument, period, OfferSide.BID, lastTicks.getLastTick(instrument).getTime());
+    }
+
+    private static List<Double> toList(double[] values) {
+        return Arrays.stream(values).boxed().collect(Collectors.toList());
     }
 
     public static class BBandResult {
@@ -411,4 +761,70 @@ public final class EasyIndicators {
 
     }
 
+    /**
+     * Flyweight view over raw Bollinger Bands result (oldest value first)
+     */
+    public static final class BBandValues {
+
+        private final double[][] values;
+
+        public BBandValues(double[][] values) {
+            this.values = values;
+        }
+
+        public int size() {
+            return values[0].length;
+        }
+
+        public double getUpperBand(int index) {
+            return values[0][index];
+        }
+
+        public double getMiddleBand(int index) {
+            return values[1][index];
+        }
+
+        public double getLowerBand(int index) {
+            return values[2][index];
+        }
+
+        public BBandResult get(int index) {
+            return new BBandResult(values[0][index], values[1][index], values[2][index]);
+        }
+
+    }
+
+    /**
+     * Flyweight view over raw MACD result (oldest value first)
+     */
+    public static final class MACDValues {
+
+        private final double[][] values;
+
+        public MACDValues(double[][] values) {
+            this.values = values;
+        }
+
+        public int size() {
+            return values[0].length;
+        }
+
+        public double getMacd(int index) {
+            return values[0][index];
+        }
+
+        public double getMacdSignal(int index) {
+            return values[1][index];
+        }
+
+        public double getMacdHist(int index) {
+            return values[2][index];
+        }
+
+        public MACDResult get(int index) {
+            return new MACDResult(values[0][index], values[1][index], values[2][index]);
+        }
+
+    }
+
 }
@@ -28,22 +28,90 @@ public final class EasyOperations {
             throw new IllegalArgumentException("Lists have to be equal in size.");
         }
 
-        Integer index = fastValues.size() - 1;
-        Integer crossPosition = 0;
+        int index = fastValues.size() - 1;
+        int crossPosition = 0;
+        double fast = fastValues.get(index);
+        double slow = slowValues.get(index);
 
         while (index > 0) {
             crossPosition++;
+            double previousFast = fastValues.get(index - 1);
+            double previousSlow = slowValues.get(index - 1);
 
-            if (slowValues.get(index - 1) > fastValues.get(index - 1)
-                    && slowValues.get(index) < fastValues.get(index)) {
-                return crossPosition;
-            } else if (slowValues.get(index - 1) < fastValues.get(index - 1)
-                    && slowValues.get(index) > fastValues.get(index)) {
-                return -crossPosition;
+            int direction = crossDirection(previousFast, previousSlow, fast, slow);
+            if (direction != 0) {
+                return direction * crossPosition;
             }
 
+            fast = previousFast;
+            slow = previousSlow;
             index--;
         }
         return 0;
     }
+
+    /**
+     * Primitive version of {@link #valuesCrossed(List, List)}
+     *
+     * @param fastValues
+     * @param slowValues
+     * @return Positive integer if crossed upwards, negative if downwards, 0 if no cross.
+     */
+    public static int valuesCrossed(double[] fastValues, double[] slowValues) {
+        if (fastValues.length < 1 || slowValues.length < 1) {
+            throw new IllegalArgumentException("Size of both arrays has to be greater than 1.");
+        } else if (fastValues.length != slowValues.length) {
+            throw new IllegalArgumentException("Arrays have to be equal in size.");
+        }
+        return valuesCrossed(fastValues, slowValues, 0, fastValues.length);
+    }
+
+    /**
+     * Version of {@link #valuesCrossed(double[], double[])} for ring buffers:
+     * values are read from {@code start} index (oldest value), wrapping
+     * around the end of arrays.
+     *
+     * @param fastValues
+     * @param slowValues
+     * @param start index of oldest value
+     * @param length number of values
+     * @return Positive integer if crossed upwards, negative if downwards, 0 if no cross.
+     */
+    public static int valuesCrossed(double[] fastValues, double[] slowValues, int start, int length) {
+        int capacity = fastValues.length;
+        if (slowValues.length != capacity) {
+            throw new IllegalArgumentException("Arrays have to be equal in size.");
+        } else if (length > capacity || start < 0 || start >= capacity) {
+            throw new IllegalArgumentException("Values out of arrays bounds.");
+        }
+
+        int index = (start + length - 1) % capacity;
+        for (int crossPosition = 1; crossPosition < length; crossPosition++) {
+            int previous = index == 0 ? capacity - 1 : index - 1;
+            int direction = crossDirection(fastValues[previous], slowValues[previous], fastValues[index], slowValues[index]);
+            if (direction != 0) {
+                return direction * crossPosition;
+            }
+            index = previous;
+        }
+        return 0;
+    }
+
+    /**
+     * Returns direction of cross between two consecutive values
+     *
+     * @param previousFast
+     * @param previousSlow
+     * @param fast
+     * @param slow
+     * @return 1 if fast crossed slow upwards, -1 if downwards, 0 if not crossed
+     */
+    public static int crossDirection(double previousFast, double previousSlow, double fast, double slow) {
+        if (previousSlow > previousFast && slow < fast) {
+            return 1;
+        } else if (previousSlow < previousFast && slow > fast) {
+            return -1;
+        }
+        return 0;
+    }
 }
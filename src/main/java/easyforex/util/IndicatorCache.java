@@ -0,0 +1,187 @@
+package easyforex.util;
+
+import com.dukascopy.api.Instrument;
+import com.dukascopy.api.Period;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache for indicator results, scoped to the bar (or the tick)
+ * they were calculated for. Entries of a bar are dropped when newer bar of the
+ * same instrument and period arrives.
+ * <p>
+ * Cached results are shared between callers and must not be modified.
+ */
+public final class IndicatorCache {
+
+    public static final int DEFAULT_MAX_SIZE = 256;
+
+    private final Map<Key, Object> entries;
+    private long hits;
+    private long misses;
+
+    public IndicatorCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    public IndicatorCache(int maxSize) {
+        this.entries = new LinkedHashMap<Key, Object>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Object> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns cached value or null
+     *
+     * @param key
+     * @return
+     */
+    public Object get(Key key) {
+        Object value = entries.get(key);
+        if (value == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return value;
+    }
+
+    public void put(Key key, Object value) {
+        entries.put(key, value);
+    }
+
+    /**
+     * Drops entries calculated for bars or ticks not newer than given time
+     *
+     * @param instrument
+     * @param period
+     * @param barTime    time of just completed bar, or of its last tick
+     */
+    public void invalidate(Instrument instrument, Period period, long barTime) {
+        Iterator<Key> iterator = entries.keySet().iterator();
+        while (iterator.hasNext()) {
+            Key key = iterator.next();
+            if (key.instrument == instrument && key.period.equals(period) && key.barStart <= barTime) {
+                iterator.remove();
+            }
+        }
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Cache key. Keys put to the cache must not be changed, a key created with
+     * the no-argument constructor can be reused for lookups and copied when
+     * its result is put.
+     */
+    public static final class Key {
+
+        private Instrument instrument;
+        private Period period;
+        private String indicator;
+        private long barStart;
+        private double[] parameters;
+        private int parameterCount;
+
+        public Key(Instrument instrument, Period period, String indicator, long barStart, double... parameters) {
+            this.instrument = instrument;
+            this.period = period;
+            this.indicator = indicator;
+            this.barStart = barStart;
+            this.parameters = parameters;
+            this.parameterCount = parameters.length;
+        }
+
+        Key() {
+            this.parameters = new double[4];
+        }
+
+        /**
+         * Sets key fields and clears parameters
+         *
+         * @param instrument
+         * @param period
+         * @param indicator
+         * @param barStart
+         * @return this key
+         */
+        Key set(Instrument instrument, Period period, String indicator, long barStart) {
+            this.instrument = instrument;
+            this.period = period;
+            this.indicator = indicator;
+            this.barStart = barStart;
+            this.parameterCount = 0;
+            return this;
+        }
+
+        /**
+         * Appends parameter
+         *
+         * @param parameter
+         * @return this key
+         */
+        Key with(double parameter) {
+            if (parameterCount == parameters.length) {
+                parameters = Arrays.copyOf(parameters, parameterCount * 2);
+            }
+            parameters[parameterCount++] = parameter;
+            return this;
+        }
+
+        Key copy() {
+            return new Key(instrument, period, indicator, barStart, Arrays.copyOf(parameters, parameterCount));
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            if (barStart != other.barStart
+                    || instrument != other.instrument
+                    || !period.equals(other.period)
+                    || !indicator.equals(other.indicator)
+                    || parameterCount != other.parameterCount) {
+                return false;
+            }
+            for (int i = 0; i < parameterCount; i++) {
+                if (Double.doubleToLongBits(parameters[i]) != Double.doubleToLongBits(other.parameters[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = instrument.hashCode();
+            hash = hash * 31 + period.hashCode();
+            hash = hash * 31 + indicator.hashCode();
+            hash = hash * 31 + Long.hashCode(barStart);
+            for (int i = 0; i < parameterCount; i++) {
+                hash = hash * 31 + Double.hashCode(parameters[i]);
+            }
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package easyforex.util;
+
+import com.dukascopy.api.IHistory;
+import com.dukascopy.api.ITick;
+import com.dukascopy.api.Instrument;
+import com.dukascopy.api.JFException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Last tick of every instrument, updated from {@code onTick}. Slots are
+ * lock-free and readable from any thread. {@code IHistory} is asked only for
+ * instruments which got no tick yet.
+ */
+public final class LastTickCache {
+
+    private final IHistory history;
+    private final AtomicReferenceArray<ITick> ticks = new AtomicReferenceArray<>(Instrument.values().length);
+
+    public LastTickCache(IHistory history) {
+        this.history = history;
+    }
+
+    /**
+     * Stores tick, older ticks than stored one are ignored (e.g. when the same
+     * cache is updated from several threads)
+     *
+     * @param instrument
+     * @param tick
+     */
+    public void onTick(Instrument instrument, ITick tick) {
+        int slot = instrument.ordinal();
+        ITick current = ticks.get(slot);
+        while (current != tick && (current == null || current.getTime() <= tick.getTime())) {
+            if (ticks.compareAndSet(slot, current, tick)) {
+                return;
+            }
+            current = ticks.get(slot);
+        }
+    }
+
+    /**
+     * Returns last tick of instrument
+     *
+     * @param instrument
+     * @return
+     * @throws JFException
+     */
+    public ITick getLastTick(Instrument instrument) throws JFException {
+        ITick tick = ticks.get(instrument.ordinal());
+        return tick != null ? tick : history.getLastTick(instrument);
+    }
+
+    /**
+     * Returns last tick of instrument received by {@code onTick}, null if
+     * there was none
+     *
+     * @param instrument
+     * @return
+     */
+    public ITick peekLastTick(Instrument instrument) {
+        return ticks.get(instrument.ordinal());
+    }
+}
@@ -1,8 +1,8 @@
 package easyforex.util;
 
-import com.dukascopy.api.IConsole;
 import com.dukascopy.api.IContext;
 import com.dukascopy.api.IMessage;
+import com.dukascopy.api.IOrder;
 
 /**
  * Utility methods for messages
@@ -11,41 +11,54 @@ import com.dukascopy.api.IMessage;
  */
 public class MessageUtils {
 
+	/**
+	 * Prints order message through console's {@link AsyncLogger}
+	 *
+	 * @param context
+	 * @param message
+	 */
 	public static void printMessage(IContext context, IMessage message) {
-		IConsole console = context.getConsole();
-		if (message.getOrder() != null) {
-			String label = message.getOrder().getLabel();
+		printMessage(AsyncLogger.get(context.getConsole()), message);
+	}
+
+	/**
+	 * Prints order message, parts of the line are formatted by the logger
+	 *
+	 * @param logger
+	 * @param message
+	 */
+	public static void printMessage(AsyncLogger logger, IMessage message) {
+		IOrder order = message.getOrder();
+		if (order != null) {
+			String label = order.getLabel();
 			switch (message.getType()) {
 				case ORDER_FILL_OK:
 				case ORDER_CHANGED_OK:
 					break;
 				case ORDER_SUBMIT_OK:
-					console.getOut().println(label + " <INFO> " + message.getType() + " amount=" + message.getOrder().getAmount());
+					logger.log(AsyncLogger.Level.OUT).append(label).append(" <INFO> ").append(message.getType())
+							.append(" amount=").append(order.getAmount()).publish();
 					break;
 				case ORDER_CLOSE_OK:
 				case ORDERS_MERGE_OK:
-					if (message.getOrder().getProfitLossInPips() > 0) {
-						console.getInfo().println(label + " <INFO> "
-								+ message.getType() + "/" + message.getReasons() + " "
-								+ message.getOrder().getProfitLossInPips() + "/" + message.getOrder().getProfitLossInAccountCurrency());
-					} else {
-						console.getWarn().println(label + " <INFO> "
-								+ message.getType() + "/" + message.getReasons() + " "
-								+ message.getOrder().getProfitLossInPips() + "/" + message.getOrder().getProfitLossInAccountCurrency());
-					}
+					double profitLossInPips = order.getProfitLossInPips();
+					logger.log(profitLossInPips > 0 ? AsyncLogger.Level.INFO : AsyncLogger.Level.WARN).append(label).append(" <INFO> ")
+							.append(message.getType()).append('/').append(message.getReasons()).append(' ')
+							.append(profitLossInPips).append('/').append(order.getProfitLossInAccountCurrency()).publish();
 					break;
 				case NOTIFICATION:
-					console.getNotif().println(label + " <NOTICE> " + message.getContent());
+					logger.log(AsyncLogger.Level.NOTICE).append(label).append(" <NOTICE> ").append(message.getContent()).publish();
 					break;
 				case ORDER_CHANGED_REJECTED:
 				case ORDER_CLOSE_REJECTED:
 				case ORDER_FILL_REJECTED:
 				case ORDER_SUBMIT_REJECTED:
 				case ORDERS_MERGE_REJECTED:
-					console.getErr().println(label + " <WARN> " + message.getType());
+					logger.log(AsyncLogger.Level.ERROR).append(label).append(" <WARN> ").append(message.getType()).publish();
 					break;
 				default:
-					console.getErr().println(label + " (" + message.getType() + ") " + message.getContent());
+					logger.log(AsyncLogger.Level.ERROR).append(label).append(" (").append(message.getType()).append(") ")
+							.append(message.getContent()).publish();
 					break;
 			}
 		}
@@ -0,0 +1,177 @@
+package easyforex.util;
+
+import com.dukascopy.api.IContext;
+import com.dukascopy.api.IEngine;
+import com.dukascopy.api.IMessage;
+import com.dukascopy.api.IOrder;
+import com.dukascopy.api.Instrument;
+import com.dukascopy.api.JFException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Futures of submitted orders, completed from {@code onMessage} when order is
+ * filled (ORDER_FILL_OK) and failed when it is rejected or canceled before
+ * fill, or by {@link #failAll(String)}. Times from submit to fill are
+ * recorded to a {@link LatencyHistogram}.
+ * <p>
+ * Futures are completed on the strategy thread, so dependent actions (e.g.
+ * {@code thenAccept}) may use the engine. Never wait for the future in a
+ * strategy callback, the fill message can't come until the callback returns.
+ */
+public final class OrderFutures {
+
+    private final String labelPrefix;
+    private final Map<String, Pending> pending = new HashMap<>();
+    private final LatencyHistogram fillLatency = new LatencyHistogram();
+
+    public OrderFutures(String labelPrefix) {
+        this.labelPrefix = labelPrefix;
+    }
+
+    /**
+     * Submits market order without waiting for its fill
+     *
+     * @param context
+     * @param label           order label, must be unique
+     * @param instrument
+     * @param command         BUY or SELL
+     * @param amount          trade amount in millions
+     * @param stopLossPrice
+     * @param takeProfitPrice
+     * @return future of filled order, failed if order can't be submitted
+     */
+    public CompletableFuture<IOrder> submit(IContext context, String label, Instrument instrument, IEngine.OrderCommand command, double amount, double stopLossPrice, double takeProfitPrice) {
+        long start = System.nanoTime();
+        try {
+            return track(StrategyUtils.submitOrder(context, label, instrument, command, amount, stopLossPrice, takeProfitPrice), start);
+        } catch (JFException | RuntimeException ex) {
+            CompletableFuture<IOrder> future = new CompletableFuture<>();
+            future.completeExceptionally(ex);
+            return future;
+        }
+    }
+
+    /**
+     * Returns future of just submitted order
+     *
+     * @param order
+     * @param submitNanos {@code System.nanoTime()} before order was submitted
+     * @return
+     */
+    public CompletableFuture<IOrder> track(IOrder order, long submitNanos) {
+        CompletableFuture<IOrder> future = new CompletableFuture<>();
+        switch (order.getState()) {
+            case FILLED:
+                // e.g. engines filling market orders immediately
+                fillLatency.record(System.nanoTime() - submitNanos);
+                future.complete(order);
+                break;
+            case CLOSED:
+            case CANCELED:
+                future.completeExceptionally(new JFException("Order " + order.getLabel() + " " + order.getState()));
+                break;
+            default:
+                pending.put(order.getLabel(), new Pending(future, submitNanos));
+                break;
+        }
+        return future;
+    }
+
+    /**
+     * Completes future of message's order, messages of other orders are
+     * ignored
+     *
+     * @param message
+     */
+    public void onMessage(IMessage message) {
+        IOrder order = message.getOrder();
+        if (order == null || order.getLabel() == null || !order.getLabel().startsWith(labelPrefix)) {
+            return;
+        }
+        switch (message.getType()) {
+            case ORDER_FILL_OK:
+                Pending filled = pending.remove(order.getLabel());
+                if (filled != null) {
+                    fillLatency.record(System.nanoTime() - filled.submitNanos);
+                    filled.future.complete(order);
+                }
+                break;
+            case ORDER_SUBMIT_REJECTED:
+            case ORDER_FILL_REJECTED:
+            case ORDER_CLOSE_OK:
+                Pending rejected = pending.remove(order.getLabel());
+                if (rejected != null) {
+                    rejected.future.completeExceptionally(new JFException("Order " + order.getLabel() + " " + message.getType()
+                            + (message.getContent() != null ? ": " + message.getContent() : "")));
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Fails futures of all orders still waiting for fill, e.g. when strategy
+     * stops and no more messages will come
+     *
+     * @param reason
+     */
+    public void failAll(String reason) {
+        // dependent actions run inside completeExceptionally and may submit
+        List<Map.Entry<String, Pending>> failed = new ArrayList<>(pending.entrySet());
+        pending.clear();
+        for (Map.Entry<String, Pending> entry : failed) {
+            entry.getValue().future.completeExceptionally(new JFException("Order " + entry.getKey() + " " + reason));
+        }
+    }
+
+    /**
+     * Returns future completed when all given orders are filled, failed if
+     * any of them fails
+     *
+     * @param futures
+     * @return filled orders in order of given futures
+     */
+    public static CompletableFuture<List<IOrder>> allFilled(List<CompletableFuture<IOrder>> futures) {
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()])).thenApply(ignored -> {
+            List<IOrder> orders = new ArrayList<>(futures.size());
+            for (CompletableFuture<IOrder> future : futures) {
+                orders.add(future.join());
+            }
+            return orders;
+        });
+    }
+
+    /**
+     * Returns number of orders waiting for fill
+     *
+     * @return
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Returns submit to fill times in nanoseconds
+     *
+     * @return
+     */
+    public LatencyHistogram getFillLatency() {
+        return fillLatency;
+    }
+
+    private static final class Pending {
+
+        private final CompletableFuture<IOrder> future;
+        private final long submitNanos;
+
+        private Pending(CompletableFuture<IOrder> future, long submitNanos) {
+            this.future = future;
+            this.submitNanos = submitNanos;
+        }
+    }
+}
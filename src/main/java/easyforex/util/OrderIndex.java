@@ -0,0 +1,156 @@
+package easyforex.util;
+
+import com.dukascopy.api.IMessage;
+import com.dukascopy.api.IOrder;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Live index of open orders which labels start with given prefix (typically
+ * strategy name). Filled when orders are submitted and kept current from
+ * {@code onMessage}, so reading it costs no engine call. Orders closed before
+ * their message arrives (e.g. by stop loss) are skipped when read.
+ */
+public final class OrderIndex {
+
+    private final String labelPrefix;
+    private final Map<String, IOrder> orders = new LinkedHashMap<>();
+    private volatile List<IOrder> snapshot = Collections.emptyList();
+
+    public OrderIndex(String labelPrefix) {
+        this.labelPrefix = labelPrefix;
+    }
+
+    /**
+     * Adds orders with matching labels, e.g. orders left by previous run
+     *
+     * @param engineOrders
+     */
+    public void load(Collection<IOrder> engineOrders) {
+        for (IOrder order : engineOrders) {
+            if (matches(order) && !isClosed(order)) {
+                orders.put(order.getLabel(), order);
+            }
+        }
+        refresh();
+    }
+
+    /**
+     * Adds just submitted order
+     *
+     * @param order
+     */
+    public void add(IOrder order) {
+        if (order != null && !isClosed(order) && orders.put(order.getLabel(), order) == null) {
+            refresh();
+        }
+    }
+
+    /**
+     * Updates index with order message, messages of other orders are ignored
+     *
+     * @param message
+     */
+    public void onMessage(IMessage message) {
+        IOrder order = message.getOrder();
+        if (order == null || !matches(order)) {
+            return;
+        }
+        switch (message.getType()) {
+            case ORDER_SUBMIT_REJECTED:
+            case ORDER_FILL_REJECTED:
+                remove(order);
+                break;
+            case ORDERS_MERGE_OK:
+                // merged orders are closed without own close message
+                removeClosed();
+                update(order);
+                break;
+            default:
+                update(order);
+                break;
+        }
+    }
+
+    /**
+     * Returns open orders, list is immutable and replaced on every change
+     *
+     * @return
+     */
+    public List<IOrder> getOrders() {
+        List<IOrder> current = snapshot;
+        for (int i = 0; i < current.size(); i++) {
+            if (isClosed(current.get(i))) {
+                return withoutClosed(current);
+            }
+        }
+        return current;
+    }
+
+    public IOrder getOrder(String label) {
+        IOrder order = orders.get(label);
+        return order != null && !isClosed(order) ? order : null;
+    }
+
+    public boolean isEmpty() {
+        return getOrders().isEmpty();
+    }
+
+    public int size() {
+        return getOrders().size();
+    }
+
+    private void update(IOrder order) {
+        if (isClosed(order)) {
+            remove(order);
+        } else {
+            add(order);
+        }
+    }
+
+    private void remove(IOrder order) {
+        if (orders.remove(order.getLabel()) != null) {
+            refresh();
+        }
+    }
+
+    private void removeClosed() {
+        Iterator<IOrder> iterator = orders.values().iterator();
+        while (iterator.hasNext()) {
+            if (isClosed(iterator.next())) {
+                iterator.remove();
+            }
+        }
+        refresh();
+    }
+
+    private void refresh() {
+        snapshot = Collections.unmodifiableList(new ArrayList<>(orders.values()));
+    }
+
+    /**
+     * Filters snapshot without changing the index, close message updates it
+     */
+    private static List<IOrder> withoutClosed(List<IOrder> orders) {
+        List<IOrder> open = new ArrayList<>(orders.size());
+        for (IOrder order : orders) {
+            if (!isClosed(order)) {
+                open.add(order);
+            }
+        }
+        return Collections.unmodifiableList(open);
+    }
+
+    private boolean matches(IOrder order) {
+        return order.getLabel() != null && order.getLabel().startsWith(labelPrefix);
+    }
+
+    private static boolean isClosed(IOrder order) {
+        return order.getState() == IOrder.State.CLOSED || order.getState() == IOrder.State.CANCELED;
+    }
+}
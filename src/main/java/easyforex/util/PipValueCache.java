@@ -0,0 +1,231 @@
+package easyforex.util;
+
+import com.dukascopy.api.IAccount;
+import com.dukascopy.api.IContext;
+import com.dukascopy.api.ITick;
+import com.dukascopy.api.Instrument;
+import com.dukascopy.api.JFException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Pip values in account currency and account's base equity, so position
+ * sizing is plain arithmetic. A pip value is converted by the platform
+ * ({@code IJFUtils.convertPipToCurrency}) when first requested. Afterwards it
+ * is recomputed from ticks of its cross instrument (e.g. USD/JPY ticks for
+ * EUR/JPY on USD account), see {@link #getCrossInstrument(Instrument, String)}.
+ * Values not refreshed by ticks for longer than max age (in tick time) are
+ * converted again. Equity is updated from {@code onAccount}.
+ * <p>
+ * Values are lock-free and readable from any thread, e.g. when one cache is
+ * shared by strategies of {@code StrategyComposer}.
+ */
+public final class PipValueCache {
+
+    public static final long DEFAULT_MAX_AGE = 60_000;
+
+    private final IContext context;
+    private final long maxAge;
+    // by instrument ordinal
+    private final AtomicReferenceArray<Entry> entries = new AtomicReferenceArray<>(Instrument.values().length);
+    // instruments refreshed by ticks of the instrument, by its ordinal
+    private final AtomicReferenceArray<Instrument[]> dependents = new AtomicReferenceArray<>(Instrument.values().length);
+    private final AtomicLong tickRefreshes = new AtomicLong();
+    private final AtomicLong conversions = new AtomicLong();
+    private volatile String accountCurrency;
+    private volatile double baseEquity = Double.NaN;
+    private volatile long lastTime;
+
+    public PipValueCache(IContext context) {
+        this(context, DEFAULT_MAX_AGE);
+    }
+
+    /**
+     * @param context
+     * @param maxAge max age of values in ms of tick time
+     */
+    public PipValueCache(IContext context, long maxAge) {
+        this.context = context;
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * Refreshes pip values which depend on the instrument
+     *
+     * @param instrument
+     * @param tick
+     */
+    public void onTick(Instrument instrument, ITick tick) {
+        if (tick.getTime() > lastTime) {
+            lastTime = tick.getTime();
+        }
+        Instrument[] refreshed = dependents.get(instrument.ordinal());
+        if (refreshed == null) {
+            return;
+        }
+        for (Instrument dependent : refreshed) {
+            Entry entry = entries.get(dependent.ordinal());
+            if (entry != null && entry.cross == instrument && tick.getTime() >= entry.time) {
+                double rate = entry.inverse ? 1 / tick.getAsk() : tick.getBid();
+                entries.compareAndSet(dependent.ordinal(), entry, new Entry(entry, dependent.getPipValue() * rate, tick.getTime()));
+                tickRefreshes.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Updates base equity, changed account currency clears pip values
+     *
+     * @param account
+     */
+    public void onAccount(IAccount account) {
+        setAccountCurrency(String.valueOf(account.getAccountCurrency()));
+        baseEquity = account.getBaseEquity();
+    }
+
+    /**
+     * Returns value of one pip of one unit (not million) of instrument in
+     * account currency
+     *
+     * @param instrument
+     * @return
+     * @throws JFException
+     */
+    public double getPipValue(Instrument instrument) throws JFException {
+        Entry entry = entries.get(instrument.ordinal());
+        if (entry == null || (entry.expiring && lastTime - entry.time > maxAge)) {
+            entry = convert(instrument, entry);
+        }
+        return entry.pipValue;
+    }
+
+    /**
+     * Returns base equity from last {@code onAccount}
+     *
+     * @return
+     */
+    public double getBaseEquity() {
+        double equity = baseEquity;
+        if (Double.isNaN(equity)) {
+            onAccount(context.getAccount());
+            equity = baseEquity;
+        }
+        return equity;
+    }
+
+    /**
+     * Returns number of pip values recomputed from ticks
+     *
+     * @return
+     */
+    public long getTickRefreshCount() {
+        return tickRefreshes.get();
+    }
+
+    /**
+     * Returns number of pip values converted by the platform (first requests
+     * and expired values)
+     *
+     * @return
+     */
+    public long getConversionCount() {
+        return conversions.get();
+    }
+
+    /**
+     * Returns instrument which ticks determine pip value of given instrument
+     * in given currency (the instrument itself if currency is its base
+     * currency)
+     *
+     * @param instrument
+     * @param currency
+     * @return null if pip value is constant (currency is quote currency) or
+     * there is no direct cross instrument
+     */
+    public static Instrument getCrossInstrument(Instrument instrument, String currency) {
+        return cross(instrument, currency, new boolean[1]);
+    }
+
+    private static Instrument cross(Instrument instrument, String currency, boolean[] inverse) {
+        String[] currencies = instrument.toString().split("/");
+        if (currencies.length != 2 || currencies[1].equals(currency)) {
+            return null;
+        }
+        inverse[0] = true;
+        if (currencies[0].equals(currency)) {
+            return instrument;
+        }
+        Instrument inverseCross = Instrument.fromString(currency + "/" + currencies[1]);
+        if (inverseCross != null) {
+            return inverseCross;
+        }
+        inverse[0] = false;
+        return Instrument.fromString(currencies[1] + "/" + currency);
+    }
+
+    private Entry convert(Instrument instrument, Entry previous) throws JFException {
+        IAccount account = context.getAccount();
+        String currency = String.valueOf(account.getAccountCurrency());
+        setAccountCurrency(currency);
+        double pipValue = context.getUtils().convertPipToCurrency(instrument, account.getAccountCurrency());
+        conversions.incrementAndGet();
+        boolean[] inverse = new boolean[1];
+        Instrument cross = cross(instrument, currency, inverse);
+        boolean constant = cross == null && instrument.toString().endsWith("/" + currency);
+        Entry entry = new Entry(cross, inverse[0], !constant, pipValue, lastTime);
+        entries.set(instrument.ordinal(), entry);
+        if (cross != null && (previous == null || previous.cross != cross)) {
+            addDependent(cross, instrument);
+        }
+        return entry;
+    }
+
+    private void addDependent(Instrument cross, Instrument instrument) {
+        int slot = cross.ordinal();
+        Instrument[] current;
+        Instrument[] updated;
+        do {
+            current = dependents.get(slot);
+            if (current == null) {
+                updated = new Instrument[]{instrument};
+            } else if (Arrays.asList(current).contains(instrument)) {
+                return;
+            } else {
+                updated = Arrays.copyOf(current, current.length + 1);
+                updated[current.length] = instrument;
+            }
+        } while (!dependents.compareAndSet(slot, current, updated));
+    }
+
+    private void setAccountCurrency(String currency) {
+        if (!currency.equals(accountCurrency)) {
+            accountCurrency = currency;
+            for (int i = 0; i < entries.length(); i++) {
+                entries.set(i, null);
+                dependents.set(i, null);
+            }
+        }
+    }
+
+    private static final class Entry {
+
+        private final Instrument cross;
+        private final boolean inverse;
+        private final boolean expiring;
+        private final double pipValue;
+        private final long time;
+
+        private Entry(Instrument cross, boolean inverse, boolean expiring, double pipValue, long time) {
+            this.cross = cross;
+            this.inverse = inverse;
+            this.expiring = expiring;
+            this.pipValue = pipValue;
+            this.time = time;
+        }
+
+        private Entry(Entry entry, double pipValue, long time) {
+            this(entry.cross, entry.inverse, entry.expiring, pipValue, time);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package easyforex.util;
+
+import com.dukascopy.api.Instrument;
+import java.math.BigDecimal;
+
+/**
+ * HALF_UP rounding of prices without {@code BigDecimal}. Results are the same
+ * as {@code new BigDecimal(value).setScale(places, ROUND_HALF_UP).doubleValue()}
+ * - {@code BigDecimal} is used only for values too close to a tie to decide in
+ * double precision, very large values and non-finite values.
+ * <p>
+ * Instrument prices are rounded to pip scale + 1 (tick size), scale factors
+ * are precomputed per instrument.
+ */
+public final class PriceRounding {
+
+    private static final int MAX_DECIMAL_PLACES = 15;
+    // above it the scaled value has no fraction bits to decide on
+    private static final double MAX_SCALED = 0x1p52;
+    private static final double[] POWERS_OF_TEN = new double[MAX_DECIMAL_PLACES + 1];
+    private static final int[] INSTRUMENT_DECIMAL_PLACES;
+    private static final double[] INSTRUMENT_FACTORS;
+    private static final double[] INSTRUMENT_TICK_SIZES;
+
+    static {
+        double power = 1;
+        for (int i = 0; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = power;
+            power *= 10;
+        }
+        Instrument[] instruments = Instrument.values();
+        INSTRUMENT_DECIMAL_PLACES = new int[instruments.length];
+        INSTRUMENT_FACTORS = new double[instruments.length];
+        INSTRUMENT_TICK_SIZES = new double[instruments.length];
+        for (Instrument instrument : instruments) {
+            int places = instrument.getPipScale() + 1;
+            INSTRUMENT_DECIMAL_PLACES[instrument.ordinal()] = places;
+            INSTRUMENT_FACTORS[instrument.ordinal()] = POWERS_OF_TEN[places];
+            INSTRUMENT_TICK_SIZES[instrument.ordinal()] = 1 / POWERS_OF_TEN[places];
+        }
+    }
+
+    private PriceRounding() {
+    }
+
+    /**
+     * Returns number of decimal places of instrument prices (pip scale + 1)
+     *
+     * @param instrument
+     * @return
+     */
+    public static int getDecimalPlaces(Instrument instrument) {
+        return INSTRUMENT_DECIMAL_PLACES[instrument.ordinal()];
+    }
+
+    /**
+     * Returns smallest price change of instrument (1/10 of pip)
+     *
+     * @param instrument
+     * @return
+     */
+    public static double getTickSize(Instrument instrument) {
+        return INSTRUMENT_TICK_SIZES[instrument.ordinal()];
+    }
+
+    /**
+     * Rounds value to pip scale + 1 scale
+     *
+     * @param instrument
+     * @param value
+     * @return
+     */
+    public static double round(Instrument instrument, double value) {
+        int i = instrument.ordinal();
+        return round(value, INSTRUMENT_FACTORS[i], INSTRUMENT_DECIMAL_PLACES[i]);
+    }
+
+    /**
+     * Rounds values to pip scale + 1 scale, e.g. ladder of stop loss levels
+     *
+     * @param instrument
+     * @param values
+     * @param result     array for rounded values, may be {@code values}
+     * @return result
+     */
+    public static double[] round(Instrument instrument, double[] values, double[] result) {
+        int i = instrument.ordinal();
+        double factor = INSTRUMENT_FACTORS[i];
+        int decimalPlaces = INSTRUMENT_DECIMAL_PLACES[i];
+        for (int j = 0; j < values.length; j++) {
+            result[j] = round(values[j], factor, decimalPlaces);
+        }
+        return result;
+    }
+
+    /**
+     * Rounds value to given number of decimal places
+     *
+     * @param value
+     * @param decimalPlaces 0 - 15
+     * @return
+     */
+    public static double round(double value, int decimalPlaces) {
+        if (decimalPlaces < 0 || decimalPlaces > MAX_DECIMAL_PLACES) {
+            throw new IllegalArgumentException("Decimal places out of range: " + decimalPlaces);
+        }
+        return round(value, POWERS_OF_TEN[decimalPlaces], decimalPlaces);
+    }
+
+    private static double round(double value, double factor, int decimalPlaces) {
+        if (value == 0) {
+            return 0.0;
+        }
+        double scaled = Math.abs(value) * factor;
+        if (scaled < MAX_SCALED) {
+            double floor = Math.floor(scaled);
+            double fraction = scaled - floor;
+            // scaled is correctly rounded product, so its error is below ulp
+            if (Math.abs(fraction - 0.5) > Math.ulp(scaled)) {
+                double rounded = fraction > 0.5 ? floor + 1 : floor;
+                if (rounded == 0) {
+                    return 0.0;
+                }
+                // both are exact, so division is correctly rounded like BigDecimal.doubleValue
+                return (value < 0 ? -rounded : rounded) / factor;
+            }
+        }
+        return new BigDecimal(value).setScale(decimalPlaces, BigDecimal.ROUND_HALF_UP).doubleValue();
+    }
+}
@@ -21,12 +21,23 @@ public final class RiskManagingUtils {
      */
     public static double calculateTradeAmount(IContext context, Instrument instrument, int stopLossPips, double riskPercent) throws JFException {
         IAccount account = context.getAccount();
-        double pipPriceOfMilion = context.getUtils().convertPipToCurrency(instrument, account.getAccountCurrency()) * 1000000;
-        double baseEquity = account.getBaseEquity();
-        double riskEquity = baseEquity * (riskPercent / 100.0);
-        // TODO available leverage
-        double tradeAmount = riskEquity / (pipPriceOfMilion * stopLossPips);
-        return tradeAmount;
+        double pipValue = context.getUtils().convertPipToCurrency(instrument, account.getAccountCurrency());
+        return calculateTradeAmount(pipValue, account.getBaseEquity(), stopLossPips, riskPercent);
+    }
+
+    /**
+     * Calculates trade amount using stop loss given in pips and risk percent,
+     * with pip value and equity from cache
+     *
+     * @param pipValues
+     * @param instrument
+     * @param stopLossPips
+     * @param riskPercent
+     * @return
+     * @throws JFException
+     */
+    public static double calculateTradeAmount(PipValueCache pipValues, Instrument instrument, int stopLossPips, double riskPercent) throws JFException {
+        return calculateTradeAmount(pipValues.getPipValue(instrument), pipValues.getBaseEquity(), stopLossPips, riskPercent);
     }
 
     /**
@@ -45,4 +56,29 @@ public final class RiskManagingUtils {
         int stopLossPips = (int) StopLossTakeProfitUtils.getStopLossPips(command, instrument, lastTick, stopLossPrice);
         return RiskManagingUtils.calculateTradeAmount(context, instrument, stopLossPips, riskPercent);
     }
+
+    /**
+     * Calculates trade amount using stop loss price and risk percent, with
+     * pip value and equity from cache
+     *
+     * @param pipValues
+     * @param instrument
+     * @param command
+     * @param lastTick
+     * @param stopLossPrice
+     * @param riskPercent
+     * @return
+     * @throws JFException
+     */
+    public static double calculateTradeAmount(PipValueCache pipValues, Instrument instrument, IEngine.OrderCommand command, ITick lastTick, double stopLossPrice, double riskPercent) throws JFException {
+        int stopLossPips = (int) StopLossTakeProfitUtils.getStopLossPips(command, instrument, lastTick, stopLossPrice);
+        return calculateTradeAmount(pipValues, instrument, stopLossPips, riskPercent);
+    }
+
+    private static double calculateTradeAmount(double pipValue, double baseEquity, int stopLossPips, double riskPercent) {
+        double pipPriceOfMilion = pipValue * 1000000;
+        double riskEquity = baseEquity * (riskPercent / 100.0);
+        // TODO available leverage
+        return riskEquity / (pipPriceOfMilion * stopLossPips);
+    }
 }
@@ -0,0 +1,113 @@
+package easyforex.util;
+
+/**
+ * Incremental SAR trend of one instrument, period and SAR parameters. Each bar
+ * is compared once with its SAR value, so current direction, length of the
+ * current run and bars since the last flip are known in O(1) without history
+ * calls. Use {@link EasyIndicators#sarTrend} to get a tracker kept up to date
+ * from stored bars.
+ */
+public final class SarTrendTracker {
+
+    // 1 rising, -1 falling, 0 no bar yet
+    private int direction;
+    private int runLength;
+    private boolean flipped;
+    private long lastBarTime = Long.MIN_VALUE;
+    private double lastSar = Double.NaN;
+
+    /**
+     * Adds SAR value of the next bar, bars not newer than the last one are
+     * ignored
+     *
+     * @param barTime
+     * @param sar
+     * @param low     bar low
+     * @param high    bar high
+     * @return true if SAR direction flipped at this bar
+     * @throws IllegalStateException if SAR value is inside the bar, bar is
+     *                               not added then
+     */
+    public boolean update(long barTime, double sar, double low, double high) {
+        if (barTime <= lastBarTime) {
+            return false;
+        }
+        int barDirection = direction(sar, low, high);
+        boolean flip = direction != 0 && barDirection != direction;
+        if (barDirection == direction) {
+            runLength++;
+        } else {
+            runLength = 1;
+        }
+        flipped |= flip;
+        direction = barDirection;
+        lastBarTime = barTime;
+        lastSar = sar;
+        return flip;
+    }
+
+    /**
+     * Returns 1 if SAR is rising, -1 if falling. SAR of a bar is limited by
+     * lows (highs) of previous bars and set to the bar's extreme when it
+     * flips, so SAR touching the bar counts as outside.
+     */
+    private static int direction(double sar, double low, double high) {
+        if (sar <= low) {
+            return 1;
+        }
+        if (sar >= high) {
+            return -1;
+        }
+        throw new IllegalStateException("Sar value: " + sar + " does not fit to bar: low=" + low + ", high=" + high);
+    }
+
+    /**
+     * Returns true if last SAR is rising
+     *
+     * @return
+     */
+    public boolean isRising() {
+        return direction > 0;
+    }
+
+    /**
+     * Returns true if last SAR is falling
+     *
+     * @return
+     */
+    public boolean isFalling() {
+        return direction < 0;
+    }
+
+    /**
+     * Returns number of last SAR values in current direction
+     *
+     * @return 0 if there was no bar yet
+     */
+    public int getRunLength() {
+        return runLength;
+    }
+
+    /**
+     * Returns number of bars after the bar where SAR flipped to current
+     * direction
+     *
+     * @return -1 if no flip was seen yet
+     */
+    public int getBarsSinceFlip() {
+        return flipped ? runLength - 1 : -1;
+    }
+
+    /**
+     * Returns time of last added bar
+     *
+     * @return {@code Long.MIN_VALUE} if there was no bar yet
+     */
+    public long getLastBarTime() {
+        return lastBarTime;
+    }
+
+    public double getLastSar() {
+        return lastSar;
+    }
+}
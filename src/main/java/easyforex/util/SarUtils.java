@@ -7,7 +7,6 @@ import com.dukascopy.api.Instrument;
 import com.dukascopy.api.JFException;
 import com.dukascopy.api.OfferSide;
 import com.dukascopy.api.Period;
-import java.util.List;
 
 /**
  * Utility class for methods based on SAR
@@ -46,30 +45,54 @@ public final class SarUtils {
 	 * @return
 	 */
 	public static boolean isSarRising(double sarValue, IBar bar) {
-		if (sarValue < bar.getLow()) {
+		return isSarRising(sarValue, bar.getLow(), bar.getHigh());
+	}
+
+	/**
+	 * Returns true if SAR for given bars is rising
+	 *
+	 * @param sarValue
+	 * @param bar
+	 * @return
+	 */
+	public static boolean isSarFalling(double sarValue, IBar bar) {
+		return isSarFalling(sarValue, bar.getLow(), bar.getHigh());
+	}
+
+	/**
+	 * Returns true if SAR for bar with given low and high is rising
+	 *
+	 * @param sarValue
+	 * @param low
+	 * @param high
+	 * @return
+	 */
+	public static boolean isSarRising(double sarValue, double low, double high) {
+		if (sarValue < low) {
 			return true;
 		}
-		if (sarValue > bar.getHigh()) {
+		if (sarValue > high) {
 			return false;
 		}
-		throw new IllegalStateException("Sar value: " + sarValue + " does not fit to bar: " + bar);
+		throw new IllegalStateException("Sar value: " + sarValue + " does not fit to bar: low=" + low + ", high=" + high);
 	}
 
 	/**
-	 * Returns true if SAR for given bars is rising
+	 * Returns true if SAR for bar with given low and high is falling
 	 *
 	 * @param sarValue
-	 * @param bar
+	 * @param low
+	 * @param high
 	 * @return
 	 */
-	public static boolean isSarFalling(double sarValue, IBar bar) {
-		if (sarValue > bar.getHigh()) {
+	public static boolean isSarFalling(double sarValue, double low, double high) {
+		if (sarValue > high) {
 			return true;
 		}
-		if (sarValue < bar.getLow()) {
+		if (sarValue < low) {
 			return false;
 		}
-		throw new IllegalStateException("Sar value: " + sarValue + " does not fit to bar: " + bar);
+		throw new IllegalStateException("Sar value: " + sarValue + " does not fit to bar: low=" + low + ", high=" + high);
 	}
 
 	/**
@@ -83,9 +106,7 @@ public final class SarUtils {
 	 * @throws JFException
 	 */
 	public static boolean isSarCurrentlyRising(EasyIndicators indicators, Period period, double sarAcceleration, double sarMaximum) throws JFException {
-		double sar = indicators.sar(period, sarAcceleration, sarMaximum);
-		IBar bar = indicators.bars(period, 1).get(0);
-		return isSarRising(sar, bar);
+		return indicators.sarTrend(period, sarAcceleration, sarMaximum).isRising();
 	}
 
 	/**
@@ -99,9 +120,7 @@ public final class SarUtils {
 	 * @throws JFException
 	 */
 	public static boolean isSarCurrentlyFalling(EasyIndicators indicators, Period period, double sarAcceleration, double sarMaximum) throws JFException {
-		double sar = indicators.sar(period, sarAcceleration, sarMaximum);
-		IBar bar = indicators.bars(period, 1).get(0);
-		return isSarFalling(sar, bar);
+		return indicators.sarTrend(period, sarAcceleration, sarMaximum).isFalling();
 	}
 
 	/**
@@ -116,17 +135,7 @@ public final class SarUtils {
 	 * @throws JFException
 	 */
 	public static int lastRisingSarsNumber(EasyIndicators indicators, Period period, double sarAcceleration, double sarMaximum, int maxNumber) throws JFException {
-		List<Double> sars = indicators.sar(period, sarAcceleration, sarMaximum, maxNumber);
-		List<IBar> bars = indicators.bars(period, maxNumber);
-		int counter = 0;
-		for (int i = maxNumber - 1; i >= 0; i--) {
-			if (isSarRising(sars.get(i), bars.get(i))) {
-				counter++;
-			} else {
-				break;
-			}
-		}
-		return counter;
+		return lastSarsNumber(indicators, period, sarAcceleration, sarMaximum, maxNumber, true);
 	}
 
 	/**
@@ -141,16 +150,28 @@ public final class SarUtils {
 	 * @throws JFException
 	 */
 	public static int lastFallingSarsNumber(EasyIndicators indicators, Period period, double sarAcceleration, double sarMaximum, int maxNumber) throws JFException {
-		List<Double> sars = indicators.sar(period, sarAcceleration, sarMaximum, maxNumber);
-		List<IBar> bars = indicators.bars(period, maxNumber);
-		int counter = 0;
-		for (int i = maxNumber - 1; i >= 0; i--) {
-			if (isSarFalling(sars.get(i), bars.get(i))) {
-				counter++;
-			} else {
-				break;
-			}
-		}
-		return counter;
+		return lastSarsNumber(indicators, period, sarAcceleration, sarMaximum, maxNumber, false);
+	}
+
+	/**
+	 * Returns number of bars after the bar where last SAR flipped its direction
+	 *
+	 * @param indicators
+	 * @param period
+	 * @param sarAcceleration
+	 * @param sarMaximum
+	 * @return -1 if there is no flip in stored bars
+	 * @throws JFException
+	 */
+	public static int barsSinceSarFlip(EasyIndicators indicators, Period period, double sarAcceleration, double sarMaximum) throws JFException {
+		return indicators.sarTrend(period, sarAcceleration, sarMaximum).getBarsSinceFlip();
+	}
+
+	/**
+	 * Counts last SAR values in given direction from incremental SAR trend
+	 */
+	private static int lastSarsNumber(EasyIndicators indicators, Period period, double sarAcceleration, double sarMaximum, int maxNumber, boolean rising) throws JFException {
+		SarTrendTracker trend = indicators.sarTrend(period, sarAcceleration, sarMaximum);
+		return (rising ? trend.isRising() : trend.isFalling()) ? Math.min(maxNumber, trend.getRunLength()) : 0;
 	}
 }
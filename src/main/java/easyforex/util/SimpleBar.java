@@ -0,0 +1,60 @@
+package easyforex.util;
+
+import com.dukascopy.api.IBar;
+
+/**
+ * Immutable bar, e.g. for bars built or stored locally
+ */
+public final class SimpleBar implements IBar {
+
+    private final long time;
+    private final double open;
+    private final double high;
+    private final double low;
+    private final double close;
+    private final double volume;
+
+    public SimpleBar(long time, double open, double high, double low, double close, double volume) {
+        this.time = time;
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.close = close;
+        this.volume = volume;
+    }
+
+    @Override
+    public long getTime() {
+        return time;
+    }
+
+    @Override
+    public double getOpen() {
+        return open;
+    }
+
+    @Override
+    public double getHigh() {
+        return high;
+    }
+
+    @Override
+    public double getLow() {
+        return low;
+    }
+
+    @Override
+    public double getClose() {
+        return close;
+    }
+
+    @Override
+    public double getVolume() {
+        return volume;
+    }
+
+    @Override
+    public String toString() {
+        return "SimpleBar{time=" + time + ", open=" + open + ", high=" + high + ", low=" + low + ", close=" + close + ", volume=" + volume + '}';
+    }
+}
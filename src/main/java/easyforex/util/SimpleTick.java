@@ -0,0 +1,83 @@
+package easyforex.util;
+
+import com.dukascopy.api.ITick;
+
+/**
+ * Immutable single level tick, e.g. for ticks read from local files
+ */
+public final class SimpleTick implements ITick {
+
+    private final long time;
+    private final double ask;
+    private final double bid;
+    private final double askVolume;
+    private final double bidVolume;
+
+    public SimpleTick(long time, double ask, double bid, double askVolume, double bidVolume) {
+        this.time = time;
+        this.ask = ask;
+        this.bid = bid;
+        this.askVolume = askVolume;
+        this.bidVolume = bidVolume;
+    }
+
+    @Override
+    public long getTime() {
+        return time;
+    }
+
+    @Override
+    public double getAsk() {
+        return ask;
+    }
+
+    @Override
+    public double getBid() {
+        return bid;
+    }
+
+    @Override
+    public double getAskVolume() {
+        return askVolume;
+    }
+
+    @Override
+    public double getBidVolume() {
+        return bidVolume;
+    }
+
+    @Override
+    public double[] getAsks() {
+        return new double[]{ask};
+    }
+
+    @Override
+    public double[] getBids() {
+        return new double[]{bid};
+    }
+
+    @Override
+    public double[] getAskVolumes() {
+        return new double[]{askVolume};
+    }
+
+    @Override
+    public double[] getBidVolumes() {
+        return new double[]{bidVolume};
+    }
+
+    @Override
+    public double getTotalAskVolume() {
+        return askVolume;
+    }
+
+    @Override
+    public double getTotalBidVolume() {
+        return bidVolume;
+    }
+
+    @Override
+    public String toString() {
+        return "SimpleTick{time=" + time + ", ask=" + ask + ", bid=" + bid + '}';
+    }
+}
@@ -0,0 +1,227 @@
+package easyforex.util;
+
+import com.dukascopy.api.IMessage;
+import com.dukascopy.api.IOrder;
+import com.dukascopy.api.JFException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Queue of stop loss modifications. Pending changes of the same order are
+ * merged and only the latest target is sent, not more often than minimal
+ * interval, only if it differs enough from current stop loss and only when
+ * previous change of the order was confirmed or rejected.
+ * <p>
+ * Pass order messages to {@code onMessage}, and call {@code flush} regularly
+ * (e.g. in {@code onTick}).
+ */
+public final class StopLossQueue {
+
+    private final long minIntervalMillis;
+    private final double minPriceDelta;
+    private final Listener listener;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private long sentCount;
+    private long mergedCount;
+
+    /**
+     * @param minIntervalMillis minimal time between two changes of an order
+     * @param minPriceDelta     minimal difference between current and new
+     *                          stop loss price
+     * @param listener          notified when change is sent, may be null
+     */
+    public StopLossQueue(long minIntervalMillis, double minPriceDelta, Listener listener) {
+        this.minIntervalMillis = minIntervalMillis;
+        this.minPriceDelta = minPriceDelta;
+        this.listener = listener;
+    }
+
+    /**
+     * Requests stop loss change, it is sent immediately if possible
+     *
+     * @param order
+     * @param stopLossPrice new stop loss price
+     * @param time          current (tick) time
+     * @throws JFException
+     */
+    public void request(IOrder order, double stopLossPrice, long time) throws JFException {
+        Entry entry = entries.get(order.getLabel());
+        if (entry == null) {
+            entry = new Entry(order);
+            entries.put(order.getLabel(), entry);
+        } else if (entry.pending) {
+            mergedCount++;
+        }
+        entry.target = stopLossPrice;
+        entry.pending = true;
+        send(entry, time);
+    }
+
+    /**
+     * Requests the same stop loss change of several orders, e.g. a trailing
+     * stop of all long orders. Changes are not sent immediately but by next
+     * {@link #flush(long)}, in one pass.
+     *
+     * @param orders
+     * @param stopLossPrice new stop loss price
+     */
+    public void requestAll(List<IOrder> orders, double stopLossPrice) {
+        for (int i = 0; i < orders.size(); i++) {
+            IOrder order = orders.get(i);
+            Entry entry = entries.get(order.getLabel());
+            if (entry == null) {
+                entry = new Entry(order);
+                entries.put(order.getLabel(), entry);
+            } else if (entry.pending) {
+                mergedCount++;
+            }
+            entry.target = stopLossPrice;
+            entry.pending = true;
+        }
+    }
+
+    /**
+     * Sends pending changes which can be sent now and forgets closed orders.
+     * A change which fails stays pending and is sent again by next flush,
+     * changes of other orders are still sent.
+     *
+     * @param time current (tick) time
+     * @throws JFException the first failure of the sent changes
+     */
+    public void flush(long time) throws JFException {
+        JFException failure = null;
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (isClosed(entry.order)) {
+                iterator.remove();
+                continue;
+            }
+            try {
+                send(entry, time);
+            } catch (JFException | RuntimeException ex) {
+                if (failure == null) {
+                    failure = ex instanceof JFException ? (JFException) ex : new JFException(ex);
+                } else {
+                    failure.addSuppressed(ex);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Handles confirmation/rejection of sent changes and forgets closed orders
+     *
+     * @param message
+     * @throws JFException
+     */
+    public void onMessage(IMessage message) throws JFException {
+        IOrder order = message.getOrder();
+        if (order == null) {
+            return;
+        }
+        if (message.getType() == IMessage.Type.ORDERS_MERGE_OK) {
+            // merged orders are closed without own close message
+            removeClosed();
+            return;
+        }
+        Entry entry = entries.get(order.getLabel());
+        if (entry == null) {
+            return;
+        }
+        switch (message.getType()) {
+            case ORDER_CHANGED_OK:
+            case ORDER_CHANGED_REJECTED:
+                entry.inFlight = false;
+                send(entry, message.getCreationTime());
+                break;
+            case ORDER_CLOSE_OK:
+                if (isClosed(order)) {
+                    entries.remove(order.getLabel());
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Returns number of changes sent to the server
+     *
+     * @return
+     */
+    public long getSentCount() {
+        return sentCount;
+    }
+
+    /**
+     * Returns number of requested changes which were replaced by newer ones
+     * or dropped as too small, before being sent
+     *
+     * @return
+     */
+    public long getMergedCount() {
+        return mergedCount;
+    }
+
+    private void send(Entry entry, long time) throws JFException {
+        if (!entry.pending || entry.inFlight || time - entry.lastSentTime < minIntervalMillis) {
+            return;
+        }
+        IOrder order = entry.order;
+        if (Math.abs(entry.target - order.getStopLossPrice()) < minPriceDelta) {
+            entry.pending = false;
+            mergedCount++;
+            return;
+        }
+        order.setStopLossPrice(entry.target);
+        // updated only after success, a failed change stays pending and is
+        // sent again by next flush
+        entry.pending = false;
+        entry.inFlight = true;
+        entry.lastSentTime = time;
+        sentCount++;
+        if (listener != null) {
+            listener.stopLossSent(order, entry.target, time);
+        }
+    }
+
+    private void removeClosed() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (isClosed(iterator.next().order)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static boolean isClosed(IOrder order) {
+        return order.getState() == IOrder.State.CLOSED || order.getState() == IOrder.State.CANCELED;
+    }
+
+    /**
+     * Notified when stop loss change is sent
+     */
+    public interface Listener {
+
+        void stopLossSent(IOrder order, double stopLossPrice, long time) throws JFException;
+    }
+
+    private static final class Entry {
+
+        private final IOrder order;
+        private double target;
+        private boolean pending;
+        private boolean inFlight;
+        private long lastSentTime = Long.MIN_VALUE / 2;
+
+        Entry(IOrder order) {
+            this.order = order;
+        }
+    }
+}
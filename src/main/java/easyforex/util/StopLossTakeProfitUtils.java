@@ -3,7 +3,6 @@ package easyforex.util;
 import com.dukascopy.api.IEngine;
 import com.dukascopy.api.ITick;
 import com.dukascopy.api.Instrument;
-import java.math.BigDecimal;
 
 /**
  * Stop loss and take profit utilities TODO unit test for sl calculating
@@ -99,14 +98,13 @@ public final class StopLossTakeProfitUtils {
     }
 
     /**
-     * Rounds value to pip scale + 1 scale
+     * Rounds value to pip scale + 1 scale (HALF_UP), see {@link PriceRounding}
      *
      * @param instrument
      * @param value
      * @return
      */
     public static double round(Instrument instrument, double value) {
-        int decimalPlaces = instrument.getPipScale() + 1;
-        return (new BigDecimal(value)).setScale(decimalPlaces, BigDecimal.ROUND_HALF_UP).doubleValue();
+        return PriceRounding.round(instrument, value);
     }
 }
@@ -0,0 +1,273 @@
+package easyforex.util;
+
+import com.dukascopy.api.IConsole;
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Latency histograms of one strategy's callbacks, with counts and maximums.
+ * Metrics are registered in platform MBean server as
+ * {@code easyforex:type=StrategyMetrics,name=<strategy>} and can be printed
+ * periodically to the console.
+ * <p>
+ * Metrics are disabled by default (enable them with
+ * {@code -Deasyforex.metrics=true} or {@link #setEnabled(boolean)} before
+ * strategies are started). When disabled no metrics are created, so the only
+ * cost is a null check per callback.
+ */
+public final class StrategyMetrics implements StrategyMetricsMBean {
+
+    public enum Callback {
+        TICK, BAR, MESSAGE
+    }
+
+    private static final Map<String, StrategyMetrics> REGISTRY = new ConcurrentHashMap<>();
+    private static volatile boolean enabled = Boolean.getBoolean("easyforex.metrics");
+    private static volatile long reportPeriodMillis = TimeUnit.MINUTES.toMillis(1);
+    private static ScheduledExecutorService reporter;
+
+    private final String name;
+    // indexed by Callback ordinal
+    private final LatencyHistogram[] histograms = new LatencyHistogram[Callback.values().length];
+    private final LatencyHistogram tick;
+    private final LatencyHistogram bar;
+    private final LatencyHistogram message;
+    private ObjectName objectName;
+
+    private StrategyMetrics(String name) {
+        this.name = name;
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+        this.tick = histograms[Callback.TICK.ordinal()];
+        this.bar = histograms[Callback.BAR.ordinal()];
+        this.message = histograms[Callback.MESSAGE.ordinal()];
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enables / disables metrics of strategies started afterwards
+     *
+     * @param enabled
+     */
+    public static void setEnabled(boolean enabled) {
+        StrategyMetrics.enabled = enabled;
+    }
+
+    /**
+     * Sets period of console summaries started afterwards, 0 disables them
+     *
+     * @param period
+     * @param unit
+     */
+    public static void setReportPeriod(long period, TimeUnit unit) {
+        reportPeriodMillis = unit.toMillis(period);
+    }
+
+    /**
+     * Creates metrics of a strategy and registers them in JMX
+     *
+     * @param name unique strategy name
+     * @return
+     * @throws IllegalStateException if metrics of that name exist
+     */
+    public static StrategyMetrics register(String name) {
+        StrategyMetrics metrics = new StrategyMetrics(name);
+        if (REGISTRY.putIfAbsent(name, metrics) != null) {
+            throw new IllegalStateException("Metrics already registered: " + name);
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName("easyforex:type=StrategyMetrics,name=" + ObjectName.quote(name));
+            server.registerMBean(metrics, objectName);
+            metrics.objectName = objectName;
+        } catch (JMException | SecurityException ex) {
+            // metrics still work, they are just not visible in JMX
+        }
+        return metrics;
+    }
+
+    /**
+     * Removes metrics from registry and JMX
+     *
+     * @param metrics
+     */
+    public static void unregister(StrategyMetrics metrics) {
+        REGISTRY.remove(metrics.name, metrics);
+        if (metrics.objectName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(metrics.objectName);
+            } catch (JMException | SecurityException ex) {
+                // already unregistered
+            }
+            metrics.objectName = null;
+        }
+    }
+
+    /**
+     * Returns all registered metrics
+     *
+     * @return
+     */
+    public static Collection<StrategyMetrics> getAll() {
+        return Collections.unmodifiableCollection(REGISTRY.values());
+    }
+
+    /**
+     * Prints summary of given metrics to console every report period (see
+     * {@link #setReportPeriod(long, TimeUnit)}), cancel returned future to
+     * stop it
+     *
+     * @param console
+     * @param metrics
+     * @return null if report period is 0
+     */
+    public static ScheduledFuture<?> startReporting(IConsole console, Collection<StrategyMetrics> metrics) {
+        long period = reportPeriodMillis;
+        if (period <= 0) {
+            return null;
+        }
+        return getReporter().scheduleAtFixedRate(() -> {
+            for (StrategyMetrics m : metrics) {
+                console.getOut().println(m.summary());
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    private static synchronized ScheduledExecutorService getReporter() {
+        if (reporter == null) {
+            reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "StrategyMetrics-reporter");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return reporter;
+    }
+
+    /**
+     * Records duration of a callback
+     *
+     * @param callback
+     * @param nanos
+     */
+    public void record(Callback callback, long nanos) {
+        histograms[callback.ordinal()].record(nanos);
+    }
+
+    public LatencyHistogram getHistogram(Callback callback) {
+        return histograms[callback.ordinal()];
+    }
+
+    /**
+     * Returns one line summary: count, mean, 50th, 99th, 99.9th percentile
+     * and max of every callback type in microseconds
+     *
+     * @return
+     */
+    public String summary() {
+        StringBuilder sb = new StringBuilder(name).append(" latency [us]");
+        for (Callback callback : Callback.values()) {
+            LatencyHistogram histogram = histograms[callback.ordinal()];
+            sb.append(' ').append(callback.name().toLowerCase())
+                    .append(" n=").append(histogram.getCount())
+                    .append(String.format(" mean=%.1f p50=%.1f p99=%.1f p99.9=%.1f max=%.1f",
+                            histogram.getMean() / 1000,
+                            histogram.getValueAtPercentile(50) / 1000.0,
+                            histogram.getValueAtPercentile(99) / 1000.0,
+                            histogram.getValueAtPercentile(99.9) / 1000.0,
+                            histogram.getMax() / 1000.0));
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getTickCount() {
+        return tick.getCount();
+    }
+
+    @Override
+    public double getTickMean() {
+        return tick.getMean();
+    }
+
+    @Override
+    public long getTick99Percentile() {
+        return tick.getValueAtPercentile(99);
+    }
+
+    @Override
+    public long getTickMax() {
+        return tick.getMax();
+    }
+
+    @Override
+    public long getBarCount() {
+        return bar.getCount();
+    }
+
+    @Override
+    public double getBarMean() {
+        return bar.getMean();
+    }
+
+    @Override
+    public long getBar99Percentile() {
+        return bar.getValueAtPercentile(99);
+    }
+
+    @Override
+    public long getBarMax() {
+        return bar.getMax();
+    }
+
+    @Override
+    public long getMessageCount() {
+        return message.getCount();
+    }
+
+    @Override
+    public double getMessageMean() {
+        return message.getMean();
+    }
+
+    @Override
+    public long getMessage99Percentile() {
+        return message.getValueAtPercentile(99);
+    }
+
+    @Override
+    public long getMessageMax() {
+        return message.getMax();
+    }
+
+    @Override
+    public void reset() {
+        for (LatencyHistogram histogram : histograms) {
+            histogram.reset();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return summary();
+    }
+}
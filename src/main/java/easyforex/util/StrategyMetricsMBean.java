@@ -0,0 +1,35 @@
+package easyforex.util;
+
+/**
+ * JMX view of {@link StrategyMetrics}, latencies are in nanoseconds
+ */
+public interface StrategyMetricsMBean {
+
+    String getName();
+
+    long getTickCount();
+
+    double getTickMean();
+
+    long getTick99Percentile();
+
+    long getTickMax();
+
+    long getBarCount();
+
+    double getBarMean();
+
+    long getBar99Percentile();
+
+    long getBarMax();
+
+    long getMessageCount();
+
+    double getMessageMean();
+
+    long getMessage99Percentile();
+
+    long getMessageMax();
+
+    void reset();
+}
@@ -0,0 +1,248 @@
+package easyforex.backtest;
+
+import com.dukascopy.api.IAccount;
+import com.dukascopy.api.IBar;
+import com.dukascopy.api.IContext;
+import com.dukascopy.api.IEngine;
+import com.dukascopy.api.IMessage;
+import com.dukascopy.api.IOrder;
+import com.dukascopy.api.IStrategy;
+import com.dukascopy.api.ITick;
+import com.dukascopy.api.Instrument;
+import com.dukascopy.api.JFException;
+import com.dukascopy.api.Period;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class BacktesterTest {
+
+    private static final long TIME = 1_483_315_200_000L;
+    private static final double DELTA = 1e-6;
+
+    @Test
+    public void run_MarketBuy_FilledAtAsk() throws Exception {
+        TestStrategy strategy = new TestStrategy((s, index, tick) -> {
+            if (index == 0) {
+                s.order = s.context.getEngine().submitOrder("buy", Instrument.EURUSD, IEngine.OrderCommand.BUY, 0.1, 0, 5, 0, 0);
+            }
+        });
+
+        run(strategy, new double[][]{{1.1002, 1.1000}, {1.1003, 1.1001}});
+
+        assertEquals(IMessage.Type.ORDER_SUBMIT_OK, strategy.messages.get(0).getType());
+        assertEquals(IMessage.Type.ORDER_FILL_OK, strategy.messages.get(1).getType());
+        assertEquals(1.1002, strategy.order.getOpenPrice(), DELTA);
+        assertEquals(TIME, strategy.order.getFillTime());
+    }
+
+    @Test
+    public void run_BidReachesStopLoss_ClosedByStopLoss() throws Exception {
+        TestStrategy strategy = new TestStrategy((s, index, tick) -> {
+            if (index == 0) {
+                s.order = s.context.getEngine().submitOrder("buy", Instrument.EURUSD, IEngine.OrderCommand.BUY, 0.1, 0, 5, 1.0990, 0);
+            }
+        });
+
+        BacktestReport report = run(strategy, new double[][]{{1.1002, 1.1000}, {1.0997, 1.0995}, {1.0992, 1.0990}, {1.0982, 1.0980}});
+
+        IMessage close = strategy.last(IMessage.Type.ORDER_CLOSE_OK);
+        assertEquals(Collections.singleton(IMessage.Reason.ORDER_CLOSED_BY_SL), close.getReasons());
+        assertEquals(IOrder.State.CLOSED, strategy.order.getState());
+        assertEquals(-120, strategy.order.getProfitLossInAccountCurrency(), DELTA);
+        assertEquals(-120, report.getNetProfit(), DELTA);
+        assertEquals(1, report.getClosedOrders());
+    }
+
+    @Test
+    public void run_AskReachesTakeProfit_ClosedByTakeProfit() throws Exception {
+        TestStrategy strategy = new TestStrategy((s, index, tick) -> {
+            if (index == 0) {
+                s.order = s.context.getEngine().submitOrder("sell", Instrument.EURUSD, IEngine.OrderCommand.SELL, 0.1, 0, 5, 0, 1.0990);
+            }
+        });
+
+        BacktestReport report = run(strategy, new double[][]{{1.1002, 1.1000}, {1.0995, 1.0993}, {1.0990, 1.0988}});
+
+        IMessage close = strategy.last(IMessage.Type.ORDER_CLOSE_OK);
+        assertEquals(Collections.singleton(IMessage.Reason.ORDER_CLOSED_BY_TP), close.getReasons());
+        assertEquals(100, report.getNetProfit(), DELTA);
+        assertEquals(1, report.getWinningOrders());
+    }
+
+    @Test
+    public void run_AskFallsToBuyLimit_FilledAtAsk() throws Exception {
+        TestStrategy strategy = new TestStrategy((s, index, tick) -> {
+            if (index == 0) {
+                s.order = s.context.getEngine().submitOrder("limit", Instrument.EURUSD, IEngine.OrderCommand.BUYLIMIT, 0.1, 1.0995, 5, 0, 0);
+            }
+            if (index == 1) {
+                assertEquals(IOrder.State.OPENED, s.order.getState());
+            }
+        });
+
+        run(strategy, new double[][]{{1.1002, 1.1000}, {1.0997, 1.0995}, {1.0992, 1.0990}});
+
+        assertEquals(IMessage.Type.ORDER_FILL_OK, strategy.messages.get(1).getType());
+        assertEquals(1.0992, strategy.order.getOpenPrice(), DELTA);
+        assertEquals(TIME + 2000, strategy.order.getFillTime());
+    }
+
+    @Test
+    public void run_OpenBuy_EquityFollowsBid() throws Exception {
+        List<Double> equities = new ArrayList<>();
+        TestStrategy strategy = new TestStrategy((s, index, tick) -> {
+            if (index == 0) {
+                s.order = s.context.getEngine().submitOrder("buy", Instrument.EURUSD, IEngine.OrderCommand.BUY, 0.1, 0, 5, 0, 0);
+            } else {
+                equities.add(s.context.getAccount().getEquity());
+            }
+        });
+
+        BacktestReport report = run(strategy, new double[][]{{1.1002, 1.1000}, {1.1012, 1.1010}, {1.0992, 1.0990}});
+
+        assertEquals(100_000 + 80, equities.get(0), DELTA);
+        assertEquals(100_000 - 120, equities.get(1), DELTA);
+        assertEquals(100_000 - 120, report.getFinalEquity(), DELTA);
+        assertEquals(200, report.getMaxDrawdown(), DELTA);
+    }
+
+    @Test
+    public void run_StopLossOnWrongSide_ChangeRejected() throws Exception {
+        TestStrategy strategy = new TestStrategy((s, index, tick) -> {
+            if (index == 0) {
+                s.order = s.context.getEngine().submitOrder("buy", Instrument.EURUSD, IEngine.OrderCommand.BUY, 0.1, 0, 5, 0, 0);
+                s.order.setStopLossPrice(1.1005);
+            }
+        });
+
+        run(strategy, new double[][]{{1.1002, 1.1000}, {1.1003, 1.1001}});
+
+        assertNotNull(strategy.last(IMessage.Type.ORDER_CHANGED_REJECTED));
+        assertEquals(0, strategy.order.getStopLossPrice(), DELTA);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void create_UnsupportedMethod_ThrowsUnsupportedOperation() {
+        Runnable proxy = LocalProxy.create(Runnable.class, (method, args) -> LocalProxy.UNSUPPORTED);
+
+        proxy.run();
+    }
+
+    private static BacktestReport run(IStrategy strategy, double[][] prices) throws JFException, IOException {
+        Backtester backtester = new Backtester(strategy);
+        backtester.setPeriods(Period.ONE_MIN);
+        backtester.setConsole(null);
+        return backtester.run(new PriceSource(prices));
+    }
+
+    private interface TickAction {
+
+        void onTick(TestStrategy strategy, int index, ITick tick) throws JFException;
+    }
+
+    private static final class TestStrategy implements IStrategy {
+
+        private final TickAction action;
+        private final List<IMessage> messages = new ArrayList<>();
+        private IContext context;
+        private IOrder order;
+        private int ticks;
+
+        TestStrategy(TickAction action) {
+            this.action = action;
+        }
+
+        @Override
+        public void onStart(IContext context) {
+            this.context = context;
+            context.setSubscribedInstruments(Collections.singleton(Instrument.EURUSD));
+        }
+
+        @Override
+        public void onTick(Instrument instrument, ITick tick) throws JFException {
+            action.onTick(this, ticks++, tick);
+        }
+
+        @Override
+        public void onBar(Instrument instrument, Period period, IBar askBar, IBar bidBar) {
+        }
+
+        @Override
+        public void onMessage(IMessage message) {
+            messages.add(message);
+        }
+
+        @Override
+        public void onAccount(IAccount account) {
+        }
+
+        @Override
+        public void onStop() {
+        }
+
+        IMessage last(IMessage.Type type) {
+            for (int i = messages.size() - 1; i >= 0; i--) {
+                if (messages.get(i).getType() == type) {
+                    return messages.get(i);
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * EUR/USD ticks of given ASK and BID prices, one per second
+     */
+    private static final class PriceSource implements TickSource {
+
+        private final double[][] prices;
+        private int index = -1;
+
+        PriceSource(double[][] prices) {
+            this.prices = prices;
+        }
+
+        @Override
+        public boolean next() {
+            return ++index < prices.length;
+        }
+
+        @Override
+        public Instrument getInstrument() {
+            return Instrument.EURUSD;
+        }
+
+        @Override
+        public long getTime() {
+            return TIME + index * 1000L;
+        }
+
+        @Override
+        public double getAsk() {
+            return prices[index][0];
+        }
+
+        @Override
+        public double getBid() {
+            return prices[index][1];
+        }
+
+        @Override
+        public double getAskVolume() {
+            return 1;
+        }
+
+        @Override
+        public double getBidVolume() {
+            return 1;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
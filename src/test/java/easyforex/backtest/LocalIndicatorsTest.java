@@ -0,0 +1,107 @@
+package easyforex.backtest;
+
+import com.dukascopy.api.Filter;
+import com.dukascopy.api.IIndicators;
+import com.dukascopy.api.Instrument;
+import com.dukascopy.api.OfferSide;
+import com.dukascopy.api.Period;
+import easyforex.util.SimpleTick;
+import java.util.Collections;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LocalIndicatorsTest {
+
+    private static final long TIME = 1_483_315_200_000L;
+    private static final double DELTA = 1e-12;
+
+    private LocalHistory history;
+    private Random random;
+    private double bid = 1.1;
+    private long time = TIME;
+
+    @Before
+    public void setUp() {
+        history = new LocalHistory(Collections.singletonList(Period.ONE_MIN), 5000);
+        random = new Random(1);
+    }
+
+    @Test
+    public void macd_CalledEveryBar_MatchesCalculationFromScratch() throws Exception {
+        LocalIndicators indicators = new LocalIndicators(history);
+
+        for (int i = 0; i < 200; i++) {
+            addMinute();
+            double[][] values = indicators.macd(Instrument.EURUSD, Period.ONE_MIN, OfferSide.BID, IIndicators.AppliedPrice.CLOSE, 12, 26, 9, Filter.WEEKENDS, 3, time, 0);
+            double[][] expected = new LocalIndicators(history).macd(Instrument.EURUSD, Period.ONE_MIN, OfferSide.BID, IIndicators.AppliedPrice.CLOSE, 12, 26, 9, Filter.WEEKENDS, 3, time, 0);
+            for (int output = 0; output < 3; output++) {
+                assertArrayEquals(expected[output], values[output], DELTA);
+            }
+        }
+    }
+
+    @Test
+    public void sma_CallInThePast_MatchesCalculationFromScratch() throws Exception {
+        LocalIndicators indicators = new LocalIndicators(history);
+        for (int i = 0; i < 50; i++) {
+            addMinute();
+        }
+        indicators.sma(Instrument.EURUSD, Period.ONE_MIN, OfferSide.BID, IIndicators.AppliedPrice.CLOSE, 5, Filter.WEEKENDS, 2, time, 0);
+
+        double[] values = indicators.sma(Instrument.EURUSD, Period.ONE_MIN, OfferSide.BID, IIndicators.AppliedPrice.CLOSE, 5, Filter.WEEKENDS, 4, time - 600_000, 0);
+
+        double[] expected = new LocalIndicators(history).sma(Instrument.EURUSD, Period.ONE_MIN, OfferSide.BID, IIndicators.AppliedPrice.CLOSE, 5, Filter.WEEKENDS, 4, time - 600_000, 0);
+        assertArrayEquals(expected, values, DELTA);
+        assertFalse(Double.isNaN(values[0]));
+    }
+
+    @Test
+    public void sma_FewerBarsThanNumber_LeadingValuesAreNaN() throws Exception {
+        LocalIndicators indicators = new LocalIndicators(history);
+        for (int i = 0; i < 4; i++) {
+            addMinute();
+        }
+
+        double[] values = indicators.sma(Instrument.EURUSD, Period.ONE_MIN, OfferSide.BID, IIndicators.AppliedPrice.CLOSE, 2, Filter.WEEKENDS, 5, time, 0);
+
+        assertTrue(Double.isNaN(values[0]));
+        assertTrue(Double.isNaN(values[1]));
+        assertTrue(Double.isNaN(values[2]));
+        assertFalse(Double.isNaN(values[3]));
+        assertFalse(Double.isNaN(values[4]));
+    }
+
+    @Test
+    public void ma_OpenAppliedPrice_AveragesOpens() throws Exception {
+        LocalIndicators indicators = new LocalIndicators(history);
+        for (int i = 0; i < 10; i++) {
+            addMinute();
+        }
+
+        double[] values = indicators.ma(Instrument.EURUSD, Period.ONE_MIN, OfferSide.BID, IIndicators.AppliedPrice.OPEN, 3, IIndicators.MaType.SMA, Filter.WEEKENDS, 1, time, 0);
+
+        double sum = 0;
+        for (int shift = 1; shift <= 3; shift++) {
+            sum += history.getBar(Instrument.EURUSD, Period.ONE_MIN, OfferSide.BID, shift).getOpen();
+        }
+        assertEquals(sum / 3, values[0], DELTA);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void ma_Kama_ThrowsUnsupportedOperation() throws Exception {
+        new LocalIndicators(history).ma(Instrument.EURUSD, Period.ONE_MIN, OfferSide.BID, IIndicators.AppliedPrice.CLOSE, 3, IIndicators.MaType.KAMA, Filter.WEEKENDS, 1, time, 0);
+    }
+
+    /**
+     * Adds ticks of the next minute, completing the previous minute bar
+     */
+    private void addMinute() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            bid += (random.nextDouble() - 0.5) * 0.001;
+            history.onTick(Instrument.EURUSD, new SimpleTick(time, bid + 0.0002, bid, 1, 1));
+            time += 15_000;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package easyforex.backtest;
+
+import com.dukascopy.api.Configurable;
+import com.dukascopy.api.IAccount;
+import com.dukascopy.api.IBar;
+import com.dukascopy.api.IContext;
+import com.dukascopy.api.IEngine;
+import com.dukascopy.api.IMessage;
+import com.dukascopy.api.IStrategy;
+import com.dukascopy.api.ITick;
+import com.dukascopy.api.Instrument;
+import com.dukascopy.api.JFException;
+import com.dukascopy.api.Period;
+import easyforex.util.AsyncLogger;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class OptimizerTest {
+
+    private static final long TIME = 1_483_315_200_000L;
+
+    private ForkJoinPool pool;
+
+    @Before
+    public void setUp() {
+        pool = new ForkJoinPool(2);
+    }
+
+    @After
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void run_Grid_ResultsRanked() throws Exception {
+        ParameterSpace space = new ParameterSpace(TestStrategy.class).values("buy", false, true);
+        Optimizer optimizer = optimizer();
+
+        List<OptimizationResult> results = optimizer.run(space, space.grid(), OptimizationResult.BY_NET_PROFIT);
+
+        assertEquals(2, results.size());
+        assertEquals(true, results.get(0).getParameters().get("buy"));
+        assertTrue(results.get(0).getReport().getNetProfit() > 0);
+        assertTrue(results.get(1).getReport().getNetProfit() < 0);
+    }
+
+    @Test
+    public void run_SomeBacktestsFail_FailuresAggregated() throws Exception {
+        ParameterSpace space = new ParameterSpace(TestStrategy.class).values("fail", false, true, true);
+        Optimizer optimizer = optimizer();
+
+        try {
+            optimizer.run(space, space.grid(), OptimizationResult.BY_NET_PROFIT);
+            fail("Failure not thrown");
+        } catch (IllegalStateException ex) {
+            assertEquals("2 of 3 backtests failed", ex.getMessage());
+            assertTrue(ex.getCause() instanceof JFException);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void run_MarketDataUnreadable_ThrowsIOException() throws Exception {
+        ParameterSpace space = new ParameterSpace(TestStrategy.class).values("buy", false, true);
+        Optimizer optimizer = new Optimizer(TestStrategy::new, () -> {
+            throw new IOException("missing");
+        });
+        optimizer.setPool(pool);
+
+        optimizer.run(space, space.grid(), OptimizationResult.BY_NET_PROFIT);
+    }
+
+    @Test
+    public void run_DiscardedConsole_LoggingDisabled() throws Exception {
+        ParameterSpace space = new ParameterSpace(TestStrategy.class).values("buy", true);
+        TestStrategy strategy = new TestStrategy();
+        Optimizer optimizer = new Optimizer(() -> strategy, () -> new PriceSource(new double[][]{{1.1002, 1.1000}}));
+        optimizer.setPool(pool);
+
+        optimizer.run(space, space.grid(), OptimizationResult.BY_NET_PROFIT);
+
+        assertFalse(strategy.loggingEnabled);
+    }
+
+    private Optimizer optimizer() {
+        Optimizer optimizer = new Optimizer(TestStrategy::new, () -> new PriceSource(new double[][]{{1.1002, 1.1000}, {1.1012, 1.1010}, {1.1022, 1.1020}}));
+        optimizer.setPool(pool);
+        optimizer.setBacktesterSetup(backtester -> backtester.setPeriods(Period.ONE_MIN));
+        return optimizer;
+    }
+
+    public static final class TestStrategy implements IStrategy {
+
+        @Configurable("Buy")
+        public boolean buy;
+        @Configurable("Fail on start")
+        public boolean fail;
+        private IContext context;
+        private boolean submitted;
+        private volatile boolean loggingEnabled = true;
+
+        @Override
+        public void onStart(IContext context) throws JFException {
+            if (fail) {
+                throw new JFException("failed");
+            }
+            this.context = context;
+            context.setSubscribedInstruments(Collections.singleton(Instrument.EURUSD));
+            AsyncLogger logger = AsyncLogger.acquire(context.getConsole());
+            loggingEnabled = logger.isEnabled(AsyncLogger.Level.ERROR);
+            AsyncLogger.release(context.getConsole());
+        }
+
+        @Override
+        public void onTick(Instrument instrument, ITick tick) throws JFException {
+            if (!submitted) {
+                submitted = true;
+                context.getEngine().submitOrder("order", instrument, buy ? IEngine.OrderCommand.BUY : IEngine.OrderCommand.SELL, 0.1, 0, 5, 0, 0);
+            }
+        }
+
+        @Override
+        public void onBar(Instrument instrument, Period period, IBar askBar, IBar bidBar) {
+        }
+
+        @Override
+        public void onMessage(IMessage message) {
+        }
+
+        @Override
+        public void onAccount(IAccount account) {
+        }
+
+        @Override
+        public void onStop() {
+        }
+    }
+
+    /**
+     * EUR/USD ticks of given ASK and BID prices, one per second
+     */
+    private static final class PriceSource implements TickSource {
+
+        private final double[][] prices;
+        private int index = -1;
+
+        PriceSource(double[][] prices) {
+            this.prices = prices;
+        }
+
+        @Override
+        public boolean next() {
+            return ++index < prices.length;
+        }
+
+        @Override
+        public Instrument getInstrument() {
+            return Instrument.EURUSD;
+        }
+
+        @Override
+        public long getTime() {
+            return TIME + index * 1000L;
+        }
+
+        @Override
+        public double getAsk() {
+            return prices[index][0];
+        }
+
+        @Override
+        public double getBid() {
+            return prices[index][1];
+        }
+
+        @Override
+        public double getAskVolume() {
+            return 1;
+        }
+
+        @Override
+        public double getBidVolume() {
+            return 1;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package easyforex.backtest;
+
+import com.dukascopy.api.Configurable;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class ParameterSpaceTest {
+
+    @Test
+    public void grid_TwoFields_AllCombinations() {
+        ParameterSpace space = new ParameterSpace(Parameters.class)
+                .values("period", 10, 20)
+                .values("factor", 0.5, 1.0, 1.5);
+
+        List<Map<String, Object>> grid = space.grid();
+
+        assertEquals(6, space.size());
+        assertEquals(6, grid.size());
+        assertEquals(parameters(10, 0.5), grid.get(0));
+        assertEquals(parameters(10, 1.5), grid.get(2));
+        assertEquals(parameters(20, 1.5), grid.get(5));
+    }
+
+    @Test
+    public void random_SameSeed_SameSamples() {
+        ParameterSpace space = new ParameterSpace(Parameters.class)
+                .range("period", 10, 50, 5)
+                .range("factor", 0.1, 2.0, 0.1);
+
+        List<Map<String, Object>> samples = space.random(20, 42);
+
+        assertEquals(20, samples.size());
+        assertEquals(samples, space.random(20, 42));
+        for (Map<String, Object> sample : samples) {
+            assertTrue(space.grid().contains(sample));
+        }
+    }
+
+    @Test
+    public void range_DecimalStep_NoDrift() {
+        ParameterSpace space = new ParameterSpace(Parameters.class).range("factor", 0.1, 0.5, 0.1);
+
+        assertEquals(Arrays.asList(0.1, 0.2, 0.3, 0.4, 0.5), values(space, "factor"));
+    }
+
+    @Test
+    public void range_FractionalStepOfIntField_NoDuplicates() {
+        ParameterSpace space = new ParameterSpace(Parameters.class).range("period", 10, 12, 0.5);
+
+        assertEquals(Arrays.asList(10, 11, 12), values(space, "period"));
+    }
+
+    @Test
+    public void range_StepFromAnnotation_Used() {
+        ParameterSpace space = new ParameterSpace(Parameters.class).range("stopLossPips", 10, 20);
+
+        assertEquals(Arrays.asList(10, 15, 20), values(space, "stopLossPips"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void values_NotConfigurableField_Throws() {
+        new ParameterSpace(Parameters.class).values("label", "x");
+    }
+
+    @Test
+    public void apply_Parameters_FieldsSet() {
+        Parameters strategy = new Parameters();
+
+        new ParameterSpace(Parameters.class).apply(strategy, parameters(30, 2.0));
+
+        assertEquals(30, strategy.period);
+        assertEquals(2.0, strategy.factor, 0);
+    }
+
+    private static List<Object> values(ParameterSpace space, String name) {
+        return Arrays.asList(space.grid().stream().map(parameters -> parameters.get(name)).toArray());
+    }
+
+    private static Map<String, Object> parameters(int period, double factor) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("period", period);
+        parameters.put("factor", factor);
+        return parameters;
+    }
+
+    public static class Parameters {
+
+        @Configurable("Period")
+        public int period = 10;
+        @Configurable("Factor")
+        public double factor = 1;
+        @Configurable(value = "Stop loss", stepSize = 5)
+        public int stopLossPips = 10;
+        public String label = "";
+    }
+}
@@ -0,0 +1,92 @@
+package easyforex.backtest;
+
+import com.dukascopy.api.Instrument;
+import com.dukascopy.api.OfferSide;
+import com.dukascopy.api.Period;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import static org.junit.Assert.*;
+import java.util.stream.Stream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TickFileTest {
+
+    private static final long TIME = 1_483_315_200_000L;
+
+    private Path directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("tickfile");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    public void cursor_WrittenTicks_ReadsSameTicks() throws IOException {
+        Path path = directory.resolve("EURUSD.ticks");
+        try (TickFileWriter writer = new TickFileWriter(path, Instrument.EURUSD)) {
+            writer.append(TIME, 1.05151, 1.05134, 1.0, 0.75);
+            writer.append(TIME + 150, 1.05149, 1.05140, 2.5, 1.0);
+            writer.append(TIME + 60_000, 1.05010, 1.04999, 0.1, 0.2);
+        }
+
+        try (TickFile file = TickFile.open(path)) {
+            TickCursor cursor = file.cursor();
+            assertEquals(Instrument.EURUSD, file.getInstrument());
+            assertEquals(3, file.size());
+
+            assertTrue(cursor.next());
+            assertEquals(TIME, cursor.getTime());
+            assertEquals(1.05151, cursor.getAsk(), 0);
+            assertEquals(1.05134, cursor.getBid(), 0);
+            assertEquals(0.75, cursor.getBidVolume(), 0);
+            assertTrue(cursor.next());
+            assertEquals(TIME + 150, cursor.getTime());
+            assertEquals(1.05140, cursor.getBid(), 0);
+            assertTrue(cursor.next());
+            assertEquals(1.05010, cursor.getAsk(), 0);
+            assertEquals(0.1, cursor.getAskVolume(), 1e-7);
+            assertFalse(cursor.next());
+        }
+    }
+
+    @Test
+    public void convertBars_TickFile_WritesCompletedBars() throws IOException {
+        Path ticks = directory.resolve("EURUSD.ticks");
+        try (TickFileWriter writer = new TickFileWriter(ticks, Instrument.EURUSD)) {
+            writer.append(TIME, 1.1002, 1.1000, 1, 1);
+            writer.append(TIME + 30_000, 1.1012, 1.1010, 1, 1);
+            writer.append(TIME + 45_000, 1.0992, 1.0990, 1, 1);
+            writer.append(TIME + 60_000, 1.1007, 1.1005, 1, 1);
+        }
+        Path ask = directory.resolve("ask.bars");
+        Path bid = directory.resolve("bid.bars");
+
+        assertEquals(1, CsvConverter.convertBars(ticks, Period.ONE_MIN, ask, bid));
+
+        try (BarFile file = BarFile.open(bid)) {
+            BarCursor bar = file.cursor();
+            assertEquals(OfferSide.BID, file.getOfferSide());
+            assertTrue(bar.next());
+            assertEquals(TIME, bar.getTime());
+            assertEquals(1.1000, bar.getOpen(), 0);
+            assertEquals(1.1010, bar.getHigh(), 0);
+            assertEquals(1.0990, bar.getLow(), 0);
+            assertEquals(1.0990, bar.getClose(), 0);
+            assertEquals(3, bar.getVolume(), 0);
+            assertFalse(bar.next());
+        }
+    }
+}
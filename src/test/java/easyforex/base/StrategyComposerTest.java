@@ -0,0 +1,138 @@
+package easyforex.base;
+
+import com.dukascopy.api.IAccount;
+import com.dukascopy.api.IBar;
+import com.dukascopy.api.IConsole;
+import com.dukascopy.api.IContext;
+import com.dukascopy.api.IMessage;
+import com.dukascopy.api.IStrategy;
+import com.dukascopy.api.ITick;
+import com.dukascopy.api.Instrument;
+import com.dukascopy.api.JFException;
+import com.dukascopy.api.Period;
+import easyforex.util.SimpleTick;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.lang.reflect.Proxy;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class StrategyComposerTest {
+
+    private static final ITick TICK = new SimpleTick(1000, 1.2, 1.1, 1, 1);
+
+    @Test
+    public void onTick_ParallelTradingStrategy_CalledOnStrategyThread() throws JFException {
+        StrategyComposer composer = new StrategyComposer() {
+        };
+        Child trading = new Child();
+        composer.addStrategy(trading);
+        composer.setParallelDispatch(true);
+        composer.onStart(context());
+
+        composer.onTick(Instrument.EURUSD, TICK);
+
+        assertSame(Thread.currentThread(), trading.thread);
+        composer.onStop();
+    }
+
+    @Test
+    public void onTick_ParallelFailure_ThrownFromNextDispatch() throws JFException {
+        StrategyComposer composer = new StrategyComposer() {
+        };
+        NonTradingChild child = new NonTradingChild();
+        child.failing = true;
+        composer.addStrategy(child);
+        composer.setParallelDispatch(true);
+        composer.setQueueCapacity(1);
+        composer.onStart(context());
+
+        composer.onTick(Instrument.EURUSD, TICK);
+        JFException failure = null;
+        for (int i = 0; i < 1000 && failure == null; i++) {
+            try {
+                composer.onTick(Instrument.EURUSD, TICK);
+            } catch (JFException ex) {
+                failure = ex;
+            }
+        }
+
+        assertNotNull(failure);
+        assertFalse(Thread.currentThread() == child.thread);
+        assertTrue(composer.getFailureCount(child) > 0);
+        child.failing = false;
+        composer.onStop();
+    }
+
+    @Test
+    public void onStart_ChildContext_DelegatesToPlatformContext() throws JFException {
+        StrategyComposer composer = new StrategyComposer() {
+        };
+        Child child = new Child();
+        composer.addStrategy(child);
+        IContext context = context();
+        composer.onStart(context);
+
+        assertNotNull(StrategyContext.of(child.context));
+        assertSame(context.getConsole(), child.context.getConsole());
+        assertEquals(new File("files"), child.context.getFilesDir());
+        composer.onStop();
+    }
+
+    private IContext context() {
+        PrintStream nowhere = new PrintStream(new ByteArrayOutputStream());
+        IConsole console = (IConsole) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{IConsole.class},
+                (proxy, method, args) -> nowhere);
+        return (IContext) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{IContext.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getConsole":
+                            return console;
+                        case "getFilesDir":
+                            return new File("files");
+                        default:
+                            return null;
+                    }
+                });
+    }
+
+    private static class Child implements IStrategy {
+
+        volatile Thread thread;
+        volatile boolean failing;
+        IContext context;
+
+        @Override
+        public void onStart(IContext context) {
+            this.context = context;
+        }
+
+        @Override
+        public void onTick(Instrument instrument, ITick tick) throws JFException {
+            thread = Thread.currentThread();
+            if (failing) {
+                throw new JFException("tick failed");
+            }
+        }
+
+        @Override
+        public void onBar(Instrument instrument, Period period, IBar askBar, IBar bidBar) {
+        }
+
+        @Override
+        public void onMessage(IMessage message) {
+        }
+
+        @Override
+        public void onAccount(IAccount account) {
+        }
+
+        @Override
+        public void onStop() {
+        }
+    }
+
+    private static final class NonTradingChild extends Child implements NonTradingStrategy {
+    }
+}
@@ -0,0 +1,192 @@
+package easyforex.indicator;
+
+import com.dukascopy.api.IBar;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class IncrementalIndicatorsTest {
+
+    private static final double DELTA = 1e-9;
+
+    @Test
+    public void sma_AfterTimePeriodBars_ReturnsAverageOfLastBars() {
+        IncrementalSma sma = new IncrementalSma(3);
+        double[] closes = {1, 2, 3, 4, 5};
+
+        for (int i = 0; i < closes.length; i++) {
+            sma.update(bar(i, closes[i]));
+            assertEquals(i >= 2, sma.isReady());
+        }
+
+        assertEquals(4.0, sma.getValue(), DELTA);
+    }
+
+    @Test
+    public void ema_AfterTimePeriodBars_MatchesRecursiveFormula() {
+        IncrementalEma ema = new IncrementalEma(3);
+        double[] closes = {1, 2, 3, 4, 5};
+        double k = 0.5;
+        double expected = (1 + 2 + 3) / 3.0;
+        expected += k * (4 - expected);
+        expected += k * (5 - expected);
+
+        for (int i = 0; i < closes.length; i++) {
+            ema.update(bar(i, closes[i]));
+        }
+
+        assertEquals(expected, ema.getValue(), DELTA);
+    }
+
+    @Test
+    public void update_SameBarTwice_IsIgnored() {
+        IncrementalSma sma = new IncrementalSma(2);
+
+        sma.update(bar(1, 1));
+        sma.update(bar(2, 3));
+        sma.update(bar(2, 100));
+
+        assertEquals(2.0, sma.getValue(), DELTA);
+    }
+
+    @Test
+    public void rsi_OnlyRisingCloses_Returns100() {
+        IncrementalRsi rsi = new IncrementalRsi(5);
+
+        for (int i = 0; i < 10; i++) {
+            rsi.update(bar(i, i));
+        }
+
+        assertEquals(100.0, rsi.getValue(), DELTA);
+    }
+
+    @Test
+    public void sar_RandomWalk_StaysOutsideBars() {
+        IncrementalSar sar = new IncrementalSar(0.02, 0.2);
+        Random random = new Random(1);
+        double price = 1.1;
+
+        for (int i = 0; i < 1000; i++) {
+            price += (random.nextDouble() - 0.5) * 0.001;
+            IBar bar = bar(i, price + 0.0002, price - 0.0002, price);
+            sar.update(bar);
+            if (sar.isReady()) {
+                if (sar.isRising()) {
+                    assertTrue(sar.getValue() <= bar.getLow());
+                } else {
+                    assertTrue(sar.getValue() >= bar.getHigh());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void bbands_ConstantCloses_BandsEqualMiddle() {
+        IncrementalBBands bbands = new IncrementalBBands(5, 2, 2);
+
+        for (int i = 0; i < 10; i++) {
+            bbands.update(bar(i, 1.5));
+        }
+
+        assertEquals(1.5, bbands.getUpperBand(), DELTA);
+        assertEquals(1.5, bbands.getMiddleBand(), DELTA);
+        assertEquals(1.5, bbands.getLowerBand(), DELTA);
+    }
+
+    @Test
+    public void wma_AfterTimePeriodBars_WeightsNewestMost() {
+        IncrementalWma wma = new IncrementalWma(3);
+        double[] closes = {1, 2, 3, 4, 8};
+
+        for (int i = 0; i < closes.length; i++) {
+            wma.update(bar(i, closes[i]));
+            assertEquals(i >= 2, wma.isReady());
+        }
+
+        assertEquals((1 * 3 + 2 * 4 + 3 * 8) / 6.0, wma.getValue(), DELTA);
+    }
+
+    @Test
+    public void dema_RandomCloses_MatchesEmaOfEma() {
+        IncrementalDema dema = new IncrementalDema(4);
+        IncrementalEma ema = new IncrementalEma(4);
+        IncrementalEma emaOfEma = new IncrementalEma(4);
+        Random random = new Random(1);
+
+        for (int i = 0; i < 50; i++) {
+            double close = 1 + random.nextDouble();
+            dema.update(bar(i, close));
+            ema.update(bar(i, close));
+            if (ema.isReady()) {
+                emaOfEma.update(bar(i, ema.getValue()));
+            }
+            assertEquals(i >= dema.getLookback() - 1, dema.isReady());
+        }
+
+        assertEquals(2 * ema.getValue() - emaOfEma.getValue(), dema.getValue(), DELTA);
+    }
+
+    @Test
+    public void tema_ConstantCloses_ReturnsClose() {
+        IncrementalTema tema = new IncrementalTema(3);
+
+        for (int i = 0; i < 10; i++) {
+            tema.update(bar(i, 1.5));
+            assertEquals(i >= tema.getLookback() - 1, tema.isReady());
+        }
+
+        assertEquals(1.5, tema.getValue(), DELTA);
+    }
+
+    @Test
+    public void trima_OddTimePeriod_ReturnsTriangularAverage() {
+        IncrementalTrima trima = new IncrementalTrima(5);
+        double[] closes = {1, 2, 3, 4, 5};
+
+        for (int i = 0; i < closes.length; i++) {
+            trima.update(bar(i, closes[i]));
+            assertEquals(i >= 4, trima.isReady());
+        }
+
+        // weights 1, 2, 3, 2, 1
+        assertEquals((1 + 2 * 2 + 3 * 3 + 2 * 4 + 5) / 9.0, trima.getValue(), DELTA);
+    }
+
+    private static IBar bar(long time, double close) {
+        return bar(time, close, close, close);
+    }
+
+    private static IBar bar(long time, double high, double low, double close) {
+        return new IBar() {
+            @Override
+            public double getOpen() {
+                return close;
+            }
+
+            @Override
+            public double getClose() {
+                return close;
+            }
+
+            @Override
+            public double getLow() {
+                return low;
+            }
+
+            @Override
+            public double getHigh() {
+                return high;
+            }
+
+            @Override
+            public double getVolume() {
+                return 0;
+            }
+
+            @Override
+            public long getTime() {
+                return time;
+            }
+        };
+    }
+}
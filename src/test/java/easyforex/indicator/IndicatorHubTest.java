@@ -0,0 +1,94 @@
+package easyforex.indicator;
+
+import com.dukascopy.api.IIndicators;
+import com.dukascopy.api.Instrument;
+import com.dukascopy.api.JFException;
+import com.dukascopy.api.Period;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class IndicatorHubTest {
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private final Set<String> threads = ConcurrentHashMap.newKeySet();
+
+    @Test
+    public void calculate_Basket_FillsInstrumentBySpecMatrix() throws JFException {
+        IndicatorHub hub = new IndicatorHub(indicators(), Arrays.asList(Instrument.EURUSD, Instrument.USDJPY),
+                Arrays.asList(IndicatorSpec.ema(Period.ONE_HOUR, 10), IndicatorSpec.macd(Period.ONE_HOUR, 12, 26, 9),
+                        IndicatorSpec.macdSignal(Period.ONE_HOUR, 12, 26, 9)));
+
+        double[][] values = hub.calculate(1000);
+
+        int usdjpy = hub.indexOf(Instrument.USDJPY);
+        assertEquals(Instrument.USDJPY.ordinal() + 0.5, values[usdjpy][0], 0);
+        assertEquals(Instrument.USDJPY.ordinal() + 0.1, values[usdjpy][1], 0);
+        assertEquals(Instrument.USDJPY.ordinal() + 0.2, values[usdjpy][2], 0);
+        assertEquals(Instrument.EURUSD.ordinal() + 0.5, values[hub.indexOf(Instrument.EURUSD)][0], 0);
+        // MACD and its signal share one call
+        assertEquals(4, calls.get());
+    }
+
+    @Test
+    public void calculate_SameTime_NotRecalculated() throws JFException {
+        IndicatorHub hub = new IndicatorHub(indicators(), Arrays.asList(Instrument.EURUSD, Instrument.USDJPY),
+                Arrays.asList(IndicatorSpec.ema(Period.ONE_HOUR, 10)));
+
+        hub.calculate(1000);
+        hub.calculate(1000);
+        hub.calculate(2000);
+
+        assertEquals(4, calls.get());
+        assertEquals(2, hub.getCalculationCount());
+    }
+
+    @Test
+    public void calculate_DefaultPool_CalculatesInHubThreads() throws JFException {
+        IndicatorHub hub = new IndicatorHub(indicators(), Arrays.asList(Instrument.EURUSD, Instrument.USDJPY),
+                Arrays.asList(IndicatorSpec.ema(Period.ONE_HOUR, 10)));
+
+        hub.calculate(1000);
+
+        for (String thread : threads) {
+            assertTrue(thread, thread.startsWith("IndicatorHub-"));
+        }
+    }
+
+    @Test
+    public void calculate_NoPool_CalculatesInCallingThread() throws JFException {
+        IndicatorHub hub = new IndicatorHub(indicators(), Arrays.asList(Instrument.EURUSD, Instrument.USDJPY),
+                Arrays.asList(IndicatorSpec.ema(Period.ONE_HOUR, 10)));
+        hub.setPool(null);
+
+        double[][] values = hub.calculate(1000);
+
+        assertEquals(Collections.singleton(Thread.currentThread().getName()), threads);
+        assertEquals(Instrument.USDJPY.ordinal() + 0.5, values[hub.indexOf(Instrument.USDJPY)][0], 0);
+    }
+
+    /**
+     * EMA returns instrument ordinal + 0.5, MACD outputs ordinal + 0.1, 0.2,
+     * 0.3
+     */
+    private IIndicators indicators() {
+        return (IIndicators) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{IIndicators.class}, (proxy, method, args) -> {
+            calls.incrementAndGet();
+            threads.add(Thread.currentThread().getName());
+            int ordinal = ((Instrument) args[0]).ordinal();
+            switch (method.getName()) {
+                case "ema":
+                    return new double[]{ordinal + 0.5};
+                case "macd":
+                    return new double[][]{{ordinal + 0.1}, {ordinal + 0.2}, {ordinal + 0.3}};
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+}
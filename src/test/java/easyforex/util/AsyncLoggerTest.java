@@ -0,0 +1,99 @@
+package easyforex.util;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AsyncLoggerTest {
+
+    private Path file;
+    private AsyncLogger logger;
+
+    @Before
+    public void setUp() throws IOException {
+        file = Files.createTempFile("asynclogger", ".log");
+        logger = new AsyncLogger(file, 16);
+        logger.start();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        logger.close();
+        Files.delete(file);
+    }
+
+    @Test
+    public void log_ManyEvents_WrittenInOrder() throws IOException {
+        for (int i = 0; i < 1000; i++) {
+            if (i % 8 == 0) {
+                // buffer holds 16 events
+                logger.flush();
+            }
+            logger.log(AsyncLogger.Level.INFO).append("order_").append(i).append(' ').append(0.5).publish();
+        }
+        logger.flush();
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(0, logger.getDroppedCount());
+        assertEquals(1000, lines.size());
+        assertEquals("INFO order_0 0.5", lines.get(0));
+        assertEquals("INFO order_999 0.5", lines.get(999));
+    }
+
+    @Test
+    public void log_BelowLevel_Discarded() throws IOException {
+        logger.setLevel(AsyncLogger.Level.WARN);
+        logger.log(AsyncLogger.Level.OUT, "out");
+        logger.log(AsyncLogger.Level.INFO, "info");
+        logger.log(AsyncLogger.Level.ERROR, "error");
+        logger.close();
+
+        assertEquals(Arrays.asList("ERROR error"), Files.readAllLines(file));
+    }
+
+    @Test
+    public void log_Stopped_WrittenImmediately() throws IOException {
+        logger.stop();
+        logger.log(AsyncLogger.Level.OUT, "late");
+
+        assertEquals(Arrays.asList("OUT late"), Files.readAllLines(file));
+    }
+
+    @Test
+    public void stop_ConcurrentLogging_NoEventLost() throws Exception {
+        int threads = 4;
+        int events = 2000;
+        CountDownLatch started = new CountDownLatch(threads);
+        List<Thread> loggers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread thread = new Thread(() -> {
+                started.countDown();
+                for (int i = 0; i < events; i++) {
+                    logger.log(AsyncLogger.Level.INFO).append("event ").append(i).publish();
+                }
+            });
+            loggers.add(thread);
+            thread.start();
+        }
+        started.await();
+
+        logger.stop();
+        for (Thread thread : loggers) {
+            thread.join();
+        }
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(threads * events, lines.size() + logger.getDroppedCount());
+        for (String line : lines) {
+            assertTrue(line, line.matches("INFO event \\d+"));
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package easyforex.util;
+
+import com.dukascopy.api.Filter;
+import com.dukascopy.api.IBar;
+import com.dukascopy.api.Instrument;
+import com.dukascopy.api.JFException;
+import com.dukascopy.api.OfferSide;
+import com.dukascopy.api.Period;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class BarAggregatorTest {
+
+    // Monday 2018-01-01 00:00 GMT
+    private static final long MONDAY = 1514764800000L;
+
+    private final List<Period> periods = new ArrayList<>();
+    private final List<IBar> bidBars = new ArrayList<>();
+
+    @Test
+    public void onTick_Cascade_HigherBarsMatchTicks() throws JFException {
+        BarAggregator aggregator = aggregator(Filter.WEEKENDS, Period.FIFTEEN_MINS, Period.ONE_MIN, Period.FIVE_MINS);
+        Random random = new Random(3);
+        double[] bids = new double[16 * 60];
+        for (int i = 0; i < bids.length; i++) {
+            bids[i] = 1.2 + random.nextInt(100) / 1e5;
+            aggregator.onTick(Instrument.EURUSD, new SimpleTick(MONDAY + i * 1000L, bids[i] + 0.0001, bids[i], 1, 2));
+        }
+
+        assertEquals(15 + 3 + 1, bidBars.size());
+        // 5 min bar completes after its last 1 min bar
+        assertEquals(Period.ONE_MIN, periods.get(4));
+        assertEquals(Period.FIVE_MINS, periods.get(5));
+        IBar fifteen = bidBars.get(periods.lastIndexOf(Period.FIFTEEN_MINS));
+        assertEquals(MONDAY, fifteen.getTime());
+        assertEquals(bids[0], fifteen.getOpen(), 0);
+        assertEquals(bids[15 * 60 - 1], fifteen.getClose(), 0);
+        double high = bids[0];
+        double low = bids[0];
+        for (int i = 0; i < 15 * 60; i++) {
+            high = Math.max(high, bids[i]);
+            low = Math.min(low, bids[i]);
+        }
+        assertEquals(high, fifteen.getHigh(), 0);
+        assertEquals(low, fifteen.getLow(), 0);
+        assertEquals(2 * 15 * 60, fifteen.getVolume(), 0);
+    }
+
+    @Test
+    public void getCurrentBar_DerivedPeriod_IncludesFormingBars() throws JFException {
+        BarAggregator aggregator = aggregator(Filter.WEEKENDS, Period.ONE_MIN, Period.FIVE_MINS);
+        aggregator.onTick(Instrument.EURUSD, new SimpleTick(MONDAY, 1.2, 1.1, 1, 1));
+        aggregator.onTick(Instrument.EURUSD, new SimpleTick(MONDAY + 90_000, 1.3, 1.2, 1, 1));
+
+        IBar bar = aggregator.getCurrentBar(Instrument.EURUSD, Period.FIVE_MINS, OfferSide.BID);
+        assertEquals(MONDAY, bar.getTime());
+        assertEquals(1.1, bar.getOpen(), 0);
+        assertEquals(1.2, bar.getClose(), 0);
+        assertEquals(2, bar.getVolume(), 0);
+    }
+
+    @Test
+    public void onTick_WeekendGap_FlatBarsOnlyBeforeWeekend() throws JFException {
+        long friday = MONDAY + 4 * 24 * 3_600_000L;
+        BarAggregator aggregator = aggregator(Filter.WEEKENDS, Period.ONE_HOUR);
+        aggregator.onTick(Instrument.EURUSD, new SimpleTick(friday + 19 * 3_600_000L, 1.2, 1.1, 1, 1));
+        // Sunday 22:30
+        aggregator.onTick(Instrument.EURUSD, new SimpleTick(friday + (2 * 24 + 22) * 3_600_000L + 1_800_000, 1.2, 1.1, 1, 1));
+
+        // 19:00 bar and flat 20:00, 21:00 bars
+        assertEquals(3, bidBars.size());
+        assertEquals(friday + 21 * 3_600_000L, bidBars.get(2).getTime());
+        assertEquals(0, bidBars.get(2).getVolume(), 0);
+    }
+
+    @Test
+    public void onTick_AllFlatsFilter_NoFlatBars() throws JFException {
+        BarAggregator aggregator = aggregator(Filter.ALL_FLATS, Period.ONE_MIN);
+        aggregator.onTick(Instrument.EURUSD, new SimpleTick(MONDAY, 1.2, 1.1, 1, 1));
+        aggregator.onTick(Instrument.EURUSD, new SimpleTick(MONDAY + 600_000, 1.2, 1.1, 1, 1));
+
+        assertEquals(1, bidBars.size());
+    }
+
+    private BarAggregator aggregator(Filter filter, Period... aggregated) {
+        BarAggregator aggregator = new BarAggregator(filter, aggregated);
+        aggregator.addListener((instrument, period, askBar, bidBar) -> {
+            periods.add(period);
+            bidBars.add(bidBar);
+        });
+        return aggregator;
+    }
+}
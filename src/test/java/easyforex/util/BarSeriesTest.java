@@ -0,0 +1,30 @@
+package easyforex.util;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class BarSeriesTest {
+
+    @Test
+    public void append_MoreThanCapacity_KeepsNewestBars() {
+        BarSeries series = new BarSeries(3);
+        for (int i = 1; i <= 5; i++) {
+            series.append(i * 1000, i, i + 1, i - 1, i + 0.5, 10 * i);
+        }
+
+        assertEquals(3, series.size());
+        assertEquals(3000, series.getTime(0));
+        assertEquals(5.5, series.getClose(2), 0);
+        assertArrayEquals(new double[]{4.5, 5.5}, series.getCloses(2), 0);
+        assertArrayEquals(new double[]{3.5, 4.5, 5.5}, series.getCloses(10), 0);
+    }
+
+    @Test
+    public void append_OlderBar_Ignored() {
+        BarSeries series = new BarSeries(3);
+        series.append(2000, 1, 1, 1, 1, 1);
+
+        assertFalse(series.append(2000, 2, 2, 2, 2, 2));
+        assertEquals(1, series.size());
+    }
+}
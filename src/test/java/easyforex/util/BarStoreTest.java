@@ -0,0 +1,81 @@
+package easyforex.util;
+
+import com.dukascopy.api.IBar;
+import com.dukascopy.api.IHistory;
+import com.dukascopy.api.Instrument;
+import com.dukascopy.api.JFException;
+import com.dukascopy.api.OfferSide;
+import com.dukascopy.api.Period;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class BarStoreTest {
+
+    private static final long HOUR = Period.ONE_HOUR.getInterval();
+    // Monday 2018-01-01 10:00 GMT
+    private static final long START = 1514764800000L + 10 * HOUR;
+
+    private long now = START + 1000;
+    private int historyCalls;
+
+    @Test
+    public void getSeries_NoOnBar_LoadsMissedBarsOncePerBar() throws JFException {
+        BarStore store = new BarStore(history(), 100);
+        BarSeries series = store.getSeries(Instrument.EURUSD, Period.ONE_HOUR, OfferSide.BID, now);
+        assertEquals(START - HOUR, series.getLastTime());
+        int seedCalls = historyCalls;
+
+        now += 3 * HOUR;
+        store.getSeries(Instrument.EURUSD, Period.ONE_HOUR, OfferSide.BID, now);
+        store.getSeries(Instrument.EURUSD, Period.ONE_HOUR, OfferSide.BID, now + 1000);
+
+        assertEquals(START + 2 * HOUR, series.getLastTime());
+        assertEquals(100, series.size());
+        assertEquals(seedCalls + 2, historyCalls);
+    }
+
+    @Test
+    public void getSeries_OnBarFed_NoHistoryCall() throws JFException {
+        BarStore store = new BarStore(history(), 100);
+        store.getSeries(Instrument.EURUSD, Period.ONE_HOUR, OfferSide.BID, now);
+        int seedCalls = historyCalls;
+
+        now += HOUR;
+        store.onBar(Instrument.EURUSD, Period.ONE_HOUR, OfferSide.BID, bar(START));
+        BarSeries series = store.getSeries(Instrument.EURUSD, Period.ONE_HOUR, OfferSide.BID, now);
+
+        assertEquals(START, series.getLastTime());
+        assertEquals(seedCalls, historyCalls);
+    }
+
+    /**
+     * History with hourly bars completed before {@code now}
+     */
+    private IHistory history() {
+        return (IHistory) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{IHistory.class}, (proxy, method, args) -> {
+            historyCalls++;
+            long lastBar = now - Math.floorMod(now, HOUR) - HOUR;
+            switch (method.getName()) {
+                case "getBar":
+                    return bar(lastBar);
+                case "getBars":
+                    int number = (Integer) args[4];
+                    long to = (Long) args[5];
+                    List<IBar> bars = new ArrayList<>();
+                    for (long time = to - (number - 1) * HOUR; time <= to; time += HOUR) {
+                        bars.add(bar(time));
+                    }
+                    return bars;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    private static IBar bar(long time) {
+        return new SimpleBar(time, 1.1, 1.2, 1.0, 1.15, 10);
+    }
+}
@@ -0,0 +1,65 @@
+package easyforex.util;
+
+import java.util.Arrays;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Compares incremental detection with {@code EasyOperations.valuesCrossed}
+ */
+public class CrossoverDetectorTest {
+
+    @Test
+    public void valuesCrossed_RandomSeries_MatchesEasyOperations() {
+        int pairs = 4;
+        int length = 500;
+        int window = 10;
+        Random random = new Random(3L);
+        double[][] fast = new double[pairs][length];
+        double[][] slow = new double[pairs][length];
+        CrossoverDetector detector = new CrossoverDetector(pairs);
+
+        for (int i = 0; i < length; i++) {
+            for (int pair = 0; pair < pairs; pair++) {
+                // rounded to get equal values too
+                fast[pair][i] = Math.round(random.nextGaussian() * 4) / 4.0;
+                slow[pair][i] = Math.round(random.nextGaussian() * 4) / 4.0;
+                detector.update(pair, fast[pair][i], slow[pair][i]);
+
+                int from = Math.max(0, i - window + 1);
+                double[] fastWindow = Arrays.copyOfRange(fast[pair], from, i + 1);
+                double[] slowWindow = Arrays.copyOfRange(slow[pair], from, i + 1);
+                assertEquals(EasyOperations.valuesCrossed(fastWindow, slowWindow), detector.valuesCrossed(pair, window));
+            }
+        }
+    }
+
+    @Test
+    public void update_AllPairs_ReturnsNewCrosses() {
+        CrossoverDetector detector = new CrossoverDetector(3);
+        detector.update(new double[]{1, 3, 1}, new double[]{2, 2, 2});
+
+        CrossoverDetector.Crosses crosses = detector.update(new double[]{3, 1, 1}, new double[]{2, 2, 2});
+
+        assertEquals(2, crosses.size());
+        assertEquals(0, crosses.getPair(0));
+        assertEquals(1, crosses.getDirection(0));
+        assertEquals(1, crosses.getPair(1));
+        assertEquals(-1, crosses.getDirection(1));
+    }
+
+    @Test
+    public void crosses_OldCross_ReturnsPosition() {
+        CrossoverDetector detector = new CrossoverDetector(2);
+        detector.update(new double[]{1, 1}, new double[]{2, 2});
+        detector.update(new double[]{3, 1}, new double[]{2, 2});
+        detector.update(new double[]{3, 1}, new double[]{2, 2});
+
+        CrossoverDetector.Crosses crosses = detector.crosses(5, detector.newCrosses());
+
+        assertEquals(1, crosses.size());
+        assertEquals(0, crosses.getPair(0));
+        assertEquals(2, crosses.getPosition(0));
+    }
+}
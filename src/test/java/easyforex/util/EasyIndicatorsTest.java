@@ -0,0 +1,194 @@
+package easyforex.util;
+
+import com.dukascopy.api.IBar;
+import com.dukascopy.api.IContext;
+import com.dukascopy.api.IHistory;
+import com.dukascopy.api.IIndicators;
+import com.dukascopy.api.ITick;
+import com.dukascopy.api.Instrument;
+import com.dukascopy.api.Period;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class EasyIndicatorsTest {
+
+    private static final long BAR = 1_483_315_200_000L;
+
+    @Test
+    public void rsi_TicksOfFormingBar_CalculatedForEveryTick() throws Exception {
+        int[] calls = {0};
+        LastTickCache lastTicks = new LastTickCache(null);
+        EasyIndicators easy = easyIndicators(calls, lastTicks);
+
+        lastTicks.onTick(Instrument.EURUSD, tick(BAR + 1000));
+        double first = easy.rsi(Period.ONE_MIN, 14);
+        lastTicks.onTick(Instrument.EURUSD, tick(BAR + 2000));
+        double second = easy.rsi(Period.ONE_MIN, 14);
+
+        assertEquals(2, calls[0]);
+        assertEquals(BAR + 1000, first, 0);
+        assertEquals(BAR + 2000, second, 0);
+    }
+
+    @Test
+    public void rsi_SameTick_CalculatedOnce() throws Exception {
+        int[] calls = {0};
+        LastTickCache lastTicks = new LastTickCache(null);
+        EasyIndicators easy = easyIndicators(calls, lastTicks);
+
+        lastTicks.onTick(Instrument.EURUSD, tick(BAR + 1000));
+        easy.rsi(Period.ONE_MIN, 14);
+        easy.rsi(Period.ONE_MIN, 14);
+
+        assertEquals(1, calls[0]);
+    }
+
+    @Test
+    public void onBar_BarCompleted_DropsResultsOfItsTicks() throws Exception {
+        int[] calls = {0};
+        LastTickCache lastTicks = new LastTickCache(null);
+        EasyIndicators easy = easyIndicators(calls, lastTicks);
+        lastTicks.onTick(Instrument.EURUSD, tick(BAR + 1000));
+        easy.rsi(Period.ONE_MIN, 14);
+
+        easy.onBar(Period.ONE_MIN, new SimpleBar(BAR, 1.1, 1.1, 1.1, 1.1, 1));
+
+        assertEquals(0, easy.getCache().size());
+    }
+
+    @Test
+    public void ma_TicksOfFormingBar_CalculatedOnceAtLastCompletedBar() throws Exception {
+        List<IBar> bars = Arrays.asList(
+                new SimpleBar(BAR, 1.10, 1.12, 1.09, 1.11, 1),
+                new SimpleBar(BAR + 60_000, 1.11, 1.13, 1.10, 1.12, 1));
+        int[] calls = {0};
+        IIndicators indicators = (IIndicators) Proxy.newProxyInstance(EasyIndicatorsTest.class.getClassLoader(), new Class<?>[]{IIndicators.class}, (proxy, method, args) -> {
+            if (method.getName().equals("ma")) {
+                calls[0]++;
+                return new double[]{(Long) args[8]};
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+        IHistory history = history(bars);
+        LastTickCache lastTicks = new LastTickCache(null);
+        EasyIndicators easy = new EasyIndicators(context(indicators, history), Instrument.EURUSD, new IndicatorCache(), new BarStore(history), lastTicks);
+
+        lastTicks.onTick(Instrument.EURUSD, tick(BAR + 121_000));
+        double first = easy.ma(Period.ONE_MIN, 14, IIndicators.MaType.SMA);
+        lastTicks.onTick(Instrument.EURUSD, tick(BAR + 122_000));
+        double second = easy.ma(Period.ONE_MIN, 14, IIndicators.MaType.SMA);
+
+        assertEquals(1, calls[0]);
+        assertEquals(BAR + 60_000, first, 0);
+        assertEquals(BAR + 60_000, second, 0);
+    }
+
+    @Test
+    public void bbandsValues_SameTick_SameResult() throws Exception {
+        int[] calls = {0};
+        IIndicators indicators = (IIndicators) Proxy.newProxyInstance(EasyIndicatorsTest.class.getClassLoader(), new Class<?>[]{IIndicators.class}, (proxy, method, args) -> {
+            if (method.getName().equals("bbands")) {
+                calls[0]++;
+                return new double[][]{{1.2}, {1.1}, {1.0}};
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+        LastTickCache lastTicks = new LastTickCache(null);
+        EasyIndicators easy = new EasyIndicators(context(indicators, null), Instrument.EURUSD, new IndicatorCache(), new BarStore(null), lastTicks);
+        lastTicks.onTick(Instrument.EURUSD, tick(BAR + 1000));
+
+        EasyIndicators.BBandValues first = easy.bbandsValues(Period.ONE_MIN, 20, 2, 2, 1);
+        EasyIndicators.BBandValues second = easy.bbandsValues(Period.ONE_MIN, 20, 2, 2, 1);
+
+        assertSame(first, second);
+        assertEquals(1, calls[0]);
+        assertEquals(1, easy.getCache().getHits());
+    }
+
+    @Test
+    public void sarTrend_CompletedBars_EachComparedWithOwnSar() throws Exception {
+        List<IBar> bars = Arrays.asList(
+                new SimpleBar(BAR, 1.10, 1.12, 1.09, 1.11, 1),
+                new SimpleBar(BAR + 60_000, 1.11, 1.13, 1.10, 1.12, 1),
+                new SimpleBar(BAR + 120_000, 1.12, 1.12, 1.08, 1.09, 1));
+        // SAR of the second bar equals low of the first, the third flips to the bar's high
+        Map<Long, Double> sars = new HashMap<>();
+        sars.put(BAR, 1.08);
+        sars.put(BAR + 60_000, 1.09);
+        sars.put(BAR + 120_000, 1.12);
+        IIndicators indicators = (IIndicators) Proxy.newProxyInstance(EasyIndicatorsTest.class.getClassLoader(), new Class<?>[]{IIndicators.class}, (proxy, method, args) -> {
+            if (method.getName().equals("sar")) {
+                // no value for the forming bar
+                return new double[]{sars.getOrDefault((Long) args[7], Double.NaN)};
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+        IHistory history = history(bars);
+        LastTickCache lastTicks = new LastTickCache(null);
+        EasyIndicators easy = new EasyIndicators(context(indicators, history), Instrument.EURUSD, new IndicatorCache(), new BarStore(history), lastTicks);
+        lastTicks.onTick(Instrument.EURUSD, tick(BAR + 181_000));
+
+        SarTrendTracker tracker = easy.sarTrend(Period.ONE_MIN, 0.02, 0.2);
+
+        assertTrue(tracker.isFalling());
+        assertEquals(0, tracker.getBarsSinceFlip());
+        assertEquals(BAR + 120_000, tracker.getLastBarTime());
+    }
+
+    /**
+     * Indicators whose RSI returns the time it was calculated at
+     */
+    private static EasyIndicators easyIndicators(int[] calls, LastTickCache lastTicks) {
+        IIndicators indicators = (IIndicators) Proxy.newProxyInstance(EasyIndicatorsTest.class.getClassLoader(), new Class<?>[]{IIndicators.class}, (proxy, method, args) -> {
+            if (method.getName().equals("rsi")) {
+                calls[0]++;
+                return new double[]{(Long) args[7]};
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+        return new EasyIndicators(context(indicators, null), Instrument.EURUSD, new IndicatorCache(), new BarStore(null), lastTicks);
+    }
+
+    private static IContext context(IIndicators indicators, IHistory history) {
+        return (IContext) Proxy.newProxyInstance(EasyIndicatorsTest.class.getClassLoader(), new Class<?>[]{IContext.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getIndicators":
+                    return indicators;
+                case "getHistory":
+                    return history;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    /**
+     * History of given completed 1 min bars
+     */
+    private static IHistory history(List<IBar> bars) {
+        return (IHistory) Proxy.newProxyInstance(EasyIndicatorsTest.class.getClassLoader(), new Class<?>[]{IHistory.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getBar":
+                    return bars.get(bars.size() - 1);
+                case "getBars":
+                    return bars;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    private static ITick tick(long time) {
+        return (ITick) Proxy.newProxyInstance(EasyIndicatorsTest.class.getClassLoader(), new Class<?>[]{ITick.class}, (proxy, method, args) -> {
+            if (method.getName().equals("getTime")) {
+                return time;
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+}
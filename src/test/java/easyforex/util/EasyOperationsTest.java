@@ -65,4 +65,25 @@ public class EasyOperationsTest {
 
         assertEquals(expected, result);
     }
+
+    @Test
+    public void valuesCrossed_ArraysCrossedDownwardsEarly_ReturnsMinus5() {
+        double[] fast = {3.0, 1.0, 1.0, 1.0, 1.0, 1.0};
+        double[] slow = {2.0, 2.0, 2.0, 2.0, 2.0, 2.0};
+
+        int result = EasyOperations.valuesCrossed(fast, slow);
+
+        assertEquals(-5, result);
+    }
+
+    @Test
+    public void valuesCrossed_RingBufferCrossedUpwards_Returns2() {
+        // oldest value at index 3: fast 1.0, 1.0, 3.0, 3.0 / slow 2.0
+        double[] fast = {3.0, 3.0, 0.0, 1.0, 1.0};
+        double[] slow = {2.0, 2.0, 9.0, 2.0, 2.0};
+
+        int result = EasyOperations.valuesCrossed(fast, slow, 3, 4);
+
+        assertEquals(2, result);
+    }
 }
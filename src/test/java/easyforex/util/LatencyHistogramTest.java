@@ -0,0 +1,50 @@
+package easyforex.util;
+
+import java.util.Arrays;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void getValueAtPercentile_RandomValues_WithinBucketPrecision() {
+        Random random = new Random(17L);
+        long[] values = new long[100_000];
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.exp(random.nextDouble() * 25);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double percentile : new double[]{1, 50, 90, 99, 99.9, 100}) {
+            long exact = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+            long result = histogram.getValueAtPercentile(percentile);
+            assertTrue(percentile + ": " + result + " < " + exact, result >= exact);
+            assertTrue(percentile + ": " + result + " > " + exact, result <= exact + exact / 32);
+        }
+        assertEquals(values[values.length - 1], histogram.getMax());
+        assertEquals(values.length, histogram.getCount());
+    }
+
+    @Test
+    public void index_BucketBoundaries_Contiguous() {
+        for (int index = 0; index < LatencyHistogram.index(Long.MAX_VALUE); index++) {
+            assertEquals(LatencyHistogram.highestValue(index) + 1, LatencyHistogram.lowestValue(index + 1));
+            assertEquals(index, LatencyHistogram.index(LatencyHistogram.lowestValue(index)));
+            assertEquals(index, LatencyHistogram.index(LatencyHistogram.highestValue(index)));
+        }
+    }
+
+    @Test
+    public void reset_Recorded_Empty() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1000);
+        histogram.reset();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getValueAtPercentile(99));
+        assertEquals(0, histogram.getMean(), 0);
+    }
+}
@@ -0,0 +1,129 @@
+package easyforex.util;
+
+import com.dukascopy.api.IMessage;
+import com.dukascopy.api.IOrder;
+import com.dukascopy.api.JFException;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class OrderFuturesTest {
+
+    @Test
+    public void onMessage_OrderFilled_FutureCompleted() throws Exception {
+        OrderFutures futures = new OrderFutures("test");
+        IOrder order = order("test1", IOrder.State.CREATED);
+        CompletableFuture<IOrder> future = futures.track(order, System.nanoTime());
+        assertFalse(future.isDone());
+
+        futures.onMessage(message(IMessage.Type.ORDER_FILL_OK, order));
+
+        assertSame(order, future.get());
+        assertEquals(0, futures.getPendingCount());
+        assertEquals(1, futures.getFillLatency().getCount());
+    }
+
+    @Test
+    public void onMessage_OrderRejected_FutureFailed() {
+        OrderFutures futures = new OrderFutures("test");
+        IOrder order = order("test1", IOrder.State.CREATED);
+        CompletableFuture<IOrder> future = futures.track(order, System.nanoTime());
+
+        futures.onMessage(message(IMessage.Type.ORDER_SUBMIT_REJECTED, order));
+
+        assertFailed(future);
+        assertEquals(0, futures.getPendingCount());
+    }
+
+    @Test
+    public void onMessage_ClosedBeforeFill_FutureFailed() {
+        OrderFutures futures = new OrderFutures("test");
+        IOrder order = order("test1", IOrder.State.OPENED);
+        CompletableFuture<IOrder> future = futures.track(order, System.nanoTime());
+
+        futures.onMessage(message(IMessage.Type.ORDER_CLOSE_OK, order));
+
+        assertFailed(future);
+    }
+
+    @Test
+    public void onMessage_OtherStrategyOrder_Ignored() {
+        OrderFutures futures = new OrderFutures("test");
+        IOrder order = order("test1", IOrder.State.CREATED);
+        CompletableFuture<IOrder> future = futures.track(order, System.nanoTime());
+
+        futures.onMessage(message(IMessage.Type.ORDER_FILL_OK, order("other1", IOrder.State.FILLED)));
+
+        assertFalse(future.isDone());
+        assertEquals(1, futures.getPendingCount());
+    }
+
+    @Test
+    public void failAll_PendingOrders_AllFilledFails() {
+        OrderFutures futures = new OrderFutures("test");
+        IOrder filled = order("test1", IOrder.State.CREATED);
+        IOrder pending = order("test2", IOrder.State.CREATED);
+        List<CompletableFuture<IOrder>> submitted = Arrays.asList(futures.track(filled, System.nanoTime()), futures.track(pending, System.nanoTime()));
+        CompletableFuture<List<IOrder>> all = OrderFutures.allFilled(submitted);
+        futures.onMessage(message(IMessage.Type.ORDER_FILL_OK, filled));
+
+        futures.failAll("stopped");
+
+        assertFailed(all);
+        assertEquals(0, futures.getPendingCount());
+    }
+
+    @Test
+    public void track_AlreadyFilled_FutureCompleted() throws Exception {
+        OrderFutures futures = new OrderFutures("test");
+        IOrder order = order("test1", IOrder.State.FILLED);
+
+        CompletableFuture<IOrder> future = futures.track(order, System.nanoTime());
+
+        assertSame(order, future.get());
+        assertEquals(0, futures.getPendingCount());
+    }
+
+    private static void assertFailed(CompletableFuture<?> future) {
+        try {
+            future.get();
+            fail("Future not failed");
+        } catch (ExecutionException ex) {
+            assertTrue(ex.getCause() instanceof JFException);
+        } catch (InterruptedException ex) {
+            fail("Interrupted");
+        }
+    }
+
+    private static IOrder order(String label, IOrder.State state) {
+        return (IOrder) Proxy.newProxyInstance(OrderFuturesTest.class.getClassLoader(), new Class<?>[]{IOrder.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getLabel":
+                    return label;
+                case "getState":
+                    return state;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    private static IMessage message(IMessage.Type type, IOrder order) {
+        return (IMessage) Proxy.newProxyInstance(OrderFuturesTest.class.getClassLoader(), new Class<?>[]{IMessage.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getType":
+                    return type;
+                case "getOrder":
+                    return order;
+                case "getContent":
+                    return null;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+}
@@ -0,0 +1,83 @@
+package easyforex.util;
+
+import com.dukascopy.api.IMessage;
+import com.dukascopy.api.IOrder;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class OrderIndexTest {
+
+    @Test
+    public void getOrders_ClosedBeforeMessage_Skipped() {
+        OrderIndex index = new OrderIndex("test");
+        IOrder.State[] state = {IOrder.State.FILLED};
+        IOrder closed = order("test1", state);
+        IOrder open = order("test2", new IOrder.State[]{IOrder.State.FILLED});
+        index.load(Arrays.asList(closed, open));
+
+        state[0] = IOrder.State.CLOSED;
+
+        assertEquals(Collections.singletonList(open), index.getOrders());
+        assertEquals(1, index.size());
+        assertNull(index.getOrder("test1"));
+    }
+
+    @Test
+    public void onMessage_CloseOk_OrderRemoved() {
+        OrderIndex index = new OrderIndex("test");
+        IOrder.State[] state = {IOrder.State.FILLED};
+        IOrder order = order("test1", state);
+        index.add(order);
+        assertEquals(1, index.size());
+
+        state[0] = IOrder.State.CLOSED;
+        index.onMessage(message(IMessage.Type.ORDER_CLOSE_OK, order));
+
+        assertTrue(index.isEmpty());
+    }
+
+    @Test
+    public void load_OtherStrategyOrders_Ignored() {
+        OrderIndex index = new OrderIndex("test");
+
+        index.load(Arrays.asList(order("other1", new IOrder.State[]{IOrder.State.FILLED})));
+
+        assertTrue(index.isEmpty());
+    }
+
+    /**
+     * Order with given label, state[0] is its current state
+     */
+    private static IOrder order(String label, IOrder.State[] state) {
+        return (IOrder) Proxy.newProxyInstance(OrderIndexTest.class.getClassLoader(), new Class<?>[]{IOrder.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getLabel":
+                    return label;
+                case "getState":
+                    return state[0];
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    private static IMessage message(IMessage.Type type, IOrder order) {
+        return (IMessage) Proxy.newProxyInstance(OrderIndexTest.class.getClassLoader(), new Class<?>[]{IMessage.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getType":
+                    return type;
+                case "getOrder":
+                    return order;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+}
@@ -0,0 +1,104 @@
+package easyforex.util;
+
+import com.dukascopy.api.IAccount;
+import com.dukascopy.api.IContext;
+import com.dukascopy.api.ICurrency;
+import com.dukascopy.api.IJFUtils;
+import com.dukascopy.api.Instrument;
+import com.dukascopy.api.JFException;
+import java.lang.reflect.Proxy;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class PipValueCacheTest {
+
+    private String accountCurrency;
+    // returned by platform conversion
+    private double convertedPipValue;
+
+    @Test
+    public void onTick_InverseCross_PipValueFromCrossAsk() throws JFException {
+        // GBP/USD on EUR account: 0.0001 USD = 0.0001 / EURUSD ask EUR
+        PipValueCache cache = cache("EUR", 0.0001 / 1.25);
+        assertEquals(Instrument.EURUSD, PipValueCache.getCrossInstrument(Instrument.GBPUSD, "EUR"));
+        assertEquals(0.0001 / 1.25, cache.getPipValue(Instrument.GBPUSD), 1e-12);
+
+        cache.onTick(Instrument.EURUSD, new SimpleTick(1000, 1.20, 1.19, 1, 1));
+
+        assertEquals(0.0001 / 1.20, cache.getPipValue(Instrument.GBPUSD), 1e-12);
+        assertEquals(1, cache.getConversionCount());
+        assertEquals(1, cache.getTickRefreshCount());
+    }
+
+    @Test
+    public void onTick_DirectCross_PipValueFromCrossBid() throws JFException {
+        // EUR/USD on JPY account: 0.0001 USD = 0.0001 * USDJPY bid JPY
+        PipValueCache cache = cache("JPY", 0.0001 * 100);
+        assertEquals(Instrument.USDJPY, PipValueCache.getCrossInstrument(Instrument.EURUSD, "JPY"));
+        cache.getPipValue(Instrument.EURUSD);
+
+        cache.onTick(Instrument.USDJPY, new SimpleTick(1000, 110.02, 110.0, 1, 1));
+
+        assertEquals(0.0001 * 110.0, cache.getPipValue(Instrument.EURUSD), 1e-12);
+    }
+
+    @Test
+    public void getPipValue_BaseCurrencyAccount_InstrumentIsCross() throws JFException {
+        // USD/JPY on USD account: 0.01 JPY = 0.01 / USDJPY ask USD
+        PipValueCache cache = cache("USD", 0.01 / 100);
+        assertEquals(Instrument.USDJPY, PipValueCache.getCrossInstrument(Instrument.USDJPY, "USD"));
+        cache.getPipValue(Instrument.USDJPY);
+
+        cache.onTick(Instrument.USDJPY, new SimpleTick(1000, 125.0, 124.98, 1, 1));
+
+        assertEquals(0.01 / 125.0, cache.getPipValue(Instrument.USDJPY), 1e-12);
+    }
+
+    @Test
+    public void getPipValue_QuoteCurrencyAccount_ConstantNotExpired() throws JFException {
+        PipValueCache cache = cache("USD", 0.0001);
+        assertNull(PipValueCache.getCrossInstrument(Instrument.EURUSD, "USD"));
+
+        cache.getPipValue(Instrument.EURUSD);
+        cache.onTick(Instrument.EURUSD, new SimpleTick(10 * PipValueCache.DEFAULT_MAX_AGE, 1.2, 1.19, 1, 1));
+
+        assertEquals(0.0001, cache.getPipValue(Instrument.EURUSD), 0);
+        assertEquals(1, cache.getConversionCount());
+        assertEquals(0, cache.getTickRefreshCount());
+    }
+
+    @Test
+    public void getPipValue_NoCrossTicks_ConvertedAgainAfterMaxAge() throws JFException {
+        PipValueCache cache = cache("EUR", 0.00008);
+        cache.getPipValue(Instrument.GBPUSD);
+
+        cache.onTick(Instrument.GBPUSD, new SimpleTick(PipValueCache.DEFAULT_MAX_AGE + 1, 1.3, 1.29, 1, 1));
+        convertedPipValue = 0.00009;
+
+        assertEquals(0.00009, cache.getPipValue(Instrument.GBPUSD), 0);
+        assertEquals(2, cache.getConversionCount());
+    }
+
+    private PipValueCache cache(String currency, double pipValue) {
+        accountCurrency = currency;
+        convertedPipValue = pipValue;
+        ClassLoader loader = getClass().getClassLoader();
+        ICurrency icurrency = (ICurrency) Proxy.newProxyInstance(loader, new Class<?>[]{ICurrency.class},
+                (proxy, method, args) -> method.getName().equals("getCurrencyCode") || method.getName().equals("toString") ? accountCurrency : null);
+        IAccount account = (IAccount) Proxy.newProxyInstance(loader, new Class<?>[]{IAccount.class},
+                (proxy, method, args) -> method.getName().equals("getAccountCurrency") ? icurrency : 10_000.0);
+        IJFUtils utils = (IJFUtils) Proxy.newProxyInstance(loader, new Class<?>[]{IJFUtils.class},
+                (proxy, method, args) -> convertedPipValue);
+        IContext context = (IContext) Proxy.newProxyInstance(loader, new Class<?>[]{IContext.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getAccount":
+                    return account;
+                case "getUtils":
+                    return utils;
+                default:
+                    return null;
+            }
+        });
+        return new PipValueCache(context);
+    }
+}
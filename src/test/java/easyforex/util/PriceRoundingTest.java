@@ -0,0 +1,73 @@
+package easyforex.util;
+
+import com.dukascopy.api.Instrument;
+import java.math.BigDecimal;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Compares rounding with {@code BigDecimal} HALF_UP on random values
+ */
+public class PriceRoundingTest {
+
+    private static final int SAMPLES = 200_000;
+
+    @Test
+    public void round_RandomPrices_MatchesBigDecimal() {
+        Random random = new Random(20180401L);
+        for (int places = 1; places <= 6; places++) {
+            for (int i = 0; i < SAMPLES; i++) {
+                double value = random.nextDouble() * Math.pow(10, random.nextInt(7) - 2);
+                assertMatches(random.nextBoolean() ? value : -value, places);
+            }
+        }
+    }
+
+    @Test
+    public void round_ValuesNearTies_MatchesBigDecimal() {
+        Random random = new Random(7L);
+        for (int places = 1; places <= 6; places++) {
+            double factor = Math.pow(10, places);
+            for (int i = 0; i < SAMPLES; i++) {
+                double tie = (random.nextInt(10_000_000) + 0.5) / factor;
+                assertMatches(tie, places);
+                assertMatches(Math.nextUp(tie), places);
+                assertMatches(Math.nextDown(tie), places);
+                assertMatches(-tie, places);
+            }
+        }
+    }
+
+    @Test
+    public void round_SpecialValues_MatchesBigDecimal() {
+        double[] values = {0.0, -0.0, Double.MIN_VALUE, -Double.MIN_VALUE, 1e-7, -1e-7, 0.5, 1.5, 2.5,
+            1e15, 1e17 + 0.5, Double.MAX_VALUE};
+        for (int places = 1; places <= 6; places++) {
+            for (double value : values) {
+                assertMatches(value, places);
+            }
+        }
+    }
+
+    @Test
+    public void round_Instrument_RoundsToTickSize() {
+        assertEquals(1.12346, PriceRounding.round(Instrument.EURUSD, 1.123455), 0);
+        assertEquals(112.346, PriceRounding.round(Instrument.USDJPY, 112.3455), 0);
+        assertEquals(0.00001, PriceRounding.getTickSize(Instrument.EURUSD), 0);
+    }
+
+    @Test
+    public void round_Array_RoundsEveryValue() {
+        double[] ladder = {1.100004, 1.1000151, 1.1000251};
+        double[] result = PriceRounding.round(Instrument.EURUSD, ladder, ladder);
+
+        assertArrayEquals(new double[]{1.1, 1.10002, 1.10003}, result, 0);
+    }
+
+    private static void assertMatches(double value, int places) {
+        double expected = new BigDecimal(value).setScale(places, BigDecimal.ROUND_HALF_UP).doubleValue();
+        double result = PriceRounding.round(value, places);
+        assertEquals("round(" + value + ", " + places + ")", Double.doubleToLongBits(expected), Double.doubleToLongBits(result));
+    }
+}
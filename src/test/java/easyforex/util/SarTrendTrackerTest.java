@@ -0,0 +1,81 @@
+package easyforex.util;
+
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Compares incremental trend with scanning SAR values backwards
+ */
+public class SarTrendTrackerTest {
+
+    @Test
+    public void update_RandomSars_MatchesBackwardScan() {
+        int length = 300;
+        Random random = new Random(5L);
+        boolean[] rising = new boolean[length];
+        SarTrendTracker tracker = new SarTrendTracker();
+
+        for (int i = 0; i < length; i++) {
+            rising[i] = random.nextInt(4) > 0 ? (i > 0 && rising[i - 1]) : random.nextBoolean();
+            double sar = rising[i] ? 0.5 : 2.5;
+            boolean flip = tracker.update(i * 60_000L, sar, 1, 2);
+
+            int run = 0;
+            while (run <= i && rising[i - run] == rising[i]) {
+                run++;
+            }
+            assertEquals(rising[i], tracker.isRising());
+            assertEquals(!rising[i], tracker.isFalling());
+            assertEquals(run, tracker.getRunLength());
+            assertEquals(run <= i ? run - 1 : -1, tracker.getBarsSinceFlip());
+            assertEquals(i > 0 && rising[i] != rising[i - 1], flip);
+        }
+    }
+
+    @Test
+    public void update_SameBarTwice_Ignored() {
+        SarTrendTracker tracker = new SarTrendTracker();
+        tracker.update(60_000, 0.5, 1, 2);
+        tracker.update(60_000, 0.5, 1, 2);
+
+        assertEquals(1, tracker.getRunLength());
+    }
+
+    @Test
+    public void update_SarEqualsPreviousLow_Rising() {
+        SarTrendTracker tracker = new SarTrendTracker();
+        tracker.update(60_000, 0.9, 1.0, 1.2);
+
+        tracker.update(120_000, 1.0, 1.05, 1.3);
+
+        assertTrue(tracker.isRising());
+        assertEquals(2, tracker.getRunLength());
+    }
+
+    @Test
+    public void update_SarEqualsHighOfFlipBar_Falling() {
+        SarTrendTracker tracker = new SarTrendTracker();
+        tracker.update(60_000, 0.9, 1.0, 1.2);
+
+        boolean flip = tracker.update(120_000, 1.2, 0.95, 1.2);
+
+        assertTrue(flip);
+        assertTrue(tracker.isFalling());
+    }
+
+    @Test
+    public void update_SarInsideBar_BarNotAdded() {
+        SarTrendTracker tracker = new SarTrendTracker();
+        tracker.update(60_000, 0.5, 1, 2);
+        try {
+            tracker.update(120_000, 1.5, 1, 2);
+            fail("Sar inside bar accepted");
+        } catch (IllegalStateException ex) {
+            // expected
+        }
+
+        assertEquals(60_000, tracker.getLastBarTime());
+        assertEquals(1, tracker.getRunLength());
+    }
+}
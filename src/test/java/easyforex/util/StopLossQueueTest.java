@@ -0,0 +1,133 @@
+package easyforex.util;
+
+import com.dukascopy.api.IMessage;
+import com.dukascopy.api.IOrder;
+import com.dukascopy.api.JFException;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class StopLossQueueTest {
+
+    @Test
+    public void flush_OneOrderFails_OtherOrdersSent() throws Exception {
+        StopLossQueue queue = new StopLossQueue(0, 0, null);
+        Map<String, Double> stopLosses = new HashMap<>();
+        IOrder failing = order("failing", stopLosses, true);
+        IOrder other = order("other", stopLosses, false);
+        queue.requestAll(Arrays.asList(failing, other), 1.1);
+
+        try {
+            queue.flush(1000);
+            fail("Failure of the first order not thrown");
+        } catch (JFException ex) {
+            assertEquals("rejected", ex.getMessage());
+        }
+
+        assertEquals(1.1, stopLosses.get("other"), 0);
+        assertEquals(1, queue.getSentCount());
+    }
+
+    @Test
+    public void request_SetStopLossFails_NextRequestSent() throws Exception {
+        StopLossQueue queue = new StopLossQueue(0, 0, null);
+        Map<String, Double> stopLosses = new HashMap<>();
+        boolean[] fail = {true};
+        IOrder order = order("order", stopLosses, fail);
+        try {
+            queue.request(order, 1.1, 1000);
+            fail("Failure not thrown");
+        } catch (JFException ex) {
+            // expected
+        }
+        fail[0] = false;
+
+        queue.request(order, 1.2, 2000);
+
+        assertEquals(1.2, stopLosses.get("order"), 0);
+    }
+
+    @Test
+    public void flush_PreviousChangeFailed_ChangeResent() throws Exception {
+        StopLossQueue queue = new StopLossQueue(5000, 0, null);
+        Map<String, Double> stopLosses = new HashMap<>();
+        boolean[] fail = {true};
+        IOrder order = order("order", stopLosses, fail);
+        try {
+            queue.request(order, 1.1, 1000);
+            fail("Failure not thrown");
+        } catch (JFException ex) {
+            // expected
+        }
+        fail[0] = false;
+
+        queue.flush(1001);
+
+        assertEquals(1.1, stopLosses.get("order"), 0);
+        assertEquals(1, queue.getSentCount());
+    }
+
+    @Test
+    public void onMessage_ChangeConfirmed_SendsMergedRequest() throws Exception {
+        StopLossQueue queue = new StopLossQueue(0, 0, null);
+        Map<String, Double> stopLosses = new HashMap<>();
+        IOrder order = order("order", stopLosses, false);
+        queue.request(order, 1.1, 1000);
+        queue.request(order, 1.2, 1001);
+        queue.request(order, 1.3, 1002);
+        assertEquals(1.1, stopLosses.get("order"), 0);
+
+        queue.onMessage(message(IMessage.Type.ORDER_CHANGED_OK, order, 1003));
+
+        assertEquals(1.3, stopLosses.get("order"), 0);
+        assertEquals(2, queue.getSentCount());
+        assertEquals(1, queue.getMergedCount());
+    }
+
+    private static IOrder order(String label, Map<String, Double> stopLosses, boolean fail) {
+        return order(label, stopLosses, new boolean[]{fail});
+    }
+
+    /**
+     * Filled order storing its stop loss to given map, setting stop loss
+     * throws while fail[0] is true
+     */
+    private static IOrder order(String label, Map<String, Double> stopLosses, boolean[] fail) {
+        return (IOrder) Proxy.newProxyInstance(StopLossQueueTest.class.getClassLoader(), new Class<?>[]{IOrder.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getLabel":
+                    return label;
+                case "getState":
+                    return IOrder.State.FILLED;
+                case "getStopLossPrice":
+                    return stopLosses.getOrDefault(label, 0.0);
+                case "setStopLossPrice":
+                    if (fail[0]) {
+                        throw new JFException("rejected");
+                    }
+                    stopLosses.put(label, (Double) args[0]);
+                    return null;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    private static IMessage message(IMessage.Type type, IOrder order, long time) {
+        return (IMessage) Proxy.newProxyInstance(StopLossQueueTest.class.getClassLoader(), new Class<?>[]{IMessage.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getType":
+                    return type;
+                case "getOrder":
+                    return order;
+                case "getCreationTime":
+                    return time;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+}